@@ -0,0 +1,70 @@
+package edu.stevens.ssw555;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads GEDCOM bytes from any stream into a reusable heap buffer. Used for pipes, small files
+ * and anything that cannot be memory-mapped.
+ */
+public class BufferedGedcomInput extends GedcomInput {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream in;
+    private byte[] bytes;
+    private ByteBuffer buffer;
+    private int limit = 0;
+    private boolean eof = false;
+
+    public BufferedGedcomInput(InputStream in) {
+        this(in, DEFAULT_BUFFER_SIZE);
+    }
+
+    public BufferedGedcomInput(InputStream in, int bufferSize) {
+        this.in = in;
+        this.bytes = new byte[bufferSize];
+        this.buffer = ByteBuffer.wrap(bytes);
+    }
+
+    @Override
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    @Override
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public boolean isEof() {
+        return eof;
+    }
+
+    @Override
+    public void fill(int keep) throws IOException {
+        int remaining = limit - keep;
+        if (remaining == bytes.length) {
+            byte[] grown = new byte[bytes.length * 2];
+            System.arraycopy(bytes, keep, grown, 0, remaining);
+            bytes = grown;
+            buffer = ByteBuffer.wrap(bytes);
+        } else if (keep > 0) {
+            System.arraycopy(bytes, keep, bytes, 0, remaining);
+        }
+        limit = remaining;
+        int read = in.read(bytes, limit, bytes.length - limit);
+        if (read < 0) {
+            eof = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -2,9 +2,7 @@ package edu.stevens.ssw555;
 
 import java.io.IOException;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -13,8 +11,6 @@ import java.util.stream.Collectors;
  * Created by trollo on 6/21/17.
  */
 public class DeathValidations {
-    private SimpleDateFormat dateFormat = new SimpleDateFormat("D MMM YYYY");
-
     public void printDeceasedFamilyMemberList(List<String> deceasedList, Map<String, Map<String, String>> individualAttributes) throws IOException {
         for (String deceasedId : deceasedList) {
             System.out.print("INFO: INDIVIDUAL: US29: Individual is deceased: ");
@@ -24,6 +20,20 @@ public class DeathValidations {
         System.out.println();
     }
 
+    public void printDeceasedFamilyMemberList(List<String> deceasedList, GedcomDocument document) throws IOException {
+        printDeceasedFamilyMemberList(deceasedList, document.getIndividualAttributeMaps());
+    }
+
+    public List<String> listDeceasedIndividuals(GedcomDocument document) {
+        List<String> deceased = new ArrayList<>();
+        for (GedcomIndividual individual : document.getIndividuals()) {
+            if (individual.isDeceased()) {
+                deceased.add(individual.getLabel());
+            }
+        }
+        return deceased;
+    }
+
     //Takes complete listing of family members from GEDCOM file and produces a list of deceased family members
     public List<String> listDeceasedFamilyMembers(Map<String, Map<String, String>> individualsAttributeMap) {
         if (individualsAttributeMap != null) {
@@ -37,25 +47,38 @@ public class DeathValidations {
         }
     }
 
+    //Compares the packed dates, so a partial death date is only reported when it is certainly before the marriage
+    public List<String> validateMarriagesBeforeDeath(GedcomDocument document) throws ParseException {
+        List<String> results = new ArrayList<>();
+        for (GedcomFamily family : document.getFamilies()) {
+            long marriageDate = family.getMarriage();
+            boolean invalid = (family.getWife() >= 0 && GedcomDate.isBefore(document.individual(family.getWife()).getDeath(), marriageDate))
+                    || (family.getHusband() >= 0 && GedcomDate.isBefore(document.individual(family.getHusband()).getDeath(), marriageDate));
+            if (invalid) {
+                results.add(marriageAfterDeath(family.getXref(), family.getHusbandName(), family.getWifeName()));
+            }
+        }
+        return results;
+    }
+
     public List<String> validateMarriagesBeforeDeath(Map<String, Map<String, Object>> familyAttributeMap, Map<String, Map<String, String>> individualsAttributeMap) throws ParseException {
         if (individualsAttributeMap != null && familyAttributeMap != null) {
             List<String> results = new ArrayList<>();
             for (Map.Entry<String, Map<String, Object>> family : familyAttributeMap.entrySet()) {
                 String husbandId = (String) family.getValue().get("husband");
                 String wifeId = (String) family.getValue().get("wife");
-                Date marriageDate = dateFormat.parse((String) family.getValue().get("married"));
+                long marriageDate = GedcomDate.parse((String) family.getValue().get("married"));
                 if (!Boolean.parseBoolean(individualsAttributeMap.get(husbandId).get("alive")) || !Boolean.parseBoolean(individualsAttributeMap.get(wifeId).get("alive"))) {
                     boolean invalid = false;
                     if (!"NA".equals(individualsAttributeMap.get(wifeId).get("death"))) {
-                        Date death = dateFormat.parse(individualsAttributeMap.get(wifeId).get("death"));
-                        invalid = death.before(marriageDate);
+                        invalid = GedcomDate.isBefore(GedcomDate.parse(individualsAttributeMap.get(wifeId).get("death")), marriageDate);
                     }
                     if (!"NA".equals(individualsAttributeMap.get(husbandId).get("death")) && !invalid) {
-                        Date death = dateFormat.parse(individualsAttributeMap.get(husbandId).get("death"));
-                        invalid = death.before(marriageDate);
+                        invalid = GedcomDate.isBefore(GedcomDate.parse(individualsAttributeMap.get(husbandId).get("death")), marriageDate);
                     }
                     if (invalid) {
-                        results.add("ERROR: FAMILY: US05: Marriage Occurred After Death: Family=" + family.getKey() + " Husband=" + ((String) family.getValue().get("husbandName")).replace("/", "") + " Wife=" + ((String) family.getValue().get("wifeName")).replace("/", ""));
+                        results.add(marriageAfterDeath(family.getKey(), (String) family.getValue().get("husbandName"),
+                                (String) family.getValue().get("wifeName")));
                     }
                 }
             }
@@ -64,4 +87,8 @@ public class DeathValidations {
             return new ArrayList<>();
         }
     }
+
+    private static String marriageAfterDeath(String family, String husbandName, String wifeName) {
+        return "ERROR: FAMILY: US05: Marriage Occurred After Death: Family=" + family + " Husband=" + husbandName.replace("/", "") + " Wife=" + wifeName.replace("/", "");
+    }
 }
@@ -2,6 +2,8 @@ package edu.stevens.ssw555;
 
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 
 public class Family {
@@ -10,9 +12,12 @@ public class Family {
     private String husb;
     private String marriage;
     private String divorce;
+    private long marriageDate = GedcomDate.MISSING;
+    private long divorceDate = GedcomDate.MISSING;
 
     private String wife;
     private ArrayList<String> child;
+    private List<GedcomAttribute> attributes = Collections.emptyList();
 
     public String getId() {
         return id;
@@ -50,6 +55,23 @@ public class Family {
         this.divorce = divorce;
     }
 
+    //Packed by GedcomDate; unlike getMarriage() also set for partial and approximate dates
+    public long getMarriageDate() {
+        return marriageDate;
+    }
+
+    public void setMarriageDate(long marriageDate) {
+        this.marriageDate = marriageDate;
+    }
+
+    public long getDivorceDate() {
+        return divorceDate;
+    }
+
+    public void setDivorceDate(long divorceDate) {
+        this.divorceDate = divorceDate;
+    }
+
     public void setWife(String wife) {
         this.wife = wife;
     }
@@ -62,6 +84,15 @@ public class Family {
         this.child = child;
     }
 
+    //Lines the parser keeps without interpreting them (PLAC, SOUR, _CURRENT, ...)
+    public List<GedcomAttribute> getAttributes() {
+        return attributes;
+    }
+
+    public void setAttributes(List<GedcomAttribute> attributes) {
+        this.attributes = attributes;
+    }
+
     //constructor
     public Family(String id) {
         this.id = id;
@@ -86,6 +117,15 @@ public class Family {
 
     }
 
+    //A copy to edit: records in a GedcomTree are shared between versions and never changed in place
+    public Family(Family other) {
+        this(other.id, other.husb, other.marriage, other.divorce, other.wife,
+                other.child != null ? new ArrayList<>(other.child) : null);
+        this.marriageDate = other.marriageDate;
+        this.divorceDate = other.divorceDate;
+        this.attributes = other.attributes;
+    }
+
 
     public String toString() {
         return "family [id=" + id + ", husb=" + husb + ", wife=" + wife + ", child=" + child + "]";
@@ -22,6 +22,33 @@ public class FamilyValidations {
         System.out.println();
     }
 
+    //Groups the children of families with five or more by their packed birth date; only exact dates are
+    //compared, as in the attribute maps
+    public Map<String, Map<String, String>> validateNoMoreThanFiveSameBirthDaysinFamily(GedcomDocument document) {
+        Map<String, Map<String, String>> invalidBirthDateFamilies = new HashMap<>();
+        GedcomIndex childCounts = document.getIndexes().get(GedcomIndexes.Name.CHILD_COUNT);
+        for (int id : childCounts.range(5, Long.MAX_VALUE)) {
+            GedcomFamily family = document.family(id);
+            if (family.childCount() < 5) {
+                continue;
+            }
+            Map<Long, List<String>> namesByBirth = new HashMap<>();
+            for (int i = 0; i < family.childCount(); i++) {
+                GedcomIndividual child = document.individual(family.child(i));
+                if (GedcomDate.isExact(child.getBirth())) {
+                    namesByBirth.computeIfAbsent(child.getBirth(), birth -> new ArrayList<>()).add(child.getName());
+                }
+            }
+            for (Map.Entry<Long, List<String>> birth : namesByBirth.entrySet()) {
+                if (birth.getValue().size() >= 5) {
+                    invalidBirthDateFamilies.computeIfAbsent(family.getXref(), xref -> new HashMap<>())
+                            .put(GedcomDate.format(birth.getKey()), String.join(", ", birth.getValue()));
+                }
+            }
+        }
+        return invalidBirthDateFamilies;
+    }
+
     public Map<String, Map<String, String>> validateNoMoreThanFiveSameBirthDaysinFamily(Map<String, Map<String, Object>> familyAttributeMap, Map<String, Map<String, String>> individualsAttributeMap) {
         if (individualsAttributeMap != null && familyAttributeMap != null) {
             Map<String, Map<String, String>> invalidBirthDateFamilies = new HashMap<>();
@@ -29,6 +56,10 @@ public class FamilyValidations {
                 Map<String, Map<String, Object>> birthCountMap = new HashMap<>();
                 if (!family.getValue().get("children").equals("")) {
                     for (String childId : (List<String>) family.getValue().get("children")) {
+                        //Partial or approximate birthdays are not kept in the attribute maps and do not make children share a birthday
+                        if ("".equals(individualsAttributeMap.get(childId).get("birth"))) {
+                            continue;
+                        }
                         if (birthCountMap.containsKey(individualsAttributeMap.get(childId).get("birth"))) {
                             Map<String, Object> birthData = birthCountMap.get(individualsAttributeMap.get(childId).get("birth"));
                             birthData.put("count", (Integer) birthData.get("count") + 1);
@@ -62,6 +93,67 @@ public class FamilyValidations {
         }
     }
 
+    //US16: the husband and every son share a surname; compares the surname refs, so no name is split.
+    //The husband's surname is the family's, else the first son's; people without a surname are not compared
+    public List<String> maleLastNames(GedcomDocument document) {
+        GedcomStore store = document.getStore();
+        List<String> results = new ArrayList<>();
+        for (GedcomFamily family : document.getFamilies()) {
+            int surname = family.getHusband() >= 0 ? store.surnameRef(family.getHusband()) : -1;
+            List<String> others = new ArrayList<>();
+            for (int i = 0; i < family.childCount(); i++) {
+                int child = family.child(i);
+                int childSurname = store.surnameRef(child);
+                if (!store.isSex(child, 'M') || childSurname < 0) {
+                    continue;
+                }
+                if (surname < 0) {
+                    surname = childSurname;
+                } else if (childSurname != surname) {
+                    others.add(store.getIndividualIds().label(child) + " " + store.surname(child));
+                }
+            }
+            if (!others.isEmpty()) {
+                results.add("ERROR: FAMILY: US16: Male members of family=" + family.getLabel() + " do not all have the last name "
+                        + store.getSurnames().get(surname) + ": " + String.join(", ", others));
+            }
+        }
+        return results;
+    }
+
+    //US24: no two families with the same husband, wife and marriage date; only families of one couple are compared,
+    //and only when both marriage dates are known, so two undated marriages are not taken for the same one
+    public List<String> uniqueFamiliesBySpouses(GedcomDocument document) {
+        List<String> results = new ArrayList<>();
+        GedcomIndex couples = document.getIndexes().get(GedcomIndexes.Name.SPOUSE_PAIR);
+        GedcomAdjacency families = couples.getIds();
+        for (int couple = 0; couple < couples.keyCount(); couple++) {
+            for (int i = families.start(couple); i < families.end(couple); i++) {
+                GedcomFamily family = document.family(families.target(i));
+                if (!GedcomDate.isKnown(family.getMarriage())) {
+                    continue;
+                }
+                for (int j = i + 1; j < families.end(couple); j++) {
+                    GedcomFamily other = document.family(families.target(j));
+                    if (family.getMarriage() == other.getMarriage()) {
+                        results.add("ERROR: FAMILY: US24: Families " + family.getLabel() + " and " + other.getLabel()
+                                + " have the same spouses " + family.getHusbandName() + " and " + family.getWifeName()
+                                + " and marriage date " + GedcomDate.format(family.getMarriage()));
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    public List<String> fewerThanFifteenChildren(GedcomDocument document) {
+        List<String> results = new ArrayList<>();
+        for (int id : document.getIndexes().get(GedcomIndexes.Name.CHILD_COUNT).range(16, Long.MAX_VALUE)) {
+            results.add("ERROR: FAMILY: US15: More than 15 siblings in family=" + document.family(id).getLabel());
+        }
+        return results;
+    }
+
     public List<String> fewerThanFifteenChildren(Map<String, Map<String, Object>> familyAttributes) {
         List<String> results = new ArrayList<>();
         for (Map.Entry<String, Map<String, Object>> family : familyAttributes.entrySet()) {
@@ -0,0 +1,116 @@
+package edu.stevens.ssw555;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+
+/**
+ * One-to-many links between dense ids in compressed sparse row form: the targets of source i are
+ * targets[offsets[i]] .. targets[offsets[i + 1] - 1], in the order the links were added. Both columns
+ * are int buffers, on the heap or in the {@link GedcomOffHeap} the document was built in or moved to.
+ */
+public final class GedcomAdjacency {
+
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+
+    GedcomAdjacency(int[] offsets, int[] targets) {
+        this(IntBuffer.wrap(offsets), IntBuffer.wrap(targets));
+    }
+
+    GedcomAdjacency(IntBuffer offsets, IntBuffer targets) {
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    public int sourceCount() {
+        return offsets.capacity() - 1;
+    }
+
+    public int degree(int source) {
+        return offsets.get(source + 1) - offsets.get(source);
+    }
+
+    public int get(int source, int index) {
+        return targets.get(offsets.get(source) + index);
+    }
+
+    //Position of the first target of source in targets(); loop up to end(source)
+    public int start(int source) {
+        return offsets.get(source);
+    }
+
+    public int end(int source) {
+        return offsets.get(source + 1);
+    }
+
+    public int target(int position) {
+        return targets.get(position);
+    }
+
+    public boolean contains(int source, int target) {
+        for (int i = offsets.get(source); i < offsets.get(source + 1); i++) {
+            if (targets.get(i) == target) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    GedcomAdjacency copyTo(GedcomOffHeap target) throws IOException {
+        return new GedcomAdjacency(target.copy(offsets), target.copy(targets));
+    }
+
+    /**
+     * Collects (source, target) pairs in any order and lays them out by source with a counting sort,
+     * keeping the insertion order within each source. The pairs and the laid-out columns are kept in
+     * buffers of the builder's {@link GedcomOffHeap}.
+     */
+    static class Builder {
+
+        private final GedcomOffHeap columns;
+        private IntBuffer sources;
+        private IntBuffer targets;
+        private int size;
+
+        Builder() {
+            this(GedcomOffHeap.HEAP);
+        }
+
+        Builder(GedcomOffHeap columns) {
+            this.columns = columns;
+            this.sources = columns.ints(16);
+            this.targets = columns.ints(16);
+        }
+
+        void add(int source, int target) {
+            sources = columns.grow(sources, size, 0);
+            targets = columns.grow(targets, size, 0);
+            sources.put(size, source);
+            targets.put(size, target);
+            size++;
+        }
+
+        GedcomAdjacency build(int sourceCount) {
+            IntBuffer offsets = columns.ints(sourceCount + 1);
+            for (int i = 0; i < size; i++) {
+                int next = sources.get(i) + 1;
+                offsets.put(next, offsets.get(next) + 1);
+            }
+            for (int i = 0; i < sourceCount; i++) {
+                offsets.put(i + 1, offsets.get(i + 1) + offsets.get(i));
+            }
+            IntBuffer laidOut = columns.ints(size);
+            IntBuffer next = columns.ints(sourceCount);
+            for (int i = 0; i < sourceCount; i++) {
+                next.put(i, offsets.get(i));
+            }
+            for (int i = 0; i < size; i++) {
+                int source = sources.get(i);
+                int position = next.get(source);
+                laidOut.put(position, targets.get(i));
+                next.put(source, position + 1);
+            }
+            return new GedcomAdjacency(offsets, laidOut);
+        }
+    }
+}
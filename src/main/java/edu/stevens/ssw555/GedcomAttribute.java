@@ -0,0 +1,32 @@
+package edu.stevens.ssw555;
+
+/**
+ * A GEDCOM line kept as-is because no user story interprets it, such as "BIRT.PLAC",
+ * "NAME.GIVN" or a custom "_MARNM" tag. Keeping these means a parse loses no data.
+ */
+public class GedcomAttribute {
+
+    private final String path;
+    private final String value;
+
+    public GedcomAttribute(String path, String value) {
+        this.path = path;
+        this.value = value;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public boolean isCustom() {
+        return path.startsWith("_") || path.contains("._");
+    }
+
+    public String toString() {
+        return path + "=" + value;
+    }
+}
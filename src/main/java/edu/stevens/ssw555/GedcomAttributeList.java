@@ -0,0 +1,73 @@
+package edu.stevens.ssw555;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The uninterpreted lines of one record, as a read-only list of {@link GedcomAttribute}.
+ * Only the line indices and a detached copy of the record's bytes are kept; path and value
+ * Strings are built when an element is read, so lines no rule looks at are never decoded.
+ */
+final class GedcomAttributeList extends AbstractList<GedcomAttribute> {
+
+    private final GedcomRecord record;
+    private final int[] lines;
+
+    private GedcomAttributeList(GedcomRecord record, int[] lines) {
+        this.record = record;
+        this.lines = lines;
+    }
+
+    @Override
+    public GedcomAttribute get(int index) {
+        return new GedcomAttribute(record.getPath(lines[index]), record.getValue(lines[index]));
+    }
+
+    @Override
+    public int size() {
+        return lines.length;
+    }
+
+    /**
+     * Collects line indices while a parser walks a record.
+     */
+    static class Builder {
+
+        private int[] lines = new int[8];
+        private int size;
+
+        void add(int line) {
+            if (size == lines.length) {
+                int[] grown = new int[lines.length * 2];
+                System.arraycopy(lines, 0, grown, 0, size);
+                lines = grown;
+            }
+            lines[size++] = line;
+        }
+
+        //Adds every line of the subtree below the given line except skip, e.g. PLAC and SOUR under BIRT but not its DATE
+        void addDescendants(GedcomRecord record, int line, int skip) {
+            for (int i = line + 1; i < record.getEnd(line); i++) {
+                if (i != skip) {
+                    add(i);
+                }
+            }
+        }
+
+        //Adds the line together with its whole subtree
+        void addSubtree(GedcomRecord record, int line) {
+            add(line);
+            addDescendants(record, line, -1);
+        }
+
+        List<GedcomAttribute> build(GedcomRecord record) {
+            if (size == 0) {
+                return Collections.emptyList();
+            }
+            int[] trimmed = new int[size];
+            System.arraycopy(lines, 0, trimmed, 0, size);
+            return new GedcomAttributeList(record.detach(), trimmed);
+        }
+    }
+}
@@ -0,0 +1,491 @@
+package edu.stevens.ssw555;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Validates many GEDCOM files without prompting. Every file is parsed once on one of a fixed number of
+ * worker threads and checked by the user stories that return their findings instead of printing them;
+ * each file gets its own report and the batch ends with a summary of findings, problems and throughput.
+ * Only a few files per worker are queued at a time, so a large archive is never queued up at once; the
+ * dispatching thread waits for a worker to finish a file rather than validating one itself. Given an
+ * off-heap target, each file is parsed into direct buffers or into a mapped file of its own, which is
+ * deleted once the file is validated.
+ */
+public class GedcomBatch {
+
+    public static final String REPORT_SUFFIX = ".report.txt";
+    public static final String SUMMARY_FILE = "gedcom_batch_summary.txt";
+    public static final String COLUMNS_SUFFIX = ".columns";
+
+    //Queued files per worker before the dispatching thread waits for one to finish
+    private static final int QUEUE_PER_WORKER = 4;
+
+    private final int workers;
+    private final Path outputDirectory;
+    private final String offHeap;
+
+    //Reports next to each input file
+    public GedcomBatch(int workers) {
+        this(workers, null);
+    }
+
+    //Reports and the summary in outputDirectory, or next to each input file when it is null
+    public GedcomBatch(int workers, Path outputDirectory) {
+        this(workers, outputDirectory, null);
+    }
+
+    //Columns of each parse in direct buffers for "direct", else mapped to a file per input in the directory
+    //offHeap names; on the heap when it is null
+    public GedcomBatch(int workers, Path outputDirectory, String offHeap) {
+        this.workers = Math.max(1, workers);
+        this.outputDirectory = outputDirectory;
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Outcome of validating one file: what was read, how many findings each user story had, and the
+     * error that stopped the file if there was one.
+     */
+    public static final class Result {
+
+        private final Path file;
+        private final Path report;
+        private final Map<String, Integer> findings = new LinkedHashMap<>();
+        private long bytes;
+        private int individuals;
+        private int families;
+        private long problems;
+        private long nanos;
+        private String error;
+
+        Result(Path file, Path report) {
+            this.file = file;
+            this.report = report;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public Path getReport() {
+            return report;
+        }
+
+        public boolean isOk() {
+            return error == null;
+        }
+
+        //Why the file could not be validated, or null
+        public String getError() {
+            return error;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public int getIndividuals() {
+            return individuals;
+        }
+
+        public int getFamilies() {
+            return families;
+        }
+
+        //Diagnostics logged by the parse
+        public long getProblems() {
+            return problems;
+        }
+
+        //Findings by user story, in the order the stories ran; stories without findings are included with 0
+        public Map<String, Integer> getFindings() {
+            return Collections.unmodifiableMap(findings);
+        }
+
+        public int getFindingCount() {
+            int count = 0;
+            for (int value : findings.values()) {
+                count += value;
+            }
+            return count;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+
+    /**
+     * Results of a batch in input order, with the wall-clock time of the whole run.
+     */
+    public static final class Summary {
+
+        private final List<Result> results;
+        private final long nanos;
+
+        Summary(List<Result> results, long nanos) {
+            this.results = Collections.unmodifiableList(results);
+            this.nanos = nanos;
+        }
+
+        public List<Result> getResults() {
+            return results;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public int getFailedCount() {
+            int failed = 0;
+            for (Result result : results) {
+                if (!result.isOk()) {
+                    failed++;
+                }
+            }
+            return failed;
+        }
+
+        public long getBytes() {
+            long bytes = 0;
+            for (Result result : results) {
+                bytes += result.getBytes();
+            }
+            return bytes;
+        }
+
+        public double getFilesPerSecond() {
+            return nanos > 0 ? results.size() * 1e9 / nanos : 0;
+        }
+
+        //Findings of every file added up by user story
+        public Map<String, Long> getFindings() {
+            Map<String, Long> totals = new LinkedHashMap<>();
+            for (Result result : results) {
+                for (Map.Entry<String, Integer> entry : result.findings.entrySet()) {
+                    Long previous = totals.get(entry.getKey());
+                    totals.put(entry.getKey(), (previous != null ? previous : 0) + entry.getValue());
+                }
+            }
+            return totals;
+        }
+
+        public String format() {
+            long problems = 0;
+            for (Result result : results) {
+                problems += result.getProblems();
+            }
+            double seconds = nanos / 1e9;
+            StringBuilder text = new StringBuilder();
+            text.append(String.format("Batch summary: %,d files, %,d ok, %,d failed%n", results.size(),
+                    results.size() - getFailedCount(), getFailedCount()));
+            text.append(String.format("  %,d bytes in %.3f s: %.1f files/s, %.1f MB/s%n", getBytes(), seconds,
+                    getFilesPerSecond(), seconds > 0 ? getBytes() / (1024.0 * 1024.0) / seconds : 0));
+            text.append(String.format("  parse problems     %,d%n", problems));
+            for (Map.Entry<String, Long> entry : getFindings().entrySet()) {
+                text.append(String.format("  %-18s %,d%n", entry.getKey(), entry.getValue()));
+            }
+            for (Result result : results) {
+                if (!result.isOk()) {
+                    text.append("  FAILED ").append(result.getFile()).append(": ").append(result.getError())
+                            .append(String.format("%n"));
+                }
+            }
+            return text.toString();
+        }
+    }
+
+    //Validates the files on the worker pool and writes one report per file and the summary
+    public Summary run(List<Path> files) throws IOException, InterruptedException {
+        if (outputDirectory != null) {
+            Files.createDirectories(outputDirectory);
+        }
+        if (offHeap != null && !offHeap.equals("direct")) {
+            Files.createDirectories(Paths.get(offHeap));
+        }
+        AtomicInteger threads = new AtomicInteger();
+        ThreadFactory factory = task -> {
+            Thread thread = new Thread(task, "gedcom-batch-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ExecutorService pool = Executors.newFixedThreadPool(workers, factory);
+        //A permit per file running or queued; with none left the dispatching thread blocks, so only the workers validate
+        Semaphore slots = new Semaphore(workers * (1 + QUEUE_PER_WORKER));
+        long start = System.nanoTime();
+        List<Future<Result>> futures = new ArrayList<>(files.size());
+        Set<String> reportNames = new HashSet<>();
+        try {
+            for (Path file : files) {
+                Path report = reportPath(file, reportNames);
+                slots.acquire();
+                futures.add(pool.submit(() -> {
+                    try {
+                        return validateInColumns(file, report);
+                    } finally {
+                        slots.release();
+                    }
+                }));
+            }
+            List<Result> results = new ArrayList<>(files.size());
+            for (Future<Result> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    //validate() catches everything it expects; anything else is a bug worth seeing
+                    throw new IllegalStateException("Batch validation failed", e.getCause());
+                }
+            }
+            Summary summary = new Summary(results, System.nanoTime() - start);
+            Path summaryFile = outputDirectory != null ? outputDirectory.resolve(SUMMARY_FILE) : Paths.get(SUMMARY_FILE);
+            Files.write(summaryFile, summary.format().getBytes(StandardCharsets.UTF_8));
+            return summary;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    //"<file>.report.txt" next to the file, or in the output directory with a counter when two inputs share a name
+    private Path reportPath(Path file, Set<String> reportNames) {
+        String name = file.getFileName() + REPORT_SUFFIX;
+        if (outputDirectory == null) {
+            return file.resolveSibling(name);
+        }
+        String unique = name;
+        for (int i = 2; !reportNames.add(unique); i++) {
+            unique = file.getFileName() + "-" + i + REPORT_SUFFIX;
+        }
+        return outputDirectory.resolve(unique);
+    }
+
+    //Validates with the columns where the batch puts them; a mapped file is named after the report
+    private Result validateInColumns(Path file, Path report) {
+        if (offHeap == null) {
+            return validate(file, report);
+        }
+        if (offHeap.equals("direct")) {
+            return validate(file, report, GedcomOffHeap.direct());
+        }
+        Path columns = Paths.get(offHeap).resolve(report.getFileName() + COLUMNS_SUFFIX);
+        Result result = null;
+        try {
+            try (GedcomOffHeap target = GedcomOffHeap.mapped(columns)) {
+                result = validate(file, report, target);
+            } finally {
+                Files.deleteIfExists(columns);
+            }
+        } catch (IOException e) {
+            if (result == null) {
+                result = new Result(file, report);
+                result.error = "Cannot map columns to " + columns + ": " + e.getMessage();
+            }
+        }
+        return result;
+    }
+
+    //Parses one file, runs the user stories on it and writes its report; failures end up in the result
+    static Result validate(Path file, Path report) {
+        return validate(file, report, null);
+    }
+
+    //As above with the columns of the parse in columns, or on the heap when it is null
+    static Result validate(Path file, Path report, GedcomOffHeap columns) {
+        Result result = new Result(file, report);
+        long start = System.nanoTime();
+        StringBuilder text = new StringBuilder();
+        text.append("File: ").append(file).append(String.format("%n"));
+        try {
+            GedcomDocument document = new GedcomService(columns).parse(file.toString());
+            result.bytes = document.getStats().getBytes();
+            result.individuals = document.getIndividualIds().size();
+            result.families = document.getFamilyIds().size();
+            result.problems = document.getDiagnostics().getCount();
+            text.append(String.format("Individuals: %,d  Families: %,d  Bytes: %,d%n", result.individuals,
+                    result.families, result.bytes));
+            for (Map.Entry<String, List<String>> story : findings(document).entrySet()) {
+                result.findings.put(story.getKey(), story.getValue().size());
+                text.append(String.format("%s: %d%n", story.getKey(), story.getValue().size()));
+                for (String finding : story.getValue()) {
+                    text.append("  ").append(finding).append(String.format("%n"));
+                }
+            }
+            if (!document.getDiagnostics().isEmpty()) {
+                text.append(document.getDiagnostics().summary());
+            }
+        } catch (Exception e) {
+            result.error = e.getClass().getSimpleName() + (e.getMessage() != null ? ": " + e.getMessage() : "");
+            text.append("FAILED: ").append(result.error).append(String.format("%n"));
+        }
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(Files.newBufferedWriter(report, StandardCharsets.UTF_8)))) {
+            out.print(text);
+        } catch (IOException e) {
+            if (result.error == null) {
+                result.error = "Cannot write report " + report + ": " + e.getMessage();
+            }
+        }
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    //Findings of every user story that reports through a return value; the ones that only print are left out
+    static Map<String, List<String>> findings(GedcomDocument document) throws Exception {
+        Map<String, List<String>> stories = new LinkedHashMap<>();
+        stories.put("US01", futureDates(document));
+        stories.put("US02", new US02().checkBirthBeforeMarr(document));
+        stories.put("US05", new DeathValidations().validateMarriagesBeforeDeath(document));
+        stories.put("US06", new MarriageValidations().validateDivorceBeforeDeath(document));
+        stories.put("US10", new US10().checkMarriedAfter14(document));
+        stories.put("US12", new US12().checkParentsNotOld(document));
+        stories.put("US13", new US13().checkSiblingSpacing(document));
+        stories.put("US14", sameBirthDays(document));
+        stories.put("US15", new FamilyValidations().fewerThanFifteenChildren(document));
+        stories.put("US16", new FamilyValidations().maleLastNames(document));
+        stories.put("US21", new US21().checkMaleFemale(document));
+        stories.put("US24", new FamilyValidations().uniqueFamiliesBySpouses(document));
+        stories.put("US25", new US25().checkUniqueNameNBday(document));
+        stories.put("US31", new US31().checkNeverMarried(document));
+        return stories;
+    }
+
+    //US01 only prints, so its date check is applied to the maps us01() fills
+    private static List<String> futureDates(GedcomDocument document) throws Exception {
+        US01 userStory = new US01();
+        userStory.us01(document);
+        List<String> invalid = new ArrayList<>();
+        addFutureDates(userStory, invalid, "birth", userStory.birthdays, true);
+        addFutureDates(userStory, invalid, "death", userStory.deathdays, true);
+        addFutureDates(userStory, invalid, "marriage", userStory.marriage, false);
+        addFutureDates(userStory, invalid, "divorce", userStory.divorce, false);
+        return invalid;
+    }
+
+    private static void addFutureDates(US01 userStory, List<String> invalid, String event, SortedMap<Integer, String> dates,
+                                       boolean individual) throws Exception {
+        for (Map.Entry<Integer, String> entry : dates.entrySet()) {
+            if (!userStory.checkDate(entry.getValue())) {
+                String label = individual ? userStory.individualLabel(entry.getKey()) : userStory.familyLabel(entry.getKey());
+                invalid.add(label + " " + event + " " + entry.getValue());
+            }
+        }
+    }
+
+    //"family birthday: names" for every birthday shared by five or more children, sorted so reports compare
+    private static List<String> sameBirthDays(GedcomDocument document) {
+        List<String> invalid = new ArrayList<>();
+        Map<String, Map<String, String>> families = new TreeMap<>(
+                new FamilyValidations().validateNoMoreThanFiveSameBirthDaysinFamily(document));
+        for (Map.Entry<String, Map<String, String>> family : families.entrySet()) {
+            for (Map.Entry<String, String> birthday : new TreeMap<>(family.getValue()).entrySet()) {
+                invalid.add(family.getKey() + " " + birthday.getKey() + ": " + birthday.getValue());
+            }
+        }
+        return invalid;
+    }
+
+    //Files named by the arguments: a file, a directory (every *.ged, *.ged.gz and *.zip below it) or a glob such as "archive/**/*.ged"
+    public static List<Path> expand(List<String> arguments) throws IOException {
+        Set<Path> files = new LinkedHashSet<>();
+        for (String argument : arguments) {
+            int glob = firstGlobCharacter(argument);
+            if (glob < 0) {
+                Path path = Paths.get(argument);
+                if (Files.isDirectory(path)) {
+                    files.addAll(walk(path, GedcomBatch::isGedcomFile));
+                } else if (Files.isRegularFile(path)) {
+                    files.add(path);
+                } else {
+                    System.err.println("No such file or directory: " + argument);
+                }
+                continue;
+            }
+            //The glob applies below the last directory before its first wildcard
+            int slash = Math.max(argument.lastIndexOf('/', glob), argument.lastIndexOf('\\', glob));
+            Path base = Paths.get(slash >= 0 ? argument.substring(0, slash + 1) : ".");
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + argument.substring(slash + 1));
+            if (Files.isDirectory(base)) {
+                files.addAll(walk(base, path -> matcher.matches(base.relativize(path))));
+            }
+        }
+        return new ArrayList<>(files);
+    }
+
+    private static int firstGlobCharacter(String argument) {
+        for (int i = 0; i < argument.length(); i++) {
+            if ("*?[{".indexOf(argument.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    //Plain, gzipped and zipped GEDCOM files; GedcomInput decompresses the last two by their magic bytes
+    private static boolean isGedcomFile(Path path) {
+        String name = path.getFileName().toString().toLowerCase();
+        return name.endsWith(".ged") || name.endsWith(".ged.gz") || name.endsWith(".zip");
+    }
+
+    //Regular files below directory that pass the filter, sorted so batches run in a stable order
+    private static List<Path> walk(Path directory, Predicate<Path> filter) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile).filter(filter).sorted().collect(Collectors.toList());
+        }
+    }
+
+    //Usage: GedcomBatch [--workers N] [--out DIR] [--off-heap direct|DIR] <file, directory or glob>...
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int workers = Runtime.getRuntime().availableProcessors();
+        Path outputDirectory = null;
+        String offHeap = null;
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        while (arguments.size() > 1 && arguments.get(0).startsWith("--")) {
+            String option = arguments.remove(0);
+            String value = arguments.remove(0);
+            if (option.equals("--workers")) {
+                workers = Integer.parseInt(value);
+            } else if (option.equals("--out")) {
+                outputDirectory = Paths.get(value);
+            } else if (option.equals("--off-heap")) {
+                offHeap = value;
+            } else {
+                arguments.clear();
+            }
+        }
+        if (arguments.isEmpty()) {
+            System.err.println("Usage: GedcomBatch [--workers N] [--out DIR] [--off-heap direct|DIR] <file, directory or glob>...");
+            System.exit(1);
+        }
+        List<Path> files = expand(arguments);
+        Summary summary = new GedcomBatch(workers, outputDirectory, offHeap).run(files);
+        System.out.print(summary.format());
+        System.exit(summary.getFailedCount() == 0 ? 0 : 2);
+    }
+}
@@ -0,0 +1,138 @@
+package edu.stevens.ssw555;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.Arrays;
+
+/**
+ * Character sets a GEDCOM file can declare in HEAD.CHAR. Values are decoded straight from the
+ * reader's byte buffer; lines that are pure ASCII, as nearly all are, are copied without running
+ * a decoder. UNICODE (UTF-16) files are transcoded to UTF-8 by {@link GedcomInput} before they
+ * are tokenized, so they decode as UTF-8 here.
+ */
+public enum GedcomCharset {
+
+    UTF_8 {
+        @Override
+        String decodeNonAscii(byte[] bytes, int offset, int length) {
+            return new String(bytes, offset, length, StandardCharsets.UTF_8);
+        }
+    },
+
+    //Files that say ASCII but carry 8-bit bytes are almost always UTF-8 in practice
+    ASCII {
+        @Override
+        String decodeNonAscii(byte[] bytes, int offset, int length) {
+            return new String(bytes, offset, length, StandardCharsets.UTF_8);
+        }
+    },
+
+    ANSI {
+        @Override
+        String decodeNonAscii(byte[] bytes, int offset, int length) {
+            return new String(bytes, offset, length, WINDOWS_1252);
+        }
+    },
+
+    ANSEL {
+        @Override
+        String decodeNonAscii(byte[] bytes, int offset, int length) {
+            StringBuilder text = new StringBuilder(length);
+            StringBuilder marks = new StringBuilder();
+            for (int i = offset; i < offset + length; i++) {
+                int b = bytes[i] & 0xff;
+                char c = b < 0x80 ? (char) b : ANSEL_TABLE[b - 0x80];
+                if (b >= 0xe0 && c != REPLACEMENT) {
+                    //ANSEL puts combining marks before the base letter, Unicode after it
+                    marks.append(c);
+                    continue;
+                }
+                text.append(c).append(marks);
+                marks.setLength(0);
+            }
+            text.append(marks);
+            return Normalizer.normalize(text, Normalizer.Form.NFC);
+        }
+    };
+
+    private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+    private static final char REPLACEMENT = '\ufffd';
+
+    //ANSEL (ANSI Z39.47) bytes 0x80-0xFF with the GEDCOM additions; 0xE0 and up are combining marks
+    private static final char[] ANSEL_TABLE = new char[128];
+
+    static {
+        Arrays.fill(ANSEL_TABLE, REPLACEMENT);
+        int[][] mapping = {
+                {0xa1, 0x0141}, {0xa2, 0x00d8}, {0xa3, 0x0110}, {0xa4, 0x00de}, {0xa5, 0x00c6}, {0xa6, 0x0152},
+                {0xa7, 0x02b9}, {0xa8, 0x00b7}, {0xa9, 0x266d}, {0xaa, 0x00ae}, {0xab, 0x00b1}, {0xac, 0x01a0},
+                {0xad, 0x01af}, {0xae, 0x02bc}, {0xb0, 0x02bb}, {0xb1, 0x0142}, {0xb2, 0x00f8}, {0xb3, 0x0111},
+                {0xb4, 0x00fe}, {0xb5, 0x00e6}, {0xb6, 0x0153}, {0xb7, 0x02ba}, {0xb8, 0x0131}, {0xb9, 0x00a3},
+                {0xba, 0x00f0}, {0xbc, 0x01a1}, {0xbd, 0x01b0}, {0xbe, 0x25a1}, {0xbf, 0x25a0}, {0xc0, 0x00b0},
+                {0xc1, 0x2113}, {0xc2, 0x2117}, {0xc3, 0x00a9}, {0xc4, 0x266f}, {0xc5, 0x00bf}, {0xc6, 0x00a1},
+                {0xc7, 0x00df}, {0xc8, 0x20ac}, {0xcd, 0x0065}, {0xce, 0x006f}, {0xcf, 0x00df},
+                {0xe0, 0x0309}, {0xe1, 0x0300}, {0xe2, 0x0301}, {0xe3, 0x0302}, {0xe4, 0x0303}, {0xe5, 0x0304},
+                {0xe6, 0x0306}, {0xe7, 0x0307}, {0xe8, 0x0308}, {0xe9, 0x030c}, {0xea, 0x030a}, {0xeb, 0xfe20},
+                {0xec, 0xfe21}, {0xed, 0x0315}, {0xee, 0x030b}, {0xef, 0x0310}, {0xf0, 0x0327}, {0xf1, 0x0328},
+                {0xf2, 0x0323}, {0xf3, 0x0324}, {0xf4, 0x0325}, {0xf5, 0x0333}, {0xf6, 0x0332}, {0xf7, 0x0326},
+                {0xf8, 0x031c}, {0xf9, 0x032e}, {0xfa, 0xfe22}, {0xfb, 0xfe23}, {0xfe, 0x0313}
+        };
+        for (int[] entry : mapping) {
+            ANSEL_TABLE[entry[0] - 0x80] = (char) entry[1];
+        }
+    }
+
+    abstract String decodeNonAscii(byte[] bytes, int offset, int length);
+
+    public String decode(ByteBuffer buffer, int start, int end) {
+        byte[] bytes;
+        int offset;
+        if (buffer.hasArray()) {
+            bytes = buffer.array();
+            offset = buffer.arrayOffset() + start;
+        } else {
+            bytes = new byte[end - start];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(start + i);
+            }
+            offset = 0;
+        }
+        int length = end - start;
+        for (int i = offset; i < offset + length; i++) {
+            if (bytes[i] < 0) {
+                return decodeNonAscii(bytes, offset, length);
+            }
+        }
+        //Every byte is ASCII, so Latin-1 gives the same characters and is a plain copy
+        return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+    }
+
+    //Maps a HEAD.CHAR value such as "UTF-8", "ANSEL" or "UNICODE"; unknown or missing values read as UTF-8
+    public static GedcomCharset forName(String name) {
+        if (name == null) {
+            return UTF_8;
+        }
+        switch (name.trim().toUpperCase()) {
+            case "ANSEL":
+                return ANSEL;
+            case "ASCII":
+                return ASCII;
+            case "ANSI":
+                return ANSI;
+            default:
+                return UTF_8;
+        }
+    }
+
+    //Charset declared by the file's HEAD record, read without touching the rest of the file
+    public static GedcomCharset of(Path path) throws IOException {
+        try (GedcomRecordReader reader = new GedcomRecordReader(GedcomInput.open(path))) {
+            reader.next();
+            return reader.getCharset();
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package edu.stevens.ssw555;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * GEDCOM dates packed into a long at ingest, so validators compare integers instead of re-parsing strings.
+ * Full dates ("7 FEB 1990"), partial ones ("FEB 1990", "1990"), approximate ones (ABT, CAL, EST), bounds
+ * (BEF, AFT), ranges (BET ... AND ...) and periods (FROM ..., TO ..., FROM ... TO ...) are all supported, each
+ * with its own qualifier so {@link #format(long)} gives back the form that was parsed.
+ * <p>
+ * The high int holds year, month, day and the qualifier as {@code year << 13 | month << 9 | day << 4 | qualifier},
+ * with 0 for a month or day that is not given; the low int holds the end of a range in the same layout.
+ * {@link #MISSING} (0) stands for no date or one that could not be parsed. Because the qualifier sits in the low
+ * bits, only packed dates with the same qualifier sort by year, month and day ("1989" before "31 DEC 1989" before
+ * "JAN 1990"); a bound or a range does not sort where its days fall, so the packed longs are not an ordering.
+ * <p>
+ * Dates are ordered only through the interval of days each could mean, given as day keys
+ * ({@code year << 9 | month << 5 | day}) by {@link #earliest(long)} and {@link #latest(long)}: "FEB 1990" is
+ * 1 to 31 FEB 1990, "BEF 1990" is everything before 1 JAN 1990, "FROM 1990" is 1 JAN 1990 onwards, "TO 1990"
+ * is everything up to 31 DEC 1990, and approximate dates are taken as the date
+ * they qualify. The validators report a violation only when it holds for every day in those intervals,
+ * so a partial date never produces an error that a more precise date could contradict.
+ */
+public final class GedcomDate {
+
+    public static final long MISSING = 0;
+
+    public enum Qualifier {
+        BEFORE("BEF"), ABOUT("ABT"), CALCULATED("CAL"), ESTIMATED("EST"), EXACT(""), BETWEEN("BET"), AFTER("AFT"),
+        //"FROM x" and "TO x" include x, unlike AFT and BEF; PERIOD is "FROM x TO y"
+        FROM("FROM"), TO("TO"), PERIOD("FROM");
+
+        private static final Qualifier[] VALUES = values();
+
+        private final String keyword;
+
+        Qualifier(String keyword) {
+            this.keyword = keyword;
+        }
+
+        public String getKeyword() {
+            return keyword;
+        }
+    }
+
+    public enum Precision {
+        YEAR, MONTH, DAY
+    }
+
+    private static final String[] MONTHS = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+    private static final int MAX_YEAR = 9999;
+
+    private GedcomDate() {
+    }
+
+    public static long of(int year, int month, int day) {
+        return (long) word(year, month, day, Qualifier.EXACT) << 32;
+    }
+
+    public static long of(LocalDate date) {
+        return of(date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+    }
+
+    private static int word(int year, int month, int day, Qualifier qualifier) {
+        return year << 13 | month << 9 | day << 4 | qualifier.ordinal();
+    }
+
+    //Packs a GEDCOM DATE value, or returns MISSING when it is not one this class understands
+    public static long parse(String value) {
+        String[] parts = value.trim().toUpperCase().split("\\s+");
+        Qualifier qualifier = Qualifier.EXACT;
+        int from = 0;
+        switch (parts[0]) {
+            case "ABT":
+                qualifier = Qualifier.ABOUT;
+                break;
+            case "CAL":
+                qualifier = Qualifier.CALCULATED;
+                break;
+            case "EST":
+                qualifier = Qualifier.ESTIMATED;
+                break;
+            case "BEF":
+                qualifier = Qualifier.BEFORE;
+                break;
+            case "AFT":
+                qualifier = Qualifier.AFTER;
+                break;
+            case "TO":
+                qualifier = Qualifier.TO;
+                break;
+            case "BET":
+                return range(parts, "AND", Qualifier.BETWEEN);
+            case "FROM":
+                if (Arrays.asList(parts).contains("TO")) {
+                    return range(parts, "TO", Qualifier.PERIOD);
+                }
+                qualifier = Qualifier.FROM;
+                break;
+            default:
+                from = -1;
+        }
+        int start = word(parts, from + 1, parts.length, qualifier);
+        return start != 0 ? (long) start << 32 : MISSING;
+    }
+
+    //"BET x AND y" or "FROM x TO y"; the end may not come before the start
+    private static long range(String[] parts, String separator, Qualifier qualifier) {
+        int split = -1;
+        for (int i = 1; i < parts.length; i++) {
+            if (parts[i].equals(separator)) {
+                split = i;
+                break;
+            }
+        }
+        if (split < 0) {
+            return MISSING;
+        }
+        int start = word(parts, 1, split, qualifier);
+        int end = word(parts, split + 1, parts.length, Qualifier.EXACT);
+        if (start == 0 || end == 0 || latestKey(end) < earliestKey(start)) {
+            return MISSING;
+        }
+        return (long) start << 32 | end;
+    }
+
+    //"[[day] month] year" in parts[from, to), or 0
+    private static int word(String[] parts, int from, int to, Qualifier qualifier) {
+        int count = to - from;
+        if (count < 1 || count > 3) {
+            return 0;
+        }
+        int year = number(parts[to - 1], 4);
+        int month = count >= 2 ? GedcomValues.month(parts[to - 2]) : 0;
+        int day = count == 3 ? number(parts[from], 2) : 0;
+        if (year < 1 || year > MAX_YEAR || month < 0 || day < 0 || (count == 3 && (day < 1 || day > lengthOfMonth(year, month)))) {
+            return 0;
+        }
+        return word(year, month, day, qualifier);
+    }
+
+    private static int number(String text, int maxDigits) {
+        if (text.isEmpty() || text.length() > maxDigits) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static boolean isLeapYear(int year) {
+        return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    public static boolean isKnown(long date) {
+        return date != MISSING;
+    }
+
+    public static int getYear(long date) {
+        return start(date) >>> 13;
+    }
+
+    //1 to 12, or 0 when the date has no month
+    public static int getMonth(long date) {
+        return start(date) >>> 9 & 0xF;
+    }
+
+    //1 to 31, or 0 when the date has no day
+    public static int getDay(long date) {
+        return start(date) >>> 4 & 0x1F;
+    }
+
+    public static Qualifier getQualifier(long date) {
+        return Qualifier.VALUES[start(date) & 0xF];
+    }
+
+    public static Precision getPrecision(long date) {
+        return getMonth(date) == 0 ? Precision.YEAR : getDay(date) == 0 ? Precision.MONTH : Precision.DAY;
+    }
+
+    //A single day with no qualifier, such as "7 FEB 1990"
+    public static boolean isExact(long date) {
+        return isKnown(date) && getQualifier(date) == Qualifier.EXACT && getPrecision(date) == Precision.DAY;
+    }
+
+    private static int start(long date) {
+        return (int) (date >>> 32);
+    }
+
+    //First day key the date could mean
+    public static int earliest(long date) {
+        switch (getQualifier(date)) {
+            case BEFORE:
+            case TO:
+                return 0;
+            case AFTER:
+                return nextDay(latestKey(start(date)));
+            default:
+                return earliestKey(start(date));
+        }
+    }
+
+    //Last day key the date could mean
+    public static int latest(long date) {
+        switch (getQualifier(date)) {
+            case BEFORE:
+                return previousDay(earliestKey(start(date)));
+            case TO:
+                return latestKey(start(date));
+            case AFTER:
+            case FROM:
+                return Integer.MAX_VALUE;
+            case BETWEEN:
+            case PERIOD:
+                return latestKey((int) date);
+            default:
+                return latestKey(start(date));
+        }
+    }
+
+    private static int earliestKey(int word) {
+        int month = word >>> 9 & 0xF;
+        int day = word >>> 4 & 0x1F;
+        return (word >>> 13) << 9 | Math.max(month, 1) << 5 | Math.max(day, 1);
+    }
+
+    private static int latestKey(int word) {
+        int year = word >>> 13;
+        int month = word >>> 9 & 0xF;
+        int day = word >>> 4 & 0x1F;
+        month = month == 0 ? 12 : month;
+        return year << 9 | month << 5 | (day == 0 ? lengthOfMonth(year, month) : day);
+    }
+
+    //Day key of the day after, across month and year ends
+    private static int nextDay(int key) {
+        int year = key >>> 9;
+        int month = key >>> 5 & 0xF;
+        int day = key & 0x1F;
+        if (day < lengthOfMonth(year, month)) {
+            return key + 1;
+        }
+        return month < 12 ? year << 9 | (month + 1) << 5 | 1 : (year + 1) << 9 | 1 << 5 | 1;
+    }
+
+    //Day key of the day before, across month and year starts
+    private static int previousDay(int key) {
+        int year = key >>> 9;
+        int month = key >>> 5 & 0xF;
+        int day = key & 0x1F;
+        if (day > 1) {
+            return key - 1;
+        }
+        return month > 1 ? year << 9 | (month - 1) << 5 | lengthOfMonth(year, month - 1) : (year - 1) << 9 | 12 << 5 | 31;
+    }
+
+    public static int key(LocalDate date) {
+        return date.getYear() << 9 | date.getMonthValue() << 5 | date.getDayOfMonth();
+    }
+
+    public static int today() {
+        return key(LocalDate.now());
+    }
+
+    //True only when every day a could mean comes before every day b could mean; false when either is missing
+    public static boolean isBefore(long a, long b) {
+        return isKnown(a) && isKnown(b) && latest(a) < earliest(b);
+    }
+
+    public static boolean isAfter(long a, long b) {
+        return isBefore(b, a);
+    }
+
+    //Completed years from one day key to another, negative when to comes first, as Period.between(from, to).getYears()
+    public static int yearsBetween(int from, int to) {
+        if (to < from) {
+            return -yearsBetween(to, from);
+        }
+        int years = (to >>> 9) - (from >>> 9);
+        return (to & 0x1FF) < (from & 0x1FF) ? years - 1 : years;
+    }
+
+    //Completed months from one day key to another, as Period.between(from, to).toTotalMonths()
+    public static int monthsBetween(int from, int to) {
+        if (to < from) {
+            return -monthsBetween(to, from);
+        }
+        int months = ((to >>> 9) * 12 + (to >>> 5 & 0xF)) - ((from >>> 9) * 12 + (from >>> 5 & 0xF));
+        return (to & 0x1F) < (from & 0x1F) ? months - 1 : months;
+    }
+
+    public static long daysBetween(int from, int to) {
+        return epochDay(to) - epochDay(from);
+    }
+
+    //Days since 1 JAN 1970 of a day key, in integer arithmetic (proleptic Gregorian calendar)
+    private static long epochDay(int key) {
+        long year = key >>> 9;
+        long month = key >>> 5 & 0xF;
+        long day = key & 0x1F;
+        year -= month <= 2 ? 1 : 0;
+        long era = Math.floorDiv(year, 400);
+        long yearOfEra = year - era * 400;
+        long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    //GEDCOM form of the date, e.g. "7 FEB 1990", "ABT FEB 1990", "BET 1850 AND 1860" or "FROM 1850 TO 1860"; "" when missing
+    public static String format(long date) {
+        if (!isKnown(date)) {
+            return "";
+        }
+        Qualifier qualifier = getQualifier(date);
+        StringBuilder text = new StringBuilder();
+        if (qualifier != Qualifier.EXACT) {
+            text.append(qualifier.getKeyword()).append(' ');
+        }
+        appendWord(text, start(date));
+        if (qualifier == Qualifier.BETWEEN) {
+            appendWord(text.append(" AND "), (int) date);
+        } else if (qualifier == Qualifier.PERIOD) {
+            appendWord(text.append(" TO "), (int) date);
+        }
+        return text.toString();
+    }
+
+    private static void appendWord(StringBuilder text, int word) {
+        int month = word >>> 9 & 0xF;
+        int day = word >>> 4 & 0x1F;
+        if (day > 0) {
+            text.append(day).append(' ');
+        }
+        if (month > 0) {
+            text.append(MONTHS[month - 1]).append(' ');
+        }
+        text.append(word >>> 13);
+    }
+}
@@ -0,0 +1,171 @@
+package edu.stevens.ssw555;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Problems found while parsing, kept as a compact log of (line, byte offset, reason) entries in
+ * primitive arrays instead of exceptions. The parser records a problem, substitutes a safe default
+ * and keeps going. Every problem is counted, but only the first {@link #getLimit()} are kept, so a
+ * badly broken file cannot exhaust memory through its diagnostics.
+ */
+public final class GedcomDiagnostics {
+
+    public static final int DEFAULT_LIMIT = 10_000;
+
+    public enum Reason {
+        MALFORMED_LINE("line has no level or tag"),
+        MISSING_XREF("INDI or FAM record has no cross-reference id"),
+        MISSING_NAME("individual has no NAME"),
+        BAD_NAME("NAME is not \"given /surname/\""),
+        BAD_DATE("DATE is not a GEDCOM date"),
+        MISSING_SPOUSE("family has no HUSB or WIFE"),
+        UNKNOWN_REFERENCE("HUSB or WIFE points at an undefined individual");
+
+        private static final Reason[] VALUES = values();
+
+        private final String description;
+
+        Reason(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private final int limit;
+    private int[] lines = new int[16];
+    private long[] offsets = new long[16];
+    private byte[] reasons = new byte[16];
+    private int size;
+    private final long[] counts = new long[Reason.VALUES.length];
+
+    public GedcomDiagnostics() {
+        this(DEFAULT_LIMIT);
+    }
+
+    public GedcomDiagnostics(int limit) {
+        this.limit = limit;
+    }
+
+    //Line numbers start at 1; offset is the byte offset of the start of the line in the input
+    public void add(Reason reason, int line, long offset) {
+        counts[reason.ordinal()]++;
+        if (size == limit) {
+            return;
+        }
+        if (size == lines.length) {
+            int capacity = (int) Math.min((long) limit, size * 2L);
+            int[] grownLines = new int[capacity];
+            long[] grownOffsets = new long[capacity];
+            byte[] grownReasons = new byte[capacity];
+            System.arraycopy(lines, 0, grownLines, 0, size);
+            System.arraycopy(offsets, 0, grownOffsets, 0, size);
+            System.arraycopy(reasons, 0, grownReasons, 0, size);
+            lines = grownLines;
+            offsets = grownOffsets;
+            reasons = grownReasons;
+        }
+        lines[size] = line;
+        offsets[size] = offset;
+        reasons[size] = (byte) reason.ordinal();
+        size++;
+    }
+
+    //Problem on the given line of a record
+    public void add(Reason reason, GedcomRecord record, int index) {
+        add(reason, record.getLineNumber(index), record.getOffset(index));
+    }
+
+    //Appends another log, e.g. one chunk of a parallel parse whose line numbers start after lineShift lines
+    public void addAll(GedcomDiagnostics other, int lineShift) {
+        long[] notKept = other.counts.clone();
+        for (int i = 0; i < other.size; i++) {
+            add(other.getReason(i), other.lines[i] + lineShift, other.offsets[i]);
+            notKept[other.reasons[i]]--;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += notKept[i];
+        }
+    }
+
+    //For logs restored from a snapshot, where only the kept entries were stored one by one
+    void setCount(Reason reason, long count) {
+        counts[reason.ordinal()] = count;
+    }
+
+    //Number of entries kept
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return getCount() == 0;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public Reason getReason(int index) {
+        return Reason.VALUES[reasons[index]];
+    }
+
+    public int getLine(int index) {
+        return lines[index];
+    }
+
+    public long getOffset(int index) {
+        return offsets[index];
+    }
+
+    //Number of problems found, including those past the limit
+    public long getCount() {
+        long count = 0;
+        for (long reasonCount : counts) {
+            count += reasonCount;
+        }
+        return count;
+    }
+
+    public long getCount(Reason reason) {
+        return counts[reason.ordinal()];
+    }
+
+    //Only the reasons that occurred, in Reason order
+    public Map<Reason, Long> getCounts() {
+        Map<Reason, Long> byReason = new EnumMap<>(Reason.class);
+        for (Reason reason : Reason.VALUES) {
+            if (counts[reason.ordinal()] > 0) {
+                byReason.put(reason, counts[reason.ordinal()]);
+            }
+        }
+        return byReason;
+    }
+
+    //e.g. "line 12 (offset 345): DATE is not a GEDCOM date"
+    public String format(int index) {
+        return "line " + lines[index] + " (offset " + offsets[index] + "): " + getReason(index).getDescription();
+    }
+
+    public String summary() {
+        StringBuilder text = new StringBuilder(String.format("Diagnostics: %,d problems%n", getCount()));
+        for (Map.Entry<Reason, Long> entry : getCounts().entrySet()) {
+            text.append(String.format("  %-18s %,d%n", entry.getKey(), entry.getValue()));
+        }
+        for (int i = 0; i < size; i++) {
+            text.append("  ").append(format(i)).append(String.format("%n"));
+        }
+        if (getCount() > size) {
+            text.append(String.format("  ... %,d more not kept%n", getCount() - size));
+        }
+        return text.toString();
+    }
+
+    @Override
+    public String toString() {
+        return summary();
+    }
+}
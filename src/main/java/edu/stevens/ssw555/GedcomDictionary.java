@@ -0,0 +1,83 @@
+package edu.stevens.ssw555;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns strings to dense ints 0..size()-1 in the order they are first seen, so a value repeated
+ * on many records (a name, a family xref) is stored once and the records keep only its int.
+ * A dictionary built or moved off the heap keeps its values in a {@link GedcomStringColumn}; a moved
+ * one is read-only.
+ */
+public final class GedcomDictionary {
+
+    private final Map<String, Integer> ids;
+    private final List<String> values;
+    private final GedcomStringColumn packed;
+
+    public GedcomDictionary() {
+        this.ids = new HashMap<>();
+        this.values = new ArrayList<>();
+        this.packed = null;
+    }
+
+    //A dictionary interning into columns of target, or on the heap for GedcomOffHeap.HEAP
+    GedcomDictionary(GedcomOffHeap target) {
+        this.ids = target.isHeap() ? new HashMap<>() : null;
+        this.values = target.isHeap() ? new ArrayList<>() : null;
+        this.packed = target.isHeap() ? null : GedcomStringColumn.create(target);
+    }
+
+    private GedcomDictionary(GedcomStringColumn packed) {
+        this.ids = null;
+        this.values = null;
+        this.packed = packed;
+    }
+
+    int intern(String value) {
+        if (packed != null) {
+            if (packed.isReadOnly()) {
+                throw new IllegalStateException("A dictionary moved off the heap is read-only");
+            }
+            return packed.intern(value);
+        }
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = values.size();
+            ids.put(value, id);
+            values.add(value);
+        }
+        return id;
+    }
+
+    //Id of the value, or -1 when it was never interned
+    public int id(String value) {
+        if (packed != null) {
+            return packed.id(value);
+        }
+        Integer id = ids.get(value);
+        return id != null ? id : -1;
+    }
+
+    public String get(int id) {
+        return packed != null ? packed.get(id) : values.get(id);
+    }
+
+    public int size() {
+        return packed != null ? packed.size() : values.size();
+    }
+
+    GedcomDictionary copyTo(GedcomOffHeap target) throws IOException {
+        List<String> copied = values;
+        if (packed != null) {
+            copied = new ArrayList<>(size());
+            for (int i = 0; i < size(); i++) {
+                copied.add(get(i));
+            }
+        }
+        return new GedcomDictionary(GedcomStringColumn.copy(copied, target));
+    }
+}
@@ -0,0 +1,398 @@
+package edu.stevens.ssw555;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable result of parsing a GEDCOM file once. Every user story and validation
+ * reads from the same document instead of re-parsing the input file.
+ * <p>
+ * The records live in a columnar {@link GedcomStore}. The typed {@link GedcomIndividual} and
+ * {@link GedcomFamily} records, and the space-joined rows and attribute maps the older user stories
+ * read, are built from it the first time they are asked for. The {@link GedcomIndexes} are built once by
+ * whoever creates the document, at the end of a parse or a snapshot load, so rules running on several
+ * threads all read the same finished indexes.
+ */
+public final class GedcomDocument {
+
+    private final GedcomStore store;
+    private final Map<String, List<GedcomAttribute>> passthroughAttributes;
+    private final GedcomParseStats stats;
+    private final GedcomDiagnostics diagnostics;
+
+    private volatile List<GedcomIndividual> individuals;
+    private volatile List<GedcomFamily> families;
+    private volatile SortedMap<Integer, String> individualData;
+    private volatile SortedMap<Integer, String> familyData;
+    private volatile Map<String, Map<String, String>> individualAttributeMaps;
+    private volatile Map<String, Map<String, Object>> familyAttributeMaps;
+    private volatile GedcomProjections projections;
+    private final GedcomIndexes indexes;
+
+    GedcomDocument(GedcomStore store, Map<String, List<GedcomAttribute>> passthroughAttributes,
+                   GedcomParseStats stats, GedcomDiagnostics diagnostics, GedcomIndexes indexes) {
+        this.store = store;
+        Map<String, List<GedcomAttribute>> passthrough = new HashMap<>();
+        for (Map.Entry<String, List<GedcomAttribute>> entry : passthroughAttributes.entrySet()) {
+            //Not copied: copying would decode every lazily kept line
+            passthrough.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+        }
+        this.passthroughAttributes = Collections.unmodifiableMap(passthrough);
+        this.stats = stats;
+        this.diagnostics = diagnostics;
+        this.indexes = indexes;
+    }
+
+    public static GedcomDocument parse(String gedcomInputFile) throws IOException, ParseException {
+        return new GedcomService().parse(gedcomInputFile);
+    }
+
+    //Every individual, indexed by id
+    public List<GedcomIndividual> getIndividuals() {
+        List<GedcomIndividual> records = individuals;
+        if (records == null) {
+            synchronized (this) {
+                if (individuals == null) {
+                    GedcomIdTable ids = store.getIndividualIds();
+                    GedcomLinkGraph links = store.getLinks();
+                    GedcomIndividual[] built = new GedcomIndividual[store.individualCount()];
+                    for (int i = 0; i < built.length; i++) {
+                        built[i] = new GedcomIndividual(i, ids.xref(i), ids.label(i), store.name(i), store.sex(i),
+                                store.getDates().birth(i), store.getDates().death(i), store.isDeceased(i),
+                                store.spouseFamily(i) != null, targets(links.childFamilies(), i), targets(links.spouseFamilies(), i));
+                    }
+                    individuals = Collections.unmodifiableList(Arrays.asList(built));
+                }
+                records = individuals;
+            }
+        }
+        return records;
+    }
+
+    //Every family, indexed by id
+    public List<GedcomFamily> getFamilies() {
+        List<GedcomFamily> records = families;
+        if (records == null) {
+            synchronized (this) {
+                if (families == null) {
+                    GedcomIdTable ids = store.getFamilyIds();
+                    GedcomLinkGraph links = store.getLinks();
+                    GedcomFamily[] built = new GedcomFamily[store.familyCount()];
+                    for (int i = 0; i < built.length; i++) {
+                        built[i] = new GedcomFamily(i, ids.xref(i), ids.label(i), store.getDates().marriage(i),
+                                store.getDates().divorce(i), links.husband(i), links.wife(i), spouse(store.husband(i))[1],
+                                spouse(store.wife(i))[1], store.childCount(i), targets(links.children(), i));
+                    }
+                    families = Collections.unmodifiableList(Arrays.asList(built));
+                }
+                records = families;
+            }
+        }
+        return records;
+    }
+
+    public GedcomIndividual individual(int id) {
+        return getIndividuals().get(id);
+    }
+
+    public GedcomFamily family(int id) {
+        return getFamilies().get(id);
+    }
+
+    private static int[] targets(GedcomAdjacency adjacency, int source) {
+        int[] targets = new int[adjacency.degree(source)];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = adjacency.get(source, i);
+        }
+        return targets;
+    }
+
+    //Individuals keyed by their id in getIndividualIds(), encoded as "name gender birth age alive death child spouse"
+    public SortedMap<Integer, String> getIndividualData() {
+        SortedMap<Integer, String> data = individualData;
+        if (data == null) {
+            synchronized (this) {
+                if (individualData == null) {
+                    SortedMap<Integer, String> rows = new TreeMap<>();
+                    for (int i = 0; i < store.individualCount(); i++) {
+                        rows.put(i, individualRow(i));
+                    }
+                    individualData = Collections.unmodifiableSortedMap(rows);
+                }
+                data = individualData;
+            }
+        }
+        return data;
+    }
+
+    //Families keyed by their id in getFamilyIds(), encoded as "married divorced husband husbandName wife wifeName children"
+    public SortedMap<Integer, String> getFamilyData() {
+        SortedMap<Integer, String> data = familyData;
+        if (data == null) {
+            synchronized (this) {
+                if (familyData == null) {
+                    SortedMap<Integer, String> rows = new TreeMap<>();
+                    for (int i = 0; i < store.familyCount(); i++) {
+                        rows.put(i, familyRow(i));
+                    }
+                    familyData = Collections.unmodifiableSortedMap(rows);
+                }
+                data = familyData;
+            }
+        }
+        return data;
+    }
+
+    //Date maps and report rows for the older user stories, built once and shared by all of them
+    public GedcomProjections getProjections() {
+        GedcomProjections views = projections;
+        if (views == null) {
+            synchronized (this) {
+                if (projections == null) {
+                    projections = new GedcomProjections(this);
+                }
+                views = projections;
+            }
+        }
+        return views;
+    }
+
+    //Records by birth and death year, couple and family size, built in one pass with the document
+    public GedcomIndexes getIndexes() {
+        return indexes;
+    }
+
+    //The columns every other view of the document is built from
+    public GedcomStore getStore() {
+        return store;
+    }
+
+    //Dense ids of the INDI xrefs, in file order
+    public GedcomIdTable getIndividualIds() {
+        return store.getIndividualIds();
+    }
+
+    //Dense ids of the FAM xrefs, in file order
+    public GedcomIdTable getFamilyIds() {
+        return store.getFamilyIds();
+    }
+
+    //FAMS, FAMC, HUSB, WIFE and CHIL links between the ids above
+    public GedcomLinkGraph getLinks() {
+        return store.getLinks();
+    }
+
+    //Birth, death, marriage and divorce dates by id, packed by GedcomDate; partial and approximate dates included
+    public GedcomEventDates getDates() {
+        return store.getDates();
+    }
+
+    //Counters and phase timings of the parse that produced this document
+    public GedcomParseStats getStats() {
+        return stats;
+    }
+
+    //Lines and values the parse could not use, with the defaults it substituted
+    public GedcomDiagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
+    //One individual attribute ("birth", "gender", ...) for every individual id, null where the attribute is missing
+    public String[] individualColumn(String attribute) {
+        String[] column = new String[store.individualCount()];
+        for (int i = 0; i < column.length; i++) {
+            column[i] = individualAttribute(i, attribute);
+        }
+        return column;
+    }
+
+    //One family attribute ("married", "divorced", ...) for every family id, null where the attribute is missing
+    public String[] familyColumn(String attribute) {
+        String[] column = new String[store.familyCount()];
+        for (int i = 0; i < column.length; i++) {
+            Object value = getFamilyAttributeMaps().get(store.getFamilyIds().xref(i)).get(attribute);
+            column[i] = value != null ? value.toString() : null;
+        }
+        return column;
+    }
+
+    //Keyed by label such as "I1", with the attributes of GedcomService.makeIndividualAttributeMap
+    public Map<String, Map<String, String>> getIndividualAttributeMaps() {
+        Map<String, Map<String, String>> maps = individualAttributeMaps;
+        if (maps == null) {
+            synchronized (this) {
+                if (individualAttributeMaps == null) {
+                    GedcomService legacy = new GedcomService();
+                    Map<String, Map<String, String>> individuals = new HashMap<>();
+                    for (int i = 0; i < store.individualCount(); i++) {
+                        individuals.put(store.getIndividualIds().label(i), Collections.unmodifiableMap(legacy.makeIndividualAttributeMap(
+                                store.name(i), store.sex(i), birth(i), age(i), alive(i), death(i), childFamily(i), spouseFamily(i))));
+                    }
+                    individualAttributeMaps = Collections.unmodifiableMap(individuals);
+                }
+                maps = individualAttributeMaps;
+            }
+        }
+        return maps;
+    }
+
+    //Keyed by xref such as "@F1@", with the attributes of GedcomService.makeFamilyAttributeMap
+    public Map<String, Map<String, Object>> getFamilyAttributeMaps() {
+        Map<String, Map<String, Object>> maps = familyAttributeMaps;
+        if (maps == null) {
+            synchronized (this) {
+                if (familyAttributeMaps == null) {
+                    GedcomService legacy = new GedcomService();
+                    Map<String, Map<String, Object>> families = new HashMap<>();
+                    for (int i = 0; i < store.familyCount(); i++) {
+                        String[] husband = spouse(store.husband(i));
+                        String[] wife = spouse(store.wife(i));
+                        Map<String, Object> attributes = legacy.makeFamilyAttributeMap(married(i), divorced(i),
+                                husband[0], husband[1], wife[0], wife[1], children(i));
+                        if (attributes.get("children") instanceof List) {
+                            attributes.put("children", Collections.unmodifiableList((List<?>) attributes.get("children")));
+                        }
+                        families.put(store.getFamilyIds().xref(i), Collections.unmodifiableMap(attributes));
+                    }
+                    familyAttributeMaps = Collections.unmodifiableMap(families);
+                }
+                maps = familyAttributeMaps;
+            }
+        }
+        return maps;
+    }
+
+    private String individualRow(int i) {
+        return String.join(" ", individualFields(i));
+    }
+
+    private String familyRow(int i) {
+        return String.join(" ", familyFields(i));
+    }
+
+    //The columns of getIndividualData() before they are joined: name gender birth age alive death child spouse
+    String[] individualFields(int i) {
+        return new String[]{store.name(i), store.sex(i), birth(i), age(i), alive(i), death(i), childFamily(i), spouseFamily(i)};
+    }
+
+    //The columns of getFamilyData() before they are joined: married divorced husband husbandName wife wifeName children
+    String[] familyFields(int i) {
+        String[] husband = spouse(store.husband(i));
+        String[] wife = spouse(store.wife(i));
+        return new String[]{married(i), divorced(i), husband[0], husband[1], wife[0], wife[1], children(i)};
+    }
+
+    private String individualAttribute(int i, String attribute) {
+        switch (attribute) {
+            case "name":
+                return store.name(i);
+            case "gender":
+                return store.sex(i);
+            case "birth":
+                return birth(i);
+            case "age":
+                return age(i);
+            case "alive":
+                return alive(i);
+            case "death":
+                return death(i);
+            case "child":
+                return childFamily(i);
+            case "spouse":
+                return spouseFamily(i);
+            default:
+                return null;
+        }
+    }
+
+    //The legacy encodings only have room for "day month year"; other dates are in getDates() alone
+    private String birth(int i) {
+        long birth = store.getDates().birth(i);
+        return GedcomDate.isExact(birth) ? GedcomDate.format(birth) : "";
+    }
+
+    private String age(int i) {
+        long birth = store.getDates().birth(i);
+        return GedcomDate.isExact(birth) ? String.valueOf(GedcomDate.yearsBetween(GedcomDate.earliest(birth), GedcomDate.today())) : "";
+    }
+
+    private String alive(int i) {
+        return store.isDeceased(i) ? "false" : "true";
+    }
+
+    private String death(int i) {
+        long death = store.getDates().death(i);
+        return GedcomDate.isExact(death) ? GedcomDate.format(death) : "NA";
+    }
+
+    private String childFamily(int i) {
+        String family = store.childFamily(i);
+        return family != null ? "{'" + family.replace("@", "") + "'}" : "NA";
+    }
+
+    private String spouseFamily(int i) {
+        String family = store.spouseFamily(i);
+        return family != null ? "{'" + family.replace("@", "") + "'}" : "NA";
+    }
+
+    private String married(int i) {
+        long marriage = store.getDates().marriage(i);
+        return GedcomDate.isExact(marriage) ? GedcomDate.format(marriage) : "";
+    }
+
+    private String divorced(int i) {
+        long divorce = store.getDates().divorce(i);
+        return GedcomDate.isExact(divorce) ? GedcomDate.format(divorce) : "NA";
+    }
+
+    //Label and "given surname" of a spouse, with placeholders for a missing or undefined one
+    private String[] spouse(String xref) {
+        if (xref == null) {
+            return new String[]{"NA", GedcomService.UNKNOWN_NAME};
+        }
+        int id = store.getIndividualIds().id(xref);
+        if (id < 0) {
+            return new String[]{xref.replace("@", ""), GedcomService.UNKNOWN_NAME};
+        }
+        return new String[]{store.getIndividualIds().label(id), store.name(id)};
+    }
+
+    //"{'I1'}", "{'I1',I2'}" or "{'I1',I2','I3'}": the separators the legacy rows have always had, which makeChildrenList undoes
+    private String children(int family) {
+        int count = store.childCount(family);
+        StringBuilder children = new StringBuilder();
+        for (int l = 0; l < count; l++) {
+            String child = store.child(family, l).replace("@", "");
+            if (count == 1) {
+                children.append("{'").append(child).append("'}");
+            } else if (count == 2) {
+                children.append(l == 0 ? "{'" + child + "'," : child + "'}");
+            } else if (l == 0) {
+                children.append("{'").append(child).append("',");
+            } else if (l == count - 1) {
+                children.append("'").append(child).append("'}");
+            } else {
+                children.append(child).append("',");
+            }
+        }
+        return children.toString();
+    }
+
+    //Lines no user story interprets (PLAC, GIVN, SURN, SOUR, _custom tags, ...) for a record, keyed by xref such as "@I1@"
+    public List<GedcomAttribute> getAttributes(String xref) {
+        List<GedcomAttribute> attributes = passthroughAttributes.get(xref);
+        return attributes != null ? attributes : Collections.<GedcomAttribute>emptyList();
+    }
+
+    //All uninterpreted lines keyed by xref
+    public Map<String, List<GedcomAttribute>> getAttributes() {
+        return passthroughAttributes;
+    }
+}
@@ -0,0 +1,142 @@
+package edu.stevens.ssw555;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Birth, death, marriage and divorce dates of a document as {@link GedcomDate} packed longs, one column
+ * per event indexed by dense individual or family id. The dates are parsed once while the records are
+ * read; a missing or unparseable date is {@link GedcomDate#MISSING}.
+ */
+public final class GedcomEventDates {
+
+    private final LongBuffer births;
+    private final LongBuffer deaths;
+    private final LongBuffer marriages;
+    private final LongBuffer divorces;
+
+    GedcomEventDates(long[] births, long[] deaths, long[] marriages, long[] divorces) {
+        this(LongBuffer.wrap(births), LongBuffer.wrap(deaths), LongBuffer.wrap(marriages), LongBuffer.wrap(divorces));
+    }
+
+    GedcomEventDates(LongBuffer births, LongBuffer deaths, LongBuffer marriages, LongBuffer divorces) {
+        this.births = births;
+        this.deaths = deaths;
+        this.marriages = marriages;
+        this.divorces = divorces;
+    }
+
+    public int individualCount() {
+        return births.capacity();
+    }
+
+    public int familyCount() {
+        return marriages.capacity();
+    }
+
+    public long birth(int individual) {
+        return births.get(individual);
+    }
+
+    public long death(int individual) {
+        return deaths.get(individual);
+    }
+
+    public long marriage(int family) {
+        return marriages.get(family);
+    }
+
+    public long divorce(int family) {
+        return divorces.get(family);
+    }
+
+    GedcomEventDates copyTo(GedcomOffHeap target) throws IOException {
+        return new GedcomEventDates(target.copy(births), target.copy(deaths), target.copy(marriages), target.copy(divorces));
+    }
+
+    /**
+     * Grows the columns as ids are assigned, in buffers of the builder's {@link GedcomOffHeap}; ids that
+     * never get a date stay MISSING.
+     */
+    static class Builder {
+
+        //lines[] bits of an individual with a BIRT or DEAT line, told apart from one whose date is MISSING
+        //only for want of the line
+        private static final byte BIRTH_LINE = 1;
+        private static final byte DEATH_LINE = 2;
+
+        private final GedcomOffHeap columns;
+        private LongBuffer births;
+        private LongBuffer deaths;
+        private LongBuffer marriages;
+        private LongBuffer divorces;
+        private ByteBuffer lines;
+
+        Builder() {
+            this(GedcomOffHeap.HEAP);
+        }
+
+        Builder(GedcomOffHeap columns) {
+            this.columns = columns;
+            this.births = columns.longs(16);
+            this.deaths = columns.longs(16);
+            this.marriages = columns.longs(16);
+            this.divorces = columns.longs(16);
+            this.lines = columns.bytes(16);
+        }
+
+        void setBirth(int individual, long date) {
+            births = columns.grow(births, individual);
+            births.put(individual, date);
+            addLine(individual, BIRTH_LINE);
+        }
+
+        void setDeath(int individual, long date) {
+            deaths = columns.grow(deaths, individual);
+            deaths.put(individual, date);
+            addLine(individual, DEATH_LINE);
+        }
+
+        private void addLine(int individual, byte line) {
+            lines = columns.grow(lines, individual);
+            lines.put(individual, (byte) (lines.get(individual) | line));
+        }
+
+        private boolean hasLine(int individual, byte line) {
+            return individual < lines.capacity() && (lines.get(individual) & line) != 0;
+        }
+
+        //Copies the dates an individual of another builder has lines for, e.g. one chunk of a parallel parse. As
+        //when a record is read again, a later copy of an individual only replaces the dates it has a line for
+        void copyIndividual(int individual, Builder from, int fromId) {
+            if (from.hasLine(fromId, BIRTH_LINE)) {
+                setBirth(individual, from.births.get(fromId));
+            }
+            if (from.hasLine(fromId, DEATH_LINE)) {
+                setDeath(individual, from.deaths.get(fromId));
+            }
+        }
+
+        void setMarriage(int family, long date) {
+            marriages = columns.grow(marriages, family);
+            marriages.put(family, date);
+        }
+
+        void setDivorce(int family, long date) {
+            divorces = columns.grow(divorces, family);
+            divorces.put(family, date);
+        }
+
+        //Copies the dates of a family of another builder; a FAM read again replaces both, as setMarriage and setDivorce do
+        void copyFamily(int family, Builder from, int fromId) {
+            setMarriage(family, fromId < from.marriages.capacity() ? from.marriages.get(fromId) : GedcomDate.MISSING);
+            setDivorce(family, fromId < from.divorces.capacity() ? from.divorces.get(fromId) : GedcomDate.MISSING);
+        }
+
+        GedcomEventDates build(int individualCount, int familyCount) {
+            return new GedcomEventDates(columns.trim(births, individualCount), columns.trim(deaths, individualCount),
+                    columns.trim(marriages, familyCount), columns.trim(divorces, familyCount));
+        }
+    }
+}
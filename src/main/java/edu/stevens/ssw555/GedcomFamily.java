@@ -0,0 +1,96 @@
+package edu.stevens.ssw555;
+
+/**
+ * One FAM record of a {@link GedcomDocument} as an immutable value, with spouses and children as
+ * dense individual ids and the marriage and divorce as {@link GedcomDate} packed longs.
+ */
+public final class GedcomFamily {
+
+    private final int id;
+    private final String xref;
+    private final String label;
+    private final long marriage;
+    private final long divorce;
+    private final int husband;
+    private final int wife;
+    private final String husbandName;
+    private final String wifeName;
+    private final int childLines;
+    private final int[] children;
+
+    GedcomFamily(int id, String xref, String label, long marriage, long divorce, int husband, int wife,
+                 String husbandName, String wifeName, int childLines, int[] children) {
+        this.id = id;
+        this.xref = xref;
+        this.label = label;
+        this.marriage = marriage;
+        this.divorce = divorce;
+        this.husband = husband;
+        this.wife = wife;
+        this.husbandName = husbandName;
+        this.wifeName = wifeName;
+        this.childLines = childLines;
+        this.children = children;
+    }
+
+    //Dense id in GedcomDocument.getFamilyIds()
+    public int getId() {
+        return id;
+    }
+
+    //"@F1@"
+    public String getXref() {
+        return xref;
+    }
+
+    //"F1", as the reports print it
+    public String getLabel() {
+        return label;
+    }
+
+    public long getMarriage() {
+        return marriage;
+    }
+
+    public long getDivorce() {
+        return divorce;
+    }
+
+    //Individual id of the HUSB, or -1 when there is none or it is not defined
+    public int getHusband() {
+        return husband;
+    }
+
+    //Individual id of the WIFE, or -1 when there is none or it is not defined
+    public int getWife() {
+        return wife;
+    }
+
+    //"given /surname/" of the husband, or the placeholder the legacy rows print for a missing one
+    public String getHusbandName() {
+        return husbandName;
+    }
+
+    public String getWifeName() {
+        return wifeName;
+    }
+
+    //CHIL lines of the record, counting those that name an individual that is not defined
+    public int getChildLineCount() {
+        return childLines;
+    }
+
+    //Children that are defined, as individual ids in CHIL order
+    public int childCount() {
+        return children.length;
+    }
+
+    public int child(int index) {
+        return children[index];
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,365 @@
+package edu.stevens.ssw555;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Writes synthetic GEDCOM files of any size for scale testing. Each tree starts from a couple born
+ * in the 1700s and grows for {@link #GENERATIONS} generations: children are spaced more than a year
+ * apart, marry outside spouses and have children of their own. Records are written as soon as a
+ * family is planned, so memory stays bounded by the depth of one tree whatever the file size.
+ * <p>
+ * Clean output raises none of the errors below. Each story can be given an injection rate; the
+ * generator then plants that many violations and returns the number of findings the story's
+ * validator should report. Every date is before 2000 except injected future dates, so the same
+ * seed always gives the same file and the same counts.
+ */
+public class GedcomGenerator {
+
+    //User stories the generator can plant violations for
+    public enum Story {
+        US01, //a date after today (a death in 2100)
+        US02, //a spouse born after the marriage; also a US10 finding
+        US03, //an unmarried individual dying before birth
+        US04, //a divorce before the marriage
+        US10, //a spouse married at 12
+        US12, //a mother 63 or a father 83 years older than the first child; one finding per child
+        US13, //two siblings born 3 to 8 months apart
+        US14, //quintuplets
+        US15, //16 children
+        US21, //a husband with SEX F
+        US25  //two children with the same first name and birthday
+    }
+
+    public static final int GENERATIONS = 4;
+
+    private static final LocalDate CUTOFF = LocalDate.of(2000, 1, 1);
+    private static final LocalDate FUTURE = LocalDate.of(2100, 1, 1);
+    private static final double MARRIAGE_RATE = 0.6;
+    private static final double DIVORCE_RATE = 0.1;
+    private static final int MAX_CHILDREN = 5;
+
+    private static final String[] MONTHS = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+    private static final String[] MALE_NAMES = {"James", "John", "Robert", "Michael", "William", "David", "Richard", "Joseph",
+            "Thomas", "Charles", "Daniel", "Matthew", "George", "Edward", "Henry", "Peter", "Samuel", "Walter", "Arthur",
+            "Albert", "Frank", "Harold", "Louis", "Paul"};
+    private static final String[] FEMALE_NAMES = {"Mary", "Patricia", "Jennifer", "Linda", "Elizabeth", "Barbara", "Susan",
+            "Jessica", "Sarah", "Karen", "Nancy", "Lisa", "Margaret", "Emily", "Dorothy", "Helen", "Anna", "Ruth", "Alice",
+            "Grace", "Rose", "Clara", "Edith", "Irene"};
+    private static final String[] SURNAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Miller", "Davis", "Wilson",
+            "Anderson", "Taylor", "Thomas", "Moore", "Martin", "Jackson", "Thompson", "White", "Harris", "Clark", "Lewis",
+            "Walker", "Hall", "Allen", "Young", "King", "Wright", "Scott", "Green", "Baker", "Adams", "Nelson", "Hill",
+            "Campbell", "Mitchell", "Roberts", "Carter", "Phillips", "Evans", "Turner", "Parker", "Collins"};
+
+    private final long seed;
+    private final Map<Story, Double> rates = new EnumMap<>(Story.class);
+
+    private SplittableRandom random;
+    private Writer out;
+    private Map<Story, Long> expected;
+    private int individuals;
+    private int nextIndividual;
+    private int nextFamily;
+
+    public GedcomGenerator(long seed) {
+        this(seed, 0);
+    }
+
+    //Every story injected at the same rate
+    public GedcomGenerator(long seed, double rate) {
+        this.seed = seed;
+        for (Story story : Story.values()) {
+            rates.put(story, rate);
+        }
+    }
+
+    //Chance that an eligible individual or family carries a violation of the story
+    public void setRate(Story story, double rate) {
+        rates.put(story, rate);
+    }
+
+    public Map<Story, Long> generate(Path path, int individuals) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8),
+                BufferedGedcomInput.DEFAULT_BUFFER_SIZE)) {
+            return generate(writer, individuals);
+        }
+    }
+
+    //Writes exactly the given number of individuals and returns the expected findings per story
+    public Map<Story, Long> generate(Writer out, int individuals) throws IOException {
+        this.random = new SplittableRandom(seed);
+        this.out = out;
+        this.individuals = individuals;
+        this.nextIndividual = 1;
+        this.nextFamily = 1;
+        this.expected = new EnumMap<>(Story.class);
+        for (Story story : Story.values()) {
+            expected.put(story, 0L);
+        }
+
+        out.write("0 HEAD\n1 SOUR GedcomGenerator\n1 GEDC\n2 VERS 5.5.1\n2 FORM LINEAGE-LINKED\n1 CHAR UTF-8\n");
+        while (remaining() > 0) {
+            int year = 1700 + random.nextInt(100);
+            Person husband = newPerson('M', pick(SURNAMES), date(year));
+            if (remaining() == 0) {
+                writeIndividual(husband, lifespan(husband.birth, husband.birth));
+                break;
+            }
+            Person wife = newPerson('F', pick(SURNAMES), date(year - 5 + random.nextInt(11)));
+            family(husband, wife, true, 0);
+        }
+        out.write("0 TRLR\n");
+        out.flush();
+        return expected;
+    }
+
+    //Plans one family, writes both spouses and the FAM record, then every child and the child's own family.
+    //wifeOutside tells which spouse married into the tree; injected ages are only ever changed on that one
+    private void family(Person husband, Person wife, boolean wifeOutside, int generation) throws IOException {
+        int id = nextFamily++;
+        husband.spouseOf = id;
+        wife.spouseOf = id;
+        Person outside = wifeOutside ? wife : husband;
+        LocalDate later = husband.birth.isAfter(wife.birth) ? husband.birth : wife.birth;
+        LocalDate marriage = later.plusYears(20 + random.nextInt(11)).plusMonths(random.nextInt(12));
+        LocalDate divorce = random.nextDouble() < DIVORCE_RATE ? marriage.plusYears(2 + random.nextInt(14)) : null;
+
+        int count = Math.min(random.nextInt(MAX_CHILDREN + 1), remaining());
+        Story injected = familyInjection(count);
+        if (injected == Story.US14) {
+            count = 5;
+        } else if (injected == Story.US15) {
+            count = 16;
+        }
+
+        Person[] children = new Person[count];
+        LocalDate birth = marriage.plusMonths(12 + random.nextInt(13));
+        boolean[] maleUsed = new boolean[MALE_NAMES.length];
+        boolean[] femaleUsed = new boolean[FEMALE_NAMES.length];
+        for (int i = 0; i < count; i++) {
+            char sex = random.nextBoolean() ? 'M' : 'F';
+            children[i] = newPerson(sex, husband.surname, birth);
+            children[i].given = sex == 'M' ? pickUnused(MALE_NAMES, maleUsed) : pickUnused(FEMALE_NAMES, femaleUsed);
+            children[i].childOf = id;
+            if (injected != Story.US14) {
+                birth = birth.plusMonths(13 + random.nextInt(injected == Story.US15 ? 3 : 24));
+            }
+        }
+
+        boolean femaleHusband = false;
+        if (injected != null) {
+            switch (injected) {
+                case US02:
+                    outside.birth = marriage.plusMonths(1 + random.nextInt(10));
+                    count(Story.US10, 1);
+                    break;
+                case US04:
+                    divorce = marriage.minusDays(30 + random.nextInt(3600));
+                    break;
+                case US10:
+                    outside.birth = LocalDate.of(marriage.getYear() - 12, 1 + random.nextInt(12), 1 + random.nextInt(28));
+                    break;
+                case US12:
+                    outside.birth = children[0].birth.minusYears(outside == wife ? 63 : 83);
+                    count(Story.US12, count - 1);
+                    break;
+                case US13:
+                    children[1].birth = children[0].birth.plusMonths(3 + random.nextInt(6));
+                    break;
+                case US21:
+                    femaleHusband = true;
+                    break;
+                case US25:
+                    children[1].given = children[0].given;
+                    children[1].sex = children[0].sex;
+                    children[1].birth = children[0].birth;
+                    break;
+                default:
+                    break;
+            }
+            count(injected, 1);
+        }
+
+        LocalDate lastEvent = divorce != null && divorce.isAfter(marriage) ? divorce : marriage;
+        if (count > 0 && children[count - 1].birth.isAfter(lastEvent)) {
+            lastEvent = children[count - 1].birth;
+        }
+        husband.sex = femaleHusband ? 'F' : 'M';
+        writeIndividual(husband, lifespan(husband.birth, lastEvent));
+        writeIndividual(wife, lifespan(wife.birth, lastEvent));
+        writeFamily(id, husband, wife, children, marriage, divorce);
+
+        for (Person child : children) {
+            if (generation + 2 < GENERATIONS && remaining() > 0 && random.nextDouble() < MARRIAGE_RATE) {
+                char sex = child.sex == 'M' ? 'F' : 'M';
+                Person spouse = newPerson(sex, pick(SURNAMES), child.birth.plusMonths(random.nextInt(121) - 60));
+                spouse.given = pick(sex == 'M' ? MALE_NAMES : FEMALE_NAMES);
+                if (child.sex == 'M') {
+                    family(child, spouse, true, generation + 1);
+                } else {
+                    family(spouse, child, false, generation + 1);
+                }
+            } else {
+                writeIndividual(child, lifespan(child.birth, child.birth));
+            }
+        }
+    }
+
+    //At most one family-level violation, and only where the family is large enough to carry it
+    private Story familyInjection(int count) {
+        for (Story story : new Story[]{Story.US02, Story.US04, Story.US10, Story.US12, Story.US13, Story.US14,
+                Story.US15, Story.US21, Story.US25}) {
+            boolean eligible;
+            switch (story) {
+                case US12:
+                    eligible = count >= 1;
+                    break;
+                case US13:
+                case US25:
+                    eligible = count >= 2;
+                    break;
+                case US14:
+                    eligible = remaining() >= 5;
+                    break;
+                case US15:
+                    eligible = remaining() >= 16;
+                    break;
+                default:
+                    eligible = true;
+            }
+            if (eligible && random.nextDouble() < rates.get(story)) {
+                return story;
+            }
+        }
+        return null;
+    }
+
+    //Dies at 80 to 95 but never before the last event of their own family; alive when that falls after 1999
+    private LocalDate lifespan(LocalDate birth, LocalDate lastEvent) {
+        LocalDate death = birth.plusYears(80 + random.nextInt(16)).plusMonths(random.nextInt(12));
+        if (!death.isAfter(lastEvent)) {
+            death = lastEvent.plusYears(1 + random.nextInt(10));
+        }
+        return death.isBefore(CUTOFF) ? death : null;
+    }
+
+    private void writeIndividual(Person person, LocalDate death) throws IOException {
+        if (random.nextDouble() < rates.get(Story.US01)) {
+            death = FUTURE.plusDays(random.nextInt(3650));
+            count(Story.US01, 1);
+        } else if (person.spouseOf < 0 && random.nextDouble() < rates.get(Story.US03)) {
+            death = person.birth.minusDays(1 + random.nextInt(3650));
+            count(Story.US03, 1);
+        }
+        if (person.given == null) {
+            person.given = pick(person.sex == 'M' ? MALE_NAMES : FEMALE_NAMES);
+        }
+        StringBuilder text = new StringBuilder(160);
+        text.append("0 @I").append(person.id).append("@ INDI\n");
+        text.append("1 NAME ").append(person.given).append(" /").append(person.surname).append("/\n");
+        text.append("1 SEX ").append(person.sex).append('\n');
+        text.append("1 BIRT\n2 DATE ").append(format(person.birth)).append('\n');
+        if (death != null) {
+            text.append("1 DEAT\n2 DATE ").append(format(death)).append('\n');
+        }
+        if (person.childOf >= 0) {
+            text.append("1 FAMC @F").append(person.childOf).append("@\n");
+        }
+        if (person.spouseOf >= 0) {
+            text.append("1 FAMS @F").append(person.spouseOf).append("@\n");
+        }
+        out.write(text.toString());
+    }
+
+    private void writeFamily(int id, Person husband, Person wife, Person[] children, LocalDate marriage, LocalDate divorce) throws IOException {
+        StringBuilder text = new StringBuilder(160);
+        text.append("0 @F").append(id).append("@ FAM\n");
+        text.append("1 HUSB @I").append(husband.id).append("@\n");
+        text.append("1 WIFE @I").append(wife.id).append("@\n");
+        for (Person child : children) {
+            text.append("1 CHIL @I").append(child.id).append("@\n");
+        }
+        text.append("1 MARR\n2 DATE ").append(format(marriage)).append('\n');
+        if (divorce != null) {
+            text.append("1 DIV\n2 DATE ").append(format(divorce)).append('\n');
+        }
+        out.write(text.toString());
+    }
+
+    private Person newPerson(char sex, String surname, LocalDate birth) {
+        Person person = new Person();
+        person.id = nextIndividual++;
+        person.sex = sex;
+        person.surname = surname;
+        person.birth = day28(birth);
+        return person;
+    }
+
+    private int remaining() {
+        return individuals - (nextIndividual - 1);
+    }
+
+    private void count(Story story, long findings) {
+        expected.put(story, expected.get(story) + findings);
+    }
+
+    private LocalDate date(int year) {
+        return LocalDate.of(year, 1 + random.nextInt(12), 1 + random.nextInt(28));
+    }
+
+    //Birth days stay within 1-28, a valid day in every month, so files generated from a seed stay the same
+    private static LocalDate day28(LocalDate date) {
+        return date.getDayOfMonth() > 28 ? date.withDayOfMonth(28) : date;
+    }
+
+    private static String format(LocalDate date) {
+        return date.getDayOfMonth() + " " + MONTHS[date.getMonthValue() - 1] + " " + date.getYear();
+    }
+
+    private String pick(String[] names) {
+        return names[random.nextInt(names.length)];
+    }
+
+    private String pickUnused(String[] names, boolean[] used) {
+        int i = random.nextInt(names.length);
+        while (used[i]) {
+            i = (i + 1) % names.length;
+        }
+        used[i] = true;
+        return names[i];
+    }
+
+    private static final class Person {
+        int id;
+        char sex;
+        String given;
+        String surname;
+        LocalDate birth;
+        int childOf = -1;
+        int spouseOf = -1;
+    }
+
+    //Usage: GedcomGenerator <output file> <individuals> [seed] [injection rate]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: GedcomGenerator <output file> <individuals> [seed] [injection rate]");
+            System.exit(1);
+        }
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        double rate = args.length > 3 ? Double.parseDouble(args[3]) : 0;
+        Map<Story, Long> expected = new GedcomGenerator(seed, rate).generate(Paths.get(args[0]), Integer.parseInt(args[1]));
+        for (Map.Entry<Story, Long> entry : expected.entrySet()) {
+            System.out.println(entry.getKey() + " " + entry.getValue());
+        }
+    }
+}
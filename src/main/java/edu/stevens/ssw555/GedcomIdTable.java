@@ -0,0 +1,95 @@
+package edu.stevens.ssw555;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps record cross-references ("@I12@", "@P_0001@", ...) to dense ints 0..size()-1 in the order
+ * they are first seen. The parser interns each xref once; everything downstream is keyed by the
+ * int and asks the table for the xref or its printable label only when it writes output.
+ * <p>
+ * A table built or moved off the heap keeps the xrefs in a {@link GedcomStringColumn}; a moved one is read-only.
+ */
+public final class GedcomIdTable {
+
+    private final Map<String, Integer> ids;
+    private final List<String> xrefs;
+    private final List<String> labels;
+    private final GedcomStringColumn packed;
+
+    public GedcomIdTable() {
+        this.ids = new HashMap<>();
+        this.xrefs = new ArrayList<>();
+        this.labels = new ArrayList<>();
+        this.packed = null;
+    }
+
+    //A table interning into columns of target, or on the heap for GedcomOffHeap.HEAP
+    GedcomIdTable(GedcomOffHeap target) {
+        this.ids = target.isHeap() ? new HashMap<>() : null;
+        this.xrefs = target.isHeap() ? new ArrayList<>() : null;
+        this.labels = target.isHeap() ? new ArrayList<>() : null;
+        this.packed = target.isHeap() ? null : GedcomStringColumn.create(target);
+    }
+
+    private GedcomIdTable(GedcomStringColumn packed) {
+        this.ids = null;
+        this.xrefs = null;
+        this.labels = null;
+        this.packed = packed;
+    }
+
+    //Returns the id of the xref, assigning the next free one the first time it is seen
+    int intern(String xref) {
+        if (packed != null) {
+            if (packed.isReadOnly()) {
+                throw new IllegalStateException("An id table moved off the heap is read-only");
+            }
+            return packed.intern(xref);
+        }
+        Integer id = ids.get(xref);
+        if (id == null) {
+            id = xrefs.size();
+            ids.put(xref, id);
+            xrefs.add(xref);
+            labels.add(xref.replace("@", ""));
+        }
+        return id;
+    }
+
+    //Id of the xref, or -1 when it was never interned
+    public int id(String xref) {
+        if (packed != null) {
+            return packed.id(xref);
+        }
+        Integer id = ids.get(xref);
+        return id != null ? id : -1;
+    }
+
+    public String xref(int id) {
+        return packed != null ? packed.get(id) : xrefs.get(id);
+    }
+
+    //The xref without its '@' delimiters, e.g. "I12", as the reports print it
+    public String label(int id) {
+        return packed != null ? packed.get(id).replace("@", "") : labels.get(id);
+    }
+
+    public int size() {
+        return packed != null ? packed.size() : xrefs.size();
+    }
+
+    GedcomIdTable copyTo(GedcomOffHeap target) throws IOException {
+        List<String> copied = xrefs;
+        if (packed != null) {
+            copied = new ArrayList<>(size());
+            for (int i = 0; i < size(); i++) {
+                copied.add(xref(i));
+            }
+        }
+        return new GedcomIdTable(GedcomStringColumn.copy(copied, target));
+    }
+}
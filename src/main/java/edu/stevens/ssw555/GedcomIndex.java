@@ -0,0 +1,160 @@
+package edu.stevens.ssw555;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Dense ids grouped by a long key, such as individuals by birth year: the distinct keys sorted, and
+ * the ids of each key in a {@link GedcomAdjacency} in id order. A key or a range of keys is found by
+ * binary search, so a rule reads only the records it asks about.
+ */
+public final class GedcomIndex {
+
+    private final LongBuffer keys;
+    private final GedcomAdjacency ids;
+
+    private GedcomIndex(LongBuffer keys, GedcomAdjacency ids) {
+        this.keys = keys;
+        this.ids = ids;
+    }
+
+    //Distinct keys, ascending
+    public int keyCount() {
+        return keys.capacity();
+    }
+
+    public long key(int index) {
+        return keys.get(index);
+    }
+
+    //Ids with the index-th key, in id order
+    public GedcomAdjacency getIds() {
+        return ids;
+    }
+
+    //Ids with exactly this key, in id order
+    public int[] get(long key) {
+        return range(key, key);
+    }
+
+    //Ids whose key is between from and to, both included, in id order
+    public int[] range(long from, long to) {
+        int first = position(keys, keys.capacity(), from);
+        int last = position(keys, keys.capacity(), to == Long.MAX_VALUE ? to : to + 1);
+        if (first >= last) {
+            return new int[0];
+        }
+        int[] found = new int[ids.start(last) - ids.start(first)];
+        for (int i = 0; i < found.length; i++) {
+            found[i] = ids.target(ids.start(first) + i);
+        }
+        if (last - first > 1) {
+            Arrays.sort(found);
+        }
+        return found;
+    }
+
+    GedcomIndex copyTo(GedcomOffHeap target) throws IOException {
+        return new GedcomIndex(target.copy(keys), ids.copyTo(target));
+    }
+
+    //Index of the first of the count sorted keys not below key; count when there is none
+    private static int position(LongBuffer keys, int count, long key) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys.get(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Collects (key, id) pairs, ids in ascending order, and lays them out by key. Only the distinct
+     * keys are sorted; the ids are placed with the counting sort of {@link GedcomAdjacency.Builder}.
+     * The pairs, the keys and the ids are kept in buffers of the builder's {@link GedcomOffHeap}.
+     */
+    static class Builder {
+
+        private final GedcomOffHeap columns;
+        private LongBuffer keys;
+        private IntBuffer ids;
+        private int size;
+
+        Builder() {
+            this(GedcomOffHeap.HEAP);
+        }
+
+        Builder(GedcomOffHeap columns) {
+            this.columns = columns;
+            this.keys = columns.longs(16);
+            this.ids = columns.ints(16);
+        }
+
+        void add(long key, int id) {
+            keys = columns.grow(keys, size);
+            ids = columns.grow(ids, size, 0);
+            keys.put(size, key);
+            ids.put(size, id);
+            size++;
+        }
+
+        GedcomIndex build() {
+            LongBuffer distinct = columns.longs(size);
+            for (int i = 0; i < size; i++) {
+                distinct.put(i, keys.get(i));
+            }
+            sort(distinct, size);
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (i == 0 || distinct.get(i) != distinct.get(count - 1)) {
+                    distinct.put(count++, distinct.get(i));
+                }
+            }
+            distinct = columns.trim(distinct, count);
+            GedcomAdjacency.Builder laidOut = new GedcomAdjacency.Builder(columns);
+            for (int i = 0; i < size; i++) {
+                laidOut.add(position(distinct, count, keys.get(i)), ids.get(i));
+            }
+            return new GedcomIndex(distinct, laidOut.build(count));
+        }
+
+        //Ascending; a heap sort in place when the keys are not backed by an array
+        private static void sort(LongBuffer values, int size) {
+            if (values.hasArray()) {
+                Arrays.sort(values.array(), values.arrayOffset(), values.arrayOffset() + size);
+                return;
+            }
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(values, i, size);
+            }
+            for (int end = size - 1; end > 0; end--) {
+                long largest = values.get(0);
+                values.put(0, values.get(end));
+                values.put(end, largest);
+                siftDown(values, 0, end);
+            }
+        }
+
+        private static void siftDown(LongBuffer values, int index, int size) {
+            long value = values.get(index);
+            for (int child = 2 * index + 1; child < size; child = 2 * index + 1) {
+                if (child + 1 < size && values.get(child + 1) > values.get(child)) {
+                    child++;
+                }
+                if (values.get(child) <= value) {
+                    break;
+                }
+                values.put(index, values.get(child));
+                index = child;
+            }
+            values.put(index, value);
+        }
+    }
+}
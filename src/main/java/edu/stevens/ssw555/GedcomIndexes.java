@@ -0,0 +1,81 @@
+package edu.stevens.ssw555;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The secondary indexes of a {@link GedcomDocument}, built together in one pass over the individuals
+ * and one over the families, so rules look records up by year, couple or family size instead of each
+ * rescanning every record. Rules ask for an index by {@link Name}.
+ */
+public final class GedcomIndexes {
+
+    public enum Name {
+        //Individuals by the year of their known birth date
+        BIRTH_YEAR,
+        //Individuals by the year of their known death date
+        DEATH_YEAR,
+        //Families by pair(husband, wife), for families whose husband and wife are both defined
+        SPOUSE_PAIR,
+        //Families by their number of CHIL lines
+        CHILD_COUNT
+    }
+
+    private final Map<Name, GedcomIndex> indexes;
+
+    private GedcomIndexes(Map<Name, GedcomIndex> indexes) {
+        this.indexes = indexes;
+    }
+
+    static GedcomIndexes build(GedcomStore store) {
+        return build(store, GedcomOffHeap.HEAP);
+    }
+
+    //Indexes whose keys and ids are kept in columns
+    static GedcomIndexes build(GedcomStore store, GedcomOffHeap columns) {
+        GedcomEventDates dates = store.getDates();
+        GedcomLinkGraph links = store.getLinks();
+        GedcomIndex.Builder births = new GedcomIndex.Builder(columns);
+        GedcomIndex.Builder deaths = new GedcomIndex.Builder(columns);
+        for (int i = 0; i < store.individualCount(); i++) {
+            if (GedcomDate.isKnown(dates.birth(i))) {
+                births.add(GedcomDate.getYear(dates.birth(i)), i);
+            }
+            if (GedcomDate.isKnown(dates.death(i))) {
+                deaths.add(GedcomDate.getYear(dates.death(i)), i);
+            }
+        }
+        GedcomIndex.Builder pairs = new GedcomIndex.Builder(columns);
+        GedcomIndex.Builder childCounts = new GedcomIndex.Builder(columns);
+        for (int i = 0; i < store.familyCount(); i++) {
+            if (links.husband(i) >= 0 && links.wife(i) >= 0) {
+                pairs.add(pair(links.husband(i), links.wife(i)), i);
+            }
+            childCounts.add(store.childCount(i), i);
+        }
+        Map<Name, GedcomIndex> indexes = new EnumMap<>(Name.class);
+        indexes.put(Name.BIRTH_YEAR, births.build());
+        indexes.put(Name.DEATH_YEAR, deaths.build());
+        indexes.put(Name.SPOUSE_PAIR, pairs.build());
+        indexes.put(Name.CHILD_COUNT, childCounts.build());
+        return new GedcomIndexes(indexes);
+    }
+
+    //Key of a couple in SPOUSE_PAIR, from the individual ids of the husband and the wife
+    public static long pair(int husband, int wife) {
+        return (long) husband << 32 | wife;
+    }
+
+    public GedcomIndex get(Name name) {
+        return indexes.get(name);
+    }
+
+    GedcomIndexes copyTo(GedcomOffHeap target) throws IOException {
+        Map<Name, GedcomIndex> copied = new EnumMap<>(Name.class);
+        for (Map.Entry<Name, GedcomIndex> entry : indexes.entrySet()) {
+            copied.put(entry.getKey(), entry.getValue().copyTo(target));
+        }
+        return new GedcomIndexes(copied);
+    }
+}
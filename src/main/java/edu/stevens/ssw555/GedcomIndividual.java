@@ -0,0 +1,112 @@
+package edu.stevens.ssw555;
+
+/**
+ * One INDI record of a {@link GedcomDocument} as an immutable value: dates are {@link GedcomDate}
+ * packed longs and families are dense ids, so validators read fields instead of looking up and
+ * parsing the strings of the legacy attribute maps.
+ */
+public final class GedcomIndividual {
+
+    private final int id;
+    private final String xref;
+    private final String label;
+    private final String name;
+    private final String sex;
+    private final long birth;
+    private final long death;
+    private final boolean deceased;
+    private final boolean listedAsSpouse;
+    private final int[] childFamilies;
+    private final int[] spouseFamilies;
+
+    GedcomIndividual(int id, String xref, String label, String name, String sex, long birth, long death, boolean deceased,
+                     boolean listedAsSpouse, int[] childFamilies, int[] spouseFamilies) {
+        this.id = id;
+        this.xref = xref;
+        this.label = label;
+        this.name = name;
+        this.sex = sex;
+        this.birth = birth;
+        this.death = death;
+        this.deceased = deceased;
+        this.listedAsSpouse = listedAsSpouse;
+        this.childFamilies = childFamilies;
+        this.spouseFamilies = spouseFamilies;
+    }
+
+    //Dense id in GedcomDocument.getIndividualIds()
+    public int getId() {
+        return id;
+    }
+
+    //"@I1@"
+    public String getXref() {
+        return xref;
+    }
+
+    //"I1", as the reports print it
+    public String getLabel() {
+        return label;
+    }
+
+    //"given /surname/"
+    public String getName() {
+        return name;
+    }
+
+    //The SEX value, "" when there is none
+    public String getSex() {
+        return sex;
+    }
+
+    public boolean isMale() {
+        return sex.equals("M");
+    }
+
+    public boolean isFemale() {
+        return sex.equals("F");
+    }
+
+    //Packed birth date, GedcomDate.MISSING when there is none
+    public long getBirth() {
+        return birth;
+    }
+
+    //Packed death date, GedcomDate.MISSING when there is none or it is not given
+    public long getDeath() {
+        return death;
+    }
+
+    //True when the record has a DEAT line, dated or not
+    public boolean isDeceased() {
+        return deceased;
+    }
+
+    //True when the record has a FAMS line, even one naming a family that is not defined
+    public boolean isListedAsSpouse() {
+        return listedAsSpouse;
+    }
+
+    //Families the individual is a child of (FAMC), as family ids in file order
+    public int childFamilyCount() {
+        return childFamilies.length;
+    }
+
+    public int childFamily(int index) {
+        return childFamilies[index];
+    }
+
+    //Families the individual is a spouse in (FAMS), as family ids in file order
+    public int spouseFamilyCount() {
+        return spouseFamilies.length;
+    }
+
+    public int spouseFamily(int index) {
+        return spouseFamilies[index];
+    }
+
+    @Override
+    public String toString() {
+        return label + " " + name;
+    }
+}
@@ -0,0 +1,244 @@
+package edu.stevens.ssw555;
+
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.io.Reader;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Source of raw GEDCOM bytes for {@link GedcomRecordReader}. The bytes are exposed as a window
+ * buffer that the reader tokenizes in place; {@link #fill(int)} slides the window forward.
+ * Gzip and zip files are recognised by their magic bytes and decompressed as they are read,
+ * and UTF-16 text is transcoded to UTF-8 on the way in. With {@link #PIPELINE_PROPERTY} set, files
+ * are read, decompressed and transcoded on a separate thread by {@link PipelinedGedcomInput}.
+ */
+public abstract class GedcomInput implements Closeable {
+
+    //Regular files at least this large are memory-mapped, smaller files and pipes are read through a buffer
+    public static final long MAP_THRESHOLD = 1024 * 1024;
+
+    public static final int DEFAULT_INFLATE_BUFFER_SIZE = 64 * 1024;
+
+    private static final int MAGIC_LENGTH = 4;
+
+    //System properties overriding the window and decompression buffer sizes used by open(Path)
+    public static final String BUFFER_SIZE_PROPERTY = "gedcom.bufferSize";
+    public static final String INFLATE_BUFFER_SIZE_PROPERTY = "gedcom.inflateBufferSize";
+
+    //Set -Dgedcom.pipeline=true to read on a background thread instead of mapping, e.g. on network mounts
+    public static final String PIPELINE_PROPERTY = "gedcom.pipeline";
+    public static final String PIPELINE_BLOCKS_PROPERTY = "gedcom.pipelineBlocks";
+
+    //Current window; bytes [0, limit()) are valid
+    public abstract ByteBuffer buffer();
+
+    public abstract int limit();
+
+    //True when no bytes exist beyond the current window
+    public abstract boolean isEof();
+
+    //Drops the bytes before keep and loads more input; the byte at keep moves to index 0.
+    //With keep == 0 the window grows, so a record is never larger than the window.
+    public abstract void fill(int keep) throws IOException;
+
+    public static GedcomInput open(String gedcomInputFile) throws IOException {
+        return open(Paths.get(gedcomInputFile));
+    }
+
+    public static GedcomInput open(Path path) throws IOException {
+        return open(path, Integer.getInteger(BUFFER_SIZE_PROPERTY, BufferedGedcomInput.DEFAULT_BUFFER_SIZE),
+                Integer.getInteger(INFLATE_BUFFER_SIZE_PROPERTY, DEFAULT_INFLATE_BUFFER_SIZE));
+    }
+
+    public static GedcomInput open(Path path, int bufferSize, int inflateBufferSize) throws IOException {
+        boolean pipelined = Boolean.getBoolean(PIPELINE_PROPERTY);
+        if (!pipelined && Files.isRegularFile(path) && Files.size(path) >= MAP_THRESHOLD && isMappable(path)) {
+            return new MappedGedcomInput(path);
+        }
+        if (pipelined) {
+            return openPipelined(path, bufferSize, inflateBufferSize,
+                    Integer.getInteger(PIPELINE_BLOCKS_PROPERTY, PipelinedGedcomInput.DEFAULT_BLOCK_COUNT));
+        }
+        InputStream in = decompress(new FileInputStream(path.toFile()), inflateBufferSize);
+        return new BufferedGedcomInput(transcode(in, bufferSize), bufferSize);
+    }
+
+    //Opening and the magic-byte checks stay on the caller's thread; every later read runs on the reader thread
+    public static PipelinedGedcomInput openPipelined(Path path, int blockSize, int inflateBufferSize, int blockCount) throws IOException {
+        InputStream in = decompress(new FileInputStream(path.toFile()), inflateBufferSize);
+        return new PipelinedGedcomInput(transcode(in, blockSize), blockSize, blockCount);
+    }
+
+    //True for gzip and zip files, which can be neither mapped nor split
+    public static boolean isCompressed(Path path) throws IOException {
+        byte[] magic = readMagic(path);
+        return isGzip(magic) || isZip(magic);
+    }
+
+    //Plain single-byte or UTF-8 text without a byte order mark can be tokenized straight from a mapping
+    public static boolean isMappable(Path path) throws IOException {
+        byte[] magic = readMagic(path);
+        return !isGzip(magic) && !isZip(magic) && utf16(magic) == null && !isUtf8Bom(magic);
+    }
+
+    //Wraps the stream in a gzip or zip decoder when its first bytes say so; a zip is read from its first file entry
+    public static InputStream decompress(InputStream in, int inflateBufferSize) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(in, MAGIC_LENGTH);
+        byte[] magic = peekMagic(pushback);
+        if (isGzip(magic)) {
+            return new GZIPInputStream(pushback, inflateBufferSize);
+        }
+        if (isZip(magic)) {
+            ZipInputStream zip = new ZipInputStream(pushback);
+            ZipEntry entry = zip.getNextEntry();
+            while (entry != null && entry.isDirectory()) {
+                entry = zip.getNextEntry();
+            }
+            if (entry == null) {
+                zip.close();
+                throw new IOException("Zip archive contains no GEDCOM file");
+            }
+            return zip;
+        }
+        return pushback;
+    }
+
+    //Re-encodes UTF-16 (UNICODE) text as UTF-8 and drops a UTF-8 byte order mark, so the tokenizer
+    //only ever sees single-byte delimiters
+    public static InputStream transcode(InputStream in, int bufferSize) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(in, MAGIC_LENGTH);
+        byte[] magic = peekMagic(pushback);
+        Charset utf16 = utf16(magic);
+        if (utf16 != null) {
+            return new Utf8InputStream(new InputStreamReader(pushback, utf16), bufferSize);
+        }
+        if (isUtf8Bom(magic)) {
+            pushback.skip(3);
+        }
+        return pushback;
+    }
+
+    private static byte[] readMagic(Path path) throws IOException {
+        byte[] magic = new byte[MAGIC_LENGTH];
+        try (InputStream in = Files.newInputStream(path)) {
+            readMagic(in, magic);
+        }
+        return magic;
+    }
+
+    private static byte[] peekMagic(PushbackInputStream in) throws IOException {
+        byte[] magic = new byte[MAGIC_LENGTH];
+        int count = readMagic(in, magic);
+        in.unread(magic, 0, count);
+        return magic;
+    }
+
+    private static int readMagic(InputStream in, byte[] magic) throws IOException {
+        int count = 0;
+        while (count < magic.length) {
+            int read = in.read(magic, count, magic.length - count);
+            if (read < 0) {
+                break;
+            }
+            count += read;
+        }
+        return count;
+    }
+
+    //UTF-16 is recognised by its byte order mark, or by the zero byte next to the leading "0" of "0 HEAD"
+    private static Charset utf16(byte[] magic) {
+        if ((magic[0] == (byte) 0xfe && magic[1] == (byte) 0xff) || (magic[0] == (byte) 0xff && magic[1] == (byte) 0xfe)) {
+            return StandardCharsets.UTF_16;
+        }
+        if (magic[0] == '0' && magic[1] == 0) {
+            return StandardCharsets.UTF_16LE;
+        }
+        if (magic[0] == 0 && magic[1] == '0') {
+            return StandardCharsets.UTF_16BE;
+        }
+        return null;
+    }
+
+    private static boolean isUtf8Bom(byte[] magic) {
+        return magic[0] == (byte) 0xef && magic[1] == (byte) 0xbb && magic[2] == (byte) 0xbf;
+    }
+
+    private static boolean isGzip(byte[] magic) {
+        return magic[0] == (byte) 0x1f && magic[1] == (byte) 0x8b;
+    }
+
+    private static boolean isZip(byte[] magic) {
+        return magic[0] == 'P' && magic[1] == 'K' && magic[2] == 3 && magic[3] == 4;
+    }
+
+    /**
+     * Encodes the characters of a reader as UTF-8 bytes.
+     */
+    private static final class Utf8InputStream extends InputStream {
+
+        private final Reader reader;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final CharBuffer chars;
+        private final ByteBuffer bytes;
+        private boolean eof = false;
+
+        Utf8InputStream(Reader reader, int bufferSize) {
+            this.reader = reader;
+            this.chars = CharBuffer.allocate(bufferSize);
+            this.bytes = ByteBuffer.allocate(bufferSize * 3);
+            ((Buffer) chars).flip();
+            ((Buffer) bytes).flip();
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            while (!bytes.hasRemaining()) {
+                if (eof && !chars.hasRemaining()) {
+                    return -1;
+                }
+                if (!eof) {
+                    chars.compact();
+                    if (reader.read(chars) < 0) {
+                        eof = true;
+                    }
+                    ((Buffer) chars).flip();
+                }
+                ((Buffer) bytes).clear();
+                encoder.encode(chars, bytes, eof);
+                ((Buffer) bytes).flip();
+            }
+            int count = Math.min(len, bytes.remaining());
+            bytes.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package edu.stevens.ssw555;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Splits one GEDCOM line held in a byte buffer (heap or memory-mapped) into level, xref, tag and value.
+ * The parts are kept as offsets into the buffer, so tokenizing a line allocates nothing;
+ * Strings are only built when a caller asks for one.
+ * Runs of spaces and tabs between the parts are accepted, and the value keeps its inner spaces.
+ */
+public final class GedcomLineTokenizer {
+
+    private ByteBuffer buffer;
+    private int level;
+    private int xrefStart;
+    private int xrefEnd;
+    private int tagStart;
+    private int tagEnd;
+    private int valueStart;
+    private int valueEnd;
+
+    public boolean tokenize(byte[] buffer, int start, int end) {
+        return tokenize(ByteBuffer.wrap(buffer), start, end);
+    }
+
+    //Tokenizes buffer[start, end), one line without its terminator. Returns false for blank or malformed lines
+    public boolean tokenize(ByteBuffer buffer, int start, int end) {
+        this.buffer = buffer;
+        level = -1;
+        xrefStart = xrefEnd = tagStart = tagEnd = valueStart = valueEnd = start;
+
+        while (end > start && isBlank(buffer.get(end - 1))) {
+            end--;
+        }
+        int i = skipBlanks(buffer, start, end);
+        int digits = i;
+        int value = 0;
+        while (i < end && buffer.get(i) >= '0' && buffer.get(i) <= '9') {
+            value = value * 10 + (buffer.get(i) - '0');
+            i++;
+        }
+        if (i == digits || i - digits > 2 || (i < end && !isBlank(buffer.get(i)))) {
+            return false;
+        }
+        i = skipBlanks(buffer, i, end);
+
+        xrefStart = xrefEnd = i;
+        if (i < end && buffer.get(i) == '@') {
+            while (i < end && !isBlank(buffer.get(i))) {
+                i++;
+            }
+            xrefEnd = i;
+            i = skipBlanks(buffer, i, end);
+        }
+
+        tagStart = i;
+        while (i < end && !isBlank(buffer.get(i))) {
+            i++;
+        }
+        tagEnd = i;
+        valueStart = skipBlanks(buffer, i, end);
+        valueEnd = end;
+        if (tagEnd == tagStart) {
+            return false;
+        }
+        level = value;
+        return true;
+    }
+
+    public int level() {
+        return level;
+    }
+
+    public int xrefStart() {
+        return xrefStart;
+    }
+
+    public int xrefEnd() {
+        return xrefEnd;
+    }
+
+    public int tagStart() {
+        return tagStart;
+    }
+
+    public int tagEnd() {
+        return tagEnd;
+    }
+
+    public int valueStart() {
+        return valueStart;
+    }
+
+    public int valueEnd() {
+        return valueEnd;
+    }
+
+    public boolean hasXref() {
+        return xrefEnd > xrefStart;
+    }
+
+    public boolean tagEquals(String tag) {
+        return regionEquals(buffer, tagStart, tagEnd, tag);
+    }
+
+    public String xref() {
+        return hasXref() ? decode(buffer, xrefStart, xrefEnd) : null;
+    }
+
+    public String tag() {
+        return decode(buffer, tagStart, tagEnd);
+    }
+
+    public String value() {
+        return decode(buffer, valueStart, valueEnd);
+    }
+
+    static boolean regionEquals(ByteBuffer buffer, int start, int end, String text) {
+        if (end - start != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (buffer.get(start + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String decode(ByteBuffer buffer, int start, int end) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private static int skipBlanks(ByteBuffer buffer, int i, int end) {
+        while (i < end && isBlank(buffer.get(i))) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,255 @@
+package edu.stevens.ssw555;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.util.List;
+
+/**
+ * Family links of a document resolved once to dense ids: every FAMS, FAMC, HUSB, WIFE and CHIL
+ * line becomes an int in a {@link GedcomAdjacency}, so walking from a person to their families or
+ * from a family to its members is array indexing. All links are kept, so a person who married
+ * twice has two spouse families. Links to records that do not exist in the file are dropped.
+ */
+public final class GedcomLinkGraph {
+
+    private final GedcomAdjacency spouseFamilies;
+    private final GedcomAdjacency childFamilies;
+    private final GedcomAdjacency children;
+    private final GedcomAdjacency spouses;
+    private final IntBuffer husbands;
+    private final IntBuffer wives;
+
+    GedcomLinkGraph(GedcomAdjacency spouseFamilies, GedcomAdjacency childFamilies, GedcomAdjacency children,
+                    GedcomAdjacency spouses, int[] husbands, int[] wives) {
+        this(spouseFamilies, childFamilies, children, spouses, IntBuffer.wrap(husbands), IntBuffer.wrap(wives));
+    }
+
+    GedcomLinkGraph(GedcomAdjacency spouseFamilies, GedcomAdjacency childFamilies, GedcomAdjacency children,
+                            GedcomAdjacency spouses, IntBuffer husbands, IntBuffer wives) {
+        this.spouseFamilies = spouseFamilies;
+        this.childFamilies = childFamilies;
+        this.children = children;
+        this.spouses = spouses;
+        this.husbands = husbands;
+        this.wives = wives;
+    }
+
+    public int individualCount() {
+        return spouseFamilies.sourceCount();
+    }
+
+    public int familyCount() {
+        return children.sourceCount();
+    }
+
+    //Person to the families they are a spouse in (FAMS), in file order
+    public GedcomAdjacency spouseFamilies() {
+        return spouseFamilies;
+    }
+
+    //Person to the families they are a child in (FAMC), in file order
+    public GedcomAdjacency childFamilies() {
+        return childFamilies;
+    }
+
+    //Family to its children (CHIL), in file order
+    public GedcomAdjacency children() {
+        return children;
+    }
+
+    //Family to its husband and wife, whichever are present
+    public GedcomAdjacency spouses() {
+        return spouses;
+    }
+
+    //Individual id of the family's HUSB, or -1
+    public int husband(int family) {
+        return husbands.get(family);
+    }
+
+    //Individual id of the family's WIFE, or -1
+    public int wife(int family) {
+        return wives.get(family);
+    }
+
+    GedcomLinkGraph copyTo(GedcomOffHeap target) throws IOException {
+        return new GedcomLinkGraph(spouseFamilies.copyTo(target), childFamilies.copyTo(target), children.copyTo(target),
+                spouses.copyTo(target), target.copy(husbands), target.copy(wives));
+    }
+
+    /**
+     * Collects links while records are read. The record a line belongs to is already an id; the xref it
+     * points to is interned in a dictionary shared with the {@link GedcomStore.Builder}, and resolved to an
+     * id in {@link #build} once every INDI and FAM has been interned, so forward references resolve like
+     * backward ones. Everything is kept in buffers of the builder's {@link GedcomOffHeap}.
+     */
+    static class Builder {
+
+        private final GedcomOffHeap columns;
+        private final GedcomDictionary xrefs;
+        //FAMS and FAMC as (individual id, family ref) pairs, and per FAM record its id, HUSB and WIFE refs with
+        //its CHIL refs at childRefs[childStarts[i]] .. childRefs[childStarts[i + 1] - 1]; refs are -1 for a missing line
+        private IntBuffer spousePersons;
+        private IntBuffer spouseFamilies;
+        private int spouseLinks;
+        private IntBuffer childPersons;
+        private IntBuffer childFamilies;
+        private int childLinks;
+        private IntBuffer families;
+        private IntBuffer husbands;
+        private IntBuffer wives;
+        private IntBuffer childStarts;
+        private int familyRecords;
+        private IntBuffer childRefs;
+
+        Builder() {
+            this(GedcomOffHeap.HEAP, new GedcomDictionary());
+        }
+
+        Builder(GedcomOffHeap columns, GedcomDictionary xrefs) {
+            this.columns = columns;
+            this.xrefs = xrefs;
+            this.spousePersons = columns.ints(16);
+            this.spouseFamilies = columns.ints(16);
+            this.childPersons = columns.ints(16);
+            this.childFamilies = columns.ints(16);
+            this.families = columns.ints(16);
+            this.husbands = columns.ints(16);
+            this.wives = columns.ints(16);
+            this.childStarts = columns.ints(16);
+            this.childRefs = columns.ints(16);
+        }
+
+        void addSpouseFamily(int person, String family) {
+            addSpouseLink(person, ref(family));
+        }
+
+        void addChildFamily(int person, String family) {
+            addChildLink(person, ref(family));
+        }
+
+        //husband and wife may be null when the family has no such line
+        void addFamily(int family, String husband, String wife, List<String> children) {
+            addFamilyRecord(family, ref(husband), ref(wife));
+            for (String child : children) {
+                addChild(ref(child));
+            }
+        }
+
+        //Appends another builder's links after this one's, as a chunk of a split file whose individual
+        //and family ids map to this builder's through individualIds and familyIds
+        void addAll(Builder other, IntBuffer individualIds, IntBuffer familyIds) {
+            IntBuffer refs = columns.ints(other.xrefs.size());
+            for (int i = 0; i < other.xrefs.size(); i++) {
+                refs.put(i, xrefs.intern(other.xrefs.get(i)));
+            }
+            for (int i = 0; i < other.spouseLinks; i++) {
+                addSpouseLink(individualIds.get(other.spousePersons.get(i)), remap(refs, other.spouseFamilies.get(i)));
+            }
+            for (int i = 0; i < other.childLinks; i++) {
+                addChildLink(individualIds.get(other.childPersons.get(i)), remap(refs, other.childFamilies.get(i)));
+            }
+            for (int i = 0; i < other.familyRecords; i++) {
+                addFamilyRecord(familyIds.get(other.families.get(i)), remap(refs, other.husbands.get(i)), remap(refs, other.wives.get(i)));
+                for (int j = other.childStarts.get(i); j < other.childStarts.get(i + 1); j++) {
+                    addChild(remap(refs, other.childRefs.get(j)));
+                }
+            }
+        }
+
+        //The entry of ref in a column indexed by ref, or -1 for no line
+        private static int remap(IntBuffer column, int ref) {
+            return ref >= 0 ? column.get(ref) : -1;
+        }
+
+        private int ref(String xref) {
+            return xref != null ? xrefs.intern(xref) : -1;
+        }
+
+        private void addSpouseLink(int person, int family) {
+            spousePersons = columns.grow(spousePersons, spouseLinks, 0);
+            spouseFamilies = columns.grow(spouseFamilies, spouseLinks, 0);
+            spousePersons.put(spouseLinks, person);
+            spouseFamilies.put(spouseLinks, family);
+            spouseLinks++;
+        }
+
+        private void addChildLink(int person, int family) {
+            childPersons = columns.grow(childPersons, childLinks, 0);
+            childFamilies = columns.grow(childFamilies, childLinks, 0);
+            childPersons.put(childLinks, person);
+            childFamilies.put(childLinks, family);
+            childLinks++;
+        }
+
+        private void addFamilyRecord(int family, int husband, int wife) {
+            families = columns.grow(families, familyRecords, 0);
+            husbands = columns.grow(husbands, familyRecords, 0);
+            wives = columns.grow(wives, familyRecords, 0);
+            childStarts = columns.grow(childStarts, familyRecords + 1, 0);
+            families.put(familyRecords, family);
+            husbands.put(familyRecords, husband);
+            wives.put(familyRecords, wife);
+            childStarts.put(familyRecords + 1, childStarts.get(familyRecords));
+            familyRecords++;
+        }
+
+        //Adds a CHIL line to the last family record
+        private void addChild(int child) {
+            int end = childStarts.get(familyRecords);
+            childRefs = columns.grow(childRefs, end, 0);
+            childRefs.put(end, child);
+            childStarts.put(familyRecords, end + 1);
+        }
+
+        GedcomLinkGraph build(GedcomIdTable individualIds, GedcomIdTable familyIds) {
+            int individualCount = individualIds.size();
+            int familyCount = familyIds.size();
+            //The individual and the family id of every interned xref, -1 where there is none
+            IntBuffer individualOf = columns.ints(xrefs.size());
+            IntBuffer familyOf = columns.ints(xrefs.size());
+            for (int i = 0; i < xrefs.size(); i++) {
+                String xref = xrefs.get(i);
+                individualOf.put(i, individualIds.id(xref));
+                familyOf.put(i, familyIds.id(xref));
+            }
+            IntBuffer husbandIds = columns.grow(columns.ints(0), familyCount - 1, -1);
+            IntBuffer wifeIds = columns.grow(columns.ints(0), familyCount - 1, -1);
+            GedcomAdjacency.Builder childEdges = new GedcomAdjacency.Builder(columns);
+            GedcomAdjacency.Builder spouseEdges = new GedcomAdjacency.Builder(columns);
+            for (int i = 0; i < familyRecords; i++) {
+                int family = families.get(i);
+                husbandIds.put(family, remap(individualOf, husbands.get(i)));
+                wifeIds.put(family, remap(individualOf, wives.get(i)));
+                if (husbandIds.get(family) >= 0) {
+                    spouseEdges.add(family, husbandIds.get(family));
+                }
+                if (wifeIds.get(family) >= 0) {
+                    spouseEdges.add(family, wifeIds.get(family));
+                }
+                for (int j = childStarts.get(i); j < childStarts.get(i + 1); j++) {
+                    int person = remap(individualOf, childRefs.get(j));
+                    if (person >= 0) {
+                        childEdges.add(family, person);
+                    }
+                }
+            }
+            return new GedcomLinkGraph(
+                    resolve(spousePersons, spouseFamilies, spouseLinks, familyOf).build(individualCount),
+                    resolve(childPersons, childFamilies, childLinks, familyOf).build(individualCount),
+                    childEdges.build(familyCount), spouseEdges.build(familyCount), husbandIds, wifeIds);
+        }
+
+        private GedcomAdjacency.Builder resolve(IntBuffer persons, IntBuffer families, int count, IntBuffer familyOf) {
+            GedcomAdjacency.Builder edges = new GedcomAdjacency.Builder(columns);
+            for (int i = 0; i < count; i++) {
+                int person = persons.get(i);
+                int family = remap(familyOf, families.get(i));
+                if (family >= 0) {
+                    edges.add(person, family);
+                }
+            }
+            return edges;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package edu.stevens.ssw555;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Where the columns of a document live: direct buffers outside the Java heap, or a file mapped into
+ * memory so the operating system pages the columns in and out. A parse given one builds its store
+ * columns, id tables, dictionaries, links, dates and indexes there from the first record on, so they
+ * cost the garbage collector nothing however many people the tree has; {@link #move} copies a document
+ * that was parsed on the heap. Either way the validators read the columns through the same accessors.
+ * <p>
+ * Columns grow by doubling while a parse runs. A direct column that was outgrown is freed with its
+ * buffer; in a mapped file it stays behind as dead space, so the file ends up at most about twice the
+ * size of the columns. The attributes the parser passes through, the few names and SEX values that
+ * do not fit a column, and the record, projection and attribute-map views stay on the heap.
+ */
+public final class GedcomOffHeap implements Closeable {
+
+    //System property naming where GedcomService and GedcomBatch put the columns; see fromProperty()
+    public static final String PROPERTY = "gedcom.offHeap";
+
+    //Columns on the Java heap, as a parse builds them when it is not given a GedcomOffHeap
+    static final GedcomOffHeap HEAP = new GedcomOffHeap(null, true);
+
+    private final FileChannel channel;
+    private final boolean heap;
+    private long position;
+
+    private GedcomOffHeap(FileChannel channel, boolean heap) {
+        this.channel = channel;
+        this.heap = heap;
+    }
+
+    //Columns in direct buffers, freed when the documents reading them are collected
+    public static GedcomOffHeap direct() {
+        return new GedcomOffHeap(null, false);
+    }
+
+    //Columns in file, which is created or truncated; keep it until the documents reading it are no longer used
+    public static GedcomOffHeap mapped(Path file) throws IOException {
+        return new GedcomOffHeap(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), false);
+    }
+
+    //Where the columns named by the gedcom.offHeap property go: "direct", or the path of the file to map.
+    //Null when the property is not set, and the columns stay on the heap
+    public static GedcomOffHeap fromProperty() throws IOException {
+        String value = System.getProperty(PROPERTY);
+        return value == null || value.isEmpty() ? null : of(value);
+    }
+
+    //"direct" for direct buffers, anything else the path of the file to map
+    public static GedcomOffHeap of(String target) throws IOException {
+        return target.equals("direct") ? direct() : mapped(Paths.get(target));
+    }
+
+    //A document reading the same records from columns copied here, indexes included; the given document
+    //can then be dropped
+    public GedcomDocument move(GedcomDocument document) throws IOException {
+        return new GedcomDocument(document.getStore().copyTo(this), document.getAttributes(), document.getStats(),
+                document.getDiagnostics(), document.getIndexes().copyTo(this));
+    }
+
+    //True for the columns of a parse that was not given a GedcomOffHeap
+    boolean isHeap() {
+        return heap;
+    }
+
+    //A column of length ints, all 0. Builders call these while records are read, so a mapped file that
+    //cannot grow fails the parse with an UncheckedIOException
+    IntBuffer ints(int length) {
+        return heap ? IntBuffer.allocate(length) : allocateColumn(4L * length).asIntBuffer();
+    }
+
+    LongBuffer longs(int length) {
+        return heap ? LongBuffer.allocate(length) : allocateColumn(8L * length).asLongBuffer();
+    }
+
+    ByteBuffer bytes(int length) {
+        return heap ? ByteBuffer.allocate(length) : allocateColumn(length);
+    }
+
+    //column itself when it holds index, else a column twice as long (or index + 1) with the same values and
+    //the new entries set to fill
+    IntBuffer grow(IntBuffer column, int index, int fill) {
+        if (index < column.capacity()) {
+            return column;
+        }
+        IntBuffer grown = ints(capacity(column.capacity(), index));
+        IntBuffer source = column.duplicate();
+        source.clear();
+        grown.put(source);
+        while (grown.hasRemaining()) {
+            grown.put(fill);
+        }
+        grown.clear();
+        return grown;
+    }
+
+    LongBuffer grow(LongBuffer column, int index) {
+        if (index < column.capacity()) {
+            return column;
+        }
+        LongBuffer grown = longs(capacity(column.capacity(), index));
+        LongBuffer source = column.duplicate();
+        source.clear();
+        grown.put(source).clear();
+        return grown;
+    }
+
+    ByteBuffer grow(ByteBuffer column, int index) {
+        if (index < column.capacity()) {
+            return column;
+        }
+        ByteBuffer grown = bytes(capacity(column.capacity(), index));
+        ByteBuffer source = column.duplicate();
+        source.clear();
+        grown.put(source).clear();
+        return grown;
+    }
+
+    private static int capacity(int capacity, int index) {
+        return (int) Math.min(Integer.MAX_VALUE - 8, Math.max(index + 1L, capacity * 2L));
+    }
+
+    //The first length entries of column, padded with fill when it is shorter. A mapped column is sliced in
+    //place; others are copied, so the outgrown capacity can be freed
+    IntBuffer trim(IntBuffer column, int length, int fill) {
+        IntBuffer trimmed = grow(column, length - 1, fill).duplicate();
+        trimmed.clear().limit(length);
+        if (channel != null) {
+            return trimmed.slice();
+        }
+        IntBuffer copy = ints(length);
+        copy.put(trimmed).clear();
+        return copy;
+    }
+
+    LongBuffer trim(LongBuffer column, int length) {
+        LongBuffer trimmed = grow(column, length - 1).duplicate();
+        trimmed.clear().limit(length);
+        if (channel != null) {
+            return trimmed.slice();
+        }
+        LongBuffer copy = longs(length);
+        copy.put(trimmed).clear();
+        return copy;
+    }
+
+    ByteBuffer trim(ByteBuffer column, int length) {
+        ByteBuffer trimmed = grow(column, length - 1).duplicate();
+        trimmed.clear().limit(length);
+        if (channel != null) {
+            return trimmed.slice().order(column.order());
+        }
+        ByteBuffer copy = bytes(length);
+        copy.put(trimmed).clear();
+        return copy;
+    }
+
+    private ByteBuffer allocateColumn(long bytes) {
+        try {
+            return allocate(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    IntBuffer copy(IntBuffer column) throws IOException {
+        IntBuffer source = column.duplicate();
+        source.clear();
+        IntBuffer copy = heap ? IntBuffer.allocate(source.capacity()) : allocate(4L * source.capacity()).asIntBuffer();
+        copy.put(source).clear();
+        return copy;
+    }
+
+    LongBuffer copy(LongBuffer column) throws IOException {
+        LongBuffer source = column.duplicate();
+        source.clear();
+        LongBuffer copy = heap ? LongBuffer.allocate(source.capacity()) : allocate(8L * source.capacity()).asLongBuffer();
+        copy.put(source).clear();
+        return copy;
+    }
+
+    ByteBuffer copy(ByteBuffer column) throws IOException {
+        ByteBuffer source = column.duplicate();
+        source.clear();
+        ByteBuffer copy = heap ? ByteBuffer.allocate(source.capacity()) : allocate(source.capacity());
+        copy.put(source).clear();
+        return copy;
+    }
+
+    //A native-order buffer of bytes; mapped columns start on an 8-byte boundary of the file
+    synchronized ByteBuffer allocate(long bytes) throws IOException {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Column of " + bytes + " bytes does not fit in one buffer");
+        }
+        if (heap) {
+            return ByteBuffer.allocate((int) bytes).order(ByteOrder.nativeOrder());
+        }
+        if (channel == null) {
+            return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+        }
+        ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, bytes).order(ByteOrder.nativeOrder());
+        position = (position + bytes + 7) & ~7L;
+        return buffer;
+    }
+
+    //Mapped columns stay readable after close; only the file handle is released
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package edu.stevens.ssw555;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counters for one parse: bytes consumed, lines, malformed lines, level-0 records by tag, and the
+ * wall-clock time of each phase ("parse", "families", "links", ...) in the order the phases ran.
+ * {@link GedcomRecordReader} fills the counters; the services add their phase timings.
+ */
+public final class GedcomParseStats {
+
+    private long bytes;
+    private long lines;
+    private long malformedLines;
+    private long records;
+    private final long[] recordsByTag = new long[GedcomTag.values().length];
+    private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+
+    void addRecord(GedcomTag tag, int lineCount, int malformedCount) {
+        records++;
+        recordsByTag[tag.ordinal()]++;
+        lines += lineCount;
+        malformedLines += malformedCount;
+    }
+
+    void addMalformedLines(int count) {
+        malformedLines += count;
+    }
+
+    void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    //Adds to the phase, so a phase timed in several parts sums up
+    public void addPhase(String phase, long nanos) {
+        Long previous = phaseNanos.get(phase);
+        phaseNanos.put(phase, previous != null ? previous + nanos : nanos);
+    }
+
+    //Folds in the counters of another reader, e.g. one chunk of a parallel parse; phase times are not merged
+    public void add(GedcomParseStats other) {
+        bytes += other.bytes;
+        lines += other.lines;
+        malformedLines += other.malformedLines;
+        records += other.records;
+        for (int i = 0; i < recordsByTag.length; i++) {
+            recordsByTag[i] += other.recordsByTag[i];
+        }
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    public long getMalformedLines() {
+        return malformedLines;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public long getRecords(GedcomTag tag) {
+        return recordsByTag[tag.ordinal()];
+    }
+
+    //Only the tags that occurred, in GedcomTag order
+    public Map<GedcomTag, Long> getRecordsByTag() {
+        Map<GedcomTag, Long> byTag = new EnumMap<>(GedcomTag.class);
+        for (GedcomTag tag : GedcomTag.values()) {
+            if (recordsByTag[tag.ordinal()] > 0) {
+                byTag.put(tag, recordsByTag[tag.ordinal()]);
+            }
+        }
+        return byTag;
+    }
+
+    //Nanoseconds of the phase, or 0 when it did not run
+    public long getPhaseNanos(String phase) {
+        Long nanos = phaseNanos.get(phase);
+        return nanos != null ? nanos : 0;
+    }
+
+    public Map<String, Long> getPhaseNanos() {
+        return Collections.unmodifiableMap(phaseNanos);
+    }
+
+    public long getTotalNanos() {
+        long total = 0;
+        for (long nanos : phaseNanos.values()) {
+            total += nanos;
+        }
+        return total;
+    }
+
+    //Throughput over the "parse" phase, where the bytes are read
+    public double getBytesPerSecond() {
+        return perSecond(bytes, getPhaseNanos("parse"));
+    }
+
+    public double getRecordsPerSecond() {
+        return perSecond(records, getPhaseNanos("parse"));
+    }
+
+    private static double perSecond(long count, long nanos) {
+        return nanos > 0 ? count * 1e9 / nanos : 0;
+    }
+
+    public String summary() {
+        StringBuilder text = new StringBuilder("Parse summary:\n");
+        text.append(String.format("  %,d bytes, %,d lines (%,d malformed), %,d records%n", bytes, lines, malformedLines, records));
+        text.append(String.format("  %.1f MB/s, %,.0f records/s%n", getBytesPerSecond() / (1024 * 1024), getRecordsPerSecond()));
+        StringBuilder byTag = new StringBuilder();
+        for (Map.Entry<GedcomTag, Long> entry : getRecordsByTag().entrySet()) {
+            byTag.append(byTag.length() == 0 ? "" : ", ").append(entry.getKey()).append(' ').append(entry.getValue());
+        }
+        text.append("  records by tag: ").append(byTag).append(String.format("%n"));
+        for (Map.Entry<String, Long> entry : phaseNanos.entrySet()) {
+            text.append(String.format("  %-10s %10.3f ms%n", entry.getKey(), entry.getValue() / 1e6));
+        }
+        return text.toString();
+    }
+
+    @Override
+    public String toString() {
+        return summary();
+    }
+}
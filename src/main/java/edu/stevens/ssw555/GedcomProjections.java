@@ -0,0 +1,109 @@
+package edu.stevens.ssw555;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Read-only views of one {@link GedcomDocument} in the shapes the older user stories and the report
+ * tables consume, built once from the packed columns. The stories used to re-split the space-joined
+ * rows of getIndividualData()/getFamilyData() and guess the columns from the token count, which
+ * went wrong for names with more than two words and for rows with an empty date.
+ */
+public final class GedcomProjections {
+
+    private final SortedMap<Integer, String> birthDates;
+    private final SortedMap<Integer, String> deathDates;
+    private final SortedMap<Integer, String> marriageDates;
+    private final SortedMap<Integer, String> divorceDates;
+    private final List<List<String>> individualRows;
+    private final List<List<String>> familyRows;
+
+    GedcomProjections(GedcomDocument document) {
+        GedcomEventDates dates = document.getDates();
+        SortedMap<Integer, String> births = new TreeMap<>();
+        SortedMap<Integer, String> deaths = new TreeMap<>();
+        for (int i = 0; i < dates.individualCount(); i++) {
+            put(births, i, dates.birth(i));
+            put(deaths, i, dates.death(i));
+        }
+        SortedMap<Integer, String> marriages = new TreeMap<>();
+        SortedMap<Integer, String> divorces = new TreeMap<>();
+        for (int i = 0; i < dates.familyCount(); i++) {
+            put(marriages, i, dates.marriage(i));
+            put(divorces, i, dates.divorce(i));
+        }
+        birthDates = Collections.unmodifiableSortedMap(births);
+        deathDates = Collections.unmodifiableSortedMap(deaths);
+        marriageDates = Collections.unmodifiableSortedMap(marriages);
+        divorceDates = Collections.unmodifiableSortedMap(divorces);
+
+        GedcomIdTable individualIds = document.getIndividualIds();
+        String[][] individuals = new String[individualIds.size()][];
+        for (int i = 0; i < individuals.length; i++) {
+            individuals[i] = withLabel(individualIds.label(i), document.individualFields(i));
+        }
+        GedcomIdTable familyIds = document.getFamilyIds();
+        String[][] families = new String[familyIds.size()][];
+        for (int i = 0; i < families.length; i++) {
+            families[i] = withLabel(familyIds.label(i), document.familyFields(i));
+        }
+        individualRows = rows(individuals);
+        familyRows = rows(families);
+    }
+
+    //Only dates that were given, partial and approximate ones included, as "3 MAR 1950", "ABT 1990", ...
+    private static void put(SortedMap<Integer, String> dates, int id, long date) {
+        if (GedcomDate.isKnown(date)) {
+            dates.put(id, GedcomDate.format(date));
+        }
+    }
+
+    private static String[] withLabel(String label, String[] fields) {
+        String[] row = new String[fields.length + 1];
+        row[0] = label;
+        System.arraycopy(fields, 0, row, 1, fields.length);
+        return row;
+    }
+
+    private static List<List<String>> rows(String[][] rows) {
+        List<List<String>> lists = new ArrayList<>(rows.length);
+        for (String[] row : rows) {
+            lists.add(Collections.unmodifiableList(Arrays.asList(row)));
+        }
+        return Collections.unmodifiableList(lists);
+    }
+
+    //Birth dates keyed by individual id
+    public SortedMap<Integer, String> getBirthDates() {
+        return birthDates;
+    }
+
+    //Death dates keyed by individual id
+    public SortedMap<Integer, String> getDeathDates() {
+        return deathDates;
+    }
+
+    //Marriage dates keyed by family id
+    public SortedMap<Integer, String> getMarriageDates() {
+        return marriageDates;
+    }
+
+    //Divorce dates keyed by family id
+    public SortedMap<Integer, String> getDivorceDates() {
+        return divorceDates;
+    }
+
+    //By individual id: label name gender birth age alive death child spouse, as the report table prints them
+    public List<List<String>> getIndividualRows() {
+        return individualRows;
+    }
+
+    //By family id: label married divorced husband husbandName wife wifeName children
+    public List<List<String>> getFamilyRows() {
+        return familyRows;
+    }
+}
@@ -0,0 +1,228 @@
+package edu.stevens.ssw555;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One level-0 GEDCOM record (INDI, FAM, NOTE, HEAD, ...) together with all of its substructure lines.
+ * Line 0 is the record line itself, lines 1..size()-1 are the nested lines in file order.
+ * Each line knows its parent and where its subtree ends, so the record can be walked as a tree
+ * (BIRT -> DATE, PLAC, ...) whatever order the substructures appear in.
+ * Lines are stored as offset slices into the reader's buffer and only decoded when asked for; the record
+ * is reused by the reader and is only valid until the next call to {@link GedcomRecordReader#next()},
+ * unless it is {@link #detach() detached}. Every line also knows its line number and byte offset in the
+ * input, so problems found in its value can be reported where they are.
+ */
+public class GedcomRecord {
+
+    private static final int LEVEL = 0;
+    private static final int XREF_START = 1;
+    private static final int XREF_END = 2;
+    private static final int TAG_START = 3;
+    private static final int TAG_END = 4;
+    private static final int VALUE_START = 5;
+    private static final int VALUE_END = 6;
+    private static final int TAG_ID = 7;
+    private static final int PARENT = 8;
+    private static final int END = 9;
+    private static final int LINE = 10;
+    private static final int LINE_START = 11;
+    private static final int SLICE = 12;
+    private static final GedcomTag[] TAGS = GedcomTag.values();
+
+    private ByteBuffer buffer;
+    //Offset in the input of buffer position 0
+    private long bufferOffset;
+    private GedcomCharset charset = GedcomCharset.UTF_8;
+    private int[] slices = new int[SLICE * 32];
+    private int size;
+
+    void reset(ByteBuffer buffer, long bufferOffset) {
+        this.buffer = buffer;
+        this.bufferOffset = bufferOffset;
+        this.size = 0;
+    }
+
+    void setCharset(GedcomCharset charset) {
+        this.charset = charset;
+    }
+
+    void addLine(GedcomLineTokenizer tokenizer, int lineNumber, int lineStart) {
+        if ((size + 1) * SLICE > slices.length) {
+            int[] grown = new int[slices.length * 2];
+            System.arraycopy(slices, 0, grown, 0, slices.length);
+            slices = grown;
+        }
+        int base = size * SLICE;
+        slices[base + LEVEL] = tokenizer.level();
+        slices[base + XREF_START] = tokenizer.xrefStart();
+        slices[base + XREF_END] = tokenizer.xrefEnd();
+        slices[base + TAG_START] = tokenizer.tagStart();
+        slices[base + TAG_END] = tokenizer.tagEnd();
+        slices[base + VALUE_START] = tokenizer.valueStart();
+        slices[base + VALUE_END] = tokenizer.valueEnd();
+        slices[base + TAG_ID] = GedcomTag.lookup(buffer, tokenizer.tagStart(), tokenizer.tagEnd()).ordinal();
+        slices[base + END] = 0;
+        slices[base + LINE] = lineNumber;
+        slices[base + LINE_START] = lineStart;
+
+        //Close every open line at this level or deeper; what is left open is the parent
+        int parent = size - 1;
+        while (parent >= 0 && getLevel(parent) >= tokenizer.level()) {
+            slices[parent * SLICE + END] = size;
+            parent = getParent(parent);
+        }
+        slices[base + PARENT] = parent;
+        size++;
+    }
+
+    //Copies the bytes this record spans so it stays valid after the reader moves on
+    public GedcomRecord detach() {
+        if (size == 0) {
+            return new GedcomRecord();
+        }
+        int start = Integer.MAX_VALUE;
+        int end = 0;
+        for (int i = 0; i < size; i++) {
+            int base = i * SLICE;
+            start = Math.min(start, slices[base + LINE_START]);
+            end = Math.max(end, Math.max(slices[base + TAG_END], slices[base + VALUE_END]));
+        }
+        byte[] bytes = new byte[end - start];
+        if (buffer.hasArray()) {
+            System.arraycopy(buffer.array(), buffer.arrayOffset() + start, bytes, 0, bytes.length);
+        } else {
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(start + i);
+            }
+        }
+        GedcomRecord copy = new GedcomRecord();
+        copy.buffer = ByteBuffer.wrap(bytes);
+        copy.bufferOffset = bufferOffset + start;
+        copy.charset = charset;
+        copy.size = size;
+        copy.slices = new int[size * SLICE];
+        System.arraycopy(slices, 0, copy.slices, 0, copy.slices.length);
+        for (int i = 0; i < size; i++) {
+            int base = i * SLICE;
+            copy.slices[base + XREF_START] -= start;
+            copy.slices[base + XREF_END] -= start;
+            copy.slices[base + TAG_START] -= start;
+            copy.slices[base + TAG_END] -= start;
+            copy.slices[base + VALUE_START] -= start;
+            copy.slices[base + VALUE_END] -= start;
+            copy.slices[base + LINE_START] -= start;
+        }
+        return copy;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getXref() {
+        return getXref(0);
+    }
+
+    public String getTag() {
+        return getTag(0);
+    }
+
+    public String getValue() {
+        return getValue(0);
+    }
+
+    public int getLevel(int index) {
+        return slices[index * SLICE + LEVEL];
+    }
+
+    //Line number of the line in the input, starting at 1
+    public int getLineNumber(int index) {
+        return slices[index * SLICE + LINE];
+    }
+
+    //Byte offset of the start of the line in the input
+    public long getOffset(int index) {
+        return bufferOffset + slices[index * SLICE + LINE_START];
+    }
+
+    //Cross-reference id of the line, e.g. "@I1@", or null when the line has none
+    public String getXref(int index) {
+        int base = index * SLICE;
+        if (slices[base + XREF_END] == slices[base + XREF_START]) {
+            return null;
+        }
+        return charset.decode(buffer, slices[base + XREF_START], slices[base + XREF_END]);
+    }
+
+    public String getTag(int index) {
+        int base = index * SLICE;
+        return charset.decode(buffer, slices[base + TAG_START], slices[base + TAG_END]);
+    }
+
+    //Everything after the tag, or "" when the line has no value
+    public String getValue(int index) {
+        int base = index * SLICE;
+        return charset.decode(buffer, slices[base + VALUE_START], slices[base + VALUE_END]);
+    }
+
+    //Tag resolved once when the line was read; compare or switch on it instead of on strings
+    public GedcomTag getTagId(int index) {
+        return TAGS[slices[index * SLICE + TAG_ID]];
+    }
+
+    //Index of the enclosing line, or -1 for the record line
+    public int getParent(int index) {
+        return slices[index * SLICE + PARENT];
+    }
+
+    //Index just past the last line of this line's subtree
+    public int getEnd(int index) {
+        int end = slices[index * SLICE + END];
+        return end > 0 ? end : size;
+    }
+
+    //First direct substructure of the line, or -1 when it has none
+    public int firstChild(int index) {
+        return index + 1 < getEnd(index) ? index + 1 : -1;
+    }
+
+    //Next line with the same parent, or -1 when this is the last one
+    public int nextSibling(int index) {
+        int parent = getParent(index);
+        int next = getEnd(index);
+        return parent >= 0 && next < getEnd(parent) ? next : -1;
+    }
+
+    //First direct substructure with the given tag, e.g. the DATE of a BIRT, or -1
+    public int findChild(int index, GedcomTag tag) {
+        for (int i = firstChild(index); i >= 0; i = nextSibling(i)) {
+            if (getTagId(i) == tag) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    //Tags from the record line down to this line joined with '.', e.g. "BIRT.PLAC" or "NAME._MARNM"
+    public String getPath(int index) {
+        String path = getTag(index);
+        for (int i = getParent(index); i > 0; i = getParent(i)) {
+            path = getTag(i) + "." + path;
+        }
+        return path;
+    }
+
+    public boolean isTag(int index, String tag) {
+        int base = index * SLICE;
+        return GedcomLineTokenizer.regionEquals(buffer, slices[base + TAG_START], slices[base + TAG_END], tag);
+    }
+
+    public boolean isValue(int index, String value) {
+        int base = index * SLICE;
+        return GedcomLineTokenizer.regionEquals(buffer, slices[base + VALUE_START], slices[base + VALUE_END], value);
+    }
+
+    public String toString() {
+        return "record [tag=" + getTag() + ", xref=" + getXref() + ", lines=" + size + "]";
+    }
+}
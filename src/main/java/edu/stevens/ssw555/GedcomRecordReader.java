@@ -0,0 +1,230 @@
+package edu.stevens.ssw555;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Pull parser that returns one level-0 record at a time. Only the current record is held in memory,
+ * so files of any size can be walked in constant space. Lines are tokenized in place in the input's
+ * window buffer by {@link GedcomLineTokenizer}, without a String per line. Values are decoded in the
+ * charset the HEAD record declares in its CHAR line. Bytes, lines and records read are counted in
+ * {@link #getStats()}. Malformed lines never throw: they are logged with their line number and offset
+ * in {@link #getDiagnostics()} and skipped, and reading resumes with the next line that tokenizes.
+ */
+public class GedcomRecordReader implements Closeable {
+
+    private final GedcomInput input;
+    private final GedcomLineTokenizer tokenizer = new GedcomLineTokenizer();
+    private final GedcomRecord record = new GedcomRecord();
+    private final GedcomParseStats stats = new GedcomParseStats();
+    private final GedcomDiagnostics diagnostics = new GedcomDiagnostics();
+    private GedcomCharset charset = GedcomCharset.UTF_8;
+    private int position = 0;
+    //Bytes dropped from the front of the window so far; consumed + position is the offset in the input
+    private long consumed = 0;
+    //Offset of the start of this reader's input in the file, for chunks that start mid-file
+    private long origin = 0;
+    //Line number of the line at position
+    private int lineNumber = 1;
+    //Malformed lines of the current record, logged once the record is complete so a re-read does not log them twice
+    private int malformed = 0;
+    private int[] malformedLines = new int[4];
+    private long[] malformedOffsets = new long[4];
+    private boolean started = false;
+
+    //Memory-maps large regular files and falls back to a buffered stream for everything else
+    public GedcomRecordReader(String gedcomInputFile) throws IOException {
+        this(GedcomInput.open(gedcomInputFile));
+    }
+
+    public GedcomRecordReader(InputStream in) {
+        this(new BufferedGedcomInput(in));
+    }
+
+    public GedcomRecordReader(InputStream in, int bufferSize) {
+        this(new BufferedGedcomInput(in, bufferSize));
+    }
+
+    public GedcomRecordReader(GedcomInput input) {
+        this.input = input;
+        record.setCharset(charset);
+    }
+
+    public GedcomCharset getCharset() {
+        return charset;
+    }
+
+    //For readers that start past the HEAD record, such as the later chunks of a parallel parse
+    public void setCharset(GedcomCharset charset) {
+        this.charset = charset;
+        record.setCharset(charset);
+    }
+
+    //Offset of the first byte of the input in the whole file; diagnostics report offsets from there
+    public void setOrigin(long origin) {
+        this.origin = origin;
+    }
+
+    public GedcomParseStats getStats() {
+        return stats;
+    }
+
+    public GedcomDiagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
+    //Lines read so far, blank and malformed ones included
+    public int getLineCount() {
+        return lineNumber - 1;
+    }
+
+    //Returns the next level-0 record with its substructure, or null at end of input.
+    //The returned record is reused and only valid until the next call.
+    public GedcomRecord next() throws IOException {
+        if (!started) {
+            started = true;
+            skipToRecord();
+        }
+        while (true) {
+            ByteBuffer buffer = input.buffer();
+            int limit = input.limit();
+            record.reset(buffer, origin + consumed);
+            malformed = 0;
+            int lineStart = position;
+            int line = lineNumber;
+            while (true) {
+                int lineEnd = indexOfLineEnd(buffer, lineStart, limit);
+                if (lineEnd < 0) {
+                    if (!input.isEof()) {
+                        break;
+                    }
+                    if (lineStart >= limit) {
+                        position = limit;
+                        lineNumber = line;
+                        if (record.size() > 0) {
+                            return complete();
+                        }
+                        stats.setBytes(consumed + position);
+                        return null;
+                    }
+                    lineEnd = limit;
+                }
+                if (tokenizer.tokenize(buffer, lineStart, lineEnd)) {
+                    if (tokenizer.level() == 0 && record.size() > 0) {
+                        position = lineStart;
+                        lineNumber = line;
+                        return complete();
+                    }
+                    record.addLine(tokenizer, line, lineStart);
+                } else if (!isBlank(buffer, lineStart, lineEnd)) {
+                    addMalformed(line, origin + consumed + lineStart);
+                }
+                if (endsLine(buffer, lineEnd, limit)) {
+                    line++;
+                }
+                lineStart = lineEnd + 1;
+            }
+            //The record runs past the window: keep it, slide the window and tokenize it again
+            slide();
+        }
+    }
+
+    private void addMalformed(int line, long offset) {
+        if (malformed == malformedLines.length) {
+            int[] grownLines = new int[malformed * 2];
+            long[] grownOffsets = new long[malformed * 2];
+            System.arraycopy(malformedLines, 0, grownLines, 0, malformed);
+            System.arraycopy(malformedOffsets, 0, grownOffsets, 0, malformed);
+            malformedLines = grownLines;
+            malformedOffsets = grownOffsets;
+        }
+        malformedLines[malformed] = line;
+        malformedOffsets[malformed] = offset;
+        malformed++;
+    }
+
+    //A "\r\n" pair ends one line, not two; the line is counted at its '\n'
+    private boolean endsLine(ByteBuffer buffer, int lineEnd, int limit) {
+        if (lineEnd >= limit || buffer.get(lineEnd) == '\n') {
+            return lineEnd < limit;
+        }
+        return lineEnd + 1 < limit ? buffer.get(lineEnd + 1) != '\n' : input.isEof();
+    }
+
+    private void slide() throws IOException {
+        consumed += position;
+        input.fill(position);
+        position = 0;
+    }
+
+    private GedcomRecord complete() {
+        stats.addRecord(record.getTagId(0), record.size(), malformed);
+        for (int i = 0; i < malformed; i++) {
+            diagnostics.add(GedcomDiagnostics.Reason.MALFORMED_LINE, malformedLines[i], malformedOffsets[i]);
+        }
+        stats.setBytes(consumed + position);
+        if (record.getTagId(0) == GedcomTag.HEAD) {
+            int declared = record.findChild(0, GedcomTag.CHAR);
+            if (declared >= 0) {
+                setCharset(GedcomCharset.forName(record.getValue(declared)));
+            }
+        }
+        return record;
+    }
+
+    //Skips anything before the first level-0 line
+    private void skipToRecord() throws IOException {
+        while (true) {
+            int limit = input.limit();
+            int lineEnd = indexOfLineEnd(input.buffer(), position, limit);
+            if (lineEnd < 0) {
+                if (!input.isEof()) {
+                    slide();
+                    continue;
+                }
+                lineEnd = limit;
+            }
+            if (position >= limit) {
+                return;
+            }
+            if (tokenizer.tokenize(input.buffer(), position, lineEnd)) {
+                if (tokenizer.level() == 0) {
+                    return;
+                }
+            } else if (!isBlank(input.buffer(), position, lineEnd)) {
+                stats.addMalformedLines(1);
+                diagnostics.add(GedcomDiagnostics.Reason.MALFORMED_LINE, lineNumber, origin + consumed + position);
+            }
+            if (endsLine(input.buffer(), lineEnd, limit)) {
+                lineNumber++;
+            }
+            position = lineEnd + 1;
+        }
+    }
+
+    private static boolean isBlank(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!GedcomLineTokenizer.isBlank(buffer.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOfLineEnd(ByteBuffer buffer, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n' || b == '\r') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
@@ -1,53 +1,94 @@
 package edu.stevens.ssw555;
 
 import java.io.BufferedWriter;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.time.LocalDate;
-import java.time.Period;
 import java.util.*;
 
 public class GedcomService {
 
-    private Map<String, Map<String, String>> individualAttributeMaps = new HashMap<>();
-    private Map<String, Map<String, Object>> familyAttributeMaps = new HashMap<>();
+    //Placeholder "given surname" for individuals without a usable NAME and for spouses that are not defined
+    static final String UNKNOWN_NAME = "Unknown //";
 
-    private SortedMap<Integer, String> map;
-    SortedMap<Integer, String> mapFamily;
+    //Where every parse of this service builds its columns
+    private final GedcomOffHeap columns;
+    private GedcomStore.Builder store;
+    private Map<String, List<GedcomAttribute>> passthroughAttributes = new HashMap<>();
+    private GedcomIdTable individualIds;
+    private GedcomIdTable familyIds;
+    private GedcomLinkGraph.Builder links;
+    private GedcomEventDates.Builder dates;
+    private SpouseChecks spouseChecks;
+    private GedcomParseStats stats = new GedcomParseStats();
+    private GedcomDiagnostics diagnostics = new GedcomDiagnostics();
 
+    private GedcomDocument document;
+
+    //Columns off the heap when the gedcom.offHeap property names where they go
     public GedcomService(String gedcomInputFile) throws Exception {
-        map = individualData(gedcomInputFile);
-        mapFamily = familyData(gedcomInputFile);
+        this(gedcomInputFile, GedcomOffHeap.fromProperty());
+    }
+
+    //Columns in columns, or on the heap when it is null. A snapshot is read on the heap and then moved there
+    public GedcomService(String gedcomInputFile, GedcomOffHeap columns) throws Exception {
+        this(columns);
+        if (Boolean.getBoolean(GedcomSnapshot.PROPERTY)) {
+            document = GedcomSnapshot.parse(gedcomInputFile);
+            if (!this.columns.isHeap()) {
+                document = this.columns.move(document);
+            }
+        } else {
+            document = parse(gedcomInputFile);
+        }
     }
 
     public GedcomService() {
+        this((GedcomOffHeap) null);
     }
 
+    //Parses build their columns in columns, or on the heap when it is null
+    public GedcomService(GedcomOffHeap columns) {
+        this.columns = columns != null ? columns : GedcomOffHeap.HEAP;
+        reset();
+    }
+
+    //Usage: GedcomService [--off-heap direct|FILE] [input file]; prompts for the file when none is given.
+    //--off-heap builds the columns in direct buffers or in FILE mapped into memory, as the gedcom.offHeap
+    //property does. GedcomBatch validates many files without prompting
     public static void main(String[] args) {
         try {
-            String gedcomInputFile = promptUserForGedcomFilePath();
-            GedcomService gedcomService = new GedcomService(gedcomInputFile);
+            List<String> arguments = new ArrayList<>(args != null ? Arrays.asList(args) : Collections.<String>emptyList());
+            GedcomOffHeap columns = GedcomOffHeap.fromProperty();
+            if (arguments.size() > 1 && arguments.get(0).equals("--off-heap")) {
+                arguments.remove(0);
+                columns = GedcomOffHeap.of(arguments.remove(0));
+            }
+            String gedcomInputFile = !arguments.isEmpty() ? arguments.get(0) : promptUserForGedcomFilePath();
+            GedcomService gedcomService = new GedcomService(gedcomInputFile, columns);
 
 
-            gedcomService.runApplication(gedcomInputFile);
+            GedcomDocument document = gedcomService.getDocument();
+
+            gedcomService.runApplication(document);
 
 
             US3 userStory = new US3();
             userStory.birthdate = new TreeMap<>();
             userStory.deathdate = new TreeMap<>();
-            userStory.us03(gedcomInputFile);
+            userStory.us03(document);
 
 
             US4 userStory_1 = new US4();
             userStory_1.marriagedays = new TreeMap<>();
             userStory_1.divorcedays = new TreeMap<>();
 
-            userStory_1.us04(gedcomInputFile);
+            userStory_1.us04(document);
 
             System.out.println();
             userStory.printData(userStory);
@@ -60,62 +101,71 @@ public class GedcomService {
             userStory1.marriage = new TreeMap<>();
             userStory1.divorce = new TreeMap<>();
 
-            userStory1.us01(gedcomInputFile);
+            userStory1.us01(document);
 
             System.out.println();
             userStory1.printData(userStory1);
             System.out.println();
             US25 userStory25 = new US25();
-            userStory25.us25(gedcomInputFile);
+            userStory25.us25(document);
 
             US02 userStory02 = new US02();
-            userStory02.us02(gedcomInputFile);
+            userStory02.us02(document);
 
 
             US31 userStory31 = new US31();
-            userStory31.us31(gedcomInputFile);
+            userStory31.us31(document);
 
 
             US10 userStory10 = new US10();
-            userStory10.us10(gedcomInputFile);
+            userStory10.us10(document);
 
             US21 userStory21 = new US21();
-            userStory21.us21(gedcomInputFile);
+            userStory21.us21(document);
 
 
             US12 userStory12 = new US12();
-            userStory12.us12(gedcomInputFile);
+            userStory12.us12(document);
 
             US13 userStory13 = new US13();
-            userStory13.us13(gedcomInputFile);
+            userStory13.us13(document);
 
 
             DeathValidations deathValidations = new DeathValidations();
             deathValidations.printDeceasedFamilyMemberList(
-                    deathValidations.listDeceasedFamilyMembers(gedcomService.getIndividualAttributeMaps()),
-                    gedcomService.getIndividualAttributeMaps());
+                    deathValidations.listDeceasedIndividuals(document), document);
 
             FamilyValidations familyValidations = new FamilyValidations();
             familyValidations.printNoMoreThanFiveSameBirthDaysinFamilyViolations(
-                    familyValidations.validateNoMoreThanFiveSameBirthDaysinFamily(gedcomService.getFamilyAttributeMaps(),
-                            gedcomService.getIndividualAttributeMaps()));
+                    familyValidations.validateNoMoreThanFiveSameBirthDaysinFamily(document));
 
             MarriageValidations marriageValidations = new MarriageValidations();
             marriageValidations.printLivingAndMarried(
-                    marriageValidations.getLivingAndMarried(gedcomService.getIndividualAttributeMaps()));
+                    marriageValidations.getLivingAndMarried(document));
+
+            marriageValidations.printInvalidDivorces(marriageValidations.validateDivorceBeforeDeath(document));
 
-            marriageValidations.printInvalidDivorces(marriageValidations.validateDivorceBeforeDeath(gedcomService.getFamilyAttributeMaps(),
-                    gedcomService.getIndividualAttributeMaps()));
+            for (String msg : deathValidations.validateMarriagesBeforeDeath(document)) {
+                System.out.println(msg);
+            }
+
+            for (String msg : familyValidations.fewerThanFifteenChildren(document)) {
+                System.out.println(msg);
+            }
 
-            for (String msg : deathValidations.validateMarriagesBeforeDeath(gedcomService.getFamilyAttributeMaps(), gedcomService.getIndividualAttributeMaps())) {
+            for (String msg : familyValidations.maleLastNames(document)) {
                 System.out.println(msg);
             }
 
-            for (String msg : familyValidations.fewerThanFifteenChildren(gedcomService.getFamilyAttributeMaps())) {
+            for (String msg : familyValidations.uniqueFamiliesBySpouses(document)) {
                 System.out.println(msg);
             }
 
             System.out.println("");
+            System.err.print(document.getStats().summary());
+            if (!document.getDiagnostics().isEmpty()) {
+                System.err.print(document.getDiagnostics().summary());
+            }
             System.exit(0);
 
         } catch (Exception ex) {
@@ -125,219 +175,355 @@ public class GedcomService {
         }
     }
 
-    public SortedMap<Integer, String> individualData(String gedcomInputFile) throws FileNotFoundException, ParseException {
-
-        Scanner scan = new Scanner(new FileReader(gedcomInputFile));
-
-        String reader = scan.nextLine();
+    //Parse the input file once, a record at a time, and build the shared document every user story reads from.
+    //Files large enough to benefit are split at record boundaries and parsed on all cores. Each call starts from
+    //empty tables and replaces the document the getters below read from.
+    public GedcomDocument parse(String gedcomInputFile) throws IOException, ParseException {
+        Path path = Paths.get(gedcomInputFile);
+        if (ParallelGedcomParser.shouldSplit(path)) {
+            return parse(path, new ParallelGedcomParser());
+        }
+        reset();
+        long start = System.nanoTime();
+        try (GedcomRecordReader reader = new GedcomRecordReader(gedcomInputFile)) {
+            readRecords(reader);
+            stats.add(reader.getStats());
+            diagnostics.addAll(reader.getDiagnostics(), 0);
+        }
+        stats.addPhase("parse", System.nanoTime() - start);
+        return resolve();
+    }
 
+    //Spouses, links and indexes are resolved once every record has been read, each timed as its own phase
+    private GedcomDocument resolve() {
+        long start = System.nanoTime();
+        checkSpouses();
+        stats.addPhase("families", System.nanoTime() - start);
+        start = System.nanoTime();
+        GedcomLinkGraph graph = links.build(individualIds, familyIds);
+        stats.addPhase("links", System.nanoTime() - start);
+        GedcomStore model = store.build(individualIds, familyIds, graph, dates.build(individualIds.size(), familyIds.size()));
+        start = System.nanoTime();
+        GedcomIndexes indexes = GedcomIndexes.build(model, columns);
+        stats.addPhase("indexes", System.nanoTime() - start);
+        document = new GedcomDocument(model, passthroughAttributes, stats, diagnostics, indexes);
+        return document;
+    }
 
-        SortedMap<Integer, String> map = new TreeMap<>();
+    //Drops the tables of an earlier parse, so parsing again does not add to its records, stats and diagnostics
+    private void reset() {
+        store = new GedcomStore.Builder(columns);
+        passthroughAttributes = new HashMap<>();
+        individualIds = new GedcomIdTable(columns);
+        familyIds = new GedcomIdTable(columns);
+        links = new GedcomLinkGraph.Builder(columns, store.getReferences());
+        dates = new GedcomEventDates.Builder(columns);
+        spouseChecks = new SpouseChecks(columns);
+        stats = new GedcomParseStats();
+        diagnostics = new GedcomDiagnostics();
+        document = null;
+    }
 
+    //Parallel parse: each chunk fills its own tables, which are then merged in file order
+    public GedcomDocument parse(Path path, ParallelGedcomParser parser) throws IOException, ParseException {
+        reset();
+        long start = System.nanoTime();
+        List<ParsedChunk> chunks = parser.parse(path, reader -> {
+            GedcomService chunkService = new GedcomService(columns);
+            ParsedChunk chunk = new ParsedChunk();
+            chunkService.readRecords(reader);
+            chunk.store = chunkService.store;
+            chunk.passthroughAttributes = chunkService.passthroughAttributes;
+            chunk.individualIds = chunkService.individualIds;
+            chunk.familyIds = chunkService.familyIds;
+            chunk.links = chunkService.links;
+            chunk.dates = chunkService.dates;
+            chunk.spouseChecks = chunkService.spouseChecks;
+            chunk.stats = reader.getStats();
+            chunk.diagnostics = reader.getDiagnostics();
+            chunk.lineCount = reader.getLineCount();
+            return chunk;
+        });
+        int lineShift = 0;
+        for (ParsedChunk chunk : chunks) {
+            //Chunk ids are local; re-interning them in chunk order gives the ids a sequential parse would
+            IntBuffer individuals = columns.ints(chunk.individualIds.size());
+            IntBuffer families = columns.ints(chunk.familyIds.size());
+            for (int local = 0; local < chunk.individualIds.size(); local++) {
+                int individual = individualIds.intern(chunk.individualIds.xref(local));
+                individuals.put(local, individual);
+                store.copyIndividual(individual, chunk.store, local);
+                dates.copyIndividual(individual, chunk.dates, local);
+            }
+            for (int local = 0; local < chunk.familyIds.size(); local++) {
+                int family = familyIds.intern(chunk.familyIds.xref(local));
+                families.put(local, family);
+                store.copyFamily(family, chunk.store, local);
+                dates.copyFamily(family, chunk.dates, local);
+            }
+            passthroughAttributes.putAll(chunk.passthroughAttributes);
+            links.addAll(chunk.links, individuals, families);
+            //Chunk line numbers count from the start of the chunk
+            spouseChecks.addAll(chunk.spouseChecks, lineShift, chunk.store, store);
+            stats.add(chunk.stats);
+            diagnostics.addAll(chunk.diagnostics, lineShift);
+            lineShift += chunk.lineCount;
+        }
+        stats.addPhase("parse", System.nanoTime() - start);
+        return resolve();
+    }
 
-        ArrayList<String> gedcomeData = new ArrayList<>();
-        while (scan.hasNextLine()) {
-            gedcomeData.add(reader);
-            reader = scan.nextLine();
+    private void readRecords(GedcomRecordReader reader) throws IOException, ParseException {
+        GedcomDiagnostics diagnostics = reader.getDiagnostics();
+        GedcomRecord record;
+        while ((record = reader.next()) != null) {
+            if (record.getTagId(0) != GedcomTag.INDI && record.getTagId(0) != GedcomTag.FAM) {
+                continue;
+            }
+            if (record.getXref() == null) {
+                diagnostics.add(GedcomDiagnostics.Reason.MISSING_XREF, record, 0);
+            } else if (record.getTagId(0) == GedcomTag.INDI) {
+                individualRecord(record, diagnostics);
+            } else {
+                familyRecord(record, diagnostics);
+            }
         }
+    }
 
-        for (int i = 0; i < gedcomeData.size(); i++) {
-            String str[] = gedcomeData.get(i).split(" ");
-            if (str[1].startsWith("@I") && str[0].equals("0") && str[2].equals("INDI")) {
-
-                String individualFullId = str[1];
-                String indvidual = str[1].replace("@", "").replace("I", "");
-                String name = "";
-                String gender = "";
-                String birth = "";
-                String age = "";
-                String alive = "true";
-                String death = "NA";
-                String child = "NA";
-                String spouse = "NA";
-                int j = i + 1;
-                while (!gedcomeData.get(j).startsWith("0")) {
-                    str = gedcomeData.get(j).split(" ");
-
-                    if (str[0].equals("1") && str[1].equals("NAME")) {
-                        name = str[2] + " " + str[3];
-                    }
+    public GedcomDocument getDocument() {
+        return document;
+    }
 
-                    if (str[0].equals("1") && str[1].equals("SEX")) {
-                        gender = str[2];
-                    }
-                    if (str[0].equals("1") && str[1].equals("BIRT")) {
-
-                        str = gedcomeData.get(j + 1).split(" ");
-                        if (str[0].equals("2") && str[1].equals("DATE")) {
-                            birth = str[2] + " " + str[3] + " " + str[4];
-                            Date sdf = new SimpleDateFormat("MMM").parse(str[3]);
-                            String month = new SimpleDateFormat("MM").format(sdf);
-
-                            LocalDate birthdate = LocalDate.of(Integer.parseInt(str[4]), Integer.parseInt(month), Integer.parseInt(str[2]));
-                            LocalDate now = LocalDate.now();
-                            Period p = Period.between(birthdate, now);
-                            age = String.valueOf(p.getYears());
-                        }
-                    }
-                    if (str[0].equals("1") && str[1].equals("DEAT")) {
-                        alive = "false";
+    public SortedMap<Integer, String> individualData(String gedcomInputFile) throws IOException, ParseException {
+        return parse(gedcomInputFile).getIndividualData();
+    }
 
-                        str = gedcomeData.get(j + 1).split(" ");
-                        if (str[0].equals("2") && str[1].equals("DATE")) {
-                            death = str[2] + " " + str[3] + " " + str[4];
-                        }
-                    }
-                    if (str[0].equals("1") && str[1].equals("FAMC")) {
-                        child = "{'" + str[2].replace("@", "") + "'}";
-                    }
+    public SortedMap<Integer, String> familyData(String gedcomInputFile) throws IOException, ParseException {
+        return parse(gedcomInputFile).getFamilyData();
+    }
 
-                    if (str[0].equals("1") && str[1].equals("FAMS")) {
-                        spouse = "{'" + str[2].replace("@", "") + "'}";
+    //Values that do not parse are logged and replaced by the defaults below, so a bad line never stops the parse
+    private void individualRecord(GedcomRecord record, GedcomDiagnostics diagnostics) {
+        String individualFullId = record.getXref();
+        int individual = individualIds.intern(individualFullId);
+        String name = null;
+        String givenName = null;
+        String surname = null;
+        String gender = "";
+        boolean deceased = false;
+        String childFamily = null;
+        String spouseFamily = null;
+        GedcomAttributeList.Builder attributes = new GedcomAttributeList.Builder();
+        for (int j = record.firstChild(0); j >= 0; j = record.nextSibling(j)) {
+            switch (record.getTagId(j)) {
+                case NAME: {
+                    String str[] = GedcomValues.name(record.getValue(j));
+                    if (str != null) {
+                        name = str[0] + " " + str[1];
+                    } else {
+                        diagnostics.add(GedcomDiagnostics.Reason.BAD_NAME, record, j);
+                        String given = record.getValue(j).trim();
+                        name = given.isEmpty() ? UNKNOWN_NAME : given + " //";
                     }
-
-                    j++;
+                    String[] parts = nameParts(record, j);
+                    givenName = parts[0];
+                    surname = parts[1];
+                    attributes.addDescendants(record, j, -1);
+                    break;
                 }
-
-                map.put(Integer.parseInt(indvidual), name + " " + gender + " " + birth + " " + age + " " + alive + " " + death + " " + child + " " + spouse);
-                individualAttributeMaps.put(individualFullId.replace("@", ""), makeIndividualAttributeMap(name, gender, birth, age, alive, death, child, spouse));
+                case SEX:
+                    gender = record.getValue(j);
+                    break;
+                case BIRT: {
+                    int date = record.findChild(j, GedcomTag.DATE);
+                    dates.setBirth(individual, date(record, date, diagnostics));
+                    attributes.addDescendants(record, j, date);
+                    break;
+                }
+                case DEAT: {
+                    deceased = true;
+                    int date = record.findChild(j, GedcomTag.DATE);
+                    dates.setDeath(individual, date(record, date, diagnostics));
+                    attributes.addDescendants(record, j, date);
+                    break;
+                }
+                case FAMC:
+                    childFamily = record.getValue(j);
+                    links.addChildFamily(individual, record.getValue(j));
+                    break;
+                case FAMS:
+                    spouseFamily = record.getValue(j);
+                    links.addSpouseFamily(individual, record.getValue(j));
+                    break;
+                default:
+                    attributes.addSubtree(record, j);
             }
-
         }
+        List<GedcomAttribute> passthrough = attributes.build(record);
+        if (!passthrough.isEmpty()) {
+            passthroughAttributes.put(individualFullId, passthrough);
+        }
+        if (name == null) {
+            diagnostics.add(GedcomDiagnostics.Reason.MISSING_NAME, record, 0);
+            name = UNKNOWN_NAME;
+        }
+        store.setIndividual(individual, name, givenName, surname, gender, deceased, childFamily, spouseFamily);
+    }
 
-        return map;
+    //{given name, surname} of the NAME line at index name, each null when empty. GIVN and SURN, when present,
+    //say where the given name ends better than the slashes
+    static String[] nameParts(GedcomRecord record, int name) {
+        String[] parts = GedcomValues.nameParts(record.getValue(name));
+        int givn = record.findChild(name, GedcomTag.GIVN);
+        int surn = record.findChild(name, GedcomTag.SURN);
+        return new String[]{givn >= 0 && !record.getValue(givn).trim().isEmpty() ? record.getValue(givn).trim() : parts[0],
+                surn >= 0 && !record.getValue(surn).trim().isEmpty() ? record.getValue(surn).trim() : parts[1]};
+    }
 
+    //A FAM read again replaces the first, dates included; its spouses are checked once all individuals are known
+    private void familyRecord(GedcomRecord record, GedcomDiagnostics diagnostics) {
+        String familyFullId = record.getXref();
+        int family = familyIds.intern(familyFullId);
+        String husb = null;
+        String wife = null;
+        List<String> chil = new ArrayList<>();
+        long marriage = GedcomDate.MISSING;
+        long divorce = GedcomDate.MISSING;
+        GedcomAttributeList.Builder attributes = new GedcomAttributeList.Builder();
+        for (int k = record.firstChild(0); k >= 0; k = record.nextSibling(k)) {
+            switch (record.getTagId(k)) {
+                case HUSB:
+                    husb = record.getValue(k);
+                    break;
+                case WIFE:
+                    wife = record.getValue(k);
+                    break;
+                case CHIL:
+                    chil.add(record.getValue(k));
+                    break;
+                case MARR: {
+                    int date = record.findChild(k, GedcomTag.DATE);
+                    marriage = date(record, date, diagnostics);
+                    attributes.addDescendants(record, k, date);
+                    break;
+                }
+                case DIV: {
+                    int date = record.findChild(k, GedcomTag.DATE);
+                    divorce = date(record, date, diagnostics);
+                    attributes.addDescendants(record, k, date);
+                    break;
+                }
+                default:
+                    attributes.addSubtree(record, k);
+            }
+        }
+        List<GedcomAttribute> passthrough = attributes.build(record);
+        if (!passthrough.isEmpty()) {
+            passthroughAttributes.put(familyFullId, passthrough);
+        }
+        dates.setMarriage(family, marriage);
+        dates.setDivorce(family, divorce);
+        store.setFamily(family, husb, wife, chil);
+        spouseChecks.add(record.getLineNumber(0), record.getOffset(0), store.ref(husb), store.ref(wife));
+        links.addFamily(family, husb, wife, chil);
+    }
 
+    //Packed DATE line, or MISSING when there is none; a DATE line that does not parse is logged first
+    private static long date(GedcomRecord record, int date, GedcomDiagnostics diagnostics) {
+        if (date < 0) {
+            return GedcomDate.MISSING;
+        }
+        long packed = GedcomDate.parse(record.getValue(date));
+        if (packed == GedcomDate.MISSING) {
+            diagnostics.add(GedcomDiagnostics.Reason.BAD_DATE, record, date);
+        }
+        return packed;
     }
 
-    public SortedMap<Integer, String> familyData(String gedcomInputFile) throws FileNotFoundException, ParseException {
+    //Spouses are checked in file order once all individuals are known, so references to undefined ones can be logged
+    private void checkSpouses() {
+        for (int i = 0; i < spouseChecks.size; i++) {
+            checkSpouse(store.reference(spouseChecks.husbands.get(i)), spouseChecks.lines.get(i), spouseChecks.offsets.get(i));
+            checkSpouse(store.reference(spouseChecks.wives.get(i)), spouseChecks.lines.get(i), spouseChecks.offsets.get(i));
+        }
+    }
 
-        Scanner scan = new Scanner(new FileReader(gedcomInputFile));
+    //A missing or undefined spouse is logged at the FAM line; the legacy encodings print placeholders for it
+    private void checkSpouse(String xref, int line, long offset) {
+        if (xref == null) {
+            diagnostics.add(GedcomDiagnostics.Reason.MISSING_SPOUSE, line, offset);
+        } else if (!store.hasIndividual(individualIds.id(xref))) {
+            diagnostics.add(GedcomDiagnostics.Reason.UNKNOWN_REFERENCE, line, offset);
+        }
+    }
 
-        String reader = scan.nextLine();
+    private static class ParsedChunk {
+        GedcomStore.Builder store;
+        Map<String, List<GedcomAttribute>> passthroughAttributes;
+        GedcomIdTable individualIds;
+        GedcomIdTable familyIds;
+        GedcomLinkGraph.Builder links;
+        GedcomEventDates.Builder dates;
+        SpouseChecks spouseChecks;
+        GedcomParseStats stats;
+        GedcomDiagnostics diagnostics;
+        int lineCount;
+    }
 
-        ArrayList<String> gedcomeData = new ArrayList<>();
-        while (scan.hasNextLine()) {
-            gedcomeData.add(reader);
-            reader = scan.nextLine();
+    //The line and offset of every FAM record with its HUSB and WIFE as refs of the store's references, -1 for no line
+    private static class SpouseChecks {
+        final GedcomOffHeap columns;
+        IntBuffer lines;
+        LongBuffer offsets;
+        IntBuffer husbands;
+        IntBuffer wives;
+        int size;
+
+        SpouseChecks(GedcomOffHeap columns) {
+            this.columns = columns;
+            lines = columns.ints(16);
+            offsets = columns.longs(16);
+            husbands = columns.ints(16);
+            wives = columns.ints(16);
         }
-        SortedMap<Integer, String> mapFamily = new TreeMap<>();
-        SortedMap<Integer, String> map = individualData(gedcomInputFile);
-
-        for (int i = 0; i < gedcomeData.size(); i++) {
-            String str[] = gedcomeData.get(i).split(" ");
-            if (gedcomeData.get(i).contains("FAM") && gedcomeData.get(i).startsWith("0")) {
-                String str1[] = gedcomeData.get(i).split(" ");
-
-                String familyFullId = str[1];
-                String family = str1[1].replace("@", "").replace("F", "");
-                String marr = "";
-                String div = "NA";
-                String husb = "";
-                String wife = "";
-                ArrayList<String> chil = new ArrayList<>();
-                int k = i + 1;
-                while (!gedcomeData.get(k).startsWith("0") && k < gedcomeData.size() - 1) {
-                    str1 = gedcomeData.get(k).split(" ");
-                    if (str1[0].equals("1") && str1[1].equals("HUSB")) {
-                        husb = str1[2].replace("@", "");
-                    }
-                    if (str1[0].equals("1") && str1[1].equals("WIFE")) {
-                        wife = str1[2].replace("@", "");
-                    }
-                    if (str1[0].equals("1") && str1[1].equals("CHIL")) {
-                        chil.add(str1[2]);
-                    }
-                    if (str1[0].equals("1") && str1[1].equals("MARR")) {
-                        str1 = gedcomeData.get(
-                                k + 1).split(" ");
-                        if (str1[0].equals("2") && str1[1].equals("DATE")) {
-                            marr = str1[2] + " " + str1[3] + " " + str1[4];
-                        }
-                    }
-
-                    if (str1[0].equals("1") && str1[1].equals("DIV")) {
-                        str1 = gedcomeData.get(k + 1).split(" ");
-                        if (str1[0].equals("2") && str1[1].equals("DATE")) {
-                            div = str1[2] + " " + str1[3] + " " + str1[4];
-                        }
-                    }
-                    k++;
 
-                }
-                String children = "";
-                String husbName1[] = map.get(Integer.parseInt(husb.substring(1))).split(" ");
-                String husbName = husbName1[0] + " " + husbName1[1];
-                String wifeName1[] = map.get(Integer.parseInt(wife.substring(1))).split(" ");
-                for (int l = 0; l < chil.size(); l++) {
-
-                    if (chil.size() == 1) {
-                        children = children.concat("{'" + chil.get(l) + "'}").replace("@", "");
-
-                    } else if (chil.size() == 2) {
-                        if (l == 0) {
-                            children = children.concat("{'" + chil.get(l) + "',").replace("@", "");
-                        } else
-                            children = children.concat(chil.get(l) + "'}").replace("@", "");
-
-                    } else if (l == 0) {
-                        children = children.concat("{'" + chil.get(l) + "',").replace("@", "");
-                    } else if (l == chil.size() - 1) {
-                        children = children.concat("'" + chil.get(l) + "'}").replace("@", "");
-                    } else {
-                        children = children.concat(chil.get(l) + "',").replace("@", "");
-                    }
-                }
+        void add(int line, long offset, int husband, int wife) {
+            lines = columns.grow(lines, size, 0);
+            offsets = columns.grow(offsets, size);
+            husbands = columns.grow(husbands, size, 0);
+            wives = columns.grow(wives, size, 0);
+            lines.put(size, line);
+            offsets.put(size, offset);
+            husbands.put(size, husband);
+            wives.put(size, wife);
+            size++;
+        }
 
-                String wifeName = wifeName1[0] + " " + wifeName1[1];
-                mapFamily.put(Integer.parseInt(family), marr + " " + div + " " + husb + " " + husbName + " " + wife + " " + wifeName + " "
-                        + children);
-                familyAttributeMaps.put(familyFullId, makeFamilyAttributeMap(marr, div, husb, husbName, wife, wifeName, children));
+        //Appends the checks of a chunk whose lines count from lineShift and whose refs are those of from
+        void addAll(SpouseChecks other, int lineShift, GedcomStore.Builder from, GedcomStore.Builder to) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.lines.get(i) + lineShift, other.offsets.get(i), to.ref(from.reference(other.husbands.get(i))),
+                        to.ref(from.reference(other.wives.get(i))));
             }
         }
-        return mapFamily;
     }
 
-    public void runApplication(String gedcomInputFile) throws Exception {
-
+    public void runApplication(GedcomDocument document) throws Exception {
 
-        SortedMap<Integer, String> map = individualData(gedcomInputFile);
-        SortedMap<Integer, String> mapFamily = familyData(gedcomInputFile);
 
+        List<List<String>> individualRows = document.getProjections().getIndividualRows();
+        List<List<String>> familyRows = document.getProjections().getFamilyRows();
 
-        Object[][] table1 = new Object[map.size()][];
-        int count = 0;
-        for (SortedMap.Entry entry : map.entrySet()) {
-            String[] string = entry.getValue().toString().split(" ");
-            if (string.length > 11) {
-                table1[count] = new String[]{"I" + entry.getKey(), string[0] + " " + string[1], string[2], string[3] + " " + string[4] + " " + string[5], string[6],
-                        string[7], string[8] + " " + string[9] + " " + string[10], string[11], string[12]};
-            } else {
-                table1[count] = new String[]{"I" + entry.getKey(), string[0] + " " + string[1], string[2], string[3] + " " + string[4] + " " + string[5], string[6], string[7], string[8], string[9], string[10]};
-            }
-            count++;
-
+        Object[][] table1 = new Object[individualRows.size()][];
+        for (int i = 0; i < table1.length; i++) {
+            table1[i] = individualRows.get(i).toArray();
         }
 
-        Object[][] table2 = new Object[mapFamily.size()][];
-        int count1 = 0;
-        for (SortedMap.Entry entry : mapFamily.entrySet()) {
-            String[] string = entry.getValue().toString().split(" ");
-
-            if (string.length == 11) {
-                table2[count1] = new String[]{"F" + entry.getKey(), string[0] + " " + string[1] + " " + string[2],
-                        string[3], string[4], string[5] + " " + string[6], string[7], string[8] + " " + string[9], string[10]};
-            } else if (string.length < 11) {
-                table2[count1] = new String[]{"F" + entry.getKey(), string[0] + " " + string[1] + " " + string[2],
-                        string[3], string[4], string[5] + " " + string[6], string[7], string[8] + " " + string[9], "NA"};
-            } else {
-                table2[count1] = new String[]{"F" + entry.getKey(), string[0] + " "
-                        + string[1] + " " + string[2], string[3] + " " + string[4] + " " + string[5], string[6],
-                        string[7] + " " + string[8], string[9], string[10] + " " + string[11], string[12]};
-
-
-            }
-            count1++;
+        Object[][] table2 = new Object[familyRows.size()][];
+        for (int i = 0; i < table2.length; i++) {
+            List<String> row = familyRows.get(i);
+            //A family without CHIL lines shows NA, as the split rows did
+            table2[i] = row.get(7).isEmpty() ? new Object[]{row.get(0), row.get(1), row.get(2), row.get(3), row.get(4), row.get(5), row.get(6), "NA"} : row.toArray();
         }
 
         printGedcomOutputConsole(table1, table2);
@@ -389,21 +575,19 @@ public class GedcomService {
         }
     }
 
-    //Process input from user
-    public static String promptUserForGedcomFilePath() {
-        String gedcomFilePath;
-        boolean invalidFilePath = true;
-        do {
-            Scanner scanner = new Scanner(System.in);
+    //Process input from user; asks again until the file exists and fails once the input ends
+    public static String promptUserForGedcomFilePath() throws IOException {
+        Scanner scanner = new Scanner(System.in);
+        while (true) {
             System.out.print("Please enter location of Gedcom file: ");
-            gedcomFilePath = scanner.next();
-            if (gedcomFilePath == null && gedcomFilePath.isEmpty() || !Files.exists(Paths.get(gedcomFilePath))) {
-                invalidFilePath = true;
-            } else {
-                invalidFilePath = false;
+            if (!scanner.hasNext()) {
+                throw new IOException("No Gedcom file given");
             }
-        } while (invalidFilePath);
-        return gedcomFilePath;
+            String gedcomFilePath = scanner.next();
+            if (Files.exists(Paths.get(gedcomFilePath))) {
+                return gedcomFilePath;
+            }
+        }
     }
 
     public Map<String, String> makeIndividualAttributeMap(String name, String gender, String birth, String age, String alive, String death, String child, String spouse) {
@@ -449,12 +633,20 @@ public class GedcomService {
     }
 
 
+    //Maps of the last parsed document, whether it came from the constructor, parse, individualData or familyData
     public Map<String, Map<String, String>> getIndividualAttributeMaps() {
-        return this.individualAttributeMaps;
+        return document().getIndividualAttributeMaps();
     }
 
     public Map<String, Map<String, Object>> getFamilyAttributeMaps() {
-        return this.familyAttributeMaps;
+        return document().getFamilyAttributeMaps();
+    }
+
+    private GedcomDocument document() {
+        if (document == null) {
+            throw new IllegalStateException("No GEDCOM file has been parsed yet");
+        }
+        return document;
     }
 
 }
@@ -0,0 +1,359 @@
+package edu.stevens.ssw555;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Binary copy of a parsed {@link GedcomDocument}, written next to the input as "&lt;file&gt;.snapshot".
+ * The snapshot is keyed by the input's size, modification time and CRC32; when any part of the key
+ * differs it is ignored and the text is parsed again. It stores the columns and packed dates, not
+ * the rows, so ages are worked out against the day the snapshot is loaded and an unchanged file
+ * keeps its snapshot from one day to the next.
+ */
+public final class GedcomSnapshot {
+
+    public static final String SUFFIX = ".snapshot";
+
+    //Set -Dgedcom.snapshot=true to let GedcomService reuse snapshots
+    public static final String PROPERTY = "gedcom.snapshot";
+
+    private static final int MAGIC = 0x47534e50;
+    private static final int VERSION = 10;
+    private static final int HASH_WINDOW = 64 * 1024 * 1024;
+
+    private GedcomSnapshot() {
+    }
+
+    //Loads the snapshot when it matches the input, otherwise parses the text and writes a new snapshot
+    public static GedcomDocument parse(String gedcomInputFile) throws IOException, ParseException {
+        long start = System.nanoTime();
+        Path input = Paths.get(gedcomInputFile);
+        Key key = Key.of(input);
+        Path snapshot = snapshotPath(input);
+        GedcomDocument document = read(snapshot, key);
+        if (document == null) {
+            document = GedcomDocument.parse(gedcomInputFile);
+            try {
+                write(snapshot, key, document);
+            } catch (IOException e) {
+                //A read-only directory only costs the next run a text parse
+                Files.deleteIfExists(tempPath(snapshot));
+            }
+        } else {
+            document.getStats().addPhase("snapshot", System.nanoTime() - start);
+        }
+        return document;
+    }
+
+    public static Path snapshotPath(Path input) {
+        return input.resolveSibling(input.getFileName() + SUFFIX);
+    }
+
+    //Returns the stored document, or null when the snapshot is missing, stale or unreadable
+    static GedcomDocument read(Path snapshot, Key key) {
+        if (!Files.isRegularFile(snapshot)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !key.equals(Key.read(in))) {
+                return null;
+            }
+            GedcomIdTable individualIds = readIds(in);
+            GedcomIdTable familyIds = readIds(in);
+            String[] references = readStrings(in);
+            String[] givenNames = readStrings(in);
+            String[] surnames = readStrings(in);
+            GedcomStore.Builder store = new GedcomStore.Builder();
+            for (int i = 0; i < individualIds.size(); i++) {
+                String givenName = reference(givenNames, in.readInt());
+                String surname = reference(surnames, in.readInt());
+                String name = in.readBoolean() ? in.readUTF() : GedcomStore.name(givenName, surname);
+                String sex = in.readUTF();
+                boolean deceased = in.readBoolean();
+                store.setIndividual(i, name, givenName, surname, sex, deceased, reference(references, in.readInt()),
+                        reference(references, in.readInt()));
+            }
+            for (int i = 0; i < familyIds.size(); i++) {
+                String husband = reference(references, in.readInt());
+                String wife = reference(references, in.readInt());
+                List<String> children = new ArrayList<>();
+                int count = in.readInt();
+                for (int j = 0; j < count; j++) {
+                    children.add(references[in.readInt()]);
+                }
+                store.setFamily(i, husband, wife, children);
+            }
+
+            Map<String, List<GedcomAttribute>> passthroughAttributes = new HashMap<>();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String xref = in.readUTF();
+                int size = in.readInt();
+                List<GedcomAttribute> attributes = new ArrayList<>(size);
+                for (int j = 0; j < size; j++) {
+                    attributes.add(new GedcomAttribute(in.readUTF(), in.readUTF()));
+                }
+                passthroughAttributes.put(xref, attributes);
+            }
+
+            GedcomAdjacency spouseFamilies = readAdjacency(in);
+            GedcomAdjacency childFamilies = readAdjacency(in);
+            GedcomAdjacency children = readAdjacency(in);
+            GedcomAdjacency spouses = readAdjacency(in);
+            int[] husbands = new int[familyIds.size()];
+            int[] wives = new int[familyIds.size()];
+            for (int i = 0; i < husbands.length; i++) {
+                husbands[i] = in.readInt();
+                wives[i] = in.readInt();
+            }
+            GedcomLinkGraph links = new GedcomLinkGraph(spouseFamilies, childFamilies, children, spouses, husbands, wives);
+            GedcomEventDates dates = new GedcomEventDates(readLongs(in, individualIds.size()), readLongs(in, individualIds.size()),
+                    readLongs(in, familyIds.size()), readLongs(in, familyIds.size()));
+            GedcomDiagnostics diagnostics = readDiagnostics(in);
+            GedcomParseStats stats = new GedcomParseStats();
+            stats.setBytes(Files.size(snapshot));
+            GedcomStore model = store.build(individualIds, familyIds, links, dates);
+            return new GedcomDocument(model, passthroughAttributes, stats, diagnostics, GedcomIndexes.build(model));
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    //Writes to a temporary file first so a reader never sees half a snapshot
+    static void write(Path snapshot, Key key, GedcomDocument document) throws IOException {
+        Path temp = tempPath(snapshot);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            key.write(out);
+            writeIds(out, document.getIndividualIds());
+            writeIds(out, document.getFamilyIds());
+            GedcomStore store = document.getStore();
+            writeStrings(out, store.getReferences());
+            writeStrings(out, store.getGivenNames());
+            writeStrings(out, store.getSurnames());
+            for (int i = 0; i < store.individualCount(); i++) {
+                out.writeInt(store.givenNameRef(i));
+                out.writeInt(store.surnameRef(i));
+                //Only the names the two refs do not give back are written
+                out.writeBoolean(store.otherName(i) != null);
+                if (store.otherName(i) != null) {
+                    out.writeUTF(store.otherName(i));
+                }
+                out.writeUTF(store.sex(i));
+                out.writeBoolean(store.isDeceased(i));
+                out.writeInt(store.childFamilyRef(i));
+                out.writeInt(store.spouseFamilyRef(i));
+            }
+            for (int i = 0; i < store.familyCount(); i++) {
+                out.writeInt(store.husbandRef(i));
+                out.writeInt(store.wifeRef(i));
+                out.writeInt(store.childCount(i));
+                for (int j = 0; j < store.childCount(i); j++) {
+                    out.writeInt(store.childRef(i, j));
+                }
+            }
+
+            Map<String, List<GedcomAttribute>> passthroughAttributes = document.getAttributes();
+            out.writeInt(passthroughAttributes.size());
+            for (Map.Entry<String, List<GedcomAttribute>> entry : passthroughAttributes.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().size());
+                for (GedcomAttribute attribute : entry.getValue()) {
+                    out.writeUTF(attribute.getPath());
+                    out.writeUTF(attribute.getValue());
+                }
+            }
+
+            GedcomLinkGraph links = document.getLinks();
+            writeAdjacency(out, links.spouseFamilies());
+            writeAdjacency(out, links.childFamilies());
+            writeAdjacency(out, links.children());
+            writeAdjacency(out, links.spouses());
+            for (int i = 0; i < links.familyCount(); i++) {
+                out.writeInt(links.husband(i));
+                out.writeInt(links.wife(i));
+            }
+            GedcomEventDates dates = document.getDates();
+            for (int i = 0; i < dates.individualCount(); i++) {
+                out.writeLong(dates.birth(i));
+            }
+            for (int i = 0; i < dates.individualCount(); i++) {
+                out.writeLong(dates.death(i));
+            }
+            for (int i = 0; i < dates.familyCount(); i++) {
+                out.writeLong(dates.marriage(i));
+            }
+            for (int i = 0; i < dates.familyCount(); i++) {
+                out.writeLong(dates.divorce(i));
+            }
+            writeDiagnostics(out, document.getDiagnostics());
+        }
+        Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static Path tempPath(Path snapshot) {
+        return snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+    }
+
+    private static GedcomIdTable readIds(DataInputStream in) throws IOException {
+        GedcomIdTable ids = new GedcomIdTable();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            ids.intern(in.readUTF());
+        }
+        return ids;
+    }
+
+    private static void writeIds(DataOutputStream out, GedcomIdTable ids) throws IOException {
+        out.writeInt(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            out.writeUTF(ids.xref(i));
+        }
+    }
+
+    private static long[] readLongs(DataInputStream in, int count) throws IOException {
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = in.readLong();
+        }
+        return values;
+    }
+
+    //The kept entries, then the count of every reason so problems past the limit are not lost
+    private static GedcomDiagnostics readDiagnostics(DataInputStream in) throws IOException {
+        GedcomDiagnostics diagnostics = new GedcomDiagnostics();
+        GedcomDiagnostics.Reason[] reasons = GedcomDiagnostics.Reason.values();
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            diagnostics.add(reasons[in.readByte()], in.readInt(), in.readLong());
+        }
+        for (GedcomDiagnostics.Reason reason : reasons) {
+            diagnostics.setCount(reason, in.readLong());
+        }
+        return diagnostics;
+    }
+
+    private static void writeDiagnostics(DataOutputStream out, GedcomDiagnostics diagnostics) throws IOException {
+        out.writeInt(diagnostics.size());
+        for (int i = 0; i < diagnostics.size(); i++) {
+            out.writeByte(diagnostics.getReason(i).ordinal());
+            out.writeInt(diagnostics.getLine(i));
+            out.writeLong(diagnostics.getOffset(i));
+        }
+        for (GedcomDiagnostics.Reason reason : GedcomDiagnostics.Reason.values()) {
+            out.writeLong(diagnostics.getCount(reason));
+        }
+    }
+
+    private static GedcomAdjacency readAdjacency(DataInputStream in) throws IOException {
+        int sources = in.readInt();
+        GedcomAdjacency.Builder edges = new GedcomAdjacency.Builder();
+        for (int i = 0; i < sources; i++) {
+            int degree = in.readInt();
+            for (int j = 0; j < degree; j++) {
+                edges.add(i, in.readInt());
+            }
+        }
+        return edges.build(sources);
+    }
+
+    private static void writeAdjacency(DataOutputStream out, GedcomAdjacency adjacency) throws IOException {
+        out.writeInt(adjacency.sourceCount());
+        for (int i = 0; i < adjacency.sourceCount(); i++) {
+            out.writeInt(adjacency.degree(i));
+            for (int j = 0; j < adjacency.degree(i); j++) {
+                out.writeInt(adjacency.get(i, j));
+            }
+        }
+    }
+
+    private static String[] readStrings(DataInputStream in) throws IOException {
+        String[] strings = new String[in.readInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = in.readUTF();
+        }
+        return strings;
+    }
+
+    private static void writeStrings(DataOutputStream out, GedcomDictionary dictionary) throws IOException {
+        out.writeInt(dictionary.size());
+        for (int i = 0; i < dictionary.size(); i++) {
+            out.writeUTF(dictionary.get(i));
+        }
+    }
+
+    private static String reference(String[] references, int ref) {
+        return ref >= 0 ? references[ref] : null;
+    }
+
+    /**
+     * Identity of an input file: size, modification time and CRC32 of the content.
+     */
+    static final class Key {
+
+        final long size;
+        final long modified;
+        final long hash;
+
+        Key(long size, long modified, long hash) {
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+        }
+
+        //Hashes the file through memory-mapped windows, far cheaper than tokenizing it
+        static Key of(Path input) throws IOException {
+            CRC32 crc = new CRC32();
+            long size;
+            try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+                size = channel.size();
+                for (long position = 0; position < size; position += HASH_WINDOW) {
+                    MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(HASH_WINDOW, size - position));
+                    crc.update(window);
+                }
+            }
+            return new Key(size, Files.getLastModifiedTime(input).toMillis(), crc.getValue());
+        }
+
+        static Key read(DataInputStream in) throws IOException {
+            return new Key(in.readLong(), in.readLong(), in.readLong());
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeLong(size);
+            out.writeLong(modified);
+            out.writeLong(hash);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return size == other.size && modified == other.modified && hash == other.hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (size ^ modified ^ hash);
+        }
+    }
+}
@@ -0,0 +1,434 @@
+package edu.stevens.ssw555;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The parsed individuals and families as parallel primitive arrays indexed by dense id: given name and
+ * surname dictionary refs, a SEX byte and a flags byte per individual, HUSB, WIFE and CHIL refs per family with
+ * the children laid out by offset, and the packed dates of {@link GedcomEventDates} and the resolved
+ * {@link GedcomLinkGraph} next to them. Strings repeated across records are kept once in a
+ * {@link GedcomDictionary}; a person costs a few dozen bytes instead of a map of boxed strings.
+ * The surname index lists the people of each surname, so name rules compare ints and find a family
+ * name's bearers without a scan. The display name "given /surname/" is not stored: it is rebuilt from
+ * the two refs, and only the names that differ from it (a multi-word given name, a GIVN or SURN that
+ * overrides the NAME, the placeholder for a missing NAME) are kept, by id.
+ * <p>
+ * References keep the xref as written (e.g. "@F3@") so records pointing at something that was never
+ * defined can still be reported; the link graph holds the ids they resolve to.
+ * <p>
+ * The columns are nio buffers, on the heap or, with the id tables, dictionaries, links and dates, in
+ * the direct buffers or mapped file of the {@link GedcomOffHeap} the parse was given or the document
+ * was moved to, behind the same accessors.
+ */
+public final class GedcomStore {
+
+    //sexes[] value of a SEX that is not a single ASCII character; the value is kept in otherSexes
+    private static final byte OTHER_SEX = -1;
+    private static final byte DECEASED = 1;
+    //Set for every id given to Builder.setIndividual, so ids only referenced are told apart
+    private static final byte DEFINED = 2;
+
+    private final GedcomIdTable individualIds;
+    private final GedcomIdTable familyIds;
+    private final GedcomLinkGraph links;
+    private final GedcomEventDates dates;
+    private final GedcomDictionary references;
+    private final GedcomDictionary givenNames;
+    private final GedcomDictionary surnames;
+    private final GedcomAdjacency surnameIndex;
+
+    private final IntBuffer givenNameRefs;
+    private final IntBuffer surnameRefs;
+    private final Map<Integer, String> otherNames;
+    private final ByteBuffer sexes;
+    private final Map<Integer, String> otherSexes;
+    private final ByteBuffer flags;
+    private final IntBuffer childFamilies;
+    private final IntBuffer spouseFamilies;
+
+    private final IntBuffer husbands;
+    private final IntBuffer wives;
+    private final IntBuffer childOffsets;
+    private final IntBuffer children;
+
+    GedcomStore(GedcomIdTable individualIds, GedcomIdTable familyIds, GedcomLinkGraph links, GedcomEventDates dates,
+                GedcomDictionary references, GedcomDictionary givenNames, GedcomDictionary surnames,
+                GedcomAdjacency surnameIndex, IntBuffer givenNameRefs, IntBuffer surnameRefs, Map<Integer, String> otherNames,
+                ByteBuffer sexes, Map<Integer, String> otherSexes, ByteBuffer flags, IntBuffer childFamilies,
+                IntBuffer spouseFamilies, IntBuffer husbands, IntBuffer wives, IntBuffer childOffsets, IntBuffer children) {
+        this.individualIds = individualIds;
+        this.familyIds = familyIds;
+        this.links = links;
+        this.dates = dates;
+        this.references = references;
+        this.givenNames = givenNames;
+        this.surnames = surnames;
+        this.surnameIndex = surnameIndex;
+        this.givenNameRefs = givenNameRefs;
+        this.surnameRefs = surnameRefs;
+        this.otherNames = otherNames;
+        this.sexes = sexes;
+        this.otherSexes = otherSexes;
+        this.flags = flags;
+        this.childFamilies = childFamilies;
+        this.spouseFamilies = spouseFamilies;
+        this.husbands = husbands;
+        this.wives = wives;
+        this.childOffsets = childOffsets;
+        this.children = children;
+    }
+
+    public GedcomIdTable getIndividualIds() {
+        return individualIds;
+    }
+
+    public GedcomIdTable getFamilyIds() {
+        return familyIds;
+    }
+
+    public GedcomLinkGraph getLinks() {
+        return links;
+    }
+
+    public GedcomEventDates getDates() {
+        return dates;
+    }
+
+    public int individualCount() {
+        return sexes.capacity();
+    }
+
+    public int familyCount() {
+        return husbands.capacity();
+    }
+
+    //True once the columns live outside the Java heap
+    public boolean isDirect() {
+        return sexes.isDirect();
+    }
+
+    //A copy with every column, id table, dictionary, link and date moved to target
+    GedcomStore copyTo(GedcomOffHeap target) throws IOException {
+        return new GedcomStore(individualIds.copyTo(target), familyIds.copyTo(target), links.copyTo(target), dates.copyTo(target),
+                references.copyTo(target), givenNames.copyTo(target), surnames.copyTo(target),
+                surnameIndex.copyTo(target), target.copy(givenNameRefs), target.copy(surnameRefs), otherNames,
+                target.copy(sexes), otherSexes, target.copy(flags), target.copy(childFamilies),
+                target.copy(spouseFamilies), target.copy(husbands), target.copy(wives), target.copy(childOffsets), target.copy(children));
+    }
+
+    //"given /surname/", or the placeholder the parser substituted for a missing or unusable NAME
+    public String name(int individual) {
+        String name = otherNames.get(individual);
+        return name != null ? name : name(givenName(individual), surname(individual));
+    }
+
+    //The name rebuilt from its parts, or null when a part is missing and the name has to be kept as written
+    static String name(String givenName, String surname) {
+        return givenName != null && surname != null ? givenName + " /" + surname + "/" : null;
+    }
+
+    //The name as kept when name(givenName, surname) does not give it back, else null; for GedcomSnapshot
+    String otherName(int individual) {
+        return otherNames.get(individual);
+    }
+
+    //Distinct given names, referenced by givenNameRef()
+    public GedcomDictionary getGivenNames() {
+        return givenNames;
+    }
+
+    //Distinct surnames, referenced by surnameRef() and indexed by getSurnameIndex()
+    public GedcomDictionary getSurnames() {
+        return surnames;
+    }
+
+    //-1 when the individual has no given name
+    public int givenNameRef(int individual) {
+        return givenNameRefs.get(individual);
+    }
+
+    //-1 when the NAME has no /surname/ and there is no SURN line; equal refs are equal surnames
+    public int surnameRef(int individual) {
+        return surnameRefs.get(individual);
+    }
+
+    //The GIVN value, else the NAME text before the /surname/; null when there is none
+    public String givenName(int individual) {
+        int ref = givenNameRefs.get(individual);
+        return ref >= 0 ? givenNames.get(ref) : null;
+    }
+
+    //The SURN value, else the NAME text between the slashes; null when there is none
+    public String surname(int individual) {
+        int ref = surnameRefs.get(individual);
+        return ref >= 0 ? surnames.get(ref) : null;
+    }
+
+    //The individuals of each surname ref, in id order
+    public GedcomAdjacency getSurnameIndex() {
+        return surnameIndex;
+    }
+
+    //The SEX value, "" when there is none
+    public String sex(int individual) {
+        byte sex = sexes.get(individual);
+        return sex == OTHER_SEX ? otherSexes.get(individual) : sex == 0 ? "" : String.valueOf((char) sex);
+    }
+
+    //True for 'M', 'F' or another single-character SEX value, without building a String
+    public boolean isSex(int individual, char sex) {
+        return sexes.get(individual) == sex;
+    }
+
+    //True when the record has a DEAT line, dated or not
+    public boolean isDeceased(int individual) {
+        return (flags.get(individual) & DECEASED) != 0;
+    }
+
+    //The xref of the last FAMC line as written, or null
+    public String childFamily(int individual) {
+        return reference(childFamilies.get(individual));
+    }
+
+    //The xref of the last FAMS line as written, or null
+    public String spouseFamily(int individual) {
+        return reference(spouseFamilies.get(individual));
+    }
+
+    //The HUSB xref as written, or null; getLinks().husband() has the individual id it resolves to
+    public String husband(int family) {
+        return reference(husbands.get(family));
+    }
+
+    //The WIFE xref as written, or null
+    public String wife(int family) {
+        return reference(wives.get(family));
+    }
+
+    public int childCount(int family) {
+        return childOffsets.get(family + 1) - childOffsets.get(family);
+    }
+
+    //The xref of the family's index-th CHIL line as written
+    public String child(int family, int index) {
+        return references.get(children.get(childOffsets.get(family) + index));
+    }
+
+    private String reference(int ref) {
+        return ref >= 0 ? references.get(ref) : null;
+    }
+
+    //The raw columns below are for GedcomSnapshot; refs index getReferences() and are -1 for no line
+    GedcomDictionary getReferences() {
+        return references;
+    }
+
+    int childFamilyRef(int individual) {
+        return childFamilies.get(individual);
+    }
+
+    int spouseFamilyRef(int individual) {
+        return spouseFamilies.get(individual);
+    }
+
+    int husbandRef(int family) {
+        return husbands.get(family);
+    }
+
+    int wifeRef(int family) {
+        return wives.get(family);
+    }
+
+    int childRef(int family, int index) {
+        return children.get(childOffsets.get(family) + index);
+    }
+
+    /**
+     * Collects the columns while records are read, in buffers of the builder's {@link GedcomOffHeap}. Ids
+     * may arrive in any order and a record seen twice replaces the first; the columns grow as needed and
+     * are trimmed by {@link #build}, which hands them to the store.
+     */
+    static class Builder {
+
+        private final GedcomOffHeap columns;
+        private final GedcomDictionary references;
+        private final GedcomDictionary givenNames;
+        private final GedcomDictionary surnames;
+        private final Map<Integer, String> otherNames = new HashMap<>();
+        private final Map<Integer, String> otherSexes = new HashMap<>();
+        private IntBuffer givenNameRefs;
+        private IntBuffer surnameRefs;
+        private ByteBuffer sexes;
+        private ByteBuffer flags;
+        private IntBuffer childFamilies;
+        private IntBuffer spouseFamilies;
+        private IntBuffer husbands;
+        private IntBuffer wives;
+        //The CHIL refs of family i are childRefs[childStarts[i]] .. childRefs[childStarts[i] + childCounts[i] - 1];
+        //a family set again appends its children, and the earlier ones are left unused
+        private IntBuffer childStarts;
+        private IntBuffer childCounts;
+        private IntBuffer childRefs;
+        private int childRefCount;
+
+        Builder() {
+            this(GedcomOffHeap.HEAP);
+        }
+
+        Builder(GedcomOffHeap columns) {
+            this.columns = columns;
+            this.references = new GedcomDictionary(columns);
+            this.givenNames = new GedcomDictionary(columns);
+            this.surnames = new GedcomDictionary(columns);
+            this.givenNameRefs = filled(16);
+            this.surnameRefs = filled(16);
+            this.sexes = columns.bytes(16);
+            this.flags = columns.bytes(16);
+            this.childFamilies = filled(16);
+            this.spouseFamilies = filled(16);
+            this.husbands = filled(16);
+            this.wives = filled(16);
+            this.childStarts = columns.ints(16);
+            this.childCounts = columns.ints(16);
+            this.childRefs = columns.ints(16);
+        }
+
+        private IntBuffer filled(int length) {
+            return columns.grow(columns.ints(0), length - 1, -1);
+        }
+
+        //givenName and surname may be null; childFamily and spouseFamily are the xrefs of the last FAMC and FAMS lines, or null
+        void setIndividual(int id, String name, String givenName, String surname, String sex, boolean deceased,
+                           String childFamily, String spouseFamily) {
+            if (id >= givenNameRefs.capacity()) {
+                givenNameRefs = columns.grow(givenNameRefs, id, -1);
+                surnameRefs = columns.grow(surnameRefs, id, -1);
+                sexes = columns.grow(sexes, id);
+                flags = columns.grow(flags, id);
+                childFamilies = columns.grow(childFamilies, id, -1);
+                spouseFamilies = columns.grow(spouseFamilies, id, -1);
+            }
+            givenNameRefs.put(id, givenName != null ? givenNames.intern(givenName) : -1);
+            surnameRefs.put(id, surname != null ? surnames.intern(surname) : -1);
+            if (name.equals(GedcomStore.name(givenName, surname))) {
+                otherNames.remove(id);
+            } else {
+                otherNames.put(id, name);
+            }
+            otherSexes.remove(id);
+            if (sex.length() == 1 && sex.charAt(0) > 0 && sex.charAt(0) < 128) {
+                sexes.put(id, (byte) sex.charAt(0));
+            } else if (sex.isEmpty()) {
+                sexes.put(id, (byte) 0);
+            } else {
+                sexes.put(id, OTHER_SEX);
+                otherSexes.put(id, sex);
+            }
+            flags.put(id, deceased ? DEFINED | DECEASED : DEFINED);
+            childFamilies.put(id, ref(childFamily));
+            spouseFamilies.put(id, ref(spouseFamily));
+        }
+
+        //Copies an individual of another builder, e.g. one chunk of a parallel parse, under a new id
+        void copyIndividual(int id, Builder from, int fromId) {
+            setIndividual(id, from.name(fromId), reference(from.givenNames, from.givenNameRefs.get(fromId)),
+                    reference(from.surnames, from.surnameRefs.get(fromId)), from.sex(fromId), (from.flags.get(fromId) & DECEASED) != 0,
+                    from.reference(from.childFamilies.get(fromId)), from.reference(from.spouseFamilies.get(fromId)));
+        }
+
+        //husband and wife may be null when the family has no such line
+        void setFamily(int id, String husband, String wife, List<String> childXrefs) {
+            if (id >= husbands.capacity()) {
+                husbands = columns.grow(husbands, id, -1);
+                wives = columns.grow(wives, id, -1);
+                childStarts = columns.grow(childStarts, id, 0);
+                childCounts = columns.grow(childCounts, id, 0);
+            }
+            husbands.put(id, ref(husband));
+            wives.put(id, ref(wife));
+            childStarts.put(id, childRefCount);
+            childCounts.put(id, childXrefs.size());
+            childRefs = columns.grow(childRefs, childRefCount + childXrefs.size() - 1, 0);
+            for (String child : childXrefs) {
+                childRefs.put(childRefCount++, references.intern(child));
+            }
+        }
+
+        //Copies a family of another builder under a new id
+        void copyFamily(int id, Builder from, int fromId) {
+            List<String> childXrefs = new ArrayList<>(from.childCounts.get(fromId));
+            for (int i = 0; i < from.childCounts.get(fromId); i++) {
+                childXrefs.add(from.reference(from.childRefs.get(from.childStarts.get(fromId) + i)));
+            }
+            setFamily(id, from.reference(from.husbands.get(fromId)), from.reference(from.wives.get(fromId)), childXrefs);
+        }
+
+        boolean hasIndividual(int id) {
+            return id >= 0 && id < flags.capacity() && (flags.get(id) & DEFINED) != 0;
+        }
+
+        String name(int id) {
+            String name = otherNames.get(id);
+            return name != null ? name : GedcomStore.name(reference(givenNames, givenNameRefs.get(id)),
+                    reference(surnames, surnameRefs.get(id)));
+        }
+
+        private String sex(int id) {
+            byte sex = sexes.get(id);
+            return sex == OTHER_SEX ? otherSexes.get(id) : sex == 0 ? "" : String.valueOf((char) sex);
+        }
+
+        //Ref of an xref in the references dictionary, or -1 for null
+        int ref(String xref) {
+            return xref != null ? references.intern(xref) : -1;
+        }
+
+        //The dictionary ref() interns into, shared with the GedcomLinkGraph.Builder of the same parse
+        GedcomDictionary getReferences() {
+            return references;
+        }
+
+        //The xref of a ref, or null for -1
+        String reference(int ref) {
+            return reference(references, ref);
+        }
+
+        private static String reference(GedcomDictionary dictionary, int ref) {
+            return ref >= 0 ? dictionary.get(ref) : null;
+        }
+
+        GedcomStore build(GedcomIdTable individualIds, GedcomIdTable familyIds, GedcomLinkGraph links, GedcomEventDates dates) {
+            int individualCount = individualIds.size();
+            int familyCount = familyIds.size();
+            IntBuffer childOffsets = columns.ints(familyCount + 1);
+            for (int i = 0; i < familyCount; i++) {
+                childOffsets.put(i + 1, childOffsets.get(i) + (i < childCounts.capacity() ? childCounts.get(i) : 0));
+            }
+            IntBuffer flatChildren = columns.ints(childOffsets.get(familyCount));
+            for (int i = 0; i < familyCount; i++) {
+                for (int j = childOffsets.get(i); j < childOffsets.get(i + 1); j++) {
+                    flatChildren.put(j, childRefs.get(childStarts.get(i) + j - childOffsets.get(i)));
+                }
+            }
+            IntBuffer trimmedSurnameRefs = columns.trim(surnameRefs, individualCount, -1);
+            GedcomAdjacency.Builder surnameIndex = new GedcomAdjacency.Builder(columns);
+            for (int i = 0; i < individualCount; i++) {
+                if (trimmedSurnameRefs.get(i) >= 0) {
+                    surnameIndex.add(trimmedSurnameRefs.get(i), i);
+                }
+            }
+            return new GedcomStore(individualIds, familyIds, links, dates, references, givenNames, surnames,
+                    surnameIndex.build(surnames.size()), columns.trim(givenNameRefs, individualCount, -1),
+                    trimmedSurnameRefs, new HashMap<>(otherNames), columns.trim(sexes, individualCount),
+                    new HashMap<>(otherSexes), columns.trim(flags, individualCount),
+                    columns.trim(childFamilies, individualCount, -1), columns.trim(spouseFamilies, individualCount, -1),
+                    columns.trim(husbands, familyCount, -1), columns.trim(wives, familyCount, -1), childOffsets, flatChildren);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package edu.stevens.ssw555;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * A list of strings packed into buffers from a {@link GedcomOffHeap}: the UTF-8 bytes end to end, their
+ * offsets, and an open-addressing hash of ids so a value is found without a heap map. Strings are
+ * decoded on every get; this is what {@link GedcomIdTable} and {@link GedcomDictionary} keep when they
+ * live off the heap. A column made by {@link #create} grows as values are interned; a copy is read-only.
+ */
+final class GedcomStringColumn {
+
+    private final GedcomOffHeap target;
+    private ByteBuffer bytes;
+    private IntBuffer offsets;
+    //id + 1 of the value hashed to each slot, 0 for an empty slot; at most half full
+    private IntBuffer slots;
+    private int size;
+
+    private GedcomStringColumn(GedcomOffHeap target, ByteBuffer bytes, IntBuffer offsets, IntBuffer slots, int size) {
+        this.target = target;
+        this.bytes = bytes;
+        this.offsets = offsets;
+        this.slots = slots;
+        this.size = size;
+    }
+
+    //An empty column that interns into buffers from target
+    static GedcomStringColumn create(GedcomOffHeap target) {
+        return new GedcomStringColumn(target, target.bytes(64), target.ints(16), target.ints(16), 0);
+    }
+
+    static GedcomStringColumn copy(List<String> values, GedcomOffHeap target) throws IOException {
+        long length = 0;
+        for (String value : values) {
+            length += value.getBytes(StandardCharsets.UTF_8).length;
+        }
+        ByteBuffer bytes = target.allocate(length);
+        IntBuffer offsets = target.allocate(4L * (values.size() + 1)).asIntBuffer();
+        int capacity = Integer.highestOneBit(Math.max(1, values.size()) * 2 - 1) << 1;
+        IntBuffer slots = target.allocate(4L * capacity).asIntBuffer();
+        for (int id = 0; id < values.size(); id++) {
+            byte[] encoded = values.get(id).getBytes(StandardCharsets.UTF_8);
+            offsets.put(id, bytes.position());
+            bytes.put(encoded);
+            insert(slots, values.get(id).hashCode(), id);
+        }
+        offsets.put(values.size(), bytes.position());
+        bytes.clear();
+        return new GedcomStringColumn(null, bytes, offsets, slots, values.size());
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static void insert(IntBuffer slots, int hash, int id) {
+        int capacity = slots.capacity();
+        int slot = mix(hash) & (capacity - 1);
+        while (slots.get(slot) != 0) {
+            slot = (slot + 1) & (capacity - 1);
+        }
+        slots.put(slot, id + 1);
+    }
+
+    boolean isReadOnly() {
+        return target == null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    String get(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No string " + id + " in a column of " + size);
+        }
+        int start = offsets.get(id);
+        byte[] encoded = new byte[offsets.get(id + 1) - start];
+        ByteBuffer value = bytes.duplicate();
+        value.position(start);
+        value.get(encoded);
+        return new String(encoded, StandardCharsets.UTF_8);
+    }
+
+    //Id of the value, or -1 when it is not in the column
+    int id(String value) {
+        return find(value, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    //Id of the value, appending it the first time it is seen
+    int intern(String value) {
+        if (target == null) {
+            throw new IllegalStateException("A copied string column is read-only");
+        }
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        int id = find(value, encoded);
+        if (id >= 0) {
+            return id;
+        }
+        id = size;
+        int start = offsets.get(id);
+        bytes = target.grow(bytes, start + encoded.length - 1);
+        ByteBuffer end = bytes.duplicate();
+        end.position(start);
+        end.put(encoded);
+        offsets = target.grow(offsets, id + 1, 0);
+        offsets.put(id + 1, start + encoded.length);
+        size++;
+        if (size * 2 > slots.capacity()) {
+            IntBuffer grown = target.ints(slots.capacity() * 2);
+            for (int i = 0; i < id; i++) {
+                insert(grown, get(i).hashCode(), i);
+            }
+            slots = grown;
+        }
+        insert(slots, value.hashCode(), id);
+        return id;
+    }
+
+    private int find(String value, byte[] encoded) {
+        int capacity = slots.capacity();
+        for (int slot = mix(value.hashCode()) & (capacity - 1); slots.get(slot) != 0; slot = (slot + 1) & (capacity - 1)) {
+            int id = slots.get(slot) - 1;
+            if (matches(id, encoded)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    private boolean matches(int id, byte[] encoded) {
+        int start = offsets.get(id);
+        if (offsets.get(id + 1) - start != encoded.length) {
+            return false;
+        }
+        for (int i = 0; i < encoded.length; i++) {
+            if (bytes.get(start + i) != encoded[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
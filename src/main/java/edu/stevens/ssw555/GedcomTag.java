@@ -0,0 +1,81 @@
+package edu.stevens.ssw555;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Registry of the GEDCOM 5.5.1 tag set. Tags are looked up straight from the bytes of a line
+ * through a hash table, so resolving a tag costs the same no matter how many tags exist.
+ * Tags starting with an underscore are user-defined and resolve to {@link #CUSTOM};
+ * anything else that is not part of the standard resolves to {@link #UNKNOWN}.
+ */
+public enum GedcomTag {
+    ABBR, ADDR, ADR1, ADR2, ADOP, AFN, AGE, AGNC, ALIA, ANCE,
+    ANCI, ANUL, ASSO, AUTH, BAPL, BAPM, BARM, BASM, BIRT, BLES,
+    BURI, CALN, CAST, CAUS, CENS, CHAN, CHAR, CHIL, CHR, CHRA,
+    CITY, CONC, CONF, CONL, CONT, COPR, CORP, CREM, CTRY, DATA,
+    DATE, DEAT, DESC, DESI, DEST, DIV, DIVF, DSCR, EDUC, EMAIL,
+    EMIG, ENDL, ENGA, EVEN, FACT, FAM, FAMC, FAMF, FAMS, FAX,
+    FCOM, FILE, FONE, FORM, GEDC, GIVN, GRAD, HEAD, HUSB, IDNO,
+    IMMI, INDI, LANG, LATI, LONG, MAP, MARB, MARC, MARL, MARR,
+    MARS, MEDI, NAME, NATI, NATU, NCHI, NICK, NMR, NOTE, NPFX,
+    NSFX, OBJE, OCCU, ORDI, ORDN, PAGE, PEDI, PHON, PLAC, POST,
+    PROB, PROP, PUBL, QUAY, REFN, RELA, RELI, REPO, RESI, RESN,
+    RETI, RFN, RIN, ROLE, ROMN, SEX, SLGC, SLGS, SOUR, SPFX,
+    SSN, STAE, STAT, SUBM, SUBN, SURN, TEMP, TEXT, TIME, TITL,
+    TRLR, TYPE, VERS, WIFE, WWW,
+    CUSTOM, UNKNOWN;
+
+    private static final GedcomTag[] TABLE = new GedcomTag[512];
+    private static final int MASK = TABLE.length - 1;
+
+    static {
+        for (GedcomTag tag : values()) {
+            if (tag == CUSTOM || tag == UNKNOWN) {
+                continue;
+            }
+            int slot = hash(tag.name()) & MASK;
+            while (TABLE[slot] != null) {
+                slot = (slot + 1) & MASK;
+            }
+            TABLE[slot] = tag;
+        }
+    }
+
+    public boolean isCustom() {
+        return this == CUSTOM;
+    }
+
+    public static GedcomTag of(String tag) {
+        byte[] bytes = tag.getBytes(StandardCharsets.UTF_8);
+        return lookup(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    //Resolves the tag held in buffer[start, end)
+    public static GedcomTag lookup(ByteBuffer buffer, int start, int end) {
+        if (end > start && buffer.get(start) == '_') {
+            return CUSTOM;
+        }
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + buffer.get(i);
+        }
+        int slot = h & MASK;
+        GedcomTag tag;
+        while ((tag = TABLE[slot]) != null) {
+            if (GedcomLineTokenizer.regionEquals(buffer, start, end, tag.name())) {
+                return tag;
+            }
+            slot = (slot + 1) & MASK;
+        }
+        return UNKNOWN;
+    }
+
+    private static int hash(String tag) {
+        int h = 0;
+        for (int i = 0; i < tag.length(); i++) {
+            h = 31 * h + tag.charAt(i);
+        }
+        return h;
+    }
+}
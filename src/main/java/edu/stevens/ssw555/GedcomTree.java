@@ -0,0 +1,130 @@
+package edu.stevens.ssw555;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One immutable version of the records {@link Gedcom_Service} validates: individuals and families by
+ * xref, and the records that came after another with the same xref. Every change returns a new
+ * version that shares all untouched records and trie nodes with this one, so a validation can keep
+ * reading the version it started with while an edit or another parse publishes the next.
+ * <p>
+ * Records in a tree are never modified; to edit one, copy it with {@link Individual#Individual(Individual)}
+ * or {@link Family#Family(Family)}, change the copy and put it back with {@link #withIndividual}.
+ */
+public final class GedcomTree {
+
+    private static final GedcomTree EMPTY = new GedcomTree(GedcomTrie.<Individual>empty(), GedcomTrie.<Family>empty(), null, null, 0);
+
+    private final GedcomTrie<Individual> individuals;
+    private final GedcomTrie<Family> families;
+    private final Duplicate<Individual> duplicateIndividuals;
+    private final Duplicate<Family> duplicateFamilies;
+    private final long version;
+
+    private GedcomTree(GedcomTrie<Individual> individuals, GedcomTrie<Family> families,
+                       Duplicate<Individual> duplicateIndividuals, Duplicate<Family> duplicateFamilies, long version) {
+        this.individuals = individuals;
+        this.families = families;
+        this.duplicateIndividuals = duplicateIndividuals;
+        this.duplicateFamilies = duplicateFamilies;
+        this.version = version;
+    }
+
+    public static GedcomTree empty() {
+        return EMPTY;
+    }
+
+    //Read-only; the same map for as long as this version is held
+    public Map<String, Individual> getIndividuals() {
+        return individuals;
+    }
+
+    public Map<String, Family> getFamilies() {
+        return families;
+    }
+
+    //Individuals that were added after one with the same xref, in the order they were added
+    public List<Individual> getDuplicateIndividuals() {
+        return Duplicate.toList(duplicateIndividuals);
+    }
+
+    public List<Family> getDuplicateFamilies() {
+        return Duplicate.toList(duplicateFamilies);
+    }
+
+    //Counts the changes since empty(); a reader can tell whether the version it holds is still the latest
+    public long getVersion() {
+        return version;
+    }
+
+    //Adds a parsed individual; one whose xref is taken goes to the duplicates, as in a sequential read
+    public GedcomTree add(Individual individual) {
+        if (individuals.containsKey(individual.getId())) {
+            return new GedcomTree(individuals, families, new Duplicate<>(individual, duplicateIndividuals),
+                    duplicateFamilies, version + 1);
+        }
+        return withIndividual(individual);
+    }
+
+    public GedcomTree add(Family family) {
+        if (families.containsKey(family.getId())) {
+            return new GedcomTree(individuals, families, duplicateIndividuals,
+                    new Duplicate<>(family, duplicateFamilies), version + 1);
+        }
+        return withFamily(family);
+    }
+
+    //This tree with individual stored under its xref, replacing any individual there
+    public GedcomTree withIndividual(Individual individual) {
+        GedcomTrie<Individual> changed = individuals.with(individual.getId(), individual);
+        return changed == individuals ? this
+                : new GedcomTree(changed, families, duplicateIndividuals, duplicateFamilies, version + 1);
+    }
+
+    public GedcomTree withFamily(Family family) {
+        GedcomTrie<Family> changed = families.with(family.getId(), family);
+        return changed == families ? this
+                : new GedcomTree(individuals, changed, duplicateIndividuals, duplicateFamilies, version + 1);
+    }
+
+    public GedcomTree withoutIndividual(String xref) {
+        GedcomTrie<Individual> changed = individuals.without(xref);
+        return changed == individuals ? this
+                : new GedcomTree(changed, families, duplicateIndividuals, duplicateFamilies, version + 1);
+    }
+
+    public GedcomTree withoutFamily(String xref) {
+        GedcomTrie<Family> changed = families.without(xref);
+        return changed == families ? this
+                : new GedcomTree(individuals, changed, duplicateIndividuals, duplicateFamilies, version + 1);
+    }
+
+    //Newest first, so adding one shares the whole previous list
+    private static final class Duplicate<T> {
+
+        final T record;
+        final Duplicate<T> previous;
+        final int count;
+
+        Duplicate(T record, Duplicate<T> previous) {
+            this.record = record;
+            this.previous = previous;
+            this.count = previous != null ? previous.count + 1 : 1;
+        }
+
+        static <T> List<T> toList(Duplicate<T> last) {
+            if (last == null) {
+                return Collections.emptyList();
+            }
+            List<T> records = new ArrayList<>(last.count);
+            for (Duplicate<T> d = last; d != null; d = d.previous) {
+                records.add(d.record);
+            }
+            Collections.reverse(records);
+            return Collections.unmodifiableList(records);
+        }
+    }
+}
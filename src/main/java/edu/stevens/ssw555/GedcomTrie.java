@@ -0,0 +1,327 @@
+package edu.stevens.ssw555;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A persistent map from xref to record: a hash array mapped trie that branches 32 ways on five bits
+ * of the key's hash at a time. {@link #with} and {@link #without} return a new map that copies only
+ * the nodes on the path to the changed key and shares every other node with this one, so a version
+ * handed to a reader never changes and an edit costs a few small array copies.
+ * <p>
+ * Read-only as a {@link java.util.Map}; the mutators inherited from AbstractMap throw.
+ */
+final class GedcomTrie<V> extends AbstractMap<String, V> {
+
+    private static final GedcomTrie<?> EMPTY = new GedcomTrie<>(new Node(0, new Item[0]), 0);
+
+    private final Node root;
+    private final int size;
+
+    private GedcomTrie(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> GedcomTrie<V> empty() {
+        return (GedcomTrie<V>) EMPTY;
+    }
+
+    //The hash HashMap uses, so the low bits the trie branches on first are well mixed
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key != null && find(key) != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        Leaf leaf = key != null ? find(key) : null;
+        return leaf != null ? (V) leaf.getValue() : null;
+    }
+
+    private Leaf find(Object key) {
+        int hash = hash(key);
+        Item item = root;
+        for (int shift = 0; item instanceof Node; shift += 5) {
+            Node node = (Node) item;
+            int bit = 1 << ((hash >>> shift) & 31);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+            item = node.items[Integer.bitCount(node.bitmap & (bit - 1))];
+        }
+        if (item instanceof Leaf) {
+            Leaf leaf = (Leaf) item;
+            return leaf.hash == hash && leaf.getKey().equals(key) ? leaf : null;
+        }
+        for (Leaf leaf : ((Collision) item).leaves) {
+            if (leaf.getKey().equals(key)) {
+                return leaf;
+            }
+        }
+        return null;
+    }
+
+    //This map with key mapped to value; this map itself when it already was
+    GedcomTrie<V> with(String key, V value) {
+        Leaf leaf = new Leaf(hash(key), key, value);
+        boolean[] added = new boolean[1];
+        Node changed = (Node) put(root, 0, leaf, added);
+        return changed == root ? this : new GedcomTrie<>(changed, added[0] ? size + 1 : size);
+    }
+
+    //This map without key; this map itself when it had no such key
+    GedcomTrie<V> without(String key) {
+        if (!containsKey(key)) {
+            return this;
+        }
+        Item changed = remove(root, 0, hash(key), key);
+        Node node = changed instanceof Node ? (Node) changed : changed == null ? new Node(0, new Item[0])
+                : new Node(1 << (changed.hash & 31), new Item[]{changed});
+        return new GedcomTrie<>(node, size - 1);
+    }
+
+    private static Item put(Item item, int shift, Leaf leaf, boolean[] added) {
+        if (item instanceof Node) {
+            Node node = (Node) item;
+            int bit = 1 << ((leaf.hash >>> shift) & 31);
+            int index = Integer.bitCount(node.bitmap & (bit - 1));
+            if ((node.bitmap & bit) == 0) {
+                added[0] = true;
+                Item[] items = new Item[node.items.length + 1];
+                System.arraycopy(node.items, 0, items, 0, index);
+                items[index] = leaf;
+                System.arraycopy(node.items, index, items, index + 1, node.items.length - index);
+                return new Node(node.bitmap | bit, items);
+            }
+            Item child = put(node.items[index], shift + 5, leaf, added);
+            if (child == node.items[index]) {
+                return node;
+            }
+            Item[] items = node.items.clone();
+            items[index] = child;
+            return new Node(node.bitmap, items);
+        }
+        if (item instanceof Leaf) {
+            Leaf existing = (Leaf) item;
+            if (existing.hash == leaf.hash && existing.getKey().equals(leaf.getKey())) {
+                return existing.getValue() == leaf.getValue() ? existing : leaf;
+            }
+            added[0] = true;
+            return merge(existing, leaf, shift);
+        }
+        Collision collision = (Collision) item;
+        if (collision.hash != leaf.hash) {
+            added[0] = true;
+            return merge(collision, leaf, shift);
+        }
+        for (int i = 0; i < collision.leaves.length; i++) {
+            if (collision.leaves[i].getKey().equals(leaf.getKey())) {
+                if (collision.leaves[i].getValue() == leaf.getValue()) {
+                    return collision;
+                }
+                Leaf[] leaves = collision.leaves.clone();
+                leaves[i] = leaf;
+                return new Collision(leaf.hash, leaves);
+            }
+        }
+        added[0] = true;
+        Leaf[] leaves = Arrays.copyOf(collision.leaves, collision.leaves.length + 1);
+        leaves[collision.leaves.length] = leaf;
+        return new Collision(leaf.hash, leaves);
+    }
+
+    //The smallest subtrie holding two items whose hashes agree on the bits used above shift
+    private static Item merge(Item a, Item b, int shift) {
+        if (a.hash == b.hash) {
+            return new Collision(a.hash, new Leaf[]{(Leaf) a, (Leaf) b});
+        }
+        int indexA = (a.hash >>> shift) & 31;
+        int indexB = (b.hash >>> shift) & 31;
+        if (indexA == indexB) {
+            return new Node(1 << indexA, new Item[]{merge(a, b, shift + 5)});
+        }
+        return new Node((1 << indexA) | (1 << indexB), indexA < indexB ? new Item[]{a, b} : new Item[]{b, a});
+    }
+
+    //The item without key: null when nothing is left, or a lone leaf for the parent to hold directly
+    private static Item remove(Item item, int shift, int hash, Object key) {
+        if (item instanceof Leaf) {
+            return null;
+        }
+        if (item instanceof Collision) {
+            Leaf[] leaves = ((Collision) item).leaves;
+            Leaf[] kept = new Leaf[leaves.length - 1];
+            int k = 0;
+            for (Leaf leaf : leaves) {
+                if (!leaf.getKey().equals(key)) {
+                    kept[k++] = leaf;
+                }
+            }
+            return kept.length == 1 ? kept[0] : new Collision(hash, kept);
+        }
+        Node node = (Node) item;
+        int bit = 1 << ((hash >>> shift) & 31);
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+        Item child = remove(node.items[index], shift + 5, hash, key);
+        if (child == null && node.items.length == 1) {
+            return null;
+        }
+        if (child != null) {
+            if (node.items.length == 1 && !(child instanceof Node)) {
+                return child;
+            }
+            Item[] items = node.items.clone();
+            items[index] = child;
+            return new Node(node.bitmap, items);
+        }
+        if (node.items.length == 2 && !(node.items[1 - index] instanceof Node)) {
+            return node.items[1 - index];
+        }
+        Item[] items = new Item[node.items.length - 1];
+        System.arraycopy(node.items, 0, items, 0, index);
+        System.arraycopy(node.items, index + 1, items, index, items.length - index);
+        return new Node(node.bitmap & ~bit, items);
+    }
+
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+        return new AbstractSet<Entry<String, V>>() {
+            @Override
+            public Iterator<Entry<String, V>> iterator() {
+                return new Entries<>(root);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    //Depth first, in the order of the hash bits
+    private static final class Entries<V> implements Iterator<Entry<String, V>> {
+
+        private final ArrayDeque<Item> pending = new ArrayDeque<>();
+
+        Entries(Node root) {
+            pending.push(root);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!pending.isEmpty() && !(pending.peek() instanceof Leaf)) {
+                Item item = pending.pop();
+                Item[] items = item instanceof Node ? ((Node) item).items : ((Collision) item).leaves;
+                for (int i = items.length - 1; i >= 0; i--) {
+                    pending.push(items[i]);
+                }
+            }
+            return !pending.isEmpty();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<String, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return (Entry<String, V>) pending.pop();
+        }
+    }
+
+    private abstract static class Item {
+
+        final int hash;
+
+        Item(int hash) {
+            this.hash = hash;
+        }
+    }
+
+    private static final class Leaf extends Item implements Entry<String, Object> {
+
+        private final String key;
+        private final Object value;
+
+        Leaf(int hash, String key, Object value) {
+            super(hash);
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            return key.equals(entry.getKey()) && (value == null ? entry.getValue() == null : value.equals(entry.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    private static final class Node extends Item {
+
+        final int bitmap;
+        final Item[] items;
+
+        Node(int bitmap, Item[] items) {
+            super(0);
+            this.bitmap = bitmap;
+            this.items = items;
+        }
+    }
+
+    //Leaves whose keys have the same full hash
+    private static final class Collision extends Item {
+
+        final Leaf[] leaves;
+
+        Collision(int hash, Leaf[] leaves) {
+            super(hash);
+            this.leaves = leaves;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package edu.stevens.ssw555;
+
+/**
+ * Splits NAME and DATE values into their parts without throwing. A value that does not have the
+ * expected shape gives null, so the parser can log it in its {@link GedcomDiagnostics} and substitute
+ * a default instead of unwinding through an exception.
+ */
+public final class GedcomValues {
+
+    private static final String[] MONTHS = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+    private static final int[] DAYS_IN_MONTH = {31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    private GedcomValues() {
+    }
+
+    //"Emily /Williams/" -> {"Emily", "/Williams/"}; null when there is no second part.
+    //Like the legacy encodings, only the first two parts are kept: "Mary Ann /Smith/" -> {"Mary", "Ann"}
+    public static String[] name(String value) {
+        String[] parts = value.trim().split("\\s+");
+        if (parts.length < 2) {
+            return null;
+        }
+        return new String[]{parts[0], parts[1]};
+    }
+
+    //"Mary Ann /Smith/ Jr" -> {"Mary Ann", "Smith"}: the whole given and surname parts, each null when empty
+    public static String[] nameParts(String value) {
+        int open = value.indexOf('/');
+        if (open < 0) {
+            return new String[]{nonEmpty(value), null};
+        }
+        int close = value.indexOf('/', open + 1);
+        return new String[]{nonEmpty(value.substring(0, open)),
+                nonEmpty(close < 0 ? value.substring(open + 1) : value.substring(open + 1, close))};
+    }
+
+    private static String nonEmpty(String part) {
+        part = part.trim();
+        return part.isEmpty() ? null : part;
+    }
+
+    //"/Williams/" -> "Williams"; parts without slashes are returned as they are
+    public static String surname(String part) {
+        if (part.length() >= 2 && part.charAt(0) == '/' && part.charAt(part.length() - 1) == '/') {
+            return part.substring(1, part.length() - 1);
+        }
+        return part;
+    }
+
+    //"7 FEB 1990" -> {"7", "FEB", "1990"}; null for partial, approximate or impossible dates such as "ABT 1900" or "30 FEB 1990"
+    public static String[] date(String value) {
+        String[] parts = value.trim().split("\\s+");
+        if (parts.length != 3) {
+            return null;
+        }
+        int day = number(parts[0], 2);
+        int month = month(parts[1]);
+        int year = number(parts[2], 4);
+        if (day < 1 || month < 1 || year < 0 || day > DAYS_IN_MONTH[month - 1]) {
+            return null;
+        }
+        if (month == 2 && day == 29 && !(year % 4 == 0 && (year % 100 != 0 || year % 400 == 0))) {
+            return null;
+        }
+        parts[1] = MONTHS[month - 1];
+        return parts;
+    }
+
+    //1 for "JAN" (in any case) through 12 for "DEC", or -1
+    public static int month(String month) {
+        for (int i = 0; i < MONTHS.length; i++) {
+            if (MONTHS[i].equalsIgnoreCase(month)) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    //Value of a run of at most maxDigits digits, or -1
+    private static int number(String text, int maxDigits) {
+        if (text.isEmpty() || text.length() > maxDigits) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
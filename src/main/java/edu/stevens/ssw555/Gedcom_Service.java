@@ -6,7 +6,6 @@ package edu.stevens.ssw555;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -17,29 +16,59 @@ import java.nio.file.Paths;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Date;
+import java.util.Calendar;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
 public class Gedcom_Service {
 
-    private static HashMap<String, Family> families = new HashMap<String, Family>();
-    private static HashMap<String, Individual> individuals = new HashMap<String, Individual>();
+    //The latest version of the parsed records; readers keep whichever version they took
+    private static final AtomicReference<GedcomTree> tree = new AtomicReference<GedcomTree>(GedcomTree.empty());
     private static SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy");
     private static String fileName = null;
-    private static ArrayList<Individual> dupInd = new ArrayList<Individual>();
-    private static ArrayList<Family> dupFam = new ArrayList<Family>();
+    private static GedcomParseStats stats = new GedcomParseStats();
+    private static GedcomDiagnostics diagnostics = new GedcomDiagnostics();
 
+    //Usage: Gedcom_Service [input file [output directory]]; prompts for whatever is not given
     public static void main(String[] args) throws IOException, ParseException {
-        System.out.println("Please Enter the Input File Path with filename: ");
-        try {
-            BufferedReader bufferRead = new BufferedReader(new InputStreamReader(System.in));
-            String fileName = bufferRead.readLine();
-            createOutputFile();
-            readAndParseFile(fileName);
+        BufferedReader bufferRead = new BufferedReader(new InputStreamReader(System.in));
+        while (true) {
+            String fileName;
+            if (args != null && args.length > 0) {
+                fileName = args[0];
+            } else {
+                System.out.println("Please Enter the Input File Path with filename: ");
+                fileName = bufferRead.readLine();
+                if (fileName == null) {
+                    throw new FileNotFoundException("No input file given");
+                }
+            }
+            try {
+                if (args != null && args.length > 1) {
+                    if (!createOutputFile(args[1])) {
+                        throw new FileNotFoundException("Output path does not exist: " + args[1]);
+                    }
+                } else {
+                    createOutputFile();
+                }
+                readAndParseFile(fileName);
+            } catch (FileNotFoundException ex) {
+                if (args != null && args.length > 0) {
+                    throw ex;
+                }
+                System.out.println("File Not Found. Please reenter path");
+                continue;
+            }
             //printMaps();
+            //Every story reads the same version, whatever is published meanwhile
+            GedcomTree snapshot = getTree();
+            Map<String, Individual> individuals = snapshot.getIndividuals();
+            Map<String, Family> families = snapshot.getFamilies();
             //UuserStory 3
             birthBeforeDeath(individuals);
             //UserStory 4
@@ -47,111 +76,279 @@ public class Gedcom_Service {
             //UserStory 8
             birthbeforemarriageofparent(individuals, families);
             //UserStory 16
-            Malelastname(families);
+            Malelastname(individuals, families);
             //UserStory 20
-            AuntsandUnclesname(families);
+            AuntsandUnclesname(individuals, families);
             //UserStory 24
             uniqueFamilynameBySpouses(individuals, families);
+            System.err.print(stats.summary());
+            if (!diagnostics.isEmpty()) {
+                System.err.print(diagnostics.summary());
+            }
+            return;
+        }
+    }
 
-        } catch (FileNotFoundException ex) {
-            System.out.println("File Not Found. Please reenter path");
-            main(null);
+    //Counters and phase timings of the last readAndParseFile
+    static GedcomParseStats getStats() {
+        return stats;
+    }
+
+    //Problems logged by the last readAndParseFile
+    static GedcomDiagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
+    //The records parsed so far, as one version that no later parse or edit changes
+    static GedcomTree getTree() {
+        return tree.get();
+    }
+
+    //Publishes edit applied to the latest version; edit may run again if another update wins the race
+    static GedcomTree update(UnaryOperator<GedcomTree> edit) {
+        while (true) {
+            GedcomTree current = tree.get();
+            GedcomTree next = edit.apply(current);
+            if (tree.compareAndSet(current, next)) {
+                return next;
+            }
         }
     }
 
     static void readAndParseFile(String fileName) throws IOException {
 
-        String[] validTags = {"INDI", "NAME", "SEX", "BIRT", "DEAT", "FAMC", "FAMS", "FAM", "MARR", "HUSB", "WIFE",
-                "CHIL", "DIV", "DATE", "HEAD", "TRLR", "NOTE"};
-        BufferedReader br = new BufferedReader(new FileReader(fileName));
-        String line = br.readLine();
+        Path path = Paths.get(fileName);
+        stats = new GedcomParseStats();
+        diagnostics = new GedcomDiagnostics();
+        long start = System.nanoTime();
+        if (ParallelGedcomParser.shouldSplit(path)) {
+            readAndParseFile(path, new ParallelGedcomParser());
+            stats.addPhase("parse", System.nanoTime() - start);
+            return;
+        }
+        try (GedcomRecordReader reader = new GedcomRecordReader(fileName)) {
+            ParsedRecords parsed = ParsedRecords.read(reader);
+            stats.add(parsed.stats);
+            diagnostics.addAll(parsed.diagnostics, 0);
+            update(parsed::addTo);
+        }
+        stats.addPhase("parse", System.nanoTime() - start);
+    }
 
+    //Parallel parse: chunks are parsed independently and merged in file order,
+    //so duplicate ids end up in the tree's duplicates exactly as with a sequential read
+    static void readAndParseFile(Path path, ParallelGedcomParser parser) throws IOException {
+        List<ParsedRecords> chunks;
+        try {
+            chunks = parser.parse(path, ParsedRecords::read);
+        } catch (ParseException e) {
+            throw new IOException(e);
+        }
+        int lineShift = 0;
+        for (ParsedRecords chunk : chunks) {
+            stats.add(chunk.stats);
+            diagnostics.addAll(chunk.diagnostics, lineShift);
+            lineShift += chunk.lineCount;
+        }
+        //One version for the whole file, so no reader sees half of it
+        update(current -> {
+            for (ParsedRecords chunk : chunks) {
+                current = chunk.addTo(current);
+            }
+            return current;
+        });
+    }
 
-        while (line != null) {
+    private static class ParsedRecords {
+        List<Individual> individuals = new ArrayList<Individual>();
+        List<Family> families = new ArrayList<Family>();
+        GedcomParseStats stats;
+        GedcomDiagnostics diagnostics;
+        int lineCount;
+
+        //Every record of reader, the whole file or one chunk of a parallel parse, with the reader's stats
+        static ParsedRecords read(GedcomRecordReader reader) throws IOException {
+            ParsedRecords parsed = new ParsedRecords();
+            GedcomRecord record;
+            while ((record = reader.next()) != null) {
+                parsed.add(record, reader.getDiagnostics());
+            }
+            parsed.stats = reader.getStats();
+            parsed.diagnostics = reader.getDiagnostics();
+            parsed.lineCount = reader.getLineCount();
+            return parsed;
+        }
 
-            String[] parts = line.split(" ");
+        void add(GedcomRecord record, GedcomDiagnostics diagnostics) {
+            if (!hasXref(record, diagnostics)) {
+                return;
+            }
+            if (record.getTagId(0) == GedcomTag.INDI) {
+                individuals.add(parseIndividual(record, diagnostics));
+            } else if (record.getTagId(0) == GedcomTag.FAM) {
+                families.add(parseFamily(record, diagnostics));
+            }
+        }
 
-            if (Arrays.asList(validTags).contains(parts[1])) {
-                line = br.readLine();
-            } else {
-                if (parts[0].equals("0") && Arrays.asList(validTags).contains(parts[2])) {
-
-                    if (parts[2].equals("INDI")) {
-                        Individual indi = new Individual(parts[1]);
-                        String individualParts = br.readLine();
-                        do {
-                            String[] indParts = individualParts.split(" ");
-                            if (indParts[1].equals("NAME"))
-                                indi.setName(indParts[2] + " " + indParts[3].substring(1, indParts[3].length() - 1));
-                            if (indParts[1].equals("SEX"))
-                                indi.setSex(indParts[2]);
-                            if (indParts[1].equals("FAMS"))
-                                indi.setSpouseOf(indParts[2]);
-                            if (indParts[1].equals("FAMC"))
-                                indi.setChildOf(indParts[2]);
-                            if (indParts[1].equals("BIRT")) {
-                                individualParts = br.readLine();
-                                indParts = individualParts.split(" ");
-                                String month = getMonth(indParts[3]);
-                                indi.setBirth(month + "/" + indParts[2] + "/" + indParts[4]);
-                            }
-                            if (indParts[1].equals("DEAT") && indParts[2].equals("Y")) {
-                                individualParts = br.readLine();
-                                indParts = individualParts.split(" ");
-                                String month = getMonth(indParts[3]);
-                                indi.setDeath(month + "/" + indParts[2] + "/" + indParts[4]);
-                            }
-                            individualParts = br.readLine();
-                        } while (!individualParts.startsWith("0"));
-                        line = individualParts;
-                        if (!individuals.containsKey(indi.getId())) {
-                            individuals.put(indi.getId(), indi);
-                        } else {
-                            dupInd.add(indi);
-                        }
-                    } else if (parts[2].equals("FAM")) {
-                        ArrayList<String> children = new ArrayList<String>();
-                        Family fam = new Family(parts[1]);
-                        String familyParts = br.readLine();
-                        do {
-                            String[] indFamParts = familyParts.split(" ");
-                            if (indFamParts[1].equals("HUSB"))
-                                fam.setHusb(indFamParts[2]);
-                            if (indFamParts[1].equals("WIFE"))
-                                fam.setWife(indFamParts[2]);
-                            if (indFamParts[1].equals("CHIL")) {
-                                children.add(indFamParts[2]);
-                                fam.setChild(children);
-                            }
-                            if (indFamParts[1].equals("MARR")) {
-                                familyParts = br.readLine();
-                                indFamParts = familyParts.split(" ");
-                                String month = getMonth(indFamParts[3]);
-                                fam.setMarriage(month + "/" + indFamParts[2] + "/" + indFamParts[4]);
-                            }
-                            if (indFamParts[1].equals("DIV")) {
-                                familyParts = br.readLine();
-                                indFamParts = familyParts.split(" ");
-                                String month = getMonth(indFamParts[3]);
-                                fam.setDivorce(month + "/" + indFamParts[2] + "/" + indFamParts[4]);
-                            }
-                            familyParts = br.readLine();
-                        } while (!familyParts.startsWith("0"));
-                        if (!families.containsKey(fam.getId())) {
-                            families.put(fam.getId(), fam);
-                        } else {
-                            dupFam.add(fam);
-                        }
-                        line = familyParts;
+        GedcomTree addTo(GedcomTree tree) {
+            for (Individual indi : individuals) {
+                tree = tree.add(indi);
+            }
+            for (Family fam : families) {
+                tree = tree.add(fam);
+            }
+            return tree;
+        }
+    }
+
+    //Other records without an xref, such as HEAD and TRLR, are skipped silently
+    private static boolean hasXref(GedcomRecord record, GedcomDiagnostics diagnostics) {
+        if (record.getXref() != null) {
+            return true;
+        }
+        if (record.getTagId(0) == GedcomTag.INDI || record.getTagId(0) == GedcomTag.FAM) {
+            diagnostics.add(GedcomDiagnostics.Reason.MISSING_XREF, record, 0);
+        }
+        return false;
+    }
+
+    static Individual parseIndividual(GedcomRecord record) {
+        return parseIndividual(record, new GedcomDiagnostics());
+    }
+
+    //Names and dates that do not parse are logged and left unset, as if the line were missing
+    static Individual parseIndividual(GedcomRecord record, GedcomDiagnostics diagnostics) {
+        Individual indi = new Individual(record.getXref());
+        GedcomAttributeList.Builder attributes = new GedcomAttributeList.Builder();
+        for (int i = record.firstChild(0); i >= 0; i = record.nextSibling(i)) {
+            switch (record.getTagId(i)) {
+                case NAME: {
+                    String[] indParts = GedcomValues.name(record.getValue(i));
+                    if (indParts != null) {
+                        indi.setName(indParts[0] + " " + GedcomValues.surname(indParts[1]));
+                    } else {
+                        diagnostics.add(GedcomDiagnostics.Reason.BAD_NAME, record, i);
+                        indi.setName(record.getValue(i).trim());
                     }
-                } else {
+                    indi.setSurname(GedcomService.nameParts(record, i)[1]);
+                    attributes.addDescendants(record, i, -1);
+                    break;
+                }
+                case SEX:
+                    indi.setSex(record.getValue(i));
+                    break;
+                case FAMS:
+                    indi.addSpouseFamily(record.getValue(i));
+                    break;
+                case FAMC:
+                    indi.addChildFamily(record.getValue(i));
+                    break;
+                case BIRT: {
+                    int date = record.findChild(i, GedcomTag.DATE);
+                    if (date >= 0) {
+                        indi.setBirthDate(packDate(record, date, diagnostics));
+                        indi.setBirth(formatDate(record.getValue(date)));
+                    }
+                    attributes.addDescendants(record, i, date);
+                    break;
+                }
+                case DEAT: {
+                    int date = record.findChild(i, GedcomTag.DATE);
+                    if (date >= 0) {
+                        indi.setDeathDate(packDate(record, date, diagnostics));
+                        indi.setDeath(formatDate(record.getValue(date)));
+                        attributes.addDescendants(record, i, date);
+                    } else {
+                        attributes.addSubtree(record, i);
+                    }
+                    break;
+                }
+                default:
+                    attributes.addSubtree(record, i);
+            }
+        }
+        if (indi.getName() == null) {
+            diagnostics.add(GedcomDiagnostics.Reason.MISSING_NAME, record, 0);
+        }
+        indi.setAttributes(attributes.build(record));
+        return indi;
+    }
+
+    static Family parseFamily(GedcomRecord record) {
+        return parseFamily(record, new GedcomDiagnostics());
+    }
 
-                    line = br.readLine();
+    static Family parseFamily(GedcomRecord record, GedcomDiagnostics diagnostics) {
+        ArrayList<String> children = new ArrayList<String>();
+        Family fam = new Family(record.getXref());
+        GedcomAttributeList.Builder attributes = new GedcomAttributeList.Builder();
+        for (int i = record.firstChild(0); i >= 0; i = record.nextSibling(i)) {
+            switch (record.getTagId(i)) {
+                case HUSB:
+                    fam.setHusb(record.getValue(i));
+                    break;
+                case WIFE:
+                    fam.setWife(record.getValue(i));
+                    break;
+                case CHIL:
+                    children.add(record.getValue(i));
+                    fam.setChild(children);
+                    break;
+                case MARR: {
+                    int date = record.findChild(i, GedcomTag.DATE);
+                    if (date >= 0) {
+                        fam.setMarriageDate(packDate(record, date, diagnostics));
+                        fam.setMarriage(formatDate(record.getValue(date)));
+                    }
+                    attributes.addDescendants(record, i, date);
+                    break;
+                }
+                case DIV: {
+                    int date = record.findChild(i, GedcomTag.DATE);
+                    if (date >= 0) {
+                        fam.setDivorceDate(packDate(record, date, diagnostics));
+                        fam.setDivorce(formatDate(record.getValue(date)));
+                    }
+                    attributes.addDescendants(record, i, date);
+                    break;
                 }
+                default:
+                    attributes.addSubtree(record, i);
             }
         }
+        if (fam.getHusb() == null || fam.getWife() == null) {
+            diagnostics.add(GedcomDiagnostics.Reason.MISSING_SPOUSE, record, 0);
+        }
+        fam.setAttributes(attributes.build(record));
+        return fam;
+    }
+
+    //Converts a GEDCOM "D MMM YYYY" date to the MM/dd/yyyy form used by the user stories, or null when it is not a full date
+    static String formatDate(String date) {
+        String[] dateParts = GedcomValues.date(date);
+        if (dateParts == null) {
+            return null;
+        }
+        String month = getMonth(dateParts[1]);
+        return month + "/" + dateParts[0] + "/" + dateParts[2];
+    }
 
-        br.close();
+    private static long packDate(GedcomRecord record, int date, GedcomDiagnostics diagnostics) {
+        long packed = GedcomDate.parse(record.getValue(date));
+        if (packed == GedcomDate.MISSING) {
+            diagnostics.add(GedcomDiagnostics.Reason.BAD_DATE, record, date);
+        }
+        return packed;
+    }
+
+    //The packed date the parser set, or else the MM/dd/yyyy string parsed as the user stories always have
+    private static long date(long packed, String date) throws ParseException {
+        if (GedcomDate.isKnown(packed) || date == null) {
+            return packed;
+        }
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(sdf.parse(date));
+        return GedcomDate.of(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1, calendar.get(Calendar.DAY_OF_MONTH));
     }
 
 	/*public static void printMaps() throws FileNotFoundException, IOException {
@@ -189,22 +386,33 @@ public class Gedcom_Service {
 	}*/
 
     public static void createOutputFile() throws IOException {
-        System.out.println("Please Enter Output File Path: ");
         BufferedReader bufferRead = new BufferedReader(new InputStreamReader(System.in));
-        String fp = bufferRead.readLine();
-        Path filePath = Paths.get(fp);
-        if (Files.exists(filePath)) {
-            fileName = "GedcomService_output.txt";
-            try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(fileName, false)))) {
-            } catch (IOException e) {
-
+        while (true) {
+            System.out.println("Please Enter Output File Path: ");
+            String fp = bufferRead.readLine();
+            if (fp == null) {
+                throw new IOException("No output file path given");
+            }
+            if (createOutputFile(fp)) {
+                return;
             }
-        } else {
             System.out.println("The Path You Entered Does Not Exist.Reenter path");
-            createOutputFile();
         }
     }
 
+    //Starts an empty output file if the path exists; false when it does not
+    public static boolean createOutputFile(String fp) {
+        if (!Files.exists(Paths.get(fp))) {
+            return false;
+        }
+        fileName = "GedcomService_output.txt";
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(fileName, false)))) {
+        } catch (IOException e) {
+
+        }
+        return true;
+    }
+
     public static void writeToFile(String output) throws FileNotFoundException, IOException {
         try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(fileName, true)))) {
             out.println(output);
@@ -219,29 +427,26 @@ public class Gedcom_Service {
     //UserStory 03 implementation
     //Refactored code for method
 
-    static void birthBeforeDeath(HashMap<String, Individual> individuals) throws FileNotFoundException, IOException {
+    static void birthBeforeDeath(Map<String, Individual> individuals) throws FileNotFoundException, IOException {
 
-        Map<String, Individual> map = new HashMap<String, Individual>(individuals);
+        Map<String, Individual> map = individuals;
         Iterator<Map.Entry<String, Individual>> entries = map.entrySet().iterator();
         while (entries.hasNext()) {
             Map.Entry<String, Individual> entry = entries.next();
             Individual indi = entry.getValue();
 
-            Date date_of_birth = null;
-            Date date_of_death = null;
+            long date_of_birth = GedcomDate.MISSING;
+            long date_of_death = GedcomDate.MISSING;
             try {
-                date_of_birth = sdf.parse(indi.getBirth());
-                if (indi.getDeath() != null)
-                    date_of_death = sdf.parse(indi.getDeath());
-                else
-                    date_of_death = null;
+                date_of_birth = date(indi.getBirthDate(), indi.getBirth());
+                date_of_death = date(indi.getDeathDate(), indi.getDeath());
             } catch (ParseException e) {
 
                 e.printStackTrace();
             }
             // Compare two dates
-            if (date_of_death != null)
-                if (date_of_birth.compareTo(date_of_death) > 0) {
+            if (GedcomDate.isKnown(date_of_death))
+                if (GedcomDate.isAfter(date_of_birth, date_of_death)) {
                     System.out.println("\n");
                     writeToFile(
                             "ERROR:INDIVIDUAL: User Story US03: Birth Before Death \nIndividual: "
@@ -254,25 +459,25 @@ public class Gedcom_Service {
 
     //UserStory 04 implementation
     //Refactored code for method
-    static void Marriagebeforedivorce(HashMap<String, Individual> individuals, HashMap<String, Family> families)
+    static void Marriagebeforedivorce(Map<String, Individual> individuals, Map<String, Family> families)
             throws FileNotFoundException, IOException {
 
-        Date marriageDate = null;
-        Date divorceDate = null;
-        Map<String, Family> famMap = new HashMap<String, Family>(families);
-        Map<String, Individual> indMap = new HashMap<String, Individual>(individuals);
+        long marriageDate;
+        long divorceDate;
+        Map<String, Family> famMap = families;
+        Map<String, Individual> indMap = individuals;
         Iterator<Map.Entry<String, Family>> famEntries = famMap.entrySet().iterator();
         while (famEntries.hasNext()) {
             Map.Entry<String, Family> famEntry = famEntries.next();
             Family fam = famEntry.getValue();
             try {
 
-                if (fam.getDivorce() != null) {
-                    divorceDate = sdf.parse(fam.getDivorce());
-                    if (fam.getMarriage() == null)
+                divorceDate = date(fam.getDivorceDate(), fam.getDivorce());
+                if (GedcomDate.isKnown(divorceDate)) {
+                    marriageDate = date(fam.getMarriageDate(), fam.getMarriage());
+                    if (!GedcomDate.isKnown(marriageDate))
                         System.out.println("marriage date is null");
-                    marriageDate = sdf.parse(fam.getMarriage());
-                    if (divorceDate.before(marriageDate)) {
+                    if (GedcomDate.isBefore(divorceDate, marriageDate)) {
                         writeToFile(
                                 "ERROR:FAMILY: User Story US04: Marriage Before Divorce \nFamily: "
                                         + fam.getId() + "\nIndividual: " + fam.getHusb() + ": "
@@ -291,24 +496,24 @@ public class Gedcom_Service {
     }
 
     //UserStory 08 implementation
-    static void birthbeforemarriageofparent(HashMap<String, Individual> individuals, HashMap<String, Family> families)
+    static void birthbeforemarriageofparent(Map<String, Individual> individuals, Map<String, Family> families)
             throws FileNotFoundException, IOException {
-        Date marriageDate = null;
-        Date divorceDate = null;
-        Date birthDate = null;
-        Map<String, Individual> indMap = new HashMap<String, Individual>(individuals);
-        Map<String, Family> famMap = new HashMap<String, Family>(families);
+        long marriageDate;
+        long divorceDate;
+        long birthDate;
+        Map<String, Individual> indMap = individuals;
+        Map<String, Family> famMap = families;
         Iterator<Map.Entry<String, Family>> famEntries = famMap.entrySet().iterator();
         while (famEntries.hasNext()) {
             Map.Entry<String, Family> famEntry = famEntries.next();
             Family fam = famEntry.getValue();
             try {
-                marriageDate = sdf.parse(fam.getMarriage());
+                marriageDate = date(fam.getMarriageDate(), fam.getMarriage());
                 if (fam.getChild() != null) {
                     for (int i = 0; i < fam.getChild().size(); i++) {
                         Individual indi = indMap.get(fam.getChild().get(i));
-                        birthDate = sdf.parse(indi.getBirth());
-                        if (birthDate.before(marriageDate)) {
+                        birthDate = date(indi.getBirthDate(), indi.getBirth());
+                        if (GedcomDate.isBefore(birthDate, marriageDate)) {
                             writeToFile(
                                     "ERROR: User Story US08: Birth Before Marriage Date \nFamily ID: "
                                             + fam.getId() + "\nIndividual: " + indi.getId() + ": " + indi.getName()
@@ -316,9 +521,9 @@ public class Gedcom_Service {
                                             + " Parents Marriage Date: " + fam.getMarriage()
                                             + "\n\n");
                         }
-                        if (fam.getDivorce() != null) {
-                            divorceDate = sdf.parse(fam.getDivorce());
-                            if (birthDate.after(divorceDate)) {
+                        divorceDate = date(fam.getDivorceDate(), fam.getDivorce());
+                        if (GedcomDate.isKnown(divorceDate)) {
+                            if (GedcomDate.isAfter(birthDate, divorceDate)) {
                                 writeToFile(
                                         "ERROR: User Story US08: Birth After Divorce Date\nFamily ID: "
                                                 + fam.getId() + "\nIndividual: " + indi.getId() + ": " + indi.getName()
@@ -337,64 +542,53 @@ public class Gedcom_Service {
     }
 
     //UserStory 16 Implementation
-    static void Malelastname(HashMap<String, Family> families)
+    static void Malelastname(Map<String, Family> families)
             throws ParseException, FileNotFoundException, IOException {
-        Map<String, Individual> map = new HashMap<String, Individual>(individuals);
-        Iterator<Map.Entry<String, Individual>> entries = map.entrySet().iterator();
-        Map<String, Family> famMap = new HashMap<String, Family>(families);
-        Iterator<Map.Entry<String, Family>> famEntries = famMap.entrySet().iterator();
-        String lastname;
-        String male = null;
-        String lastname1;
-        String lastname2;
-        if (entries.hasNext()) {
-            HashMap<String, String> nameMap = new HashMap<String, String>();
-            Map.Entry<String, Individual> indi = entries.next();
-            Map.Entry<String, Family> famEntry = famEntries.next();
-            Family fam = famEntry.getValue();
-            if (fam.getChild() != null && fam.getChild().size() > 1) {
-                ArrayList<String> children = fam.getChild();
-                for (int i = 0; i < children.size(); i++) {
-                    Individual ind = individuals.get(children.get(i));
-                    String fullname = ind.getName();
-                    male = ind.getSex();
-                    String[] words = fullname.split(" ");
-                    lastname = words[1];
-                    nameMap.put(male, lastname);
-                }
-                Iterator it = nameMap.entrySet().iterator();
-                while (it.hasNext()) {
-                    Map.Entry pair = (Map.Entry) it.next();
-                    lastname1 = pair.getValue().toString();
-                    Iterator it2 = nameMap.entrySet().iterator();
-                    while (it2.hasNext()) {
-                        Map.Entry pair2 = (Map.Entry) it2.next();
-                        lastname2 = pair2.getValue().toString();
-                        if (lastname1 != lastname2 && male == "male") {
-                            writeToFile(
-                                    "ERROR: User Story US16:Male last name \nFamily ID: "
-                                            + fam.getId() + "   family members don't have same last name "
-                                            + "\n\n");
-                        }
+        Malelastname(getTree().getIndividuals(), families);
+    }
 
-                    }
+    //The husband and every son share a surname, as FamilyValidations.maleLastNames checks on the document: the
+    //husband's surname is the family's, else the first son's, and people without a surname are not compared.
+    //Surnames are compared by their dictionary id (Individual.getSurnameRef), never as strings
+    static void Malelastname(Map<String, Individual> individuals, Map<String, Family> families)
+            throws ParseException, FileNotFoundException, IOException {
+        for (Family fam : families.values()) {
+            Individual husband = fam.getHusb() != null ? individuals.get(fam.getHusb()) : null;
+            int lastname = husband != null ? husband.getSurnameRef() : -1;
+            boolean differs = false;
+            for (String childId : fam.getChild() != null ? fam.getChild() : Collections.<String>emptyList()) {
+                Individual child = individuals.get(childId);
+                if (child == null || !"M".equals(child.getSex()) || child.getSurnameRef() < 0) {
+                    continue;
                 }
-                nameMap = null;
+                if (lastname < 0) {
+                    lastname = child.getSurnameRef();
+                } else if (lastname != child.getSurnameRef()) {
+                    differs = true;
+                }
+            }
+            if (differs) {
+                writeToFile(
+                        "ERROR: User Story US16:Male last name \nFamily ID: "
+                                + fam.getId() + "   family members don't have same last name "
+                                + "\n\n");
             }
         }
-
     }
 
     //UserStory 20 Implementation
-    static void AuntsandUnclesname(HashMap<String, Family> families)
+    static void AuntsandUnclesname(Map<String, Family> families)
             throws ParseException, FileNotFoundException, IOException {
+        AuntsandUnclesname(getTree().getIndividuals(), families);
+    }
 
-        Map<String, Family> famMap = new HashMap<String, Family>(families);
+    static void AuntsandUnclesname(Map<String, Individual> individuals, Map<String, Family> families)
+            throws ParseException, FileNotFoundException, IOException {
+
+        Map<String, Family> famMap = families;
         Iterator<Map.Entry<String, Family>> famEntries = famMap.entrySet().iterator();
         String fID = null;
         String mID = null;
-        String motherFamilyID = null;
-        String fatherFamilyID = null;
         ArrayList<String> auntsUncles = new ArrayList<String>();
         while (famEntries.hasNext()) {
             Map.Entry<String, Family> famEntry = famEntries.next();
@@ -403,15 +597,13 @@ public class Gedcom_Service {
             mID = fam.getWife();
             Individual father = individuals.get(fID);
             Individual mother = individuals.get(mID);
-            motherFamilyID = mother.getChildOf();
-            fatherFamilyID = father.getChildOf();
-            if (motherFamilyID != null) {
+            for (String motherFamilyID : mother.getChildFamilies()) {
                 Family motherFamily = families.get(motherFamilyID);
                 if (motherFamily.getChild() != null && motherFamily.getChild().size() > 1) {
                     auntsUncles.addAll(motherFamily.getChild());
                 }
             }
-            if (fatherFamilyID != null) {
+            for (String fatherFamilyID : father.getChildFamilies()) {
                 Family fatherFamily = families.get(fatherFamilyID);
                 if (fatherFamily.getChild() != null && fatherFamily.getChild().size() > 1) {
                     auntsUncles.addAll(fatherFamily.getChild());
@@ -421,8 +613,8 @@ public class Gedcom_Service {
                 ArrayList<String> children = fam.getChild();
                 for (int i = 0; i < children.size(); i++) {
                     Individual ind = individuals.get(children.get(i));
-                    String spouseOf = ind.getSpouseOf();
-                    if (spouseOf != null) {
+                    //A remarried child is checked against every spouse, not just the last one
+                    for (String spouseOf : ind.getSpouseFamilies()) {
                         Family childFam = families.get(spouseOf);
                         String spouse = childFam.getHusb();
                         if (spouse.equals(ind.getId())) {
@@ -445,29 +637,33 @@ public class Gedcom_Service {
     }
 
     //UserStory 24 Implementation
-    static void uniqueFamilynameBySpouses(HashMap<String, Individual> individuals, HashMap<String, Family> families)
+    static void uniqueFamilynameBySpouses(Map<String, Individual> individuals, Map<String, Family> families)
             throws FileNotFoundException, IOException {
 
-        Map<String, Individual> indMap = new HashMap<String, Individual>(individuals);
-        Map<String, Family> famMap = new HashMap<String, Family>(families);
-        Iterator<Map.Entry<String, Family>> famEntries = famMap.entrySet().iterator();
-        while (famEntries.hasNext()) {
-            Map.Entry<String, Family> famEntry = famEntries.next();
-            Family fam = famEntry.getValue();
-            Map<String, Family> famMap2 = new HashMap<String, Family>(families);
-            Iterator<Map.Entry<String, Family>> famEntries2 = famMap2.entrySet().iterator();
-            while (famEntries2.hasNext()) {
-                Map.Entry<String, Family> famEntry2 = famEntries2.next();
-                Family fam2 = famEntry2.getValue();
-                if (fam.getHusb() != null && fam2.getHusb() != null && fam.getWife() != null
-                        && fam2.getWife() != null) {
-                    if (fam.getHusb().equals(fam2.getHusb()) && fam.getWife().equals(fam2.getWife())
-                            && fam.getMarriage().equals(fam2.getMarriage()) && fam.getId() != fam2.getId()) {
-                        writeToFile("ERROR: User Story US24: Unique Families By Spouse :\n"
-                                + fam.getId() + ": Husbund Name: " + indMap.get(fam.getHusb()).getName() + ",Wife Name: " + indMap.get(fam.getWife()).getName() + " and " + fam2.getId() + ": Husbund Name: " + indMap.get(fam.getHusb()).getName() + ",Wife Name: " + indMap.get(fam.getWife()).getName() + "\n"
-                                + " have same spouses and marriage dates :" + fam.getMarriage()
-                                + "\n");
-                    }
+        Map<String, Individual> indMap = individuals;
+        //Families laid out by couple in a SPOUSE_PAIR index, as GedcomIndexes builds for the document, so each
+        //family is only compared with those of the same couple. Spouse xrefs get ids in order of appearance
+        List<Family> fams = new ArrayList<>(families.values());
+        GedcomIdTable spouseIds = new GedcomIdTable();
+        GedcomIndex.Builder pairs = new GedcomIndex.Builder();
+        for (int i = 0; i < fams.size(); i++) {
+            Family fam = fams.get(i);
+            if (fam.getHusb() != null && fam.getWife() != null) {
+                pairs.add(GedcomIndexes.pair(spouseIds.intern(fam.getHusb()), spouseIds.intern(fam.getWife())), i);
+            }
+        }
+        GedcomIndex couples = pairs.build();
+        for (Family fam : fams) {
+            if (fam.getHusb() == null || fam.getWife() == null || fam.getMarriage() == null) {
+                continue;
+            }
+            for (int i : couples.get(GedcomIndexes.pair(spouseIds.id(fam.getHusb()), spouseIds.id(fam.getWife())))) {
+                Family fam2 = fams.get(i);
+                if (fam.getMarriage().equals(fam2.getMarriage()) && fam != fam2) {
+                    writeToFile("ERROR: User Story US24: Unique Families By Spouse :\n"
+                            + fam.getId() + ": Husbund Name: " + indMap.get(fam.getHusb()).getName() + ",Wife Name: " + indMap.get(fam.getWife()).getName() + " and " + fam2.getId() + ": Husbund Name: " + indMap.get(fam.getHusb()).getName() + ",Wife Name: " + indMap.get(fam.getWife()).getName() + "\n"
+                            + " have same spouses and marriage dates :" + fam.getMarriage()
+                            + "\n");
                 }
             }
         }
@@ -1,15 +1,27 @@
 package edu.stevens.ssw555;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 public class Individual {
 
+    //Surnames of every legacy parse, interned once so bearers of a surname compare by id
+    private static final GedcomDictionary SURNAMES = new GedcomDictionary();
 
     private String id;
     private String name;
+    private int surnameRef = -1;
     private String sex;
     private String birth;
     private String death;
+    private long birthDate = GedcomDate.MISSING;
+    private long deathDate = GedcomDate.MISSING;
     private String spouseOf;
     private String childOf;
+    private List<String> spouseFamilies = new ArrayList<>();
+    private List<String> childFamilies = new ArrayList<>();
+    private List<GedcomAttribute> attributes = Collections.emptyList();
 
 
     public String getId() {
@@ -32,6 +44,26 @@ public class Individual {
         this.childOf = childOf;
     }
 
+    //Every FAMS of the individual in file order; getSpouseOf() is the last of them
+    public List<String> getSpouseFamilies() {
+        return spouseFamilies;
+    }
+
+    public void addSpouseFamily(String family) {
+        spouseFamilies.add(family);
+        spouseOf = family;
+    }
+
+    //Every FAMC of the individual in file order; getChildOf() is the last of them
+    public List<String> getChildFamilies() {
+        return childFamilies;
+    }
+
+    public void addChildFamily(String family) {
+        childFamilies.add(family);
+        childOf = family;
+    }
+
     public void setId(String id) {
         this.id = id;
     }
@@ -44,6 +76,32 @@ public class Individual {
         this.name = name;
     }
 
+    //The SURN value, else the NAME text between the slashes; null when there is none
+    public String getSurname() {
+        if (surnameRef < 0) {
+            return null;
+        }
+        synchronized (SURNAMES) {
+            return SURNAMES.get(surnameRef);
+        }
+    }
+
+    //Id of the surname in the shared dictionary, equal for equal surnames; -1 when there is none
+    public int getSurnameRef() {
+        return surnameRef;
+    }
+
+    //Chunks of a parallel parse set surnames concurrently, so the dictionary is interned under its lock
+    public void setSurname(String surname) {
+        if (surname == null) {
+            surnameRef = -1;
+            return;
+        }
+        synchronized (SURNAMES) {
+            surnameRef = SURNAMES.intern(surname);
+        }
+    }
+
     public String getSex() {
         return sex;
     }
@@ -68,6 +126,32 @@ public class Individual {
         this.death = death;
     }
 
+    //Packed by GedcomDate; unlike getBirth() also set for partial and approximate dates
+    public long getBirthDate() {
+        return birthDate;
+    }
+
+    public void setBirthDate(long birthDate) {
+        this.birthDate = birthDate;
+    }
+
+    public long getDeathDate() {
+        return deathDate;
+    }
+
+    public void setDeathDate(long deathDate) {
+        this.deathDate = deathDate;
+    }
+
+    //Lines the parser keeps without interpreting them (PLAC, GIVN, SURN, SOUR, _custom, ...)
+    public List<GedcomAttribute> getAttributes() {
+        return attributes;
+    }
+
+    public void setAttributes(List<GedcomAttribute> attributes) {
+        this.attributes = attributes;
+    }
+
     public Individual(String id) {
         this.id = id;
         this.name = null;
@@ -80,6 +164,23 @@ public class Individual {
 
     }
 
+    //A copy to edit: records in a GedcomTree are shared between versions and never changed in place
+    public Individual(Individual other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.surnameRef = other.surnameRef;
+        this.sex = other.sex;
+        this.birth = other.birth;
+        this.death = other.death;
+        this.birthDate = other.birthDate;
+        this.deathDate = other.deathDate;
+        this.spouseOf = other.spouseOf;
+        this.childOf = other.childOf;
+        this.spouseFamilies = new ArrayList<>(other.spouseFamilies);
+        this.childFamilies = new ArrayList<>(other.childFamilies);
+        this.attributes = other.attributes;
+    }
+
     public String toString() {
         return "individual [id=" + id + ", name=" + name + ", sex=" + sex + ", birth=" + birth + ", death=" + death
                 + "]";
@@ -0,0 +1,77 @@
+package edu.stevens.ssw555;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory-maps a GEDCOM file, or a byte range of it, in windows with {@link FileChannel#map}.
+ * The tokenizer reads straight from the mapped pages, so there is no decode or copy into the heap.
+ */
+public class MappedGedcomInput extends GedcomInput {
+
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long end;
+    private long offset;
+    private int windowSize;
+    private ByteBuffer buffer;
+
+    public MappedGedcomInput(Path path) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.READ), 0, -1, DEFAULT_WINDOW_SIZE);
+    }
+
+    //Maps bytes [start, end) of the channel; end < 0 means up to the end of the file
+    public MappedGedcomInput(FileChannel channel, long start, long end, int windowSize) throws IOException {
+        this.channel = channel;
+        this.end = end < 0 ? channel.size() : end;
+        this.offset = start;
+        this.windowSize = windowSize;
+        map();
+    }
+
+    @Override
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    @Override
+    public int limit() {
+        return buffer.limit();
+    }
+
+    @Override
+    public boolean isEof() {
+        return offset + buffer.limit() >= end;
+    }
+
+    //Absolute file position of index 0 of the current window
+    public long offset() {
+        return offset;
+    }
+
+    @Override
+    public void fill(int keep) throws IOException {
+        if (isEof()) {
+            return;
+        }
+        if (keep == 0) {
+            windowSize = (int) Math.min((long) windowSize * 2, Integer.MAX_VALUE);
+        }
+        offset += keep;
+        map();
+    }
+
+    private void map() throws IOException {
+        long size = Math.min(windowSize, end - offset);
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -2,9 +2,7 @@ package edu.stevens.ssw555;
 
 import java.io.IOException;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
@@ -13,8 +11,6 @@ import java.util.Map;
  */
 public class MarriageValidations {
 
-    private SimpleDateFormat dateFormat = new SimpleDateFormat("D MMM YYYY");
-
     public void printLivingAndMarried(List<String> marriedAndLiving) throws IOException {
         for (String name : marriedAndLiving) {
             System.out.print("INFO: INDIVIDUAL: US30: Individual is married and living: ");
@@ -23,6 +19,16 @@ public class MarriageValidations {
         System.out.println();
     }
 
+    public List<String> getLivingAndMarried(GedcomDocument document) {
+        List<String> results = new ArrayList<>();
+        for (GedcomIndividual individual : document.getIndividuals()) {
+            if (individual.isListedAsSpouse() && !individual.isDeceased()) {
+                results.add(individual.getName());
+            }
+        }
+        return results;
+    }
+
     public List<String> getLivingAndMarried(Map<String, Map<String, String>> individualsAttributeMap) {
         List<String> results = new ArrayList<>();
         for (Map.Entry<String, Map<String, String>> individual : individualsAttributeMap.entrySet()) {
@@ -40,34 +46,46 @@ public class MarriageValidations {
         System.out.println();
     }
 
+    //Compares the packed dates, so a partial death date is only reported when it is certainly before the divorce
+    public List<String> validateDivorceBeforeDeath(GedcomDocument document) throws ParseException {
+        List<String> results = new ArrayList<>();
+        for (GedcomFamily family : document.getFamilies()) {
+            long divorceDate = family.getDivorce();
+            boolean invalid = (family.getHusband() >= 0 && GedcomDate.isBefore(document.individual(family.getHusband()).getDeath(), divorceDate))
+                    || (family.getWife() >= 0 && GedcomDate.isBefore(document.individual(family.getWife()).getDeath(), divorceDate));
+            if (invalid) {
+                results.add(divorceAfterDeath(family.getXref(), family.getHusbandName(), family.getWifeName()));
+            }
+        }
+        return results;
+    }
+
     public List<String> validateDivorceBeforeDeath(Map<String, Map<String, Object>> familyMap, Map<String, Map<String, String>> individualsAttributeMap) throws ParseException {
         List<String> results = new ArrayList<>();
         for (Map.Entry<String, Map<String, Object>> family : familyMap.entrySet()) {
             if (!"NA".equals(family.getValue().get("divorced"))) {
                 boolean invalid = false;
-                Date divorceDate = dateFormat.parse((String) family.getValue().get("divorced"));
+                long divorceDate = GedcomDate.parse((String) family.getValue().get("divorced"));
                 String husbandId = (String) family.getValue().get("husband");
                 String wifeId = (String) family.getValue().get("wife");
                 String husbandDeath = individualsAttributeMap.get(husbandId).get("death");
                 String wifeDeath = individualsAttributeMap.get(wifeId).get("death");
-                if (!"NA".equals(husbandDeath)) {
-                    Date death = dateFormat.parse(husbandDeath);
-                    if (death.before(divorceDate)) {
-                        invalid = true;
-                    }
+                if (!"NA".equals(husbandDeath) && GedcomDate.isBefore(GedcomDate.parse(husbandDeath), divorceDate)) {
+                    invalid = true;
                 }
-                if (!"NA".equals(wifeDeath)) {
-                    Date death = dateFormat.parse(husbandDeath);
-                    if (death.before(divorceDate)) {
-                        invalid = true;
-                    }
+                if (!"NA".equals(wifeDeath) && GedcomDate.isBefore(GedcomDate.parse(wifeDeath), divorceDate)) {
+                    invalid = true;
                 }
                 if (invalid) {
-                    results.add("ERROR: FAMILY: US06: Divorce before death: family id: " + family.getKey().replace("@", "") +
-                            " Husband: " + family.getValue().get("husbandName") + " Wife: " + family.getValue().get("wifeName"));
+                    results.add(divorceAfterDeath(family.getKey(), family.getValue().get("husbandName"), family.getValue().get("wifeName")));
                 }
             }
         }
         return results;
     }
+
+    private static String divorceAfterDeath(String family, Object husbandName, Object wifeName) {
+        return "ERROR: FAMILY: US06: Divorce before death: family id: " + family.replace("@", "") +
+                " Husband: " + husbandName + " Wife: " + wifeName;
+    }
 }
@@ -0,0 +1,138 @@
+package edu.stevens.ssw555;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Parses a GEDCOM file on several cores. The file is cut into byte ranges that each start on a
+ * "\n0 " record boundary, every range is read by its own {@link GedcomRecordReader} on a
+ * {@link ForkJoinPool}, and the per-chunk results are returned in file order so callers can merge
+ * them exactly as a sequential parse would.
+ */
+public class ParallelGedcomParser {
+
+    //Files smaller than this are not worth splitting
+    public static final long PARALLEL_THRESHOLD = 64L * 1024 * 1024;
+
+    private static final int SCAN_BLOCK_SIZE = 8 * 1024;
+
+    private final ForkJoinPool pool;
+    private final int chunkCount;
+
+    public interface ChunkParser<T> {
+        T parse(GedcomRecordReader reader) throws IOException, ParseException;
+    }
+
+    public ParallelGedcomParser() {
+        this(ForkJoinPool.commonPool(), Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelGedcomParser(ForkJoinPool pool, int chunkCount) {
+        this.pool = pool;
+        this.chunkCount = Math.max(1, chunkCount);
+    }
+
+    public static boolean shouldSplit(Path path) throws IOException {
+        return Runtime.getRuntime().availableProcessors() > 1
+                && Files.isRegularFile(path) && Files.size(path) >= PARALLEL_THRESHOLD
+                && GedcomInput.isMappable(path);
+    }
+
+    //Runs the chunk parser over every range and returns the results in file order
+    public <T> List<T> parse(Path path, ChunkParser<T> parser) throws IOException, ParseException {
+        long[] bounds = splitPoints(path, chunkCount);
+        GedcomCharset charset = GedcomCharset.of(path);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i + 1 < bounds.length; i++) {
+            long start = bounds[i];
+            long end = bounds[i + 1];
+            futures.add(pool.submit(() -> {
+                try (GedcomRecordReader reader = new GedcomRecordReader(new MappedGedcomInput(
+                        FileChannel.open(path, StandardOpenOption.READ), start, end, MappedGedcomInput.DEFAULT_WINDOW_SIZE))) {
+                    reader.setCharset(charset);
+                    reader.setOrigin(start);
+                    return parser.parse(reader);
+                }
+            }));
+        }
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while parsing " + path, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                if (e.getCause() instanceof ParseException) {
+                    throw (ParseException) e.getCause();
+                }
+                throw new IOException("Error parsing " + path, e.getCause());
+            }
+        }
+        return results;
+    }
+
+    //Byte offsets 0 = b0 < b1 < ... < bn = size where every inner offset is the start of a level-0 line
+    public static long[] splitPoints(Path path, int chunks) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<Long> points = new ArrayList<>();
+            points.add(0L);
+            for (int i = 1; i < chunks; i++) {
+                long boundary = nextRecordStart(channel, Math.max(size * i / chunks, points.get(points.size() - 1)), size);
+                if (boundary < 0) {
+                    break;
+                }
+                if (boundary > points.get(points.size() - 1)) {
+                    points.add(boundary);
+                }
+            }
+            points.add(size);
+            long[] bounds = new long[points.size()];
+            for (int i = 0; i < bounds.length; i++) {
+                bounds[i] = points.get(i);
+            }
+            return bounds;
+        }
+    }
+
+    //Position of the '0' of the first "\n0 " at or after from, or -1 when there is none
+    private static long nextRecordStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(SCAN_BLOCK_SIZE);
+        long blockStart = from;
+        while (blockStart < size) {
+            block.clear();
+            int read = channel.read(block, blockStart);
+            if (read <= 0) {
+                return -1;
+            }
+            for (int i = 0; i < read; i++) {
+                if (block.get(i) == '\n') {
+                    if (i + 2 < read) {
+                        if (block.get(i + 1) == '0' && GedcomLineTokenizer.isBlank(block.get(i + 2))) {
+                            return blockStart + i + 1;
+                        }
+                    } else if (blockStart + read < size) {
+                        //Too close to the end of the block to check, rescan from this newline
+                        break;
+                    }
+                }
+            }
+            blockStart += read > 2 ? read - 2 : read;
+        }
+        return -1;
+    }
+}
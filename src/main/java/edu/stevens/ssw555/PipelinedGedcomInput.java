@@ -0,0 +1,179 @@
+package edu.stevens.ssw555;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads GEDCOM bytes on a background thread so disk or network reads, decompression and
+ * transcoding overlap with tokenizing. The reader thread fills fixed-size blocks and hands them to
+ * the parser through a bounded ring of blocks; the parser copies each block into its window and
+ * returns it to the ring. Each side records how long it waited on the other: a parser that stalls
+ * is waiting for I/O, a reader that stalls is waiting for the parser.
+ */
+public class PipelinedGedcomInput extends GedcomInput {
+
+    public static final int DEFAULT_BLOCK_COUNT = 4;
+
+    private final InputStream in;
+    private final BlockingQueue<Block> free;
+    private final BlockingQueue<Block> filled;
+    private final Thread readerThread;
+    private volatile boolean closed = false;
+    private volatile IOException failure;
+    private volatile long readerStallNanos;
+    private long parserStallNanos;
+    private long blockCount;
+
+    private byte[] bytes;
+    private ByteBuffer buffer;
+    private int limit = 0;
+    private boolean eof = false;
+
+    public PipelinedGedcomInput(InputStream in) {
+        this(in, BufferedGedcomInput.DEFAULT_BUFFER_SIZE, DEFAULT_BLOCK_COUNT);
+    }
+
+    public PipelinedGedcomInput(InputStream in, int blockSize, int blockCount) {
+        this.in = in;
+        this.free = new ArrayBlockingQueue<>(blockCount);
+        this.filled = new ArrayBlockingQueue<>(blockCount + 1);
+        for (int i = 0; i < blockCount; i++) {
+            free.add(new Block(blockSize));
+        }
+        this.bytes = new byte[blockSize * 2];
+        this.buffer = ByteBuffer.wrap(bytes);
+        this.readerThread = new Thread(this::readBlocks, "gedcom-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+    }
+
+    //Reader stage: fills free blocks until the stream ends, then queues an empty end-of-input block
+    private void readBlocks() {
+        try {
+            while (!closed) {
+                long waitStart = System.nanoTime();
+                Block block = free.take();
+                readerStallNanos += System.nanoTime() - waitStart;
+                block.length = 0;
+                while (block.length < block.bytes.length) {
+                    int read = in.read(block.bytes, block.length, block.bytes.length - block.length);
+                    if (read < 0) {
+                        break;
+                    }
+                    block.length += read;
+                }
+                if (block.length == 0) {
+                    break;
+                }
+                filled.put(block);
+            }
+        } catch (IOException | RuntimeException e) {
+            //A stream closed under the reader by close() fails here; that is not an input error
+            if (!closed) {
+                failure = e instanceof IOException ? (IOException) e : new IOException(e);
+            }
+        } catch (InterruptedException e) {
+            return;
+        }
+        filled.offer(Block.END);
+    }
+
+    @Override
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    @Override
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public boolean isEof() {
+        return eof;
+    }
+
+    //Parser stage: takes the next filled block, waiting for the reader if it is behind
+    @Override
+    public void fill(int keep) throws IOException {
+        int remaining = limit - keep;
+        if (eof) {
+            System.arraycopy(bytes, keep, bytes, 0, remaining);
+            limit = remaining;
+            return;
+        }
+        Block block;
+        long waitStart = System.nanoTime();
+        try {
+            block = filled.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for GEDCOM input");
+        }
+        parserStallNanos += System.nanoTime() - waitStart;
+        if (block == Block.END) {
+            if (failure != null) {
+                throw failure;
+            }
+            eof = true;
+            System.arraycopy(bytes, keep, bytes, 0, remaining);
+            limit = remaining;
+            return;
+        }
+        if (remaining + block.length > bytes.length) {
+            byte[] grown = new byte[Math.max(bytes.length * 2, remaining + block.length)];
+            System.arraycopy(bytes, keep, grown, 0, remaining);
+            bytes = grown;
+            buffer = ByteBuffer.wrap(bytes);
+        } else if (keep > 0) {
+            System.arraycopy(bytes, keep, bytes, 0, remaining);
+        }
+        System.arraycopy(block.bytes, 0, bytes, remaining, block.length);
+        limit = remaining + block.length;
+        blockCount++;
+        free.offer(block);
+    }
+
+    //Time the reader thread spent waiting for the parser to return a block
+    public long getReaderStallNanos() {
+        return readerStallNanos;
+    }
+
+    //Time the parser spent waiting for the reader thread to deliver a block
+    public long getParserStallNanos() {
+        return parserStallNanos;
+    }
+
+    public long getBlockCount() {
+        return blockCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        readerThread.interrupt();
+        in.close();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d blocks, reader stalled %.1f ms, parser stalled %.1f ms",
+                blockCount, readerStallNanos / 1e6, parserStallNanos / 1e6);
+    }
+
+    private static final class Block {
+
+        static final Block END = new Block(0);
+
+        final byte[] bytes;
+        int length;
+
+        Block(int size) {
+            this.bytes = new byte[size];
+        }
+    }
+}
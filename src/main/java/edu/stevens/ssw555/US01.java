@@ -1,13 +1,9 @@
 package edu.stevens.ssw555;
 
 import java.io.BufferedWriter;
-import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.time.LocalDate;
-import java.util.Date;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
@@ -16,18 +12,20 @@ public class US01 {
     public SortedMap<Integer, String> deathdays = new TreeMap<>();
     public SortedMap<Integer, String> marriage = new TreeMap<>();
     public SortedMap<Integer, String> divorce = new TreeMap<>();
+    public GedcomIdTable individualIds;
+    public GedcomIdTable familyIds;
 
-    public void us01(String gedcomInputFile) throws FileNotFoundException, ParseException {
+    public void us01(GedcomDocument document) {
+        individualIds = document.getIndividualIds();
+        familyIds = document.getFamilyIds();
 
 
-        GedcomService gd = new GedcomService();
-        SortedMap<Integer, String> mapIndividual = gd.individualData(gedcomInputFile);
-        SortedMap<Integer, String> mapFamily = gd.familyData(gedcomInputFile);
-
-        birthdays = birthday(mapIndividual);
-        deathdays = deathday(mapIndividual);
-        marriage = marriage(mapFamily);
-        divorce = divorce(mapFamily);
+        //Shared with US3 and US4; partial and approximate dates are checked too
+        GedcomProjections projections = document.getProjections();
+        birthdays = projections.getBirthDates();
+        deathdays = projections.getDeathDates();
+        marriage = projections.getMarriageDates();
+        divorce = projections.getDivorceDates();
 
 
     }
@@ -79,18 +77,10 @@ public class US01 {
         return divorce;
     }
 
+    //Valid unless every day the date could mean is today or later; dates that do not parse are left to the parser's diagnostics
     public boolean checkDate(String date) throws ParseException {
-        boolean flag = false;
-        String str[] = date.split(" ");
-        Date sdf = new SimpleDateFormat("MMM").parse(str[1]);
-        String month = new SimpleDateFormat("MM").format(sdf);
-
-        LocalDate date1 = LocalDate.of(Integer.parseInt(str[2]), Integer.parseInt(month), Integer.parseInt(str[0]));
-        LocalDate now = LocalDate.now();
-        if (now.isAfter(date1)) {
-            flag = true;
-        }
-        return flag;
+        long packed = GedcomDate.parse(date);
+        return !GedcomDate.isKnown(packed) || GedcomDate.earliest(packed) < GedcomDate.today();
     }
 
     public void printData(US01 userStory) throws ParseException, IOException {
@@ -118,8 +108,8 @@ public class US01 {
             for (SortedMap.Entry entry : userStory.birthdays.entrySet()) {
                 if (!userStory.checkDate(entry.getValue().toString())) {
                     System.out.print("ERROR: INDIVIDUAL: US1: Invalid Birthday: ");
-                    System.out.println("I" + entry.getKey() + " " + entry.getValue());
-                    outFile.write("I" + entry.getKey() + " " + entry.getValue());
+                    System.out.println(userStory.individualLabel(entry.getKey()) + " " + entry.getValue());
+                    outFile.write(userStory.individualLabel(entry.getKey()) + " " + entry.getValue());
                     outFile.write("\n");
 
                 }
@@ -145,8 +135,8 @@ public class US01 {
             for (SortedMap.Entry entry : userStory.deathdays.entrySet()) {
                 if (!userStory.checkDate(entry.getValue().toString())) {
                     System.out.print("ERROR: INDIVIDUAL: US1: Invalid Day of Death: ");
-                    System.out.println("I" + entry.getKey() + " " + entry.getValue());
-                    outFile.write("I" + entry.getKey() + " " + entry.getValue());
+                    System.out.println(userStory.individualLabel(entry.getKey()) + " " + entry.getValue());
+                    outFile.write(userStory.individualLabel(entry.getKey()) + " " + entry.getValue());
                     outFile.write("\n");
 
                 }
@@ -175,8 +165,8 @@ public class US01 {
             for (SortedMap.Entry entry : userStory.marriage.entrySet()) {
                 if (!userStory.checkDate(entry.getValue().toString())) {
                     System.out.print("ERROR: INDIVIDUAL: US1: Invalid Marriage Day: ");
-                    System.out.println("F" + entry.getKey() + " " + entry.getValue());
-                    outFile.write("F" + entry.getKey() + " " + entry.getValue());
+                    System.out.println(userStory.familyLabel(entry.getKey()) + " " + entry.getValue());
+                    outFile.write(userStory.familyLabel(entry.getKey()) + " " + entry.getValue());
                     outFile.write("\n");
 
 
@@ -205,9 +195,9 @@ public class US01 {
             for (SortedMap.Entry entry : userStory.divorce.entrySet()) {
                 if (!userStory.checkDate(entry.getValue().toString())) {
                     System.out.print("ERROR: INDIVIDUAL: US1: Invalid Divorce Day: ");
-                    System.out.println("F" + entry.getKey() + " " + entry.getValue());
+                    System.out.println(userStory.familyLabel(entry.getKey()) + " " + entry.getValue());
 
-                    outFile.write("F" + entry.getKey() + " " + entry.getValue());
+                    outFile.write(userStory.familyLabel(entry.getKey()) + " " + entry.getValue());
                 }
 
             }
@@ -223,5 +213,13 @@ public class US01 {
         outFile.close();
     }
 
-}
+    //Printable id such as "I12"; maps built without a document fall back to the numeric key
+    String individualLabel(Object key) {
+        return individualIds != null ? individualIds.label((Integer) key) : "I" + key;
+    }
 
+    //Printable id such as "F3"; maps built without a document fall back to the numeric key
+    String familyLabel(Object key) {
+        return familyIds != null ? familyIds.label((Integer) key) : "F" + key;
+    }
+}
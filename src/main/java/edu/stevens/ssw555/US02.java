@@ -4,10 +4,8 @@ import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.SortedMap;
@@ -24,21 +22,16 @@ public class US02 {
 
         for (Entry<String, Map<String, String>> indEntry : mapIndividual.entrySet()) {
             for (Entry<String, Map<String, Object>> famEntry : mapFamily.entrySet()) {
-                String[] bdayString = indEntry.getValue().get("birth").toString().split(" ");
-                String[] marrString = famEntry.getValue().get("married").toString().split(" ");
-                Date sdf1 = new SimpleDateFormat("MMM").parse(bdayString[1]);
-                String month1 = new SimpleDateFormat("MM").format(sdf1);
-                Date sdf2 = new SimpleDateFormat("MMM").parse(marrString[1]);
-                String month2 = new SimpleDateFormat("MM").format(sdf2);
-                LocalDate bday = LocalDate.of(Integer.parseInt(bdayString[2]), Integer.parseInt(month1), Integer.parseInt(bdayString[0]));
-                LocalDate marr = LocalDate.of(Integer.parseInt(marrString[2]), Integer.parseInt(month2), Integer.parseInt(marrString[0]));
+                long bday = GedcomDate.parse(indEntry.getValue().get("birth"));
+                long marr = GedcomDate.parse(famEntry.getValue().get("married").toString());
 
 
                 if ((indEntry.getKey()).equals(famEntry.getValue().get("husband")) || (indEntry.getKey()).equals(famEntry.getValue().get("wife"))) {
 
-                    if (bday.isAfter(marr)) {
-                        if (!individuals.contains(indEntry.getKey() + " " + indEntry.getValue().get("birth") + " " + famEntry.getValue().get("married"))) {
-                            individuals.add((indEntry.getKey() + " " + indEntry.getValue().get("birth") + " " + famEntry.getValue().get("married")));
+                    if (GedcomDate.isAfter(bday, marr)) {
+                        String entry = indEntry.getKey() + " " + indEntry.getValue().get("birth") + " " + famEntry.getValue().get("married");
+                        if (!individuals.contains(entry)) {
+                            individuals.add(entry);
                         }
                     }
 
@@ -51,30 +44,60 @@ public class US02 {
     }
 
 
+    //Compares each family's marriage date with the births of its spouses only, found through the link graph.
+    //Reported only when the birth is after the marriage however partial or approximate either date is
+    public ArrayList<String> checkBirthBeforeMarr(GedcomDocument document) throws ParseException {
+        ArrayList<String> individuals = new ArrayList<>();
+        GedcomLinkGraph links = document.getLinks();
+        GedcomAdjacency spouses = links.spouses();
+        GedcomIdTable individualIds = document.getIndividualIds();
+        GedcomEventDates dates = document.getDates();
+        for (int family = 0; family < links.familyCount(); family++) {
+            long marr = dates.marriage(family);
+            for (int i = spouses.start(family); i < spouses.end(family); i++) {
+                int spouse = spouses.target(i);
+                long bday = dates.birth(spouse);
+                String entry = individualIds.label(spouse) + " " + GedcomDate.format(bday) + " " + GedcomDate.format(marr);
+                if (GedcomDate.isAfter(bday, marr) && !individuals.contains(entry)) {
+                    individuals.add(entry);
+                }
+            }
+        }
+        return individuals;
+    }
+
     public void printResult(ArrayList<String> individuals, BufferedWriter outFile) throws IOException {
         //System.out.println(individuals);
 
 
         for (int j = 0; j < individuals.size(); j++) {
-            String[] ind = individuals.get(j).split(" ");
-            System.out.print("ERROR US02 Individual " + ind[0] + " was married on " + ind[4] + " " + ind[5] + " " + ind[6] + " and born on " +
-                    ind[1] + " " + ind[2] + " " + ind[3] + " which is after marriage");
-            outFile.write("ERROR US02 Individual " + ind[0] + " was married on " + ind[4] + " " + ind[5] + " " + ind[6] + " and born on " +
-                    ind[1] + " " + ind[2] + " " + ind[3] + " which is after marriage");
+            String[] ind = split(individuals.get(j));
+            System.out.print("ERROR US02 Individual " + ind[0] + " was married on " + ind[2] + " and born on " +
+                    ind[1] + " which is after marriage");
+            outFile.write("ERROR US02 Individual " + ind[0] + " was married on " + ind[2] + " and born on " +
+                    ind[1] + " which is after marriage");
             System.out.println();
             outFile.write("\n");
         }
     }
 
-    public void us02(String gedcomInputFile) throws ParseException, IOException {
+    //"label birth marriage" into its three parts; partial dates such as "ABT 1960" have fewer words than
+    //"7 FEB 1960", so the dates are split at the first word that leaves a GEDCOM date on both sides
+    private static String[] split(String entry) {
+        String[] words = entry.split(" ");
+        for (int i = 2; i < words.length; i++) {
+            String birth = String.join(" ", Arrays.copyOfRange(words, 1, i));
+            String married = String.join(" ", Arrays.copyOfRange(words, i, words.length));
+            if (GedcomDate.isKnown(GedcomDate.parse(birth)) && GedcomDate.isKnown(GedcomDate.parse(married))) {
+                return new String[]{words[0], birth, married};
+            }
+        }
+        return new String[]{words[0], String.join(" ", Arrays.copyOfRange(words, 1, words.length)), ""};
+    }
 
-        GedcomService gd = new GedcomService();
-        gd.individualData(gedcomInputFile);
-        gd.familyData(gedcomInputFile);
-        Map<String, Map<String, String>> mapIndividual = gd.getIndividualAttributeMaps();
-        Map<String, Map<String, Object>> mapFamily = gd.getFamilyAttributeMaps();
+    public void us02(GedcomDocument document) throws ParseException, IOException {
 
-        ArrayList<String> result = checkBirthBeforeMarr(mapIndividual, mapFamily);
+        ArrayList<String> result = checkBirthBeforeMarr(document);
         BufferedWriter outFile = new BufferedWriter(new FileWriter("us02_output.txt"));
 
         if (result.size() > 0) {
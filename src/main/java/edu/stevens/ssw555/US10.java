@@ -4,12 +4,8 @@ import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.time.LocalDate;
-import java.time.Period;
 import java.time.temporal.TemporalAmount;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.SortedMap;
@@ -26,21 +22,11 @@ public class US10 {
         for (Entry<String, Map<String, String>> indEntry : mapIndividual.entrySet()) {
             for (Entry<String, Map<String, Object>> famEntry : mapFamily.entrySet()) {
                 if (famEntry.getValue().get("husband").equals(indEntry.getKey()) || famEntry.getValue().get("wife").equals(indEntry.getKey())) {
-                    String[] marrDate = famEntry.getValue().get("married").toString().split(" ");
-                    String[] birthDate = indEntry.getValue().get("birth").split(" ");
-                    Date sdf = new SimpleDateFormat("MMM").parse(marrDate[1]);
-                    String month = new SimpleDateFormat("MM").format(sdf);
+                    long marriage = GedcomDate.parse(famEntry.getValue().get("married").toString());
+                    long birth = GedcomDate.parse(indEntry.getValue().get("birth"));
+                    int age = ageAtMarriage(birth, marriage);
 
-                    LocalDate marriage = LocalDate.of(Integer.parseInt(marrDate[2]), Integer.parseInt(month), Integer.parseInt(marrDate[0]));
-                    Date sdf1 = new SimpleDateFormat("MMM").parse(birthDate[1]);
-                    String month1 = new SimpleDateFormat("MM").format(sdf);
-
-                    LocalDate birth = LocalDate.of(Integer.parseInt(birthDate[2]), Integer.parseInt(month), Integer.parseInt(birthDate[0]));
-
-                    Period p = Period.between(birth, marriage);
-                    String age = String.valueOf(p.getYears());
-
-                    if (Integer.parseInt(age) < 14) {
+                    if (age < 14) {
                         individuals.add(indEntry.getKey() + " " + famEntry.getKey().replace("@", "") + " " + age);
                     }
 
@@ -57,6 +43,35 @@ public class US10 {
 
     }
 
+    //Walks the spouses of each family in the link graph
+    public ArrayList<String> checkMarriedAfter14(GedcomDocument document) throws ParseException {
+        ArrayList<String> individuals = new ArrayList<>();
+        GedcomLinkGraph links = document.getLinks();
+        GedcomAdjacency spouses = links.spouses();
+        GedcomIdTable individualIds = document.getIndividualIds();
+        GedcomIdTable familyIds = document.getFamilyIds();
+        GedcomEventDates dates = document.getDates();
+        for (int family = 0; family < links.familyCount(); family++) {
+            long marriage = dates.marriage(family);
+            for (int i = spouses.start(family); i < spouses.end(family); i++) {
+                int spouse = spouses.target(i);
+                int age = ageAtMarriage(dates.birth(spouse), marriage);
+                if (age < 14) {
+                    individuals.add(individualIds.label(spouse) + " " + familyIds.label(family) + " " + age);
+                }
+            }
+        }
+        return individuals;
+    }
+
+    //Oldest the spouse can have been at the marriage given partial or approximate dates; MAX_VALUE when either is missing
+    static int ageAtMarriage(long birth, long marriage) {
+        if (!GedcomDate.isKnown(birth) || !GedcomDate.isKnown(marriage)) {
+            return Integer.MAX_VALUE;
+        }
+        return GedcomDate.yearsBetween(GedcomDate.earliest(birth), GedcomDate.latest(marriage));
+    }
+
     public void printResult(ArrayList<String> individuals, BufferedWriter outFile) throws IOException {
 
 
@@ -70,14 +85,9 @@ public class US10 {
         }
     }
 
-    public void us10(String gedcomInputFile) throws ParseException, IOException {
+    public void us10(GedcomDocument document) throws ParseException, IOException {
 
-        GedcomService gd = new GedcomService();
-        gd.individualData(gedcomInputFile);
-        gd.familyData(gedcomInputFile);
-        Map<String, Map<String, String>> mapIndividual = gd.getIndividualAttributeMaps();
-        Map<String, Map<String, Object>> mapFamily = gd.getFamilyAttributeMaps();
-        ArrayList<String> result = checkMarriedAfter14(mapIndividual, mapFamily);
+        ArrayList<String> result = checkMarriedAfter14(document);
         BufferedWriter outFile = new BufferedWriter(new FileWriter("us10_output.txt"));
 
         if (result.size() > 0) {
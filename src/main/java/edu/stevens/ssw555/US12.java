@@ -67,6 +67,45 @@ public class US12 {
 
     }
 
+    //Looks up the parents' and children's births by id through the link graph. Parents get the youngest
+    //and children the oldest age their dates allow, so partial dates are only reported when certain;
+    //a parent or child without a birth date is never reported
+    public ArrayList<String> checkParentsNotOld(GedcomDocument document) {
+        ArrayList<String> individuals = new ArrayList<>();
+        GedcomLinkGraph links = document.getLinks();
+        GedcomAdjacency children = links.children();
+        GedcomIdTable individualIds = document.getIndividualIds();
+        GedcomIdTable familyIds = document.getFamilyIds();
+        GedcomEventDates dates = document.getDates();
+        int today = GedcomDate.today();
+        for (int family = 0; family < links.familyCount(); family++) {
+            if (children.degree(family) == 0) {
+                continue;
+            }
+            int husbAge = youngestAge(dates, links.husband(family), today);
+            int wifeAge = youngestAge(dates, links.wife(family), today);
+            for (int i = children.start(family); i < children.end(family); i++) {
+                int child = children.target(i);
+                if (!GedcomDate.isKnown(dates.birth(child))) {
+                    continue;
+                }
+                int age = GedcomDate.yearsBetween(GedcomDate.earliest(dates.birth(child)), today);
+                if ((wifeAge >= 0 && wifeAge - age >= 60) || (husbAge >= 0 && husbAge - age >= 80)) {
+                    individuals.add(familyIds.xref(family) + " " + individualIds.label(child) + " " + age + " " + wifeAge + " " + husbAge);
+                }
+            }
+        }
+        return individuals;
+    }
+
+    //Age today from the last day the birth date could mean, or -1 for a missing parent or birth date
+    private static int youngestAge(GedcomEventDates dates, int individual, int today) {
+        if (individual < 0 || !GedcomDate.isKnown(dates.birth(individual))) {
+            return -1;
+        }
+        return GedcomDate.yearsBetween(GedcomDate.latest(dates.birth(individual)), today);
+    }
+
     public void printResult(ArrayList<String> individuals, BufferedWriter outFile) throws IOException {
 
 
@@ -102,14 +141,9 @@ public class US12 {
         }
     }
 
-    public void us12(String gedcomInputFile) throws ParseException, IOException {
+    public void us12(GedcomDocument document) throws ParseException, IOException {
 
-        GedcomService gd = new GedcomService();
-        gd.individualData(gedcomInputFile);
-        gd.familyData(gedcomInputFile);
-        Map<String, Map<String, String>> mapIndividual = gd.getIndividualAttributeMaps();
-        Map<String, Map<String, Object>> mapFamily = gd.getFamilyAttributeMaps();
-        ArrayList<String> result = checkParentsNotOld(mapIndividual, mapFamily);
+        ArrayList<String> result = checkParentsNotOld(document);
         BufferedWriter outFile = new BufferedWriter(new FileWriter("us12_output.txt"));
 
         if (result.size() > 0) {
@@ -4,12 +4,8 @@ import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.time.LocalDate;
-import java.time.Period;
 import java.time.temporal.TemporalAmount;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.SortedMap;
@@ -56,31 +52,12 @@ public class US13 {
 
                         String child1[] = children1.get(i).split(":");
                         String child2[] = children1.get(j).split(":");
-                        Date sdf = new SimpleDateFormat("MMM").parse(child1[1].split(" ")[1]);
-                        String month = new SimpleDateFormat("MM").format(sdf);
-
-                        LocalDate bday1 = LocalDate.of(Integer.parseInt(child1[1].split(" ")[2]), Integer.parseInt(month), Integer.parseInt(child1[1].split(" ")[0]));
-                        Date sdf1 = new SimpleDateFormat("MMM").parse(child2[1].split(" ")[1]);
-                        String month1 = new SimpleDateFormat("MM").format(sdf1);
-
-                        LocalDate bday2 = LocalDate.of(Integer.parseInt(child2[1].split(" ")[2]), Integer.parseInt(month1), Integer.parseInt(child2[1].split(" ")[0]));
-                        Period p = Period.between(bday1, bday2);
-                        if (p.getYears() == 0) {
-                            if (p.getMonths() > 8) {
-
-                                //System.out.println(p);
+                        if (tooClose(GedcomDate.parse(child1[1]), GedcomDate.parse(child2[1]))) {
+                            if (individuals.contains(famEntry.getKey() + " " + child1[0] + " " + child2[0]) || individuals.contains(famEntry.getKey() + " " + child2[0] + " " + child1[0])) {
 
                             } else {
-                                if (p.getMonths() == 0 && p.getDays() < 2) {
-
-                                } else {
-                                    if (individuals.contains(famEntry.getKey() + " " + child1[0] + " " + child2[0]) || individuals.contains(famEntry.getKey() + " " + child2[0] + " " + child1[0])) {
-
-                                    } else {
 
-                                        individuals.add(famEntry.getKey() + " " + child1[0] + " " + child2[0]);
-                                    }
-                                }
+                                individuals.add(famEntry.getKey() + " " + child1[0] + " " + child2[0]);
                             }
                         }
 
@@ -94,6 +71,48 @@ public class US13 {
 
     }
 
+    //Compares the births of each family's children, taken from the link graph, pairwise
+    public ArrayList<String> checkSiblingSpacing(GedcomDocument document) throws ParseException {
+        ArrayList<String> individuals = new ArrayList<>();
+        GedcomLinkGraph links = document.getLinks();
+        GedcomAdjacency children = links.children();
+        GedcomIdTable individualIds = document.getIndividualIds();
+        GedcomIdTable familyIds = document.getFamilyIds();
+        GedcomEventDates dates = document.getDates();
+        for (int family = 0; family < links.familyCount(); family++) {
+            int count = children.degree(family);
+            for (int i = 0; i < count; i++) {
+                for (int j = 0; j < count; j++) {
+                    int child1 = children.get(family, i);
+                    int child2 = children.get(family, j);
+                    if (child1 == child2) {
+                        continue;
+                    }
+                    if (tooClose(dates.birth(child1), dates.birth(child2))) {
+                        String label1 = individualIds.label(child1);
+                        String label2 = individualIds.label(child2);
+                        String xref = familyIds.xref(family);
+                        if (!individuals.contains(xref + " " + label1 + " " + label2) && !individuals.contains(xref + " " + label2 + " " + label1)) {
+                            individuals.add(xref + " " + label1 + " " + label2);
+                        }
+                    }
+                }
+            }
+        }
+        return individuals;
+    }
+
+    //Born at least 2 days and at most 8 months apart, in either order, for every day the two dates could mean
+    static boolean tooClose(long bday1, long bday2) {
+        if (!GedcomDate.isKnown(bday1) || !GedcomDate.isKnown(bday2)) {
+            return false;
+        }
+        long first = GedcomDate.earliest(bday1) <= GedcomDate.earliest(bday2) ? bday1 : bday2;
+        long second = first == bday1 ? bday2 : bday1;
+        return GedcomDate.daysBetween(GedcomDate.latest(first), GedcomDate.earliest(second)) >= 2
+                && GedcomDate.monthsBetween(GedcomDate.earliest(first), GedcomDate.latest(second)) <= 8;
+    }
+
     public void printResult(ArrayList<String> individuals, BufferedWriter outFile) throws IOException {
 
 
@@ -110,14 +129,9 @@ public class US13 {
         }
     }
 
-    public void us13(String gedcomInputFile) throws ParseException, IOException {
+    public void us13(GedcomDocument document) throws ParseException, IOException {
 
-        GedcomService gd = new GedcomService();
-        gd.individualData(gedcomInputFile);
-        gd.familyData(gedcomInputFile);
-        Map<String, Map<String, String>> mapIndividual = gd.getIndividualAttributeMaps();
-        Map<String, Map<String, Object>> mapFamily = gd.getFamilyAttributeMaps();
-        ArrayList<String> result = checkSiblingSpacing(mapIndividual, mapFamily);
+        ArrayList<String> result = checkSiblingSpacing(document);
         BufferedWriter outFile = new BufferedWriter(new FileWriter("us13_output.txt"));
 
         if (result.size() > 0) {
@@ -50,6 +50,26 @@ public class US21 {
 
     }
 
+    //Reads each family's HUSB and WIFE ids from the link graph instead of matching every individual against every family
+    public ArrayList<String> checkMaleFemale(GedcomDocument document) {
+        ArrayList<String> individuals = new ArrayList<>();
+        GedcomLinkGraph links = document.getLinks();
+        GedcomIdTable individualIds = document.getIndividualIds();
+        GedcomIdTable familyIds = document.getFamilyIds();
+        String[] gender = document.individualColumn("gender");
+        for (int family = 0; family < links.familyCount(); family++) {
+            int husband = links.husband(family);
+            if (husband >= 0 && !"M".equals(gender[husband])) {
+                individuals.add(individualIds.label(husband) + " " + familyIds.label(family) + " M");
+            }
+            int wife = links.wife(family);
+            if (wife >= 0 && !"F".equals(gender[wife])) {
+                individuals.add(individualIds.label(wife) + " " + familyIds.label(family) + " F");
+            }
+        }
+        return individuals;
+    }
+
     public void printResult(ArrayList<String> individuals, BufferedWriter outFile) throws IOException {
 
 
@@ -70,14 +90,9 @@ public class US21 {
         }
     }
 
-    public void us21(String gedcomInputFile) throws ParseException, IOException {
+    public void us21(GedcomDocument document) throws IOException {
 
-        GedcomService gd = new GedcomService();
-        gd.individualData(gedcomInputFile);
-        gd.familyData(gedcomInputFile);
-        Map<String, Map<String, String>> mapIndividual = gd.getIndividualAttributeMaps();
-        Map<String, Map<String, Object>> mapFamily = gd.getFamilyAttributeMaps();
-        ArrayList<String> result = checkMaleFemale(mapIndividual, mapFamily);
+        ArrayList<String> result = checkMaleFemale(document);
         BufferedWriter outFile = new BufferedWriter(new FileWriter("us21_output.txt"));
 
         if (result.size() > 0) {
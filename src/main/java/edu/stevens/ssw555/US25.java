@@ -1,11 +1,11 @@
 package edu.stevens.ssw555;
 
 import java.io.BufferedWriter;
-import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.SortedMap;
 
 public class US25 {
@@ -70,6 +70,33 @@ public class US25 {
         return individuals;
     }
 
+    //Same check on a parsed document, over the resolved children of each family record: the pairwise
+    //loop compares the first word of the name, as the row-based check always has, and the packed
+    //birthday. Only exact birthdays count as the same: "ABT 1990" twice does not say two children
+    //share a birthday
+    public ArrayList<String> checkUniqueNameNBday(GedcomDocument document) {
+        ArrayList<String> individuals = new ArrayList<>();
+        for (GedcomFamily family : document.getFamilies()) {
+            int count = family.childCount();
+            String[] names = new String[count];
+            for (int i = 0; i < count; i++) {
+                String name = document.individual(family.child(i)).getName();
+                int space = name.indexOf(' ');
+                names[i] = space >= 0 ? name.substring(0, space) : name;
+            }
+            for (int i = 0; i < count; i++) {
+                GedcomIndividual child = document.individual(family.child(i));
+                for (int j = i + 1; j < count; j++) {
+                    GedcomIndividual other = document.individual(family.child(j));
+                    if (child != other && names[i].equals(names[j]) && GedcomDate.isExact(child.getBirth()) && child.getBirth() == other.getBirth()) {
+                        individuals.add(family.getLabel() + " " + child.getLabel() + " " + other.getLabel());
+                    }
+                }
+            }
+        }
+        return individuals;
+    }
+
     public void printResult(ArrayList<String> individuals, BufferedWriter outFile) throws IOException {
 
 
@@ -90,12 +117,9 @@ public class US25 {
         }
     }
 
-    public void us25(String gedcomInputFile) throws ParseException, IOException {
+    public void us25(GedcomDocument document) throws IOException {
 
-        GedcomService gd = new GedcomService();
-        SortedMap<Integer, String> mapIndividual = gd.individualData(gedcomInputFile);
-        SortedMap<Integer, String> mapFamily = gd.familyData(gedcomInputFile);
-        ArrayList<String> result = checkUniqueNameNBday(mapIndividual, mapFamily);
+        ArrayList<String> result = checkUniqueNameNBday(document);
         BufferedWriter outFile = new BufferedWriter(new FileWriter("us25_output.txt"));
 
         if (result.size() > 0) {
@@ -1,30 +1,25 @@
 package edu.stevens.ssw555;
 
 import java.io.BufferedWriter;
-import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
 public class US3 {
     public SortedMap<Integer, String> birthdate = new TreeMap<>();
     public SortedMap<Integer, String> deathdate = new TreeMap<>();
+    public GedcomIdTable individualIds;
 
-    public void us03(String gedcomInputFile) throws FileNotFoundException, ParseException {
+    public void us03(GedcomDocument document) {
+        individualIds = document.getIndividualIds();
 
 
-        GedcomService gd = new GedcomService();
-        SortedMap<Integer, String> mapIndividual = gd.individualData(gedcomInputFile);
-
-
-        birthdate = birthday(mapIndividual);
-        deathdate = deathday(mapIndividual);
+        //Shared with US01; partial and approximate dates are checked too
+        birthdate = document.getProjections().getBirthDates();
+        deathdate = document.getProjections().getDeathDates();
 
 
     }
@@ -52,18 +47,10 @@ public class US3 {
     }
 
 
+    //Valid unless every day the date could mean is today or later; dates that do not parse are left to the parser's diagnostics
     public boolean checkDate(String date) throws ParseException {
-        boolean flag = false;
-        String str[] = date.split(" ");
-        Date sdf = new SimpleDateFormat("MMM").parse(str[1]);
-        String month = new SimpleDateFormat("MM").format(sdf);
-
-        LocalDate date1 = LocalDate.of(Integer.parseInt(str[2]), Integer.parseInt(month), Integer.parseInt(str[0]));
-        LocalDate now = LocalDate.now();
-        if (now.isAfter(date1)) {
-            flag = true;
-        }
-        return flag;
+        long packed = GedcomDate.parse(date);
+        return !GedcomDate.isKnown(packed) || GedcomDate.earliest(packed) < GedcomDate.today();
     }
 
     public void printData(US3 userStory) throws ParseException, IOException {
@@ -91,8 +78,8 @@ public class US3 {
 
             for (SortedMap.Entry entry : userStory.birthdate.entrySet()) {
                 if (!userStory.checkDate(entry.getValue().toString())) {
-                    System.out.println("I" + entry.getKey() + " " + entry.getValue());
-                    outFile.write("I" + entry.getKey() + " " + entry.getValue());
+                    System.out.println(userStory.individualLabel(entry.getKey()) + " " + entry.getValue());
+                    outFile.write(userStory.individualLabel(entry.getKey()) + " " + entry.getValue());
                     outFile.write("\n");
 
                 }
@@ -118,8 +105,8 @@ public class US3 {
             outFile.write("Invalid deathdate");
             for (SortedMap.Entry entry : userStory.deathdate.entrySet()) {
                 if (!userStory.checkDate(entry.getValue().toString())) {
-                    System.out.println("I" + entry.getKey() + " " + entry.getValue());
-                    outFile.write("I" + entry.getKey() + " " + entry.getValue());
+                    System.out.println(userStory.individualLabel(entry.getKey()) + " " + entry.getValue());
+                    outFile.write(userStory.individualLabel(entry.getKey()) + " " + entry.getValue());
                     outFile.write("\n");
 
                 }
@@ -141,5 +128,8 @@ public class US3 {
         outFile.close();
     }
 
+    //Printable id such as "I12"; maps built without a document fall back to the numeric key
+    String individualLabel(Object key) {
+        return individualIds != null ? individualIds.label((Integer) key) : "I" + key;
+    }
 }
-
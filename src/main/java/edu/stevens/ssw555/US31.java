@@ -4,12 +4,8 @@ import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.time.LocalDate;
-import java.time.Period;
 import java.time.temporal.TemporalAmount;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.SortedMap;
@@ -40,15 +36,11 @@ public class US31 {
 
         int index1 = 0;
         for (Entry<String, Map<String, String>> indEntry : mapIndividual.entrySet()) {
-            String[] indBday = indEntry.getValue().get("birth").split(" ");
-            if (count[index1] == 0) {
-
-                Date sdf1 = new SimpleDateFormat("MMM").parse(indBday[1]);
-                String month1 = new SimpleDateFormat("MM").format(sdf1);
-                LocalDate bday = LocalDate.of(Integer.parseInt(indBday[2]), Integer.parseInt(month1), Integer.parseInt(indBday[0]));
-                LocalDate now = LocalDate.now();
-                Period p = Period.between(bday, now);
-                if (p.getYears() > 30 && indEntry.getValue().get("death").equals("NA")) {
+            long bday = GedcomDate.parse(indEntry.getValue().get("birth"));
+            if (count[index1] == 0 && GedcomDate.isKnown(bday)) {
+
+                int age = GedcomDate.yearsBetween(GedcomDate.latest(bday), GedcomDate.today());
+                if (age > 30 && indEntry.getValue().get("death").equals("NA")) {
                     individuals.add(indEntry.getKey());
 
                 }
@@ -62,6 +54,34 @@ public class US31 {
 
     }
 
+    //Counts each individual's marriages from the family spouse links in one pass over the families,
+    //then checks only the people the birth-year index puts at 30 or older
+    public ArrayList<String> checkNeverMarried(GedcomDocument document) throws ParseException {
+        ArrayList<String> individuals = new ArrayList<>();
+        GedcomLinkGraph links = document.getLinks();
+        GedcomAdjacency spouses = links.spouses();
+        GedcomIdTable individualIds = document.getIndividualIds();
+        int[] count = new int[links.individualCount()];
+        for (int family = 0; family < links.familyCount(); family++) {
+            for (int i = spouses.start(family); i < spouses.end(family); i++) {
+                count[spouses.target(i)]++;
+            }
+        }
+
+        //Over 30 even if born on the last day the birth date allows
+        GedcomEventDates dates = document.getDates();
+        GedcomStore store = document.getStore();
+        int today = GedcomDate.today();
+        GedcomIndex births = document.getIndexes().get(GedcomIndexes.Name.BIRTH_YEAR);
+        for (int individual : births.range(Long.MIN_VALUE, (today >>> 9) - 30)) {
+            if (count[individual] == 0 && !store.isDeceased(individual)
+                    && GedcomDate.yearsBetween(GedcomDate.latest(dates.birth(individual)), today) > 30) {
+                individuals.add(individualIds.label(individual));
+            }
+        }
+        return individuals;
+    }
+
     public void printResult(ArrayList<String> individuals, BufferedWriter outFile) throws IOException {
 
 
@@ -75,14 +95,9 @@ public class US31 {
         }
     }
 
-    public void us31(String gedcomInputFile) throws ParseException, IOException {
+    public void us31(GedcomDocument document) throws ParseException, IOException {
 
-        GedcomService gd = new GedcomService();
-        gd.individualData(gedcomInputFile);
-        gd.familyData(gedcomInputFile);
-        Map<String, Map<String, String>> mapIndividual = gd.getIndividualAttributeMaps();
-        Map<String, Map<String, Object>> mapFamily = gd.getFamilyAttributeMaps();
-        ArrayList<String> result = checkNeverMarried(mapIndividual, mapFamily);
+        ArrayList<String> result = checkNeverMarried(document);
         BufferedWriter outFile = new BufferedWriter(new FileWriter("us31_output.txt"));
 
         if (result.size() > 0) {
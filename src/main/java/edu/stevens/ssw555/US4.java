@@ -1,30 +1,25 @@
 package edu.stevens.ssw555;
 
 import java.io.BufferedWriter;
-import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.time.LocalDate;
-import java.util.Date;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
 public class US4 {
     public SortedMap<Integer, String> marriagedays = new TreeMap<>();
     public static SortedMap<Integer, String> divorcedays = new TreeMap<>();
+    public GedcomIdTable familyIds;
 
 
-    public void us04(String gedcomInputFile) throws FileNotFoundException, ParseException {
+    public void us04(GedcomDocument document) {
+        familyIds = document.getFamilyIds();
 
 
-        GedcomService gd = new GedcomService();
-
-        SortedMap<Integer, String> mapFamily = gd.familyData(gedcomInputFile);
-
-        marriagedays = marriagedays(mapFamily);
-        divorcedays = divorcedays(mapFamily);
+        //Shared with US01; partial and approximate dates are checked too
+        marriagedays = document.getProjections().getMarriageDates();
+        divorcedays = document.getProjections().getDivorceDates();
 
 
     }
@@ -52,18 +47,10 @@ public class US4 {
     }
 
 
+    //Valid unless every day the date could mean is today or later; dates that do not parse are left to the parser's diagnostics
     public boolean checkDate(String date) throws ParseException {
-        boolean flag = false;
-        String str[] = date.split(" ");
-        Date sdf = new SimpleDateFormat("MMM").parse(str[1]);
-        String month = new SimpleDateFormat("MM").format(sdf);
-
-        LocalDate marriagedate = LocalDate.of(Integer.parseInt(str[2]), Integer.parseInt(month), Integer.parseInt(str[0]));
-        LocalDate divorcedate = LocalDate.now();
-        if (divorcedate.isAfter(marriagedate)) {
-            flag = true;
-        }
-        return flag;
+        long packed = GedcomDate.parse(date);
+        return !GedcomDate.isKnown(packed) || GedcomDate.earliest(packed) < GedcomDate.today();
     }
 
     public void printData(US4 userStory_1) throws ParseException, IOException {
@@ -89,8 +76,8 @@ public class US4 {
             for (SortedMap.Entry entry : userStory_1.marriagedays.entrySet()) {
                 if (!userStory_1.checkDate(entry.getValue().toString())) {
                     System.out.print("ERROR: FAMILY: US4: Invalid Marriage Date: ");
-                    System.out.println("F" + entry.getKey() + " " + entry.getValue());
-                    outFile.write("F" + entry.getKey() + " " + entry.getValue());
+                    System.out.println(userStory_1.familyLabel(entry.getKey()) + " " + entry.getValue());
+                    outFile.write(userStory_1.familyLabel(entry.getKey()) + " " + entry.getValue());
                     outFile.write("\n");
 
                 }
@@ -116,8 +103,8 @@ public class US4 {
             for (SortedMap.Entry entry : userStory_1.divorcedays.entrySet()) {
                 if (!userStory_1.checkDate(entry.getValue().toString())) {
                     System.out.print("ERROR: FAMILY: US4: Invalid Divorce Date: ");
-                    System.out.println("F" + entry.getKey() + " " + entry.getValue());
-                    outFile.write("F" + entry.getKey() + " " + entry.getValue());
+                    System.out.println(userStory_1.familyLabel(entry.getKey()) + " " + entry.getValue());
+                    outFile.write(userStory_1.familyLabel(entry.getKey()) + " " + entry.getValue());
                     outFile.write("\n");
 
                 }
@@ -139,4 +126,8 @@ public class US4 {
         outFile.close();
     }
 
-}
\ No newline at end of file
+    //Printable id such as "F3"; maps built without a document fall back to the numeric key
+    String familyLabel(Object key) {
+        return familyIds != null ? familyIds.label((Integer) key) : "F" + key;
+    }
+}
@@ -707,6 +707,30 @@ public class Gedcom_ServiceTest {
         assertEmptyOutput();
     }
 
+    @Test
+    public void testMaleLastNameWithError() throws IOException, ParseException {
+        HashMap<String, Individual> individuals = new HashMap<>();
+        String[][] people = {{"@I1@", "Lee", "M"}, {"@I2@", "Lee", "M"}, {"@I3@", "Dyke", "M"}, {"@I4@", "Dyke", "F"}};
+        for (String[] person : people) {
+            Individual individual = new Individual(person[0]);
+            individual.setSurname(new String(person[1]));
+            individual.setSex(person[2]);
+            individuals.put(person[0], individual);
+        }
+        HashMap<String, Family> families = new HashMap<>();
+        Family family = new Family("@F1@");
+        family.setHusb("@I1@");
+        family.setChild(new ArrayList<>(Arrays.asList("@I2@", "@I4@")));
+        families.put(family.getId(), family);
+
+        Gedcom_Service.Malelastname(individuals, families);
+        assertEmptyOutput();
+
+        family.setChild(new ArrayList<>(Arrays.asList("@I2@", "@I3@", "@I4@")));
+        Gedcom_Service.Malelastname(individuals, families);
+        assertOutput("Family ID: @F1@   family members don't have same last name");
+    }
+
     @Test
     public void testAuntsAndUnclesNameWithoutError1() throws Exception {
         // Prepare the families data
@@ -1049,6 +1073,24 @@ public class Gedcom_ServiceTest {
         assertOutput("have same spouses and marriage dates :01/01/2000\n\n");
     }
 
+    @Test
+    public void testUniqueFamilyNameBySpousesWithoutMarriage() throws IOException {
+        HashMap<String, Family> families = new HashMap<>();
+        for (String id : new String[]{"F1", "F2"}) {
+            Family family = new Family(id);
+            family.setHusb("Ind1");
+            family.setWife("Ind2");
+            families.put(family.getId(), family);
+        }
+        HashMap<String, Individual> individuals = new HashMap<>();
+        individuals.put("Ind1", new Individual("Ind1"));
+        individuals.put("Ind2", new Individual("Ind2"));
+
+        Gedcom_Service.uniqueFamilynameBySpouses(individuals, families);
+
+        assertEmptyOutput();
+    }
+
     @Test
     public void testGetMonth() {
         assertEquals("01", Gedcom_Service.getMonth("JAN"));
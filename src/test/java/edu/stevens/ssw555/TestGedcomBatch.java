@@ -0,0 +1,153 @@
+package edu.stevens.ssw555;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestGedcomBatch {
+
+    private static final GedcomGenerator.Story[] COUNTED = {GedcomGenerator.Story.US01, GedcomGenerator.Story.US02,
+            GedcomGenerator.Story.US10, GedcomGenerator.Story.US12, GedcomGenerator.Story.US13, GedcomGenerator.Story.US15,
+            GedcomGenerator.Story.US21, GedcomGenerator.Story.US25};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testFindingsMatchGeneratedFiles() throws Exception {
+        File archive = folder.newFolder("archive");
+        List<Path> files = new ArrayList<>();
+        List<Map<GedcomGenerator.Story, Long>> expected = new ArrayList<>();
+        for (int seed = 1; seed <= 6; seed++) {
+            Path file = new File(archive, "family" + seed + ".ged").toPath();
+            expected.add(new EnumMap<>(new GedcomGenerator(seed, 0.03).generate(file, 800)));
+            files.add(file);
+        }
+        Path out = folder.newFolder("reports").toPath();
+
+        GedcomBatch.Summary summary = new GedcomBatch(3, out).run(files);
+
+        Assert.assertEquals(6, summary.getResults().size());
+        Assert.assertEquals(0, summary.getFailedCount());
+        long total = 0;
+        for (int i = 0; i < files.size(); i++) {
+            GedcomBatch.Result result = summary.getResults().get(i);
+            Assert.assertEquals(files.get(i), result.getFile());
+            Assert.assertEquals(800, result.getIndividuals());
+            Assert.assertEquals(Files.size(files.get(i)), result.getBytes());
+            for (GedcomGenerator.Story story : COUNTED) {
+                Assert.assertEquals(story + " in " + files.get(i), (long) expected.get(i).get(story),
+                        (long) result.getFindings().get(story.name()));
+            }
+            Assert.assertEquals(out.resolve("family" + (i + 1) + ".ged" + GedcomBatch.REPORT_SUFFIX), result.getReport());
+            Assert.assertTrue(new String(Files.readAllBytes(result.getReport()), "UTF-8").startsWith("File: " + files.get(i)));
+            total += expected.get(i).get(GedcomGenerator.Story.US21);
+        }
+        Assert.assertEquals(total, (long) summary.getFindings().get("US21"));
+        Assert.assertTrue(summary.getFilesPerSecond() > 0);
+        Assert.assertTrue(Files.exists(out.resolve(GedcomBatch.SUMMARY_FILE)));
+    }
+
+    @Test
+    public void testUnreadableFileFailsOnlyItself() throws Exception {
+        Path good = folder.newFile("good.ged").toPath();
+        new GedcomGenerator(5).generate(good, 100);
+        Path missing = folder.getRoot().toPath().resolve("missing.ged");
+
+        GedcomBatch.Summary summary = new GedcomBatch(2, folder.newFolder("reports").toPath()).run(Arrays.asList(missing, good));
+
+        Assert.assertEquals(1, summary.getFailedCount());
+        Assert.assertFalse(summary.getResults().get(0).isOk());
+        Assert.assertTrue(summary.getResults().get(1).isOk());
+        Assert.assertEquals(0, summary.getResults().get(1).getFindingCount());
+        Assert.assertTrue(summary.format().contains("FAILED " + missing));
+    }
+
+    @Test
+    public void testReportsWithTheSameNameDoNotCollide() throws Exception {
+        Path first = folder.newFolder("a").toPath().resolve("tree.ged");
+        Path second = folder.newFolder("b").toPath().resolve("tree.ged");
+        new GedcomGenerator(1).generate(first, 50);
+        new GedcomGenerator(2).generate(second, 50);
+        Path out = folder.newFolder("reports").toPath();
+
+        GedcomBatch.Summary summary = new GedcomBatch(1, out).run(Arrays.asList(first, second));
+
+        Assert.assertEquals(out.resolve("tree.ged" + GedcomBatch.REPORT_SUFFIX), summary.getResults().get(0).getReport());
+        Assert.assertEquals(out.resolve("tree.ged-2" + GedcomBatch.REPORT_SUFFIX), summary.getResults().get(1).getReport());
+    }
+
+    @Test
+    public void testCompressedFilesInDirectories() throws Exception {
+        File archive = folder.newFolder("compressed");
+        Path plain = folder.getRoot().toPath().resolve("tree.ged");
+        new GedcomGenerator(4, 0.03).generate(plain, 200);
+        try (OutputStream out = new GZIPOutputStream(new FileOutputStream(new File(archive, "tree.ged.gz")))) {
+            Files.copy(plain, out);
+        }
+
+        List<Path> files = GedcomBatch.expand(Collections.singletonList(archive.getPath()));
+        Assert.assertEquals(Collections.singletonList(new File(archive, "tree.ged.gz").toPath()), files);
+        GedcomBatch.Summary summary = new GedcomBatch(1, folder.newFolder("reports").toPath()).run(files);
+        GedcomBatch.Summary expected = new GedcomBatch(1, folder.newFolder("plain").toPath()).run(Collections.singletonList(plain));
+
+        Assert.assertEquals(0, summary.getFailedCount());
+        Assert.assertEquals(200, summary.getResults().get(0).getIndividuals());
+        Assert.assertEquals(expected.getFindings(), summary.getFindings());
+    }
+
+    @Test
+    public void testOffHeapColumnsFindTheSame() throws Exception {
+        List<Path> files = new ArrayList<>();
+        for (int seed = 1; seed <= 3; seed++) {
+            Path file = folder.getRoot().toPath().resolve("family" + seed + ".ged");
+            new GedcomGenerator(seed, 0.03).generate(file, 300);
+            files.add(file);
+        }
+        Path columns = folder.getRoot().toPath().resolve("columns");
+
+        GedcomBatch.Summary expected = new GedcomBatch(2, folder.newFolder("heap").toPath()).run(files);
+        GedcomBatch.Summary direct = new GedcomBatch(2, folder.newFolder("direct").toPath(), "direct").run(files);
+        GedcomBatch.Summary mapped = new GedcomBatch(2, folder.newFolder("mapped").toPath(), columns.toString()).run(files);
+
+        Assert.assertEquals(0, direct.getFailedCount() + mapped.getFailedCount());
+        for (int i = 0; i < files.size(); i++) {
+            Assert.assertEquals(expected.getResults().get(i).getFindings(), direct.getResults().get(i).getFindings());
+            Assert.assertEquals(expected.getResults().get(i).getFindings(), mapped.getResults().get(i).getFindings());
+        }
+        Assert.assertEquals(0, columns.toFile().list().length);
+    }
+
+    @Test
+    public void testExpandsDirectoriesAndGlobs() throws Exception {
+        File root = folder.newFolder("archive");
+        File nested = new File(root, "1850");
+        Assert.assertTrue(nested.mkdir());
+        for (File file : new File[]{new File(root, "a.ged"), new File(nested, "b.GED"), new File(nested, "c.ged.gz"),
+                new File(root, "d.zip"), new File(nested, "notes.txt"), new File(nested, "notes.gz")}) {
+            Assert.assertTrue(file.createNewFile());
+        }
+        String base = root.getPath().replace('\\', '/');
+
+        List<Path> all = GedcomBatch.expand(Collections.singletonList(root.getPath()));
+        Assert.assertEquals(Arrays.asList(new File(root, "1850/b.GED").toPath(), new File(root, "1850/c.ged.gz").toPath(),
+                new File(root, "a.ged").toPath(), new File(root, "d.zip").toPath()), all);
+
+        List<Path> globbed = GedcomBatch.expand(Arrays.asList(base + "/**/*.GED", base + "/*.ged", base + "/a.ged"));
+        Assert.assertEquals(Arrays.asList(new File(nested, "b.GED").toPath(), new File(root, "a.ged").toPath()), globbed);
+    }
+}
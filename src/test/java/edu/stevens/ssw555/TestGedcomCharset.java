@@ -0,0 +1,107 @@
+package edu.stevens.ssw555;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestGedcomCharset {
+
+    private static final String GEDCOM = "0 HEAD\n"
+            + "1 CHAR %s\n"
+            + "0 @I1@ INDI\n"
+            + "1 NAME %s\n"
+            + "0 TRLR\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String decode(GedcomCharset charset, byte[] bytes) {
+        return charset.decode(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    private String firstName(GedcomRecordReader reader) throws IOException {
+        reader.next();
+        String name = reader.next().getValue(1);
+        reader.close();
+        return name;
+    }
+
+    @Test
+    public void testAsciiFastPath() {
+        for (GedcomCharset charset : GedcomCharset.values()) {
+            Assert.assertEquals("Emily /Williams/", decode(charset, "Emily /Williams/".getBytes(StandardCharsets.US_ASCII)));
+        }
+    }
+
+    @Test
+    public void testAnselCombiningMarks() {
+        byte[] jose = {'J', 'o', 's', (byte) 0xe2, 'e'};
+        Assert.assertEquals("Jos\u00e9", decode(GedcomCharset.ANSEL, jose));
+        byte[] lodz = {(byte) 0xa1, (byte) 0xe2, 'o', 'd', (byte) 0xe2, 'z'};
+        Assert.assertEquals("\u0141\u00f3d\u017a", decode(GedcomCharset.ANSEL, lodz));
+        byte[] mueller = {'M', (byte) 0xe8, 'u', 'l', 'l', 'e', 'r'};
+        Assert.assertEquals("M\u00fcller", decode(GedcomCharset.ANSEL, mueller));
+    }
+
+    @Test
+    public void testForName() {
+        Assert.assertEquals(GedcomCharset.ANSEL, GedcomCharset.forName("ANSEL"));
+        Assert.assertEquals(GedcomCharset.UTF_8, GedcomCharset.forName("UTF-8"));
+        Assert.assertEquals(GedcomCharset.UTF_8, GedcomCharset.forName("UNICODE"));
+        Assert.assertEquals(GedcomCharset.ANSI, GedcomCharset.forName("ansi"));
+        Assert.assertEquals(GedcomCharset.UTF_8, GedcomCharset.forName(null));
+    }
+
+    @Test
+    public void testReaderHonoursHeadChar() throws IOException {
+        ByteArrayOutputStream ansel = new ByteArrayOutputStream();
+        ansel.write("0 HEAD\n1 CHAR ANSEL\n0 @I1@ INDI\n1 NAME Jos".getBytes(StandardCharsets.US_ASCII));
+        ansel.write(new byte[]{(byte) 0xe2, 'e'});
+        ansel.write("\n0 TRLR\n".getBytes(StandardCharsets.US_ASCII));
+
+        GedcomRecordReader reader = new GedcomRecordReader(new ByteArrayInputStream(ansel.toByteArray()));
+        Assert.assertEquals("Jos\u00e9", firstName(reader));
+        Assert.assertEquals(GedcomCharset.ANSEL, reader.getCharset());
+
+        byte[] utf8 = String.format(GEDCOM, "UTF-8", "Jos\u00e9 /M\u00fcller/").getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals("Jos\u00e9 /M\u00fcller/", firstName(new GedcomRecordReader(new ByteArrayInputStream(utf8))));
+    }
+
+    @Test
+    public void testUtf16Transcoded() throws IOException {
+        String text = String.format(GEDCOM, "UNICODE", "\u674e /\u5c0f\u9f99/");
+        File littleEndian = folder.newFile("le.ged");
+        Files.write(littleEndian.toPath(), text.getBytes(StandardCharsets.UTF_16LE));
+        File withBom = folder.newFile("bom.ged");
+        Files.write(withBom.toPath(), text.getBytes(StandardCharsets.UTF_16));
+
+        Assert.assertFalse(GedcomInput.isMappable(littleEndian.toPath()));
+        Assert.assertEquals("\u674e /\u5c0f\u9f99/", firstName(new GedcomRecordReader(littleEndian.getPath())));
+        Assert.assertEquals("\u674e /\u5c0f\u9f99/", firstName(new GedcomRecordReader(withBom.getPath())));
+    }
+
+    @Test
+    public void testUtf8ByteOrderMarkSkipped() throws IOException {
+        File file = folder.newFile("bom8.ged");
+        byte[] text = String.format(GEDCOM, "UTF-8", "Emily /Williams/").getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = new byte[text.length + 3];
+        bytes[0] = (byte) 0xef;
+        bytes[1] = (byte) 0xbb;
+        bytes[2] = (byte) 0xbf;
+        System.arraycopy(text, 0, bytes, 3, text.length);
+        Files.write(file.toPath(), bytes);
+
+        GedcomRecordReader reader = new GedcomRecordReader(file.getPath());
+        Assert.assertEquals("HEAD", reader.next().getTag());
+        reader.close();
+    }
+}
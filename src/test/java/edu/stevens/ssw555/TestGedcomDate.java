@@ -0,0 +1,164 @@
+package edu.stevens.ssw555;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestGedcomDate {
+
+    @Test
+    public void testParsesEveryForm() {
+        long exact = GedcomDate.parse("7 feb 1990");
+        Assert.assertEquals(1990, GedcomDate.getYear(exact));
+        Assert.assertEquals(2, GedcomDate.getMonth(exact));
+        Assert.assertEquals(7, GedcomDate.getDay(exact));
+        Assert.assertTrue(GedcomDate.isExact(exact));
+        Assert.assertEquals(GedcomDate.of(1990, 2, 7), exact);
+
+        Assert.assertEquals(GedcomDate.Precision.MONTH, GedcomDate.getPrecision(GedcomDate.parse("FEB 1990")));
+        Assert.assertEquals(GedcomDate.Precision.YEAR, GedcomDate.getPrecision(GedcomDate.parse("1990")));
+        Assert.assertEquals(GedcomDate.Qualifier.ABOUT, GedcomDate.getQualifier(GedcomDate.parse("ABT 1990")));
+        Assert.assertEquals(GedcomDate.Qualifier.PERIOD, GedcomDate.getQualifier(GedcomDate.parse("FROM 1990 TO 1995")));
+        Assert.assertEquals(GedcomDate.Qualifier.FROM, GedcomDate.getQualifier(GedcomDate.parse("FROM 1990")));
+        Assert.assertEquals(GedcomDate.Qualifier.TO, GedcomDate.getQualifier(GedcomDate.parse("TO MAR 1990")));
+        Assert.assertFalse(GedcomDate.isExact(GedcomDate.parse("EST 7 FEB 1990")));
+
+        for (String text : new String[]{"7 FEB 1990", "FEB 1990", "1990", "ABT 1990", "CAL MAR 1850", "EST 1 JAN 1800",
+                "BEF 1900", "AFT 12 DEC 1999", "BET 1850 AND MAR 1860", "FROM 1850 TO 3 MAR 1860", "FROM 1850", "TO 2 JAN 1860"}) {
+            Assert.assertEquals(text, GedcomDate.format(GedcomDate.parse(text)));
+        }
+    }
+
+    @Test
+    public void testRejectsWhatIsNotADate() {
+        for (String text : new String[]{"", "30 FEB 1990", "29 FEB 1900", "3 MAR", "FOO 1990", "ABT", "BET 1990",
+                "BET 1995 AND 1990", "FROM 1995 TO 1990", "FROM", "TO", "FROM 1990 TO", "7 FEB 1990 12", "INT 1990 (about then)"}) {
+            Assert.assertEquals(text, GedcomDate.MISSING, GedcomDate.parse(text));
+        }
+        Assert.assertTrue(GedcomDate.isKnown(GedcomDate.parse("29 FEB 2000")));
+    }
+
+    @Test
+    public void testPackedDatesSortByDay() {
+        long[] ordered = {GedcomDate.parse("1989"), GedcomDate.parse("31 DEC 1989"), GedcomDate.parse("JAN 1990"),
+                GedcomDate.parse("1 JAN 1990"), GedcomDate.parse("2 JAN 1990"), GedcomDate.parse("FEB 1990")};
+        for (int i = 1; i < ordered.length; i++) {
+            Assert.assertTrue(ordered[i - 1] < ordered[i]);
+        }
+    }
+
+    @Test
+    public void testPartialDatesCoverTheirDays() {
+        long february = GedcomDate.parse("FEB 1990");
+        Assert.assertEquals(GedcomDate.key(LocalDate.of(1990, 2, 1)), GedcomDate.earliest(february));
+        Assert.assertTrue(GedcomDate.latest(february) >= GedcomDate.key(LocalDate.of(1990, 2, 28)));
+        Assert.assertTrue(GedcomDate.latest(february) < GedcomDate.key(LocalDate.of(1990, 3, 1)));
+
+        long before = GedcomDate.parse("BEF 1990");
+        Assert.assertTrue(GedcomDate.latest(before) < GedcomDate.key(LocalDate.of(1990, 1, 1)));
+        Assert.assertTrue(GedcomDate.latest(before) >= GedcomDate.key(LocalDate.of(1989, 12, 31)));
+
+        long from = GedcomDate.parse("FROM MAR 1990");
+        Assert.assertEquals(GedcomDate.key(LocalDate.of(1990, 3, 1)), GedcomDate.earliest(from));
+        Assert.assertEquals(Integer.MAX_VALUE, GedcomDate.latest(from));
+        long to = GedcomDate.parse("TO MAR 1990");
+        Assert.assertEquals(0, GedcomDate.earliest(to));
+        Assert.assertTrue(GedcomDate.latest(to) >= GedcomDate.key(LocalDate.of(1990, 3, 31)));
+        Assert.assertTrue(GedcomDate.latest(to) < GedcomDate.key(LocalDate.of(1990, 4, 1)));
+
+        long period = GedcomDate.parse("FROM 1850 TO MAR 1860");
+        Assert.assertEquals(GedcomDate.key(LocalDate.of(1850, 1, 1)), GedcomDate.earliest(period));
+        Assert.assertTrue(GedcomDate.latest(period) < GedcomDate.key(LocalDate.of(1860, 4, 1)));
+
+        long range = GedcomDate.parse("BET 1850 AND MAR 1860");
+        Assert.assertEquals(GedcomDate.key(LocalDate.of(1850, 1, 1)), GedcomDate.earliest(range));
+        Assert.assertTrue(GedcomDate.latest(range) < GedcomDate.key(LocalDate.of(1860, 4, 1)));
+    }
+
+    @Test
+    public void testIsBeforeOnlyWhenCertain() {
+        Assert.assertTrue(GedcomDate.isBefore(GedcomDate.parse("31 JAN 1990"), GedcomDate.parse("FEB 1990")));
+        Assert.assertFalse(GedcomDate.isBefore(GedcomDate.parse("1 FEB 1990"), GedcomDate.parse("FEB 1990")));
+        Assert.assertFalse(GedcomDate.isBefore(GedcomDate.parse("1990"), GedcomDate.parse("JUN 1990")));
+        Assert.assertTrue(GedcomDate.isBefore(GedcomDate.parse("BEF 1990"), GedcomDate.parse("1 JAN 1990")));
+        Assert.assertFalse(GedcomDate.isBefore(GedcomDate.parse("AFT 1900"), GedcomDate.parse("1950")));
+        Assert.assertTrue(GedcomDate.isAfter(GedcomDate.parse("AFT 1900"), GedcomDate.parse("1900")));
+        Assert.assertFalse(GedcomDate.isAfter(GedcomDate.parse("FROM 1900"), GedcomDate.parse("1900")));
+        Assert.assertTrue(GedcomDate.isAfter(GedcomDate.parse("FROM 1900"), GedcomDate.parse("1899")));
+        Assert.assertTrue(GedcomDate.isBefore(GedcomDate.parse("TO 1899"), GedcomDate.parse("1900")));
+        Assert.assertFalse(GedcomDate.isBefore(GedcomDate.MISSING, GedcomDate.parse("1990")));
+    }
+
+    @Test
+    public void testArithmeticMatchesJavaTime() {
+        Random random = new Random(17);
+        for (int i = 0; i < 10_000; i++) {
+            LocalDate from = LocalDate.ofEpochDay(random.nextInt(200_000) - 100_000);
+            LocalDate to = LocalDate.ofEpochDay(random.nextInt(200_000) - 100_000);
+            if (from.getYear() < 1 || to.getYear() < 1) {
+                continue;
+            }
+            int fromKey = GedcomDate.key(from);
+            int toKey = GedcomDate.key(to);
+            Assert.assertEquals(Period.between(from, to).getYears(), GedcomDate.yearsBetween(fromKey, toKey));
+            Assert.assertEquals(Period.between(from, to).toTotalMonths(), GedcomDate.monthsBetween(fromKey, toKey));
+            Assert.assertEquals(ChronoUnit.DAYS.between(from, to), GedcomDate.daysBetween(fromKey, toKey));
+        }
+    }
+
+    @Test
+    public void testBoundsAreRealDays() {
+        Assert.assertEquals(GedcomDate.key(LocalDate.of(1990, 2, 28)), GedcomDate.latest(GedcomDate.parse("FEB 1990")));
+        Assert.assertEquals(GedcomDate.key(LocalDate.of(1992, 2, 29)), GedcomDate.latest(GedcomDate.parse("FEB 1992")));
+        Assert.assertEquals(GedcomDate.key(LocalDate.of(1990, 4, 30)), GedcomDate.latest(GedcomDate.parse("TO APR 1990")));
+        Assert.assertEquals(GedcomDate.key(LocalDate.of(1990, 3, 1)), GedcomDate.earliest(GedcomDate.parse("AFT FEB 1990")));
+        Assert.assertEquals(GedcomDate.key(LocalDate.of(1991, 1, 1)), GedcomDate.earliest(GedcomDate.parse("AFT 31 DEC 1990")));
+        Assert.assertEquals(GedcomDate.key(LocalDate.of(1990, 2, 28)), GedcomDate.latest(GedcomDate.parse("BEF 1 MAR 1990")));
+        Assert.assertEquals(GedcomDate.key(LocalDate.of(1989, 12, 31)), GedcomDate.latest(GedcomDate.parse("BEF 1990")));
+    }
+
+    @Test
+    public void testArithmeticOnPartialAndBoundedDates() {
+        long february = GedcomDate.parse("FEB 1990");
+        long march = GedcomDate.parse("2 MAR 1990");
+        Assert.assertEquals(2, GedcomDate.daysBetween(GedcomDate.latest(february), GedcomDate.earliest(march)));
+        Assert.assertEquals(29, GedcomDate.daysBetween(GedcomDate.earliest(february), GedcomDate.earliest(march)));
+        Assert.assertEquals(1, GedcomDate.monthsBetween(GedcomDate.earliest(february), GedcomDate.latest(march)));
+        Assert.assertEquals(0, GedcomDate.monthsBetween(GedcomDate.latest(february), GedcomDate.latest(march)));
+
+        long after = GedcomDate.parse("AFT DEC 1990");
+        Assert.assertEquals(1, GedcomDate.daysBetween(GedcomDate.latest(GedcomDate.parse("DEC 1990")), GedcomDate.earliest(after)));
+        Assert.assertEquals(2, GedcomDate.monthsBetween(GedcomDate.earliest(after), GedcomDate.key(LocalDate.of(1991, 3, 1))));
+
+        long before = GedcomDate.parse("BEF 1 MAR 1992");
+        Assert.assertEquals(LocalDate.of(1992, 2, 29).toEpochDay() - LocalDate.of(1990, 3, 2).toEpochDay(),
+                GedcomDate.daysBetween(GedcomDate.earliest(march), GedcomDate.latest(before)));
+
+        long range = GedcomDate.parse("BET JAN 1990 AND FEB 1990");
+        Assert.assertEquals(58, GedcomDate.daysBetween(GedcomDate.earliest(range), GedcomDate.latest(range)));
+        Assert.assertEquals(1, GedcomDate.monthsBetween(GedcomDate.earliest(range), GedcomDate.latest(range)));
+        long period = GedcomDate.parse("FROM 1990 TO FEB 1991");
+        Assert.assertEquals(13, GedcomDate.monthsBetween(GedcomDate.earliest(period), GedcomDate.latest(period)));
+        Assert.assertEquals(423, GedcomDate.daysBetween(GedcomDate.earliest(period), GedcomDate.latest(period)));
+    }
+
+    @Test
+    public void testPartialDatesInValidators() {
+        //Births in 1990 and sometime in 1991 may be a month apart or a year apart: not reported
+        Assert.assertFalse(US13.tooClose(GedcomDate.parse("1 DEC 1990"), GedcomDate.parse("1991")));
+        Assert.assertTrue(US13.tooClose(GedcomDate.parse("MAY 1991"), GedcomDate.parse("1 JAN 1991")));
+        Assert.assertFalse(US13.tooClose(GedcomDate.parse("1 JAN 1991"), GedcomDate.parse("2 JAN 1991")));
+        Assert.assertFalse(US13.tooClose(GedcomDate.parse("1 JAN 1991"), GedcomDate.parse("2 OCT 1991")));
+        //FEB 1990 ends on the 28th, two days before 2 MAR 1990
+        Assert.assertTrue(US13.tooClose(GedcomDate.parse("FEB 1990"), GedcomDate.parse("2 MAR 1990")));
+        Assert.assertFalse(US13.tooClose(GedcomDate.parse("FEB 1990"), GedcomDate.parse("1 MAR 1990")));
+
+        Assert.assertEquals(12, US10.ageAtMarriage(GedcomDate.parse("1970"), GedcomDate.parse("ABT 1982")));
+        Assert.assertEquals(13, US10.ageAtMarriage(GedcomDate.parse("BET 1969 AND 1970"), GedcomDate.parse("JUN 1982")));
+        Assert.assertEquals(Integer.MAX_VALUE, US10.ageAtMarriage(GedcomDate.MISSING, GedcomDate.parse("1982")));
+    }
+}
@@ -0,0 +1,158 @@
+package edu.stevens.ssw555;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestGedcomDiagnostics {
+
+    private static final String DIRTY = "0 HEAD\r\n"
+            + "0 @I1@ INDI\r\n"
+            + "1 NAME Emily\r\n"
+            + "1 SEX F\r\n"
+            + "1 BIRT\r\n"
+            + "2 DATE 30 FEB 1990\r\n"
+            + "1 FAMS @F1@\r\n"
+            + "0 @I2@ INDI\r\n"
+            + "this line has no level\r\n"
+            + "1 SEX M\r\n"
+            + "1 BIRT\r\n"
+            + "2 DATE ABT 1960\r\n"
+            + "1 FAMS @F1@\r\n"
+            + "0 INDI\r\n"
+            + "1 NAME Nobody /Atall/\r\n"
+            + "0 @F1@ FAM\r\n"
+            + "1 WIFE @I1@\r\n"
+            + "1 MARR\r\n"
+            + "2 DATE 3 MAR\r\n"
+            + "0 @F2@ FAM\r\n"
+            + "1 HUSB @I2@\r\n"
+            + "1 WIFE @I9@\r\n"
+            + "0 TRLR\r\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File write(String gedcom) throws Exception {
+        File file = folder.newFile();
+        Files.write(file.toPath(), gedcom.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void testDirtyFileParsesAndLogsEveryProblem() throws Exception {
+        GedcomDocument document = GedcomDocument.parse(write(DIRTY).getPath());
+        GedcomDiagnostics diagnostics = document.getDiagnostics();
+
+        Assert.assertEquals(2, document.getIndividualIds().size());
+        Assert.assertEquals(2, document.getFamilyIds().size());
+        Assert.assertEquals(8, diagnostics.getCount());
+        Assert.assertEquals(8, diagnostics.size());
+
+        int[] lines = new int[diagnostics.size()];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = diagnostics.getLine(i);
+        }
+        //Records in file order, then the families resolved after parsing; a malformed line is logged with its record
+        Assert.assertArrayEquals(new int[]{3, 6, 9, 8, 14, 19, 16, 20}, lines);
+        Assert.assertEquals(GedcomDiagnostics.Reason.BAD_NAME, diagnostics.getReason(0));
+        Assert.assertEquals(DIRTY.indexOf("1 NAME Emily"), diagnostics.getOffset(0));
+        Assert.assertEquals(GedcomDiagnostics.Reason.MALFORMED_LINE, diagnostics.getReason(2));
+        Assert.assertEquals(DIRTY.indexOf("this line"), diagnostics.getOffset(2));
+        Assert.assertEquals(GedcomDiagnostics.Reason.MISSING_XREF, diagnostics.getReason(4));
+        Assert.assertEquals(GedcomDiagnostics.Reason.MISSING_SPOUSE, diagnostics.getReason(6));
+        Assert.assertEquals(GedcomDiagnostics.Reason.UNKNOWN_REFERENCE, diagnostics.getReason(7));
+
+        //"ABT 1960" is a valid partial date: kept packed, though the positional row has no room for it
+        Map<GedcomDiagnostics.Reason, Long> counts = diagnostics.getCounts();
+        Assert.assertEquals(2L, (long) counts.get(GedcomDiagnostics.Reason.BAD_DATE));
+        Assert.assertEquals("ABT 1960", GedcomDate.format(document.getDates().birth(1)));
+        Assert.assertEquals("", document.getIndividualAttributeMaps().get("I2").get("birth"));
+        Assert.assertEquals(1L, (long) counts.get(GedcomDiagnostics.Reason.MISSING_NAME));
+
+        //Bad values fall back to the defaults a missing line would give
+        Map<String, String> emily = document.getIndividualAttributeMaps().get("I1");
+        Assert.assertEquals("Emily //", emily.get("name"));
+        Assert.assertEquals("", emily.get("birth"));
+        Assert.assertEquals(GedcomService.UNKNOWN_NAME, document.getIndividualAttributeMaps().get("I2").get("name"));
+        Map<String, Object> family = document.getFamilyAttributeMaps().get("@F1@");
+        Assert.assertEquals("NA", family.get("husband"));
+        Assert.assertEquals("", family.get("married"));
+        Assert.assertTrue(diagnostics.summary().contains("line 9 (offset " + DIRTY.indexOf("this line") + "): line has no level or tag"));
+    }
+
+    @Test
+    public void testLegacyParsersLogInsteadOfThrowing() throws Exception {
+        //Parsed record by record: readAndParseFile would leave these individuals in Gedcom_Service's static maps
+        GedcomDiagnostics diagnostics = new GedcomDiagnostics();
+        GedcomRecordReader reader = new GedcomRecordReader(new ByteArrayInputStream(DIRTY.getBytes(StandardCharsets.UTF_8)));
+        GedcomRecord record;
+        while ((record = reader.next()) != null) {
+            if (record.getXref() == null) {
+                continue;
+            }
+            if (record.getTagId(0) == GedcomTag.INDI) {
+                Individual individual = Gedcom_Service.parseIndividual(record, diagnostics);
+                if (individual.getId().equals("@I1@")) {
+                    Assert.assertEquals("Emily", individual.getName());
+                    Assert.assertNull(individual.getBirth());
+                }
+            } else if (record.getTagId(0) == GedcomTag.FAM) {
+                Gedcom_Service.parseFamily(record, diagnostics);
+            }
+        }
+        reader.close();
+
+        Assert.assertEquals(1, diagnostics.getCount(GedcomDiagnostics.Reason.BAD_NAME));
+        Assert.assertEquals(2, diagnostics.getCount(GedcomDiagnostics.Reason.BAD_DATE));
+        Assert.assertEquals(1, diagnostics.getCount(GedcomDiagnostics.Reason.MISSING_NAME));
+        Assert.assertEquals(1, diagnostics.getCount(GedcomDiagnostics.Reason.MISSING_SPOUSE));
+    }
+
+    @Test
+    public void testSampleHasNoProblems() throws Exception {
+        Assert.assertTrue(GedcomDocument.parse("gedcom_test_family.ged").getDiagnostics().isEmpty());
+    }
+
+    @Test
+    public void testLineNumbersSurviveWindowSlides() throws Exception {
+        //A 4-byte window re-reads every record several times; malformed lines must still be logged once
+        GedcomRecordReader reader = new GedcomRecordReader(new ByteArrayInputStream(DIRTY.getBytes(StandardCharsets.UTF_8)), 4);
+        GedcomRecord record;
+        while ((record = reader.next()) != null) {
+            if (record.getTagId(0) == GedcomTag.FAM) {
+                Assert.assertEquals(DIRTY.indexOf(record.getXref() + " FAM") - 2, record.getOffset(0));
+            }
+        }
+        reader.close();
+        Assert.assertEquals(1, reader.getDiagnostics().getCount());
+        Assert.assertEquals(9, reader.getDiagnostics().getLine(0));
+        Assert.assertEquals(23, reader.getLineCount());
+    }
+
+    @Test
+    public void testLimitKeepsCountingAndMergeShiftsLines() {
+        GedcomDiagnostics chunk = new GedcomDiagnostics(2);
+        chunk.add(GedcomDiagnostics.Reason.BAD_DATE, 1, 10);
+        chunk.add(GedcomDiagnostics.Reason.BAD_DATE, 2, 20);
+        chunk.add(GedcomDiagnostics.Reason.BAD_NAME, 3, 30);
+        Assert.assertEquals(2, chunk.size());
+        Assert.assertEquals(3, chunk.getCount());
+
+        GedcomDiagnostics merged = new GedcomDiagnostics();
+        merged.add(GedcomDiagnostics.Reason.MALFORMED_LINE, 5, 0);
+        merged.addAll(chunk, 100);
+        Assert.assertEquals(3, merged.size());
+        Assert.assertEquals(4, merged.getCount());
+        Assert.assertEquals(101, merged.getLine(1));
+        Assert.assertEquals(2, merged.getCount(GedcomDiagnostics.Reason.BAD_DATE));
+        Assert.assertEquals(1, merged.getCount(GedcomDiagnostics.Reason.BAD_NAME));
+    }
+}
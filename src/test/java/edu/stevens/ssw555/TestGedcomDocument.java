@@ -0,0 +1,66 @@
+package edu.stevens.ssw555;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestGedcomDocument {
+
+    private static final String GEDCOM_FILE = "gedcom_test_family.ged";
+
+    @Test
+    public void testParseOnce() throws Exception {
+        GedcomDocument document = GedcomDocument.parse(GEDCOM_FILE);
+        Assert.assertEquals(11, document.getIndividualData().size());
+        Assert.assertEquals(4, document.getFamilyData().size());
+        Assert.assertEquals(11, document.getIndividualAttributeMaps().size());
+        Assert.assertEquals(4, document.getFamilyAttributeMaps().size());
+        Assert.assertEquals("Bob /Williams/", document.getIndividualAttributeMaps().get("I2").get("name"));
+    }
+
+    @Test
+    public void testServiceSharesDocument() throws Exception {
+        GedcomService gedcomService = new GedcomService(GEDCOM_FILE);
+        GedcomDocument document = gedcomService.getDocument();
+        Assert.assertEquals(document.getIndividualData(), GedcomDocument.parse(GEDCOM_FILE).getIndividualData());
+        Assert.assertEquals(document.getFamilyData(), GedcomDocument.parse(GEDCOM_FILE).getFamilyData());
+    }
+
+    @Test
+    public void testServiceParsesAgainFromEmptyTables() throws Exception {
+        GedcomService gedcomService = new GedcomService();
+        gedcomService.individualData(GEDCOM_FILE);
+        Assert.assertEquals(11, gedcomService.getIndividualAttributeMaps().size());
+        Assert.assertEquals(4, gedcomService.getFamilyAttributeMaps().size());
+
+        GedcomDocument first = gedcomService.getDocument();
+        GedcomDocument second = gedcomService.parse(GEDCOM_FILE);
+        Assert.assertSame(second, gedcomService.getDocument());
+        Assert.assertEquals(first.getStore().individualCount(), second.getStore().individualCount());
+        Assert.assertEquals(first.getStats().getRecords(), second.getStats().getRecords());
+        Assert.assertEquals(first.getDiagnostics().size(), second.getDiagnostics().size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testServiceWithoutParse() {
+        new GedcomService().getIndividualAttributeMaps();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testIndividualAttributesImmutable() throws Exception {
+        GedcomDocument document = GedcomDocument.parse(GEDCOM_FILE);
+        document.getIndividualAttributeMaps().get("I1").put("name", "Someone Else");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testChildrenImmutable() throws Exception {
+        GedcomDocument document = GedcomDocument.parse(GEDCOM_FILE);
+        for (Map<String, Object> family : document.getFamilyAttributeMaps().values()) {
+            if (family.get("children") instanceof List) {
+                ((List<String>) family.get("children")).clear();
+            }
+        }
+    }
+}
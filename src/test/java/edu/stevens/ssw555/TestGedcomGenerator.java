@@ -0,0 +1,122 @@
+package edu.stevens.ssw555;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestGedcomGenerator {
+
+    private static final DateTimeFormatter DATE = new DateTimeFormatterBuilder()
+            .parseCaseInsensitive().appendPattern("d MMM yyyy").toFormatter(Locale.ENGLISH);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private GedcomDocument generate(GedcomGenerator generator, int individuals, Map<GedcomGenerator.Story, Long> expected) throws Exception {
+        File file = folder.newFile();
+        expected.putAll(generator.generate(file.toPath(), individuals));
+        return GedcomDocument.parse(file.getPath());
+    }
+
+    //US03 and US04 are checked in Gedcom_Service, which only writes files; count them from the maps instead
+    private long deathsBeforeBirth(GedcomDocument document) {
+        long count = 0;
+        for (Map<String, String> individual : document.getIndividualAttributeMaps().values()) {
+            if (!individual.get("death").equals("NA") && parse(individual.get("death")).isBefore(parse(individual.get("birth")))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long divorcesBeforeMarriage(GedcomDocument document) {
+        long count = 0;
+        for (Map<String, Object> family : document.getFamilyAttributeMaps().values()) {
+            if (!family.get("divorced").equals("NA") && parse((String) family.get("divorced")).isBefore(parse((String) family.get("married")))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private LocalDate parse(String date) {
+        return LocalDate.parse(date, DATE);
+    }
+
+    private long futureDates(GedcomDocument document) throws Exception {
+        US01 us01 = new US01();
+        us01.us01(document);
+        long count = 0;
+        for (Map<Integer, String> dates : Arrays.asList(us01.birthdays, us01.deathdays, us01.marriage, us01.divorce)) {
+            for (String date : dates.values()) {
+                if (!us01.checkDate(date)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testSameSeedSameFile() throws Exception {
+        StringWriter first = new StringWriter();
+        StringWriter second = new StringWriter();
+        new GedcomGenerator(42, 0.05).generate(first, 500);
+        new GedcomGenerator(42, 0.05).generate(second, 500);
+        Assert.assertEquals(first.toString(), second.toString());
+
+        StringWriter other = new StringWriter();
+        new GedcomGenerator(43, 0.05).generate(other, 500);
+        Assert.assertNotEquals(first.toString(), other.toString());
+    }
+
+    @Test
+    public void testCleanFileHasNoFindings() throws Exception {
+        Map<GedcomGenerator.Story, Long> expected = new EnumMap<>(GedcomGenerator.Story.class);
+        GedcomDocument document = generate(new GedcomGenerator(7), 2000, expected);
+
+        Assert.assertEquals(2000, document.getIndividualIds().size());
+        for (long count : expected.values()) {
+            Assert.assertEquals(0, count);
+        }
+        Assert.assertEquals(0, futureDates(document));
+        Assert.assertEquals(0, new US02().checkBirthBeforeMarr(document).size());
+        Assert.assertEquals(0, new US10().checkMarriedAfter14(document).size());
+        Assert.assertEquals(0, new US12().checkParentsNotOld(document).size());
+        Assert.assertEquals(0, new US13().checkSiblingSpacing(document).size());
+        Assert.assertEquals(0, new US21().checkMaleFemale(document).size());
+        Assert.assertEquals(0, new US25().checkUniqueNameNBday(document).size());
+    }
+
+    @Test
+    public void testInjectedFindingsMatchExpectedCounts() throws Exception {
+        Map<GedcomGenerator.Story, Long> expected = new EnumMap<>(GedcomGenerator.Story.class);
+        GedcomDocument document = generate(new GedcomGenerator(11, 0.03), 5000, expected);
+
+        Assert.assertEquals(5000, document.getIndividualIds().size());
+        Assert.assertTrue(expected.get(GedcomGenerator.Story.US21) > 0);
+        Assert.assertEquals((long) expected.get(GedcomGenerator.Story.US01), futureDates(document));
+        Assert.assertEquals((long) expected.get(GedcomGenerator.Story.US02), new US02().checkBirthBeforeMarr(document).size());
+        Assert.assertEquals((long) expected.get(GedcomGenerator.Story.US03), deathsBeforeBirth(document));
+        Assert.assertEquals((long) expected.get(GedcomGenerator.Story.US04), divorcesBeforeMarriage(document));
+        Assert.assertEquals((long) expected.get(GedcomGenerator.Story.US10), new US10().checkMarriedAfter14(document).size());
+        Assert.assertEquals((long) expected.get(GedcomGenerator.Story.US12), new US12().checkParentsNotOld(document).size());
+        Assert.assertEquals((long) expected.get(GedcomGenerator.Story.US13), new US13().checkSiblingSpacing(document).size());
+        Assert.assertEquals((long) expected.get(GedcomGenerator.Story.US14),
+                new FamilyValidations().validateNoMoreThanFiveSameBirthDaysinFamily(document).size());
+        Assert.assertEquals((long) expected.get(GedcomGenerator.Story.US15), new FamilyValidations().fewerThanFifteenChildren(document).size());
+        Assert.assertEquals((long) expected.get(GedcomGenerator.Story.US21), new US21().checkMaleFemale(document).size());
+        Assert.assertEquals((long) expected.get(GedcomGenerator.Story.US25), new US25().checkUniqueNameNBday(document).size());
+    }
+}
@@ -0,0 +1,75 @@
+package edu.stevens.ssw555;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestGedcomIdTable {
+
+    private static final String GEDCOM = "0 HEAD\n"
+            + "0 @P_0002@ INDI\n"
+            + "1 NAME Ann /Lee/\n"
+            + "1 SEX F\n"
+            + "1 BIRT\n"
+            + "2 DATE 3 MAR 2001\n"
+            + "0 @P_0001@ INDI\n"
+            + "1 NAME Ann /Lee/\n"
+            + "1 SEX F\n"
+            + "1 BIRT\n"
+            + "2 DATE 3 MAR 2001\n"
+            + "0 @DAD@ INDI\n"
+            + "1 NAME Tom /Lee/\n"
+            + "1 SEX M\n"
+            + "1 BIRT\n"
+            + "2 DATE 1 JAN 1970\n"
+            + "0 @MOM@ INDI\n"
+            + "1 NAME Sue /Lee/\n"
+            + "1 SEX F\n"
+            + "1 BIRT\n"
+            + "2 DATE 1 JAN 1972\n"
+            + "0 @FAM-A@ FAM\n"
+            + "1 HUSB @DAD@\n"
+            + "1 WIFE @MOM@\n"
+            + "1 CHIL @P_0002@\n"
+            + "1 CHIL @P_0001@\n"
+            + "0 TRLR\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testDenseIdsInFirstSeenOrder() {
+        GedcomIdTable ids = new GedcomIdTable();
+        Assert.assertEquals(0, ids.intern("@I7@"));
+        Assert.assertEquals(1, ids.intern("@P_0001@"));
+        Assert.assertEquals(0, ids.intern("@I7@"));
+        Assert.assertEquals(2, ids.size());
+        Assert.assertEquals(1, ids.id("@P_0001@"));
+        Assert.assertEquals(-1, ids.id("@I8@"));
+        Assert.assertEquals("@P_0001@", ids.xref(1));
+        Assert.assertEquals("P_0001", ids.label(1));
+    }
+
+    @Test
+    public void testNonNumericXrefs() throws Exception {
+        File file = folder.newFile("lee.ged");
+        Files.write(file.toPath(), GEDCOM.getBytes());
+        GedcomDocument document = GedcomDocument.parse(file.getPath());
+
+        Assert.assertEquals(4, document.getIndividualData().size());
+        Assert.assertEquals(0, document.getIndividualIds().id("@P_0002@"));
+        Assert.assertTrue(document.getIndividualData().get(2).startsWith("Tom /Lee/"));
+        Assert.assertEquals(0, document.getFamilyIds().id("@FAM-A@"));
+        Assert.assertTrue(document.getFamilyData().get(0).contains("DAD Tom /Lee/ MOM Sue /Lee/"));
+        Assert.assertEquals("Ann /Lee/", document.getIndividualAttributeMaps().get("P_0001").get("name"));
+
+        ArrayList<String> duplicates = new US25().checkUniqueNameNBday(document);
+        Assert.assertEquals(1, duplicates.size());
+        Assert.assertEquals("FAM-A P_0002 P_0001", duplicates.get(0));
+    }
+}
@@ -0,0 +1,130 @@
+package edu.stevens.ssw555;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestGedcomIndexes {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private GedcomDocument parse(String... lines) throws Exception {
+        Path file = new File(folder.getRoot(), "indexes.ged").toPath();
+        Files.write(file, String.join("\n", lines).concat("\n").getBytes(StandardCharsets.UTF_8));
+        return GedcomDocument.parse(file.toString());
+    }
+
+    @Test
+    public void testIndexesGroupRecordsByKey() throws Exception {
+        GedcomDocument document = parse("0 HEAD",
+                "0 @I1@ INDI", "1 NAME Ann /Lee/", "1 SEX F", "1 BIRT", "2 DATE 3 MAR 1950", "1 DEAT", "2 DATE 1 JAN 2000",
+                "0 @I2@ INDI", "1 NAME Bob /Lee/", "1 SEX M", "1 BIRT", "2 DATE ABT 1950",
+                "0 @I3@ INDI", "1 NAME Cal /Lee/", "1 SEX M", "1 BIRT", "2 DATE 9 SEP 1980",
+                "0 @I4@ INDI", "1 NAME Dan /Lee/", "1 SEX M",
+                "0 @F1@ FAM", "1 HUSB @I2@", "1 WIFE @I1@", "1 MARR", "2 DATE 1 JUN 1975", "1 CHIL @I3@", "1 CHIL @I4@",
+                "0 @F2@ FAM", "1 HUSB @I2@", "1 WIFE @I1@", "1 MARR", "2 DATE 1 JUN 1975",
+                "0 @F3@ FAM", "1 HUSB @I3@",
+                "0 @F4@ FAM", "1 HUSB @I3@", "1 WIFE @I4@",
+                "0 @F5@ FAM", "1 HUSB @I3@", "1 WIFE @I4@",
+                "0 TRLR");
+        GedcomIndexes indexes = document.getIndexes();
+
+        GedcomIndex births = indexes.get(GedcomIndexes.Name.BIRTH_YEAR);
+        Assert.assertArrayEquals(new int[]{0, 1}, births.get(1950));
+        Assert.assertArrayEquals(new int[]{0, 1, 2}, births.range(1900, 2000));
+        Assert.assertArrayEquals(new int[0], births.get(1951));
+        Assert.assertEquals(2, births.keyCount());
+        Assert.assertArrayEquals(new int[]{0}, indexes.get(GedcomIndexes.Name.DEATH_YEAR).get(2000));
+
+        GedcomIndex couples = indexes.get(GedcomIndexes.Name.SPOUSE_PAIR);
+        Assert.assertArrayEquals(new int[]{0, 1}, couples.get(GedcomIndexes.pair(1, 0)));
+        Assert.assertEquals(2, couples.keyCount());
+        Assert.assertArrayEquals(new int[]{3, 4}, couples.get(GedcomIndexes.pair(2, 3)));
+
+        GedcomIndex childCounts = indexes.get(GedcomIndexes.Name.CHILD_COUNT);
+        Assert.assertArrayEquals(new int[]{1, 2, 3, 4}, childCounts.get(0));
+        Assert.assertArrayEquals(new int[]{0}, childCounts.range(1, Long.MAX_VALUE));
+        Assert.assertSame(indexes, document.getIndexes());
+
+        //F4 and F5 share a couple but have no marriage dates to compare
+        Assert.assertEquals(Collections.singletonList(
+                "ERROR: FAMILY: US24: Families F1 and F2 have the same spouses Bob /Lee/ and Ann /Lee/ and marriage date 1 JUN 1975"),
+                new FamilyValidations().uniqueFamiliesBySpouses(document));
+    }
+
+    @Test
+    public void testIndexesAreBuiltWithEveryDocument() throws Exception {
+        Path file = new File(folder.getRoot(), "tree.ged").toPath();
+        new GedcomGenerator(7).generate(file, 300);
+        GedcomDocument document = GedcomDocument.parse(file.toString());
+        Assert.assertTrue(document.getStats().getPhaseNanos("indexes") > 0);
+
+        Path snapshot = new File(folder.getRoot(), "tree.ged" + GedcomSnapshot.SUFFIX).toPath();
+        GedcomSnapshot.Key key = GedcomSnapshot.Key.of(file);
+        GedcomSnapshot.write(snapshot, key, document);
+        for (GedcomDocument copy : Arrays.asList(GedcomSnapshot.read(snapshot, key), GedcomOffHeap.direct().move(document))) {
+            for (GedcomIndexes.Name name : GedcomIndexes.Name.values()) {
+                GedcomIndex expected = document.getIndexes().get(name);
+                GedcomIndex index = copy.getIndexes().get(name);
+                Assert.assertEquals(name.toString(), expected.keyCount(), index.keyCount());
+                for (int i = 0; i < expected.keyCount(); i++) {
+                    Assert.assertArrayEquals(name.toString(), expected.get(expected.key(i)), index.get(expected.key(i)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRangeMatchesScan() {
+        GedcomIndex.Builder builder = new GedcomIndex.Builder();
+        long[] keys = new long[2000];
+        for (int id = 0; id < keys.length; id++) {
+            keys[id] = (id * 7919L) % 97 - 40;
+            builder.add(keys[id], id);
+        }
+        GedcomIndex index = builder.build();
+
+        for (long from = -45; from < 60; from += 13) {
+            List<Integer> expected = new ArrayList<>();
+            for (int id = 0; id < keys.length; id++) {
+                if (keys[id] >= from && keys[id] <= from + 20) {
+                    expected.add(id);
+                }
+            }
+            List<Integer> found = new ArrayList<>();
+            for (int id : index.range(from, from + 20)) {
+                found.add(id);
+            }
+            Assert.assertEquals(expected, found);
+        }
+    }
+
+    @Test
+    public void testIndexedRulesMatchTheGeneratedFindings() throws Exception {
+        Path file = new File(folder.getRoot(), "tree.ged").toPath();
+        new GedcomGenerator(11, 0.05).generate(file, 400);
+        GedcomDocument document = GedcomDocument.parse(file.toString());
+
+        Assert.assertEquals(new HashSet<>(new US31().checkNeverMarried(document.getIndividualAttributeMaps(), document.getFamilyAttributeMaps())),
+                new HashSet<>(new US31().checkNeverMarried(document)));
+        List<String> largeFamilies = new FamilyValidations().fewerThanFifteenChildren(document);
+        Assert.assertFalse(largeFamilies.isEmpty());
+        Assert.assertEquals(new FamilyValidations().fewerThanFifteenChildren(document.getFamilyAttributeMaps()).size(),
+                largeFamilies.size());
+        Assert.assertEquals(new FamilyValidations().validateNoMoreThanFiveSameBirthDaysinFamily(
+                document.getFamilyAttributeMaps(), document.getIndividualAttributeMaps()).keySet(),
+                new FamilyValidations().validateNoMoreThanFiveSameBirthDaysinFamily(document).keySet());
+    }
+}
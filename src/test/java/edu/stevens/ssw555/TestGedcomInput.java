@@ -0,0 +1,136 @@
+package edu.stevens.ssw555;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestGedcomInput {
+
+    private static final Path GEDCOM_FILE = Paths.get("gedcom_test_family.ged");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private List<String> readRecords(GedcomRecordReader reader) throws IOException {
+        List<String> records = new ArrayList<>();
+        GedcomRecord record;
+        while ((record = reader.next()) != null) {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < record.size(); i++) {
+                text.append(record.getLevel(i)).append(' ').append(record.getTag(i)).append(' ').append(record.getValue(i)).append('\n');
+            }
+            records.add(text.toString());
+        }
+        reader.close();
+        return records;
+    }
+
+    @Test
+    public void testMappedMatchesBuffered() throws IOException {
+        List<String> buffered = readRecords(new GedcomRecordReader(new FileInputStream(GEDCOM_FILE.toFile())));
+        FileChannel channel = FileChannel.open(GEDCOM_FILE, StandardOpenOption.READ);
+        List<String> mapped = readRecords(new GedcomRecordReader(new MappedGedcomInput(channel, 0, -1, 16)));
+        Assert.assertEquals(buffered, mapped);
+        Assert.assertEquals(18, mapped.size());
+    }
+
+    @Test
+    public void testSmallFileIsBuffered() throws IOException {
+        GedcomInput input = GedcomInput.open(GEDCOM_FILE);
+        Assert.assertTrue(input instanceof BufferedGedcomInput);
+        input.close();
+    }
+
+    @Test
+    public void testMappedWindowSlides() throws IOException {
+        FileChannel channel = FileChannel.open(GEDCOM_FILE, StandardOpenOption.READ);
+        MappedGedcomInput input = new MappedGedcomInput(channel, 0, -1, 64);
+        Assert.assertEquals(64, input.limit());
+        Assert.assertFalse(input.isEof());
+        input.fill(10);
+        Assert.assertEquals(10, input.offset());
+        input.fill(0);
+        Assert.assertEquals(128, input.limit());
+        input.close();
+    }
+
+    @Test
+    public void testGzipDetectedByMagic() throws IOException {
+        File compressed = folder.newFile("family.ged.gz");
+        try (OutputStream out = new GZIPOutputStream(new FileOutputStream(compressed))) {
+            out.write(Files.readAllBytes(GEDCOM_FILE));
+        }
+        Assert.assertTrue(GedcomInput.isCompressed(compressed.toPath()));
+        Assert.assertFalse(GedcomInput.isCompressed(GEDCOM_FILE));
+        List<String> plain = readRecords(new GedcomRecordReader(new FileInputStream(GEDCOM_FILE.toFile())));
+        Assert.assertEquals(plain, readRecords(new GedcomRecordReader(GedcomInput.open(compressed.toPath(), 16, 32))));
+    }
+
+    @Test
+    public void testZipReadsFirstFileEntry() throws Exception {
+        File archive = folder.newFile("export.zip");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive))) {
+            out.putNextEntry(new ZipEntry("export/"));
+            out.closeEntry();
+            out.putNextEntry(new ZipEntry("export/family.ged"));
+            out.write(Files.readAllBytes(GEDCOM_FILE));
+            out.closeEntry();
+        }
+        Assert.assertTrue(GedcomInput.isCompressed(archive.toPath()));
+        Assert.assertEquals(18, readRecords(new GedcomRecordReader(archive.getPath())).size());
+        Assert.assertEquals(11, GedcomDocument.parse(archive.getPath()).getIndividualData().size());
+    }
+
+    @Test
+    public void testPipelinedMatchesBuffered() throws IOException {
+        List<String> buffered = readRecords(new GedcomRecordReader(new FileInputStream(GEDCOM_FILE.toFile())));
+        PipelinedGedcomInput input = new PipelinedGedcomInput(new FileInputStream(GEDCOM_FILE.toFile()), 16, 2);
+        Assert.assertEquals(buffered, readRecords(new GedcomRecordReader(input)));
+        Assert.assertEquals((Files.size(GEDCOM_FILE) + 15) / 16, input.getBlockCount());
+        Assert.assertTrue(input.getParserStallNanos() >= 0 && input.getReaderStallNanos() >= 0);
+    }
+
+    @Test
+    public void testPipelinedDecompressesOnReaderThread() throws IOException {
+        File compressed = folder.newFile("family.ged.gz");
+        try (OutputStream out = new GZIPOutputStream(new FileOutputStream(compressed))) {
+            out.write(Files.readAllBytes(GEDCOM_FILE));
+        }
+        List<String> plain = readRecords(new GedcomRecordReader(new FileInputStream(GEDCOM_FILE.toFile())));
+        Assert.assertEquals(plain, readRecords(new GedcomRecordReader(GedcomInput.openPipelined(compressed.toPath(), 32, 64, 3))));
+    }
+
+    @Test(expected = IOException.class)
+    public void testPipelinedReportsReadFailure() throws IOException {
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        };
+        GedcomRecordReader reader = new GedcomRecordReader(new PipelinedGedcomInput(failing, 16, 2));
+        try {
+            reader.next();
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package edu.stevens.ssw555;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestGedcomLineTokenizer {
+
+    private final GedcomLineTokenizer tokenizer = new GedcomLineTokenizer();
+
+    private boolean tokenize(String line) {
+        byte[] bytes = line.getBytes();
+        return tokenizer.tokenize(bytes, 0, bytes.length);
+    }
+
+    @Test
+    public void testRecordLine() {
+        Assert.assertTrue(tokenize("0 @I1@ INDI"));
+        Assert.assertEquals(0, tokenizer.level());
+        Assert.assertEquals("@I1@", tokenizer.xref());
+        Assert.assertTrue(tokenizer.tagEquals("INDI"));
+        Assert.assertEquals("", tokenizer.value());
+    }
+
+    @Test
+    public void testValueWithSpaces() {
+        Assert.assertTrue(tokenize("2 PLAC New York City, NY"));
+        Assert.assertEquals(2, tokenizer.level());
+        Assert.assertNull(tokenizer.xref());
+        Assert.assertEquals("PLAC", tokenizer.tag());
+        Assert.assertEquals("New York City, NY", tokenizer.value());
+    }
+
+    @Test
+    public void testTabsAndMultipleSpaces() {
+        Assert.assertTrue(tokenize("  1\t NAME   Emily  /Williams/ \r"));
+        Assert.assertEquals(1, tokenizer.level());
+        Assert.assertTrue(tokenizer.tagEquals("NAME"));
+        Assert.assertFalse(tokenizer.tagEquals("NAM"));
+        Assert.assertEquals("Emily  /Williams/", tokenizer.value());
+    }
+
+    @Test
+    public void testOffsetsIntoBuffer() {
+        byte[] bytes = "xx1 SEX F\nyy".getBytes();
+        Assert.assertTrue(tokenizer.tokenize(bytes, 2, 9));
+        Assert.assertEquals(4, tokenizer.tagStart());
+        Assert.assertEquals(7, tokenizer.tagEnd());
+        Assert.assertEquals(8, tokenizer.valueStart());
+        Assert.assertEquals(9, tokenizer.valueEnd());
+    }
+
+    @Test
+    public void testMalformedLines() {
+        Assert.assertFalse(tokenize(""));
+        Assert.assertFalse(tokenize("   "));
+        Assert.assertFalse(tokenize("NAME Emily"));
+        Assert.assertFalse(tokenize("1"));
+        Assert.assertFalse(tokenize("1x NAME"));
+    }
+}
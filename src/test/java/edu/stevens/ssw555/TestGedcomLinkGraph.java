@@ -0,0 +1,104 @@
+package edu.stevens.ssw555;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestGedcomLinkGraph {
+
+    private static final String GEDCOM = "0 HEAD\n"
+            + "0 @I1@ INDI\n"
+            + "1 NAME Tom /Lee/\n"
+            + "1 FAMS @F2@\n"
+            + "1 FAMS @F1@\n"
+            + "1 FAMS @F9@\n"
+            + "0 @I2@ INDI\n"
+            + "1 NAME Sue /Lee/\n"
+            + "1 FAMS @F1@\n"
+            + "0 @I3@ INDI\n"
+            + "1 NAME Ann /Roe/\n"
+            + "1 FAMS @F2@\n"
+            + "0 @I4@ INDI\n"
+            + "1 NAME Bob /Lee/\n"
+            + "1 FAMC @F1@\n"
+            + "0 @F1@ FAM\n"
+            + "1 HUSB @I1@\n"
+            + "1 WIFE @I2@\n"
+            + "1 CHIL @I4@\n"
+            + "1 CHIL @I9@\n"
+            + "0 @F2@ FAM\n"
+            + "1 HUSB @I1@\n"
+            + "1 WIFE @I3@\n"
+            + "0 TRLR\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private int[] targets(GedcomAdjacency adjacency, int source) {
+        int[] targets = new int[adjacency.degree(source)];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = adjacency.get(source, i);
+        }
+        return targets;
+    }
+
+    @Test
+    public void testAdjacencyKeepsInsertionOrderPerSource() {
+        GedcomAdjacency.Builder builder = new GedcomAdjacency.Builder();
+        for (int i = 0; i < 40; i++) {
+            builder.add(i % 3 == 0 ? 2 : 0, i);
+        }
+        GedcomAdjacency adjacency = builder.build(4);
+        Assert.assertEquals(4, adjacency.sourceCount());
+        Assert.assertEquals(26, adjacency.degree(0));
+        Assert.assertEquals(0, adjacency.degree(1));
+        Assert.assertEquals(14, adjacency.degree(2));
+        Assert.assertEquals(0, adjacency.degree(3));
+        Assert.assertEquals(1, adjacency.get(0, 0));
+        Assert.assertEquals(39, adjacency.get(2, 13));
+        Assert.assertTrue(adjacency.contains(2, 3));
+        Assert.assertFalse(adjacency.contains(0, 3));
+    }
+
+    @Test
+    public void testMultiValuedLinks() throws Exception {
+        File file = folder.newFile("links.ged");
+        Files.write(file.toPath(), GEDCOM.getBytes());
+        GedcomDocument document = GedcomDocument.parse(file.getPath());
+        GedcomLinkGraph links = document.getLinks();
+
+        Assert.assertEquals(4, links.individualCount());
+        Assert.assertEquals(2, links.familyCount());
+        //@F9@ does not exist and is dropped; @F2@ is interned after @F1@ because it comes later in the file
+        Assert.assertArrayEquals(new int[]{1, 0}, targets(links.spouseFamilies(), 0));
+        Assert.assertArrayEquals(new int[]{0}, targets(links.childFamilies(), 3));
+        Assert.assertArrayEquals(new int[]{3}, targets(links.children(), 0));
+        Assert.assertArrayEquals(new int[]{0, 1}, targets(links.spouses(), 0));
+        Assert.assertArrayEquals(new int[]{0, 2}, targets(links.spouses(), 1));
+        Assert.assertEquals(0, links.husband(1));
+        Assert.assertEquals(2, links.wife(1));
+    }
+
+    @Test
+    public void testSampleGraphMatchesMapValidators() throws Exception {
+        GedcomDocument document = GedcomDocument.parse("gedcom_test_family.ged");
+        GedcomLinkGraph links = document.getLinks();
+        int i3 = document.getIndividualIds().id("@I3@");
+        Assert.assertArrayEquals(new int[]{0, 1}, targets(links.spouseFamilies(), i3));
+        Assert.assertArrayEquals(new int[]{0, 4}, targets(links.children(), 0));
+
+        Assert.assertEquals(
+                new US10().checkMarriedAfter14(document.getIndividualAttributeMaps(), document.getFamilyAttributeMaps()),
+                new US10().checkMarriedAfter14(document));
+        Assert.assertEquals(
+                new US02().checkBirthBeforeMarr(document.getIndividualAttributeMaps(), document.getFamilyAttributeMaps()),
+                new US02().checkBirthBeforeMarr(document));
+        Assert.assertEquals(Arrays.asList(),
+                new US21().checkMaleFemale(document));
+    }
+}
@@ -0,0 +1,94 @@
+package edu.stevens.ssw555;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestGedcomNames {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private GedcomDocument parse(String... lines) throws Exception {
+        Path file = new File(folder.getRoot(), "names.ged").toPath();
+        Files.write(file, String.join("\n", lines).concat("\n").getBytes(StandardCharsets.UTF_8));
+        return GedcomDocument.parse(file.toString());
+    }
+
+    private GedcomDocument family() throws Exception {
+        return parse("0 HEAD",
+                "0 @I1@ INDI", "1 NAME Mary Ann /Lee/", "1 SEX F", "1 FAMS @F1@",
+                "0 @I2@ INDI", "1 NAME John /Lee/", "1 SEX M", "1 FAMS @F1@",
+                "0 @I3@ INDI", "1 NAME Tom /Lee/", "1 SEX M", "1 FAMC @F1@",
+                "0 @I4@ INDI", "1 NAME Jim /van Dyke/", "2 GIVN James", "2 SURN Van Dyke", "1 SEX M", "1 FAMC @F1@",
+                "0 @I5@ INDI", "1 NAME Prince", "1 SEX M",
+                "0 @F1@ FAM", "1 HUSB @I2@", "1 WIFE @I1@", "1 CHIL @I3@", "1 CHIL @I4@",
+                "0 TRLR");
+    }
+
+    @Test
+    public void testNameParts() {
+        Assert.assertArrayEquals(new String[]{"Mary Ann", "Smith"}, GedcomValues.nameParts("Mary Ann /Smith/ Jr"));
+        Assert.assertArrayEquals(new String[]{null, "Smith"}, GedcomValues.nameParts("/Smith/"));
+        Assert.assertArrayEquals(new String[]{"Prince", null}, GedcomValues.nameParts("Prince"));
+        Assert.assertArrayEquals(new String[]{"Ann", "Lee"}, GedcomValues.nameParts("Ann /Lee"));
+    }
+
+    @Test
+    public void testSurnamesAreInternedAndIndexed() throws Exception {
+        GedcomStore store = family().getStore();
+
+        Assert.assertEquals(store.surnameRef(0), store.surnameRef(1));
+        Assert.assertEquals("Mary Ann", store.givenName(0));
+        Assert.assertEquals("James", store.givenName(3));
+        Assert.assertEquals("Van Dyke", store.surname(3));
+        Assert.assertEquals(-1, store.surnameRef(4));
+        Assert.assertEquals(2, store.getSurnames().size());
+
+        //Only the names the refs do not give back are kept
+        Assert.assertEquals("John /Lee/", store.name(1));
+        Assert.assertNull(store.otherName(1));
+        Assert.assertEquals("Mary Ann", store.name(0));
+        Assert.assertEquals("Jim /van", store.name(3));
+        Assert.assertEquals("Prince //", store.name(4));
+
+        GedcomAdjacency index = store.getSurnameIndex();
+        int lee = store.getSurnames().id("Lee");
+        Assert.assertEquals(3, index.degree(lee));
+        Assert.assertEquals(Arrays.asList(0, 1, 2), Arrays.asList(index.get(lee, 0), index.get(lee, 1), index.get(lee, 2)));
+    }
+
+    @Test
+    public void testNamesSurviveSnapshotAndMove() throws Exception {
+        GedcomDocument document = family();
+        Path snapshot = new File(folder.getRoot(), "names.ged" + GedcomSnapshot.SUFFIX).toPath();
+        GedcomSnapshot.Key key = GedcomSnapshot.Key.of(new File(folder.getRoot(), "names.ged").toPath());
+        GedcomSnapshot.write(snapshot, key, document);
+
+        for (GedcomDocument copy : Arrays.asList(GedcomSnapshot.read(snapshot, key), GedcomOffHeap.direct().move(document))) {
+            GedcomStore store = copy.getStore();
+            for (int i = 0; i < store.individualCount(); i++) {
+                Assert.assertEquals(document.getStore().givenName(i), store.givenName(i));
+                Assert.assertEquals(document.getStore().surname(i), store.surname(i));
+                Assert.assertEquals(document.getStore().name(i), store.name(i));
+            }
+            Assert.assertEquals(3, store.getSurnameIndex().degree(store.getSurnames().id("Lee")));
+        }
+    }
+
+    @Test
+    public void testMaleLastNames() throws Exception {
+        Assert.assertEquals(Collections.singletonList("ERROR: FAMILY: US16: Male members of family=F1 do not all have the last name Lee: I4 Van Dyke"),
+                new FamilyValidations().maleLastNames(family()));
+        Assert.assertEquals(Collections.emptyList(),
+                new FamilyValidations().maleLastNames(GedcomDocument.parse("gedcom_test_family.ged")));
+    }
+}
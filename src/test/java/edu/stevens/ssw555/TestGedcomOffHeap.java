@@ -0,0 +1,111 @@
+package edu.stevens.ssw555;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestGedcomOffHeap {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path generatedFile() throws Exception {
+        Path file = new File(folder.getRoot(), "tree.ged").toPath();
+        new GedcomGenerator(7, 0.05).generate(file, 300);
+        return file;
+    }
+
+    private GedcomDocument generated() throws Exception {
+        return GedcomDocument.parse(generatedFile().toString());
+    }
+
+    private static void assertSameRecords(GedcomDocument expected, GedcomDocument actual) throws Exception {
+        Assert.assertEquals(expected.getIndividualData(), actual.getIndividualData());
+        Assert.assertEquals(expected.getFamilyData(), actual.getFamilyData());
+        Assert.assertEquals(expected.getIndividualAttributeMaps(), actual.getIndividualAttributeMaps());
+        Assert.assertEquals(GedcomBatch.findings(expected), GedcomBatch.findings(actual));
+    }
+
+    @Test
+    public void testDirectColumnsReadLikeHeapColumns() throws Exception {
+        GedcomDocument document = generated();
+        GedcomDocument moved = GedcomOffHeap.direct().move(document);
+
+        Assert.assertFalse(document.getStore().isDirect());
+        Assert.assertTrue(moved.getStore().isDirect());
+        assertSameRecords(document, moved);
+    }
+
+    @Test
+    public void testMappedColumnsReadLikeHeapColumns() throws Exception {
+        GedcomDocument document = generated();
+        File backing = new File(folder.getRoot(), "columns.bin");
+        GedcomDocument moved;
+        try (GedcomOffHeap target = GedcomOffHeap.mapped(backing.toPath())) {
+            moved = target.move(document);
+        }
+
+        Assert.assertTrue(moved.getStore().isDirect());
+        Assert.assertTrue(backing.length() > 0);
+        assertSameRecords(document, moved);
+    }
+
+    @Test
+    public void testMovedIdTablesLookUpXrefs() throws Exception {
+        GedcomDocument moved = GedcomOffHeap.direct().move(GedcomDocument.parse("gedcom_test_family.ged"));
+        GedcomIdTable ids = moved.getIndividualIds();
+
+        Assert.assertEquals(11, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Assert.assertEquals(i, ids.id(ids.xref(i)));
+            Assert.assertEquals(ids.xref(i).replace("@", ""), ids.label(i));
+        }
+        Assert.assertEquals(-1, ids.id("@I99@"));
+        Assert.assertEquals(moved.getStore().surnameRef(0), moved.getStore().getSurnames().id(moved.getStore().surname(0)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMovedIdTablesAreReadOnly() throws Exception {
+        GedcomOffHeap.direct().move(GedcomDocument.parse("gedcom_test_family.ged")).getFamilyIds().intern("@F9@");
+    }
+
+    @Test
+    public void testParseBuildsColumnsInDirectBuffers() throws Exception {
+        Path file = generatedFile();
+        GedcomDocument document = new GedcomService(GedcomOffHeap.direct()).parse(file.toString());
+
+        Assert.assertTrue(document.getStore().isDirect());
+        assertSameRecords(GedcomDocument.parse(file.toString()), document);
+    }
+
+    @Test
+    public void testParallelParseBuildsColumnsInMappedFile() throws Exception {
+        Path file = generatedFile();
+        File backing = new File(folder.getRoot(), "columns.bin");
+        try (GedcomOffHeap target = GedcomOffHeap.mapped(backing.toPath())) {
+            GedcomDocument document = new GedcomService(target).parse(file, new ParallelGedcomParser(ForkJoinPool.commonPool(), 4));
+
+            Assert.assertTrue(document.getStore().isDirect());
+            Assert.assertTrue(backing.length() > 0);
+            assertSameRecords(GedcomDocument.parse(file.toString()), document);
+        }
+    }
+
+    @Test
+    public void testDirectDictionaryInterns() {
+        GedcomDictionary dictionary = new GedcomDictionary(GedcomOffHeap.direct());
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(i, dictionary.intern("M\u00fcller " + i));
+        }
+        Assert.assertEquals(7, dictionary.intern("M\u00fcller 7"));
+        Assert.assertEquals(1000, dictionary.size());
+        Assert.assertEquals("M\u00fcller 999", dictionary.get(999));
+        Assert.assertEquals(500, dictionary.id("M\u00fcller 500"));
+        Assert.assertEquals(-1, dictionary.id("M\u00fcller 1000"));
+    }
+}
@@ -0,0 +1,72 @@
+package edu.stevens.ssw555;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestGedcomParseStats {
+
+    @Test
+    public void testSampleCounts() throws Exception {
+        GedcomDocument document = GedcomDocument.parse("gedcom_test_family.ged");
+        GedcomParseStats stats = document.getStats();
+
+        Assert.assertEquals(Files.size(Paths.get("gedcom_test_family.ged")), stats.getBytes());
+        Assert.assertEquals(157, stats.getLines());
+        Assert.assertEquals(0, stats.getMalformedLines());
+        Assert.assertEquals(18, stats.getRecords());
+        Assert.assertEquals(11, stats.getRecords(GedcomTag.INDI));
+        Assert.assertEquals(4, stats.getRecords(GedcomTag.FAM));
+        Assert.assertEquals(5, stats.getRecordsByTag().size());
+        Assert.assertArrayEquals(new String[]{"parse", "families", "links", "indexes"}, stats.getPhaseNanos().keySet().toArray());
+        Assert.assertTrue(stats.getPhaseNanos("parse") > 0);
+        Assert.assertEquals(0, stats.getPhaseNanos("snapshot"));
+        Assert.assertTrue(stats.summary().contains("18 records"));
+    }
+
+    @Test
+    public void testMalformedLinesCountedOnce() throws IOException {
+        String gedcom = "garbage before the header\n"
+                + "0 HEAD\n"
+                + "0 @I1@ INDI\n"
+                + "1 NAME Emily /Williams/\n"
+                + "no level here\n"
+                + "\n"
+                + "1 SEX F\n"
+                + "0 TRLR\n";
+        //A 4-byte window makes the reader slide and re-tokenize the INDI record several times
+        GedcomRecordReader reader = new GedcomRecordReader(new ByteArrayInputStream(gedcom.getBytes()), 4);
+        while (reader.next() != null) {
+        }
+        reader.close();
+        GedcomParseStats stats = reader.getStats();
+        Assert.assertEquals(2, stats.getMalformedLines());
+        Assert.assertEquals(5, stats.getLines());
+        Assert.assertEquals(3, stats.getRecords());
+        Assert.assertEquals(gedcom.length(), stats.getBytes());
+    }
+
+    @Test
+    public void testAddMergesCountersAndSumsPhases() {
+        GedcomParseStats first = new GedcomParseStats();
+        first.addRecord(GedcomTag.INDI, 7, 1);
+        first.setBytes(100);
+        first.addPhase("parse", 10);
+        first.addPhase("parse", 5);
+        GedcomParseStats second = new GedcomParseStats();
+        second.addRecord(GedcomTag.INDI, 3, 0);
+        second.setBytes(50);
+        first.add(second);
+
+        Assert.assertEquals(150, first.getBytes());
+        Assert.assertEquals(10, first.getLines());
+        Assert.assertEquals(1, first.getMalformedLines());
+        Assert.assertEquals(2, first.getRecords(GedcomTag.INDI));
+        Assert.assertEquals(15, first.getPhaseNanos("parse"));
+        Assert.assertEquals(15, first.getTotalNanos());
+    }
+}
@@ -0,0 +1,84 @@
+package edu.stevens.ssw555;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestGedcomProjections {
+
+    private static final String GEDCOM = "0 HEAD\n"
+            + "0 @I1@ INDI\n"
+            + "1 NAME Mary Ann /Lee/\n"
+            + "1 SEX F\n"
+            + "1 BIRT\n"
+            + "2 DATE 3 MAR 1950\n"
+            + "1 FAMS @F1@\n"
+            + "0 @I2@ INDI\n"
+            + "1 NAME Sue /Lee/\n"
+            + "1 BIRT\n"
+            + "2 DATE ABT 1990\n"
+            + "1 DEAT Y\n"
+            + "2 DATE 1 JAN 2000\n"
+            + "0 @F1@ FAM\n"
+            + "1 WIFE @I1@\n"
+            + "1 DIV\n"
+            + "2 DATE 5 MAY 1980\n"
+            + "0 TRLR\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private GedcomDocument parse() throws Exception {
+        File file = folder.newFile("projections.ged");
+        Files.write(file.toPath(), GEDCOM.getBytes());
+        return GedcomDocument.parse(file.getPath());
+    }
+
+    @Test
+    public void testDateMapsKeepEveryGivenDate() throws Exception {
+        GedcomProjections projections = parse().getProjections();
+
+        Assert.assertEquals("3 MAR 1950", projections.getBirthDates().get(0));
+        Assert.assertEquals("ABT 1990", projections.getBirthDates().get(1));
+        Assert.assertEquals(1, projections.getDeathDates().size());
+        Assert.assertTrue(projections.getMarriageDates().isEmpty());
+        Assert.assertEquals("5 MAY 1980", projections.getDivorceDates().get(0));
+    }
+
+    @Test
+    public void testRowsDoNotDependOnTokenCounts() throws Exception {
+        GedcomDocument document = parse();
+        GedcomProjections projections = document.getProjections();
+        String name = document.individual(0).getName();
+
+        Assert.assertEquals(Arrays.asList("I1", name, "F", "3 MAR 1950",
+                String.valueOf(GedcomDate.yearsBetween(GedcomDate.earliest(GedcomDate.parse("3 MAR 1950")), GedcomDate.today())), "true", "NA", "NA", "{'F1'}"),
+                projections.getIndividualRows().get(0));
+        Assert.assertEquals(Arrays.asList("I2", "Sue /Lee/", "", "", "", "false", "1 JAN 2000", "NA", "NA"),
+                projections.getIndividualRows().get(1));
+        Assert.assertEquals(Arrays.asList("F1", "", "5 MAY 1980", "NA", GedcomService.UNKNOWN_NAME, "I1", name, ""),
+                projections.getFamilyRows().get(0));
+    }
+
+    @Test
+    public void testStoriesShareTheProjections() throws Exception {
+        GedcomDocument document = parse();
+        US01 us01 = new US01();
+        us01.us01(document);
+        US3 us03 = new US3();
+        us03.us03(document);
+
+        Assert.assertSame(document.getProjections(), document.getProjections());
+        Assert.assertSame(us01.birthdays, us03.birthdate);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testProjectionsAreReadOnly() throws Exception {
+        parse().getProjections().getFamilyRows().get(0).set(0, "F9");
+    }
+}
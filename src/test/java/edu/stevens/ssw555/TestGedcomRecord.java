@@ -0,0 +1,90 @@
+package edu.stevens.ssw555;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestGedcomRecord {
+
+    private static final String GEDCOM = "0 @I1@ INDI\n"
+            + "1 NAME Emily /Williams/\n"
+            + "1 BIRT\n"
+            + "2 PLAC New York City\n"
+            + "3 MAP\n"
+            + "4 LATI N40.7\n"
+            + "2 DATE 22 APR 1985\n"
+            + "1 DEAT Y\n"
+            + "2 SOUR @S1@\n"
+            + "2 DATE 1 JAN 2020\n"
+            + "1 FAMS @F1@\n"
+            + "0 @F1@ FAM\n"
+            + "1 MARR\n"
+            + "2 PLAC Hoboken\n"
+            + "2 DATE 10 JUN 2005\n"
+            + "1 HUSB @I2@\n"
+            + "0 TRLR\n";
+
+    private GedcomRecordReader reader() {
+        return new GedcomRecordReader(new ByteArrayInputStream(GEDCOM.getBytes()));
+    }
+
+    @Test
+    public void testTreeNavigation() throws IOException {
+        GedcomRecordReader reader = reader();
+        GedcomRecord record = reader.next();
+        Assert.assertEquals(-1, record.getParent(0));
+        Assert.assertEquals(1, record.firstChild(0));
+        Assert.assertEquals(2, record.nextSibling(1));
+        Assert.assertEquals(7, record.nextSibling(2));
+        Assert.assertEquals(10, record.nextSibling(7));
+        Assert.assertEquals(-1, record.nextSibling(10));
+        Assert.assertEquals(2, record.getParent(3));
+        Assert.assertEquals(6, record.getEnd(3));
+        Assert.assertEquals(6, record.findChild(2, GedcomTag.DATE));
+        Assert.assertEquals(-1, record.findChild(1, GedcomTag.DATE));
+        Assert.assertEquals("BIRT.PLAC.MAP.LATI", record.getPath(5));
+        reader.close();
+    }
+
+    @Test
+    public void testDetachOutlivesReader() throws IOException {
+        GedcomRecordReader reader = reader();
+        GedcomRecord record = reader.next().detach();
+        reader.next();
+        reader.close();
+        Assert.assertEquals("@I1@", record.getXref());
+        Assert.assertEquals(11, record.size());
+        Assert.assertEquals("22 APR 1985", record.getValue(6));
+        Assert.assertEquals(GedcomTag.LATI, record.getTagId(5));
+        Assert.assertEquals(2, record.nextSibling(1));
+    }
+
+    @Test
+    public void testDateAfterPlace() throws IOException {
+        GedcomRecordReader reader = reader();
+        Individual individual = Gedcom_Service.parseIndividual(reader.next());
+        Assert.assertEquals("04/22/1985", individual.getBirth());
+        Assert.assertEquals("01/1/2020", individual.getDeath());
+        Family family = Gedcom_Service.parseFamily(reader.next());
+        Assert.assertEquals("06/10/2005", family.getMarriage());
+        Assert.assertEquals("@I2@", family.getHusb());
+        reader.close();
+    }
+
+    @Test
+    public void testDeepLinesKeptLazily() throws IOException {
+        GedcomRecordReader reader = reader();
+        List<GedcomAttribute> attributes = Gedcom_Service.parseIndividual(reader.next()).getAttributes();
+        reader.next();
+        reader.close();
+        Assert.assertEquals(4, attributes.size());
+        Assert.assertEquals("BIRT.PLAC", attributes.get(0).getPath());
+        Assert.assertEquals("New York City", attributes.get(0).getValue());
+        Assert.assertEquals("BIRT.PLAC.MAP.LATI", attributes.get(2).getPath());
+        Assert.assertEquals("N40.7", attributes.get(2).getValue());
+        Assert.assertEquals("DEAT.SOUR", attributes.get(3).getPath());
+    }
+}
@@ -0,0 +1,76 @@
+package edu.stevens.ssw555;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestGedcomRecordReader {
+
+    private static final String GEDCOM = "0 HEAD\n"
+            + "1 CHAR UTF-8\n"
+            + "0 @I1@ INDI\n"
+            + "1 NAME Emily /Williams/\n"
+            + "1 BIRT\n"
+            + "2 PLAC New York City\n"
+            + "2 DATE 22 APR 1985\n"
+            + "0 @F1@ FAM\n"
+            + "1 HUSB @I2@\n"
+            + "0 NOTE some text\n"
+            + "0 TRLR\n";
+
+    @Test
+    public void testRecordsInOrder() throws IOException {
+        GedcomRecordReader reader = new GedcomRecordReader(new ByteArrayInputStream(GEDCOM.getBytes()));
+        Assert.assertEquals("HEAD", reader.next().getTag());
+        GedcomRecord individual = reader.next();
+        Assert.assertEquals("INDI", individual.getTag());
+        Assert.assertEquals("@I1@", individual.getXref());
+        Assert.assertEquals(5, individual.size());
+        Assert.assertEquals("FAM", reader.next().getTag());
+        GedcomRecord note = reader.next();
+        Assert.assertEquals("NOTE", note.getTag());
+        Assert.assertEquals("some text", note.getValue());
+        Assert.assertEquals("TRLR", reader.next().getTag());
+        Assert.assertNull(reader.next());
+        reader.close();
+    }
+
+    @Test
+    public void testSubstructureLines() throws IOException {
+        GedcomRecordReader reader = new GedcomRecordReader(new ByteArrayInputStream(GEDCOM.getBytes()));
+        reader.next();
+        GedcomRecord individual = reader.next();
+        Assert.assertEquals(1, individual.getLevel(1));
+        Assert.assertEquals("NAME", individual.getTag(1));
+        Assert.assertEquals("Emily /Williams/", individual.getValue(1));
+        Assert.assertEquals("", individual.getValue(2));
+        Assert.assertEquals(2, individual.getLevel(3));
+        Assert.assertEquals("New York City", individual.getValue(3));
+        Assert.assertNull(individual.getXref(1));
+        reader.close();
+    }
+
+    @Test
+    public void testEmptyInput() throws IOException {
+        GedcomRecordReader reader = new GedcomRecordReader(new ByteArrayInputStream(new byte[0]));
+        Assert.assertNull(reader.next());
+        reader.close();
+    }
+
+    @Test
+    public void testSmallBufferWithCrLf() throws IOException {
+        byte[] input = GEDCOM.replace("\n", "\r\n").getBytes();
+        GedcomRecordReader reader = new GedcomRecordReader(new ByteArrayInputStream(input), 8);
+        Assert.assertEquals("HEAD", reader.next().getTag());
+        GedcomRecord individual = reader.next();
+        Assert.assertEquals(5, individual.size());
+        Assert.assertEquals("22 APR 1985", individual.getValue(4));
+        Assert.assertEquals("FAM", reader.next().getTag());
+        Assert.assertEquals("NOTE", reader.next().getTag());
+        Assert.assertEquals("TRLR", reader.next().getTag());
+        Assert.assertNull(reader.next());
+        reader.close();
+    }
+}
@@ -0,0 +1,114 @@
+package edu.stevens.ssw555;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashSet;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestGedcomRecords {
+
+    private static final String GEDCOM = "0 HEAD\n"
+            + "0 @I1@ INDI\n"
+            + "1 NAME Tom /Lee/\n"
+            + "1 SEX M\n"
+            + "1 BIRT\n"
+            + "2 DATE 3 MAR 1950\n"
+            + "1 FAMS @F1@\n"
+            + "0 @I2@ INDI\n"
+            + "1 NAME Sue /Lee/\n"
+            + "1 SEX F\n"
+            + "1 DEAT Y\n"
+            + "2 DATE ABT 1990\n"
+            + "1 FAMS @F1@\n"
+            + "0 @I3@ INDI\n"
+            + "1 NAME Bob /Lee/\n"
+            + "1 FAMC @F1@\n"
+            + "0 @F1@ FAM\n"
+            + "1 HUSB @I1@\n"
+            + "1 WIFE @I2@\n"
+            + "1 MARR\n"
+            + "2 DATE 1975\n"
+            + "1 CHIL @I3@\n"
+            + "1 CHIL @I9@\n"
+            + "0 @F2@ FAM\n"
+            + "1 WIFE @I8@\n"
+            + "0 TRLR\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private GedcomDocument parse() throws Exception {
+        File file = folder.newFile("records.ged");
+        Files.write(file.toPath(), GEDCOM.getBytes());
+        return GedcomDocument.parse(file.getPath());
+    }
+
+    @Test
+    public void testIndividualRecords() throws Exception {
+        GedcomDocument document = parse();
+
+        Assert.assertEquals(3, document.getIndividuals().size());
+        GedcomIndividual tom = document.individual(0);
+        Assert.assertEquals("@I1@", tom.getXref());
+        Assert.assertEquals("I1", tom.getLabel());
+        Assert.assertEquals("Tom /Lee/", tom.getName());
+        Assert.assertTrue(tom.isMale());
+        Assert.assertEquals("3 MAR 1950", GedcomDate.format(tom.getBirth()));
+        Assert.assertEquals(GedcomDate.MISSING, tom.getDeath());
+        Assert.assertTrue(tom.isListedAsSpouse());
+        Assert.assertEquals(1, tom.spouseFamilyCount());
+        Assert.assertEquals(0, tom.spouseFamily(0));
+
+        GedcomIndividual sue = document.individual(1);
+        Assert.assertTrue(sue.isDeceased());
+        Assert.assertFalse(GedcomDate.isExact(sue.getDeath()));
+
+        GedcomIndividual bob = document.individual(2);
+        Assert.assertFalse(bob.isListedAsSpouse());
+        Assert.assertEquals(1, bob.childFamilyCount());
+        Assert.assertSame(bob, document.getIndividuals().get(2));
+    }
+
+    @Test
+    public void testFamilyRecordsKeepTheLegacyPlaceholders() throws Exception {
+        GedcomDocument document = parse();
+
+        GedcomFamily family = document.family(0);
+        Assert.assertEquals("F1", family.getLabel());
+        Assert.assertEquals(0, family.getHusband());
+        Assert.assertEquals(1, family.getWife());
+        Assert.assertEquals("Sue /Lee/", family.getWifeName());
+        Assert.assertEquals("1975", GedcomDate.format(family.getMarriage()));
+        Assert.assertEquals(2, family.getChildLineCount());
+        Assert.assertEquals(1, family.childCount());
+        Assert.assertEquals(2, family.child(0));
+
+        GedcomFamily widow = document.family(1);
+        Assert.assertEquals(-1, widow.getHusband());
+        Assert.assertEquals(-1, widow.getWife());
+        Assert.assertEquals(document.getFamilyAttributeMaps().get("@F2@").get("wifeName"), widow.getWifeName());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testRecordListsAreReadOnly() throws Exception {
+        parse().getFamilies().clear();
+    }
+
+    @Test
+    public void testRecordValidatorsMatchTheAttributeMaps() throws Exception {
+        GedcomDocument document = GedcomDocument.parse("gedcom_test_family.ged");
+
+        Assert.assertEquals(new HashSet<>(new DeathValidations().listDeceasedFamilyMembers(document.getIndividualAttributeMaps())),
+                new HashSet<>(new DeathValidations().listDeceasedIndividuals(document)));
+        Assert.assertEquals(new HashSet<>(new MarriageValidations().getLivingAndMarried(document.getIndividualAttributeMaps())),
+                new HashSet<>(new MarriageValidations().getLivingAndMarried(document)));
+        Assert.assertEquals(new FamilyValidations().validateNoMoreThanFiveSameBirthDaysinFamily(document.getFamilyAttributeMaps(),
+                document.getIndividualAttributeMaps()), new FamilyValidations().validateNoMoreThanFiveSameBirthDaysinFamily(document));
+        Assert.assertEquals(new HashSet<>(new FamilyValidations().fewerThanFifteenChildren(document.getFamilyAttributeMaps())),
+                new HashSet<>(new FamilyValidations().fewerThanFifteenChildren(document)));
+    }
+}
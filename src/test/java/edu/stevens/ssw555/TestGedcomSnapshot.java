@@ -0,0 +1,72 @@
+package edu.stevens.ssw555;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestGedcomSnapshot {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path copySample() throws Exception {
+        Path input = new File(folder.getRoot(), "family.ged").toPath();
+        Files.copy(Paths.get("gedcom_test_family.ged"), input);
+        return input;
+    }
+
+    @Test
+    public void testSnapshotRoundTrip() throws Exception {
+        Path input = copySample();
+        GedcomDocument parsed = GedcomSnapshot.parse(input.toString());
+        Path snapshot = GedcomSnapshot.snapshotPath(input);
+        Assert.assertTrue(Files.isRegularFile(snapshot));
+
+        GedcomDocument loaded = GedcomSnapshot.read(snapshot, GedcomSnapshot.Key.of(input));
+        Assert.assertNotNull(loaded);
+        Assert.assertEquals(parsed.getIndividualData(), loaded.getIndividualData());
+        Assert.assertEquals(parsed.getFamilyData(), loaded.getFamilyData());
+        Assert.assertEquals(parsed.getIndividualAttributeMaps(), loaded.getIndividualAttributeMaps());
+        Assert.assertEquals(parsed.getFamilyAttributeMaps(), loaded.getFamilyAttributeMaps());
+        Assert.assertEquals(parsed.getAttributes().keySet(), loaded.getAttributes().keySet());
+        Assert.assertEquals(parsed.getAttributes("@I1@").toString(), loaded.getAttributes("@I1@").toString());
+    }
+
+    @Test
+    public void testKeyDependsOnlyOnTheFile() throws Exception {
+        Path input = copySample();
+        CRC32 crc = new CRC32();
+        crc.update(Files.readAllBytes(input));
+        Assert.assertEquals(new GedcomSnapshot.Key(Files.size(input), Files.getLastModifiedTime(input).toMillis(), crc.getValue()),
+                GedcomSnapshot.Key.of(input));
+    }
+
+    @Test
+    public void testStaleSnapshotIgnored() throws Exception {
+        Path input = copySample();
+        GedcomSnapshot.parse(input.toString());
+        Files.write(input, "0 NOTE appended\n".getBytes(), StandardOpenOption.APPEND);
+        Assert.assertNull(GedcomSnapshot.read(GedcomSnapshot.snapshotPath(input), GedcomSnapshot.Key.of(input)));
+        Assert.assertEquals(11, GedcomSnapshot.parse(input.toString()).getIndividualData().size());
+    }
+
+    @Test
+    public void testCorruptSnapshotFallsBack() throws Exception {
+        Path input = copySample();
+        GedcomSnapshot.parse(input.toString());
+        Path snapshot = GedcomSnapshot.snapshotPath(input);
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length / 2));
+        Assert.assertNull(GedcomSnapshot.read(snapshot, GedcomSnapshot.Key.of(input)));
+        Assert.assertEquals(4, GedcomSnapshot.parse(input.toString()).getFamilyData().size());
+    }
+}
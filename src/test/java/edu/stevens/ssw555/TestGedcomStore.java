@@ -0,0 +1,98 @@
+package edu.stevens.ssw555;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestGedcomStore {
+
+    private static final String GEDCOM = "0 HEAD\n"
+            + "0 @I1@ INDI\n"
+            + "1 NAME Tom /Lee/\n"
+            + "1 SEX M\n"
+            + "1 FAMS @F1@\n"
+            + "0 @I2@ INDI\n"
+            + "1 NAME Sue /Lee/\n"
+            + "1 SEX F\n"
+            + "1 DEAT Y\n"
+            + "1 FAMS @F1@\n"
+            + "0 @I3@ INDI\n"
+            + "1 NAME Bob /Lee/\n"
+            + "1 SEX unknown\n"
+            + "1 FAMC @F1@\n"
+            + "0 @I4@ INDI\n"
+            + "1 NAME Tom /Lee/\n"
+            + "1 FAMC @F1@\n"
+            + "0 @F1@ FAM\n"
+            + "1 HUSB @I1@\n"
+            + "1 WIFE @I2@\n"
+            + "1 CHIL @I3@\n"
+            + "1 CHIL @I4@\n"
+            + "1 CHIL @I9@\n"
+            + "0 @F2@ FAM\n"
+            + "1 WIFE @I8@\n"
+            + "0 TRLR\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private GedcomStore parse() throws Exception {
+        File file = folder.newFile("store.ged");
+        Files.write(file.toPath(), GEDCOM.getBytes());
+        return GedcomDocument.parse(file.getPath()).getStore();
+    }
+
+    @Test
+    public void testIndividualColumns() throws Exception {
+        GedcomStore store = parse();
+
+        Assert.assertEquals(4, store.individualCount());
+        Assert.assertEquals("Sue /Lee/", store.name(1));
+        //Repeated names share their dictionary entries, and names rebuilt from them are not kept
+        Assert.assertEquals(store.givenNameRef(0), store.givenNameRef(3));
+        Assert.assertEquals(3, store.getGivenNames().size());
+        Assert.assertEquals(1, store.getSurnames().size());
+        Assert.assertNull(store.otherName(0));
+        Assert.assertEquals("M", store.sex(0));
+        Assert.assertTrue(store.isSex(1, 'F'));
+        Assert.assertEquals("unknown", store.sex(2));
+        Assert.assertEquals("", store.sex(3));
+        Assert.assertFalse(store.isDeceased(0));
+        Assert.assertTrue(store.isDeceased(1));
+        Assert.assertEquals("@F1@", store.spouseFamily(0));
+        Assert.assertNull(store.childFamily(0));
+        Assert.assertEquals("@F1@", store.childFamily(2));
+    }
+
+    @Test
+    public void testFamilyColumnsKeepUnresolvedReferences() throws Exception {
+        GedcomStore store = parse();
+
+        Assert.assertEquals(2, store.familyCount());
+        Assert.assertEquals("@I1@", store.husband(0));
+        Assert.assertEquals(3, store.childCount(0));
+        Assert.assertEquals("@I9@", store.child(0, 2));
+        Assert.assertEquals(0, store.childCount(1));
+        Assert.assertNull(store.husband(1));
+        Assert.assertEquals("@I8@", store.wife(1));
+        Assert.assertEquals(-1, store.getLinks().wife(1));
+    }
+
+    @Test
+    public void testLegacyViewsAreBuiltFromTheColumns() throws Exception {
+        File file = folder.newFile("store.ged");
+        Files.write(file.toPath(), GEDCOM.getBytes());
+        GedcomDocument document = GedcomDocument.parse(file.getPath());
+
+        Assert.assertEquals("Bob /Lee/ unknown   true NA {'F1'} NA", document.getIndividualData().get(2));
+        Assert.assertEquals("false", document.getIndividualAttributeMaps().get("I2").get("alive"));
+        Assert.assertEquals(" NA I1 Tom /Lee/ I2 Sue /Lee/ {'I3',I4','I9'}", document.getFamilyData().get(0));
+        Assert.assertEquals(" NA NA Unknown // I8 Unknown // ", document.getFamilyData().get(1));
+        Assert.assertEquals("[I3, I4, I9]", document.getFamilyAttributeMaps().get("@F1@").get("children").toString());
+        Assert.assertArrayEquals(new String[]{"M", "F", "unknown", ""}, document.individualColumn("gender"));
+    }
+}
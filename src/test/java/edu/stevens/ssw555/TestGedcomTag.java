@@ -0,0 +1,74 @@
+package edu.stevens.ssw555;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestGedcomTag {
+
+    private static final String GEDCOM = "0 @I1@ INDI\n"
+            + "1 NAME Emily /Williams/\n"
+            + "2 GIVN Emily\n"
+            + "2 _MARNM Smith\n"
+            + "1 SEX F\n"
+            + "1 BIRT\n"
+            + "2 DATE 22 APR 1985\n"
+            + "2 PLAC New York City\n"
+            + "1 OCCU Engineer\n"
+            + "1 FAMS @F1@\n"
+            + "0 @F1@ FAM\n"
+            + "1 HUSB @I2@\n"
+            + "1 WIFE @I1@\n"
+            + "1 _CURRENT Y\n";
+
+    @Test
+    public void testLookupStandardTags() {
+        for (GedcomTag tag : GedcomTag.values()) {
+            if (tag != GedcomTag.CUSTOM && tag != GedcomTag.UNKNOWN) {
+                Assert.assertEquals(tag, GedcomTag.of(tag.name()));
+            }
+        }
+    }
+
+    @Test
+    public void testLookupCustomAndUnknownTags() {
+        Assert.assertEquals(GedcomTag.CUSTOM, GedcomTag.of("_MARNM"));
+        Assert.assertTrue(GedcomTag.of("_CURRENT").isCustom());
+        Assert.assertEquals(GedcomTag.UNKNOWN, GedcomTag.of("XYZ"));
+        Assert.assertEquals(GedcomTag.UNKNOWN, GedcomTag.of("BIRTH"));
+        Assert.assertFalse(GedcomTag.of("NAME").isCustom());
+    }
+
+    @Test
+    public void testRecordTagIds() throws IOException {
+        GedcomRecordReader reader = new GedcomRecordReader(new ByteArrayInputStream(GEDCOM.getBytes()));
+        GedcomRecord individual = reader.next();
+        Assert.assertEquals(GedcomTag.INDI, individual.getTagId(0));
+        Assert.assertEquals(GedcomTag.CUSTOM, individual.getTagId(3));
+        Assert.assertEquals("NAME._MARNM", individual.getPath(3));
+        Assert.assertEquals("BIRT.PLAC", individual.getPath(7));
+        reader.close();
+    }
+
+    @Test
+    public void testUnhandledTagsArePassedThrough() throws IOException {
+        GedcomRecordReader reader = new GedcomRecordReader(new ByteArrayInputStream(GEDCOM.getBytes()));
+        Individual individual = Gedcom_Service.parseIndividual(reader.next());
+        Assert.assertEquals("04/22/1985", individual.getBirth());
+        List<GedcomAttribute> attributes = individual.getAttributes();
+        Assert.assertEquals(4, attributes.size());
+        Assert.assertEquals("NAME.GIVN", attributes.get(0).getPath());
+        Assert.assertEquals("NAME._MARNM", attributes.get(1).getPath());
+        Assert.assertTrue(attributes.get(1).isCustom());
+        Assert.assertEquals("New York City", attributes.get(2).getValue());
+        Assert.assertEquals("OCCU", attributes.get(3).getPath());
+
+        Family family = Gedcom_Service.parseFamily(reader.next());
+        Assert.assertEquals(1, family.getAttributes().size());
+        Assert.assertEquals("_CURRENT", family.getAttributes().get(0).getPath());
+        reader.close();
+    }
+}
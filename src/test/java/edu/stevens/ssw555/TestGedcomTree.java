@@ -0,0 +1,138 @@
+package edu.stevens.ssw555;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestGedcomTree {
+
+    private static Individual individual(String id, String name) {
+        Individual individual = new Individual(id);
+        individual.setName(name);
+        return individual;
+    }
+
+    @Test
+    public void testEditLeavesEarlierVersionUnchanged() {
+        GedcomTree before = GedcomTree.empty().add(individual("@I1@", "John Smith")).add(individual("@I2@", "Jane Doe"));
+        Individual edited = new Individual(before.getIndividuals().get("@I1@"));
+        edited.setName("Johnny Smith");
+        GedcomTree after = before.withIndividual(edited).withoutIndividual("@I2@");
+
+        Assert.assertEquals("John Smith", before.getIndividuals().get("@I1@").getName());
+        Assert.assertEquals(2, before.getIndividuals().size());
+        Assert.assertEquals("Johnny Smith", after.getIndividuals().get("@I1@").getName());
+        Assert.assertFalse(after.getIndividuals().containsKey("@I2@"));
+        Assert.assertEquals(before.getVersion() + 2, after.getVersion());
+        Assert.assertSame(before.getFamilies(), after.getFamilies());
+    }
+
+    @Test
+    public void testDuplicatesKeepTheFirstRecord() {
+        GedcomTree tree = GedcomTree.empty().add(individual("@I1@", "First")).add(individual("@I1@", "Second"))
+                .add(individual("@I1@", "Third")).add(new Family("@F1@")).add(new Family("@F1@"));
+
+        Assert.assertEquals("First", tree.getIndividuals().get("@I1@").getName());
+        Assert.assertEquals(2, tree.getDuplicateIndividuals().size());
+        Assert.assertEquals("Second", tree.getDuplicateIndividuals().get(0).getName());
+        Assert.assertEquals("Third", tree.getDuplicateIndividuals().get(1).getName());
+        Assert.assertEquals(1, tree.getDuplicateFamilies().size());
+    }
+
+    @Test
+    public void testTrieMatchesHashMap() {
+        //"Aa" and "BB" have the same hash code, so every pair like them shares a collision node
+        String[] colliding = {"Aa", "BB", "AaAa", "AaBB", "BBAa", "BBBB"};
+        Map<String, Integer> expected = new HashMap<>();
+        GedcomTrie<Integer> trie = GedcomTrie.empty();
+        for (int i = 0; i < 5000; i++) {
+            String key = "@I" + i + "@";
+            expected.put(key, i);
+            trie = trie.with(key, i);
+        }
+        for (int i = 0; i < colliding.length; i++) {
+            expected.put(colliding[i], -i);
+            trie = trie.with(colliding[i], -i);
+        }
+        GedcomTrie<Integer> full = trie;
+        for (int i = 0; i < 5000; i += 3) {
+            expected.remove("@I" + i + "@");
+            trie = trie.without("@I" + i + "@");
+        }
+        expected.remove("BB");
+        trie = trie.without("BB");
+
+        Assert.assertEquals(expected, trie);
+        Assert.assertEquals(expected.size(), trie.size());
+        Assert.assertEquals(5000 + colliding.length, full.size());
+        Assert.assertEquals(Integer.valueOf(0), full.get("@I0@"));
+        Assert.assertEquals(Integer.valueOf(-1), full.get("BB"));
+        Assert.assertSame(trie, trie.without("@I0@"));
+        Assert.assertSame(trie, trie.with("Aa", 0));
+    }
+
+    @Test
+    public void testParallelParseMatchesSequential() throws Exception {
+        GedcomTree before = Gedcom_Service.getTree();
+        try {
+            Gedcom_Service.update(tree -> GedcomTree.empty());
+            Gedcom_Service.readAndParseFile("gedcom_test_family.ged");
+            GedcomTree sequential = Gedcom_Service.getTree();
+            Gedcom_Service.update(tree -> GedcomTree.empty());
+            Gedcom_Service.readAndParseFile(Paths.get("gedcom_test_family.ged"), new ParallelGedcomParser(ForkJoinPool.commonPool(), 4));
+            GedcomTree parallel = Gedcom_Service.getTree();
+
+            Assert.assertEquals(11, parallel.getIndividuals().size());
+            Assert.assertEquals(sequential.getIndividuals().keySet(), parallel.getIndividuals().keySet());
+            for (Individual individual : sequential.getIndividuals().values()) {
+                Assert.assertEquals(individual.toString(), parallel.getIndividuals().get(individual.getId()).toString());
+            }
+            Assert.assertEquals(sequential.getFamilies().keySet(), parallel.getFamilies().keySet());
+        } finally {
+            Gedcom_Service.update(tree -> before);
+        }
+    }
+
+    @Test
+    public void testConcurrentUpdatesAreAllPublished() throws Exception {
+        GedcomTree start = Gedcom_Service.getTree();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            writers.add(pool.submit(() -> {
+                for (int i = 0; i < 250; i++) {
+                    Individual added = individual("@T" + thread + "_" + i + "@", "Name " + i);
+                    Gedcom_Service.update(tree -> tree.withIndividual(added));
+                }
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+
+        GedcomTree end = Gedcom_Service.getTree();
+        Assert.assertEquals(start.getIndividuals().size() + 1000, end.getIndividuals().size());
+        Assert.assertEquals(start.getVersion() + 1000, end.getVersion());
+        Gedcom_Service.update(tree -> {
+            for (int t = 0; t < 4; t++) {
+                for (int i = 0; i < 250; i++) {
+                    tree = tree.withoutIndividual("@T" + t + "_" + i + "@");
+                }
+            }
+            return tree;
+        });
+    }
+}
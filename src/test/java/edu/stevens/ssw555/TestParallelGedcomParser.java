@@ -0,0 +1,108 @@
+package edu.stevens.ssw555;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestParallelGedcomParser {
+
+    private static final Path GEDCOM_FILE = Paths.get("gedcom_test_family.ged");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSplitPointsAreRecordStarts() throws IOException {
+        byte[] bytes = Files.readAllBytes(GEDCOM_FILE);
+        long[] bounds = ParallelGedcomParser.splitPoints(GEDCOM_FILE, 4);
+        Assert.assertEquals(5, bounds.length);
+        Assert.assertEquals(0, bounds[0]);
+        Assert.assertEquals(bytes.length, bounds[bounds.length - 1]);
+        for (int i = 1; i < bounds.length - 1; i++) {
+            Assert.assertTrue(bounds[i] > bounds[i - 1]);
+            Assert.assertEquals('\n', bytes[(int) bounds[i] - 1]);
+            Assert.assertEquals('0', bytes[(int) bounds[i]]);
+        }
+    }
+
+    @Test
+    public void testChunksCoverEveryRecordInOrder() throws Exception {
+        ParallelGedcomParser parser = new ParallelGedcomParser(ForkJoinPool.commonPool(), 5);
+        List<List<String>> chunks = parser.parse(GEDCOM_FILE, reader -> {
+            List<String> tags = new ArrayList<>();
+            GedcomRecord record;
+            while ((record = reader.next()) != null) {
+                tags.add(record.getXref() + " " + record.getTag());
+            }
+            return tags;
+        });
+        List<String> parallel = new ArrayList<>();
+        for (List<String> chunk : chunks) {
+            parallel.addAll(chunk);
+        }
+        List<String> sequential = new ArrayList<>();
+        GedcomRecordReader reader = new GedcomRecordReader(GEDCOM_FILE.toString());
+        GedcomRecord record;
+        while ((record = reader.next()) != null) {
+            sequential.add(record.getXref() + " " + record.getTag());
+        }
+        reader.close();
+        Assert.assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void testParallelDocumentMatchesSequential() throws Exception {
+        GedcomDocument sequential = GedcomDocument.parse(GEDCOM_FILE.toString());
+        GedcomDocument parallel = new GedcomService().parse(GEDCOM_FILE, new ParallelGedcomParser(ForkJoinPool.commonPool(), 6));
+        Assert.assertEquals(sequential.getIndividualData(), parallel.getIndividualData());
+        Assert.assertEquals(sequential.getFamilyData(), parallel.getFamilyData());
+        Assert.assertEquals(sequential.getIndividualAttributeMaps(), parallel.getIndividualAttributeMaps());
+    }
+
+    @Test
+    public void testDuplicateIndividualInLaterChunk() throws Exception {
+        StringBuilder text = new StringBuilder("0 HEAD\n");
+        text.append("0 @I1@ INDI\n1 NAME John /Smith/\n1 SEX M\n1 BIRT\n2 DATE 1 JAN 1950\n1 DEAT\n2 DATE 2 FEB 2000\n1 FAMS @F1@\n");
+        for (int i = 2; i < 40; i++) {
+            text.append("0 @I").append(i).append("@ INDI\n1 NAME Child").append(i).append(" /Smith/\n1 SEX F\n")
+                    .append("1 BIRT\n2 DATE 3 MAR 1980\n1 FAMC @F1@\n");
+        }
+        //The second I1 has no BIRT or DEAT, so it keeps the dates of the first
+        text.append("0 @I1@ INDI\n1 NAME Johnny /Smith/\n1 SEX M\n1 FAMS @F1@\n");
+        text.append("0 @F1@ FAM\n1 HUSB @I1@\n1 MARR\n2 DATE 4 APR 1975\n");
+        for (int i = 2; i < 40; i++) {
+            text.append("1 CHIL @I").append(i).append("@\n");
+        }
+        text.append("0 TRLR\n");
+        Path file = folder.newFile("duplicate.ged").toPath();
+        Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+
+        GedcomDocument sequential = GedcomDocument.parse(file.toString());
+        GedcomDocument parallel = new GedcomService().parse(file, new ParallelGedcomParser(ForkJoinPool.commonPool(), 4));
+        int john = sequential.getIndividualIds().id("@I1@");
+        Assert.assertEquals(GedcomDate.parse("1 JAN 1950"), sequential.getDates().birth(john));
+        for (int i = 0; i < sequential.getDates().individualCount(); i++) {
+            Assert.assertEquals(sequential.getDates().birth(i), parallel.getDates().birth(i));
+            Assert.assertEquals(sequential.getDates().death(i), parallel.getDates().death(i));
+        }
+        Assert.assertEquals(sequential.getDates().individualCount(), parallel.getDates().individualCount());
+        Assert.assertEquals(sequential.getIndividualData(), parallel.getIndividualData());
+        Assert.assertEquals(GedcomBatch.findings(sequential), GedcomBatch.findings(parallel));
+    }
+
+    @Test
+    public void testSingleChunk() throws IOException {
+        long[] bounds = ParallelGedcomParser.splitPoints(GEDCOM_FILE, 1);
+        Assert.assertEquals(2, bounds.length);
+    }
+}
@@ -1,6 +1,11 @@
 package edu.stevens.ssw555;
 
+import java.io.BufferedWriter;
+import java.io.StringWriter;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.SortedMap;
@@ -83,5 +88,23 @@ public class TestUS02 {
 
     }
 
+    @Test
+    public void testEntryAndPrintedDates() throws Exception {
+        Map<String, Map<String, Object>> mapFamily = new TreeMap<>();
+        Map<String, Map<String, String>> mapIndividual = new TreeMap<>();
+        US02 userStory = new US02();
+        GedcomService gedcomService = new GedcomService();
+        mapIndividual.put("I1", gedcomService.makeIndividualAttributeMap("Helen Smith", "F", "28 APR 1998", "", "", "", "", ""));
+        mapFamily.put("F1", gedcomService.makeFamilyAttributeMap("22 APR 1994", "NA", "I2", "Joe Smith", "I1", "Helen Smith", "3"));
+        Assert.assertEquals(Collections.singletonList("I1 28 APR 1998 22 APR 1994"), userStory.checkBirthBeforeMarr(mapIndividual, mapFamily));
+
+        StringWriter written = new StringWriter();
+        try (BufferedWriter outFile = new BufferedWriter(written)) {
+            userStory.printResult(new ArrayList<>(Arrays.asList("I1 28 APR 1998 22 APR 1994", "I2 ABT 1998 MAR 1994")), outFile);
+        }
+        Assert.assertEquals("ERROR US02 Individual I1 was married on 22 APR 1994 and born on 28 APR 1998 which is after marriage\n"
+                + "ERROR US02 Individual I2 was married on MAR 1994 and born on ABT 1998 which is after marriage\n", written.toString());
+    }
+
 
 }